@@ -2,6 +2,8 @@ package com.vivo.crm.customer;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.kafka.annotation.EnableKafka;
 
@@ -9,7 +11,11 @@ import org.springframework.kafka.annotation.EnableKafka;
  * CRM Customer Service Application
  * Microservice for customer management with Duality Views
  */
-@SpringBootApplication
+@SpringBootApplication(exclude = {
+        // The optional R2DBC pool is configured by R2dbcConfig
+        R2dbcAutoConfiguration.class,
+        R2dbcTransactionManagerAutoConfiguration.class
+})
 @EnableJpaAuditing
 @EnableKafka
 public class CustomerServiceApplication {
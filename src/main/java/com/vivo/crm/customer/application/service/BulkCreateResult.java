@@ -0,0 +1,17 @@
+package com.vivo.crm.customer.application.service;
+
+import com.vivo.crm.customer.domain.model.Customer;
+
+/**
+ * Outcome of one customer of a bulk creation
+ *
+ * @param index position of the customer in the request
+ * @param customer the customer, with its assigned id
+ * @param error why it was not created; null if it was
+ */
+public record BulkCreateResult(long index, Customer customer, String error) {
+
+    public boolean created() {
+        return error == null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.vivo.crm.customer.application.service;
+
+/**
+ * Progress of a bulk status transition, after one more chunk was committed
+ *
+ * @param chunk        position of the chunk, from 0
+ * @param selected     customers in the chunk
+ * @param updated      customers of the chunk that changed (the others already had the status)
+ * @param processed    customers in all chunks so far
+ * @param totalUpdated customers changed in all chunks so far
+ */
+public record BulkTransitionProgress(long chunk, int selected, int updated, long processed, long totalUpdated) {
+
+    /**
+     * Progress after the next chunk, whose totals cover only itself
+     */
+    public BulkTransitionProgress followedBy(BulkTransitionProgress next) {
+        return new BulkTransitionProgress(next.chunk, next.selected, next.updated,
+                processed + next.processed, totalUpdated + next.totalUpdated);
+    }
+}
@@ -0,0 +1,209 @@
+package com.vivo.crm.customer.application.service;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.infrastructure.config.PaginationProperties;
+import com.vivo.crm.customer.infrastructure.persistence.CustomerQueryCompiler;
+import com.vivo.crm.customer.infrastructure.persistence.EntityProjector;
+import com.vivo.crm.customer.infrastructure.persistence.FilterCondition;
+import com.vivo.crm.customer.infrastructure.persistence.OffsetPageRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * TMF629 - Customer listing (offset/limit)
+ * Pushes TMF offset/limit down to the database.
+ *
+ * Small offsets run as a plain OFFSET/LIMIT query. Every page served records a keyset
+ * anchor (offset of the next row -> last (createdAt, customerId) seen), so deep offsets
+ * seek from the nearest anchor instead of making the database walk and discard rows.
+ * When only some attributes are needed (TMF fields=), only those columns are selected.
+ * TMF630 filtered/sorted listings are delegated to {@link CustomerQueryCompiler}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class CustomerListingService {
+
+    private final CustomerRepository customerRepository;
+    private final PaginationProperties properties;
+    private final EntityProjector entityProjector;
+    private final CustomerQueryCompiler customerQueryCompiler;
+
+    private static final Sort KEYSET_ORDER = Sort.by("createdAt", "customerId");
+
+    private static final int MAX_CACHED_FILTER_COUNTS = 1000;
+
+    private final ConcurrentSkipListMap<Long, KeysetAnchor> anchors = new ConcurrentSkipListMap<>();
+    private volatile CachedCount cachedCount;
+    private final Map<List<FilterCondition>, CachedCount> filteredCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Get one page of customers in (createdAt, customerId) order
+     */
+    public List<Customer> findPage(long offset, int limit) {
+        return findPage(offset, limit, null);
+    }
+
+    /**
+     * Get one page of customers in (createdAt, customerId) order, loading only the given
+     * attributes (null loads the full entity). Projected customers are detached and
+     * only have the selected attributes populated.
+     */
+    public List<Customer> findPage(long offset, int limit, Collection<String> attributes) {
+        long start = Math.max(offset, 0);
+        int size = Math.min(Math.max(limit, 1), properties.getMaxLimit());
+
+        Map.Entry<Long, KeysetAnchor> anchor = start > properties.getKeysetThreshold() ? findAnchor(start) : null;
+
+        List<Customer> page;
+        if (anchor != null) {
+            long skip = start - anchor.getKey();
+            log.debug("Keyset page: offset {} seeking from anchor at {} (skip {})", start, anchor.getKey(), skip);
+            page = attributes == null
+                    ? customerRepository.findPageAfter(
+                            anchor.getValue().createdAt(),
+                            anchor.getValue().customerId(),
+                            OffsetPageRequest.of(skip, size))
+                    : findProjected(attributes, after(anchor.getValue()), skip, size);
+        } else {
+            log.debug("Offset page: offset {} limit {}", start, size);
+            page = attributes == null
+                    ? customerRepository.findPage(OffsetPageRequest.of(start, size))
+                    : findProjected(attributes, null, start, size);
+        }
+
+        rememberAnchor(start + page.size(), page);
+        return page;
+    }
+
+    /**
+     * Total number of customers, cached for the configured TTL.
+     * Empty when total counting is disabled.
+     */
+    public OptionalLong totalCount() {
+        PaginationProperties.TotalCount config = properties.getTotalCount();
+        if (!config.isEnabled()) {
+            return OptionalLong.empty();
+        }
+
+        long now = System.nanoTime();
+        CachedCount current = cachedCount;
+        if (current == null || now - current.computedAt() > config.getTtl().toNanos()) {
+            current = new CachedCount(customerRepository.count(), now);
+            cachedCount = current;
+        }
+        return OptionalLong.of(current.value());
+    }
+
+    /**
+     * Get one page of customers matching TMF630 filters, in the requested order
+     * (customerId breaks ties). Only indexed attributes can be filtered or sorted on.
+     *
+     * @throws IllegalArgumentException for attributes that cannot be filtered/sorted on
+     */
+    public List<Customer> findFiltered(List<FilterCondition> conditions, Sort sort,
+                                       long offset, int limit, Collection<String> attributes) {
+        long start = Math.max(offset, 0);
+        int size = Math.min(Math.max(limit, 1), properties.getMaxLimit());
+
+        List<String> selected = attributes == null ? null
+                : entityProjector.resolve(Customer.class, attributes)
+                        .orElseThrow(() -> new IllegalArgumentException("Unsupported projection: " + attributes));
+
+        log.debug("Filtered page: {} sort {} offset {} limit {}", conditions, sort, start, size);
+        return customerQueryCompiler.find(conditions, sort, selected, start, size);
+    }
+
+    /**
+     * Number of customers matching TMF630 filters, cached per filter for the configured TTL.
+     * Empty when total counting is disabled.
+     */
+    public OptionalLong filteredCount(List<FilterCondition> conditions) {
+        PaginationProperties.TotalCount config = properties.getTotalCount();
+        if (!config.isEnabled()) {
+            return OptionalLong.empty();
+        }
+
+        long now = System.nanoTime();
+        CachedCount current = filteredCounts.get(conditions);
+        if (current == null || now - current.computedAt() > config.getTtl().toNanos()) {
+            if (filteredCounts.size() >= MAX_CACHED_FILTER_COUNTS) {
+                filteredCounts.clear();
+            }
+            current = new CachedCount(customerQueryCompiler.count(conditions), now);
+            filteredCounts.put(conditions, current);
+        }
+        return OptionalLong.of(current.value());
+    }
+
+    private List<Customer> findProjected(Collection<String> attributes, Specification<Customer> where,
+                                         long offset, int limit) {
+        // createdAt is needed to record the keyset anchor of the page
+        List<String> columns = new ArrayList<>(attributes);
+        columns.add("createdAt");
+        List<String> selected = entityProjector.resolve(Customer.class, columns)
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported projection: " + attributes));
+
+        return entityProjector.select(Customer.class, selected, where, KEYSET_ORDER, offset, limit).stream()
+                .map(row -> EntityProjector.toEntity(Customer.class, row))
+                .toList();
+    }
+
+    private static Specification<Customer> after(KeysetAnchor anchor) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("createdAt"), anchor.createdAt()),
+                cb.and(
+                        cb.equal(root.get("createdAt"), anchor.createdAt()),
+                        cb.greaterThan(root.get("customerId"), anchor.customerId())));
+    }
+
+    private Map.Entry<Long, KeysetAnchor> findAnchor(long offset) {
+        Map.Entry<Long, KeysetAnchor> entry = anchors.floorEntry(offset);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.getValue().recordedAt() > properties.getAnchorTtl().toNanos()) {
+            anchors.remove(entry.getKey(), entry.getValue());
+            return null;
+        }
+        return entry;
+    }
+
+    private void rememberAnchor(long nextOffset, List<Customer> page) {
+        if (page.isEmpty()) {
+            return;
+        }
+        Customer last = page.get(page.size() - 1);
+        if (last.getCreatedAt() == null) {
+            return;
+        }
+
+        anchors.put(nextOffset, new KeysetAnchor(last.getCreatedAt(), last.getCustomerId(), System.nanoTime()));
+
+        // Shallow offsets are cheap with OFFSET, so they are the first to go
+        while (anchors.size() > properties.getMaxAnchors()) {
+            anchors.pollFirstEntry();
+        }
+    }
+
+    private record KeysetAnchor(LocalDateTime createdAt, String customerId, long recordedAt) {
+    }
+
+    private record CachedCount(long value, long computedAt) {
+    }
+}
@@ -1,36 +1,69 @@
 package com.vivo.crm.customer.application.service;
 
 import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.model.StatusTransition;
 import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.domain.repository.ReactiveCustomerRepository;
+import com.vivo.crm.customer.infrastructure.cache.AlternateKey;
+import com.vivo.crm.customer.infrastructure.cache.CustomerCache;
+import com.vivo.crm.customer.infrastructure.cache.SingleFlight;
+import com.vivo.crm.customer.infrastructure.config.PersistenceProperties;
+import com.vivo.crm.customer.infrastructure.execution.BlockingExecutor;
+import com.vivo.crm.customer.infrastructure.event.CustomerBatchStateChangeEvent;
+import com.vivo.crm.customer.infrastructure.event.CustomerEventPublisher;
+import com.vivo.crm.customer.infrastructure.persistence.CustomerBulkWriter;
+import com.vivo.crm.customer.infrastructure.persistence.CustomerStatusUpdater;
+import com.vivo.crm.customer.infrastructure.persistence.CustomerWriteBehind;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * TMF629 - Customer Service (Reactive)
  * Business logic for customer management using Reactive streams
+ *
+ * Lookups, streams and writes go through {@link ReactiveCustomerRepository} (JPA or R2DBC,
+ * see customer-service.persistence.mode); paged and keyset listings stay on JPA. Status
+ * transitions are one conditional UPDATE at the version the customer was read at.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@Transactional
 public class CustomerServiceReactive {
 
     private final CustomerRepository customerRepository;
+    private final ReactiveCustomerRepository reactiveCustomerRepository;
+    private final CustomerCache customerCache;
+    private final SingleFlight singleFlight;
+    private final BlockingExecutor blockingExecutor;
+    private final CustomerBulkWriter customerBulkWriter;
+    private final CustomerStatusUpdater customerStatusUpdater;
+    private final CustomerEventPublisher customerEventPublisher;
+    private final PersistenceProperties persistenceProperties;
+    private final CustomerWriteBehind customerWriteBehind;
 
     /**
      * Create a new customer (Reactive)
      */
     public Mono<Customer> createCustomer(Customer customer) {
-        return Mono.fromCallable(() -> {
+        return Mono.defer(() -> {
             log.info("Creating customer: {}", customer.getName());
             
             if (customer.getCustomerId() == null) {
@@ -43,247 +76,436 @@ public class CustomerServiceReactive {
                 customer.setStatus("ACTIVE");
             }
             
-            Customer saved = customerRepository.save(customer);
+            return reactiveCustomerRepository.save(customer);
+        }).doOnNext(saved -> {
+            customerCache.evictCreated(saved);
             log.info("Customer created successfully: {}", saved.getCustomerId());
             
             // TODO: Publicar evento CustomerCreatedEvent no Kafka
-            
-            return saved;
-        }).subscribeOn(Schedulers.boundedElastic());
+        });
+    }
+
+    /**
+     * Create customers in bulk (Reactive)
+     * Customers are inserted in chunks, one transaction each, as they arrive; one result
+     * per customer, in request order, is emitted once its chunk is committed
+     */
+    public Flux<BulkCreateResult> createCustomers(Flux<Customer> customers) {
+        return customers
+                .buffer(customerBulkWriter.getChunkSize())
+                .index()
+                .concatMap(chunk -> blockingExecutor.call(BlockingExecutor.BULK,
+                                () -> customerBulkWriter.insert(chunk.getT2()))
+                        .flatMapIterable(errors -> {
+                            long first = chunk.getT1() * customerBulkWriter.getChunkSize();
+                            List<BulkCreateResult> results = new ArrayList<>(errors.size());
+                            for (int i = 0; i < errors.size(); i++) {
+                                results.add(new BulkCreateResult(first + i, chunk.getT2().get(i), errors.get(i)));
+                            }
+                            log.info("Bulk chunk {}: {} of {} customers created", chunk.getT1(),
+                                    results.stream().filter(BulkCreateResult::created).count(), results.size());
+                            return results;
+                        }))
+                .doOnNext(result -> {
+                    if (result.created()) {
+                        customerCache.evictCreated(result.customer());
+                    }
+                });
     }
 
     /**
      * Get customer by ID (Reactive)
+     * Concurrent lookups of the same id share one load; every subscriber gets its own copy
      */
-    @Transactional(readOnly = true)
     public Mono<Customer> getCustomerById(String customerId) {
-        return Mono.fromCallable(() -> {
+        return singleFlight.load("byId", customerId, () -> Mono.defer(() -> {
             log.debug("Getting customer by ID: {}", customerId);
-            return customerRepository.findById(customerId)
-                    .orElseThrow(() -> new RuntimeException("Customer not found: " + customerId));
-        }).subscribeOn(Schedulers.boundedElastic());
+            return customerCache.lookup(customerId)
+                    .switchIfEmpty(Mono.error(() -> new RuntimeException("Customer not found: " + customerId)));
+        }))
+                .map(Customer::copy);
+    }
+
+    /**
+     * Get only the version of a customer (Reactive), to answer conditional requests without
+     * loading it; empty if there is no such customer
+     */
+    public Mono<Long> getCustomerVersion(String customerId) {
+        return customerCache.version(customerId);
     }
 
     /**
      * Get customer by external ID (Reactive)
      */
-    @Transactional(readOnly = true)
     public Mono<Customer> getCustomerByExternalId(String externalId) {
-        return Mono.fromCallable(() -> {
+        return singleFlight.load("byExternalId", externalId, () -> Mono.defer(() -> {
             log.debug("Getting customer by external ID: {}", externalId);
-            return customerRepository.findByExternalId(externalId)
-                    .orElseThrow(() -> new RuntimeException("Customer not found: " + externalId));
-        }).subscribeOn(Schedulers.boundedElastic());
+            return customerCache.lookup(AlternateKey.EXTERNAL_ID, externalId)
+                    .switchIfEmpty(Mono.error(() -> new RuntimeException("Customer not found: " + externalId)));
+        }))
+                .map(Customer::copy);
     }
 
     /**
      * Get customer by email (Reactive)
      */
-    @Transactional(readOnly = true)
     public Mono<Customer> getCustomerByEmail(String email) {
-        return Mono.fromCallable(() -> {
+        return Mono.defer(() -> {
             log.debug("Getting customer by email: {}", email);
-            return customerRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("Customer not found: " + email));
-        }).subscribeOn(Schedulers.boundedElastic());
+            return customerCache.lookup(AlternateKey.EMAIL, email)
+                    .switchIfEmpty(Mono.error(() -> new RuntimeException("Customer not found: " + email)));
+        });
     }
 
     /**
      * Get customer by CPF/CNPJ (Reactive)
      */
-    @Transactional(readOnly = true)
     public Mono<Customer> getCustomerByCpfCnpj(String cpfCnpj) {
-        return Mono.fromCallable(() -> {
+        return singleFlight.load("byCpfCnpj", cpfCnpj, () -> Mono.defer(() -> {
             log.debug("Getting customer by CPF/CNPJ: {}", cpfCnpj);
-            return customerRepository.findByCpfCnpj(cpfCnpj)
-                    .orElseThrow(() -> new RuntimeException("Customer not found: " + cpfCnpj));
-        }).subscribeOn(Schedulers.boundedElastic());
+            return customerCache.lookup(AlternateKey.CPF_CNPJ, cpfCnpj)
+                    .switchIfEmpty(Mono.error(() -> new RuntimeException("Customer not found: " + cpfCnpj)));
+        }))
+                .map(Customer::copy);
     }
 
     /**
      * Get customer by party role ID (Reactive)
      */
-    @Transactional(readOnly = true)
     public Mono<Customer> getCustomerByPartyRoleId(String partyRoleId) {
-        return Mono.fromCallable(() -> {
+        return Mono.defer(() -> {
             log.debug("Getting customer by party role ID: {}", partyRoleId);
-            return customerRepository.findByPartyRoleId(partyRoleId)
-                    .orElseThrow(() -> new RuntimeException("Customer not found: " + partyRoleId));
-        }).subscribeOn(Schedulers.boundedElastic());
+            return customerCache.lookup(AlternateKey.PARTY_ROLE_ID, partyRoleId)
+                    .switchIfEmpty(Mono.error(() -> new RuntimeException("Customer not found: " + partyRoleId)));
+        });
     }
 
     /**
      * Get all customers with pagination (Reactive)
      */
-    @Transactional(readOnly = true)
     public Mono<Page<Customer>> getAllCustomers(Pageable pageable) {
-        return Mono.fromCallable(() -> {
+        return blockingExecutor.call(BlockingExecutor.LIST, () -> {
             log.debug("Getting all customers with pagination");
             return customerRepository.findAll(pageable);
-        }).subscribeOn(Schedulers.boundedElastic());
+        });
     }
 
     /**
      * Search customers by name (Reactive)
+     * Streamed from the database with backpressure
      */
-    @Transactional(readOnly = true)
     public Flux<Customer> searchCustomersByName(String name) {
-        return Mono.fromCallable(() -> {
+        return Flux.defer(() -> {
             log.debug("Searching customers by name: {}", name);
-            return customerRepository.searchByName(name, Pageable.unpaged()).getContent();
-        }).flatMapMany(Flux::fromIterable).subscribeOn(Schedulers.boundedElastic());
+            return reactiveCustomerRepository.searchByName(name);
+        });
     }
 
     /**
      * Get customers by status (Reactive)
+     * Streamed from the database with backpressure
      */
-    @Transactional(readOnly = true)
     public Flux<Customer> getCustomersByStatus(String status) {
-        return Mono.fromCallable(() -> {
+        return Flux.defer(() -> {
             log.debug("Getting customers by status: {}", status);
-            return customerRepository.findByStatus(status, Pageable.unpaged()).getContent();
-        }).flatMapMany(Flux::fromIterable).subscribeOn(Schedulers.boundedElastic());
+            return reactiveCustomerRepository.findByStatus(status);
+        });
     }
 
     /**
      * Get customers by segment (Reactive)
+     * Streamed from the database with backpressure
      */
-    @Transactional(readOnly = true)
     public Flux<Customer> getCustomersBySegment(String segment) {
-        return Mono.fromCallable(() -> {
+        return Flux.defer(() -> {
             log.debug("Getting customers by segment: {}", segment);
-            return customerRepository.findBySegment(segment, Pageable.unpaged()).getContent();
-        }).flatMapMany(Flux::fromIterable).subscribeOn(Schedulers.boundedElastic());
+            return reactiveCustomerRepository.findBySegment(segment);
+        });
     }
 
     /**
      * Get customers by risk level (Reactive)
+     * Streamed from the database with backpressure
      */
-    @Transactional(readOnly = true)
     public Flux<Customer> getCustomersByRiskLevel(String riskLevel) {
-        return Mono.fromCallable(() -> {
+        return Flux.defer(() -> {
             log.debug("Getting customers by risk level: {}", riskLevel);
-            return customerRepository.findByRiskLevel(riskLevel, Pageable.unpaged()).getContent();
-        }).flatMapMany(Flux::fromIterable).subscribeOn(Schedulers.boundedElastic());
+            return reactiveCustomerRepository.findByRiskLevel(riskLevel);
+        });
     }
 
     /**
      * Get customers by status and segment (Reactive)
      */
-    @Transactional(readOnly = true)
     public Mono<Page<Customer>> getCustomersByStatusAndSegment(String status, String segment, Pageable pageable) {
-        return Mono.fromCallable(() -> {
+        return blockingExecutor.call(BlockingExecutor.LIST, () -> {
             log.debug("Getting customers by status: {} and segment: {}", status, segment);
             return customerRepository.findByStatusAndSegment(status, segment, pageable);
-        }).subscribeOn(Schedulers.boundedElastic());
+        });
+    }
+
+    /**
+     * Scroll customers by status, segment, risk level or status+segment (Reactive)
+     * Keyset pagination on customerId: every page costs the same and no count query runs.
+     */
+    public Mono<Window<Customer>> scrollCustomers(String status, String segment, String riskLevel,
+                                                  String afterCustomerId, int limit) {
+        return blockingExecutor.call(BlockingExecutor.LIST, () -> {
+            log.debug("Scrolling customers - status: {}, segment: {}, riskLevel: {}, after: {}",
+                    status, segment, riskLevel, afterCustomerId);
+            
+            ScrollPosition position = afterCustomerId == null
+                    ? ScrollPosition.keyset()
+                    : ScrollPosition.forward(Map.of("customerId", afterCustomerId));
+            Limit max = Limit.of(limit);
+            
+            if (status != null && segment != null && riskLevel == null) {
+                return customerRepository.findByStatusAndSegmentOrderByCustomerIdAsc(status, segment, position, max);
+            }
+            if (status != null && segment == null && riskLevel == null) {
+                return customerRepository.findByStatusOrderByCustomerIdAsc(status, position, max);
+            }
+            if (segment != null && status == null && riskLevel == null) {
+                return customerRepository.findBySegmentOrderByCustomerIdAsc(segment, position, max);
+            }
+            if (riskLevel != null && status == null && segment == null) {
+                return customerRepository.findByRiskLevelOrderByCustomerIdAsc(riskLevel, position, max);
+            }
+            throw new IllegalArgumentException(
+                    "Supported filters: status, segment, riskLevel or status+segment");
+        });
     }
 
     /**
      * Get high risk active customers (Reactive)
      */
-    @Transactional(readOnly = true)
     public Flux<Customer> getHighRiskActiveCustomers() {
-        return Mono.fromCallable(() -> {
+        return Flux.defer(() -> {
             log.debug("Getting high risk active customers");
-            return customerRepository.findHighRiskActiveCustomers();
-        }).flatMapMany(Flux::fromIterable).subscribeOn(Schedulers.boundedElastic());
+            return reactiveCustomerRepository.findHighRiskActiveCustomers();
+        });
     }
 
     /**
      * Update customer (Reactive)
      */
     public Mono<Customer> updateCustomer(Customer customer) {
-        return Mono.fromCallable(() -> {
+        return Mono.defer(() -> {
             log.info("Updating customer: {}", customer.getCustomerId());
-            Customer updated = customerRepository.save(customer);
+            return reactiveCustomerRepository.save(customer);
+        }).doOnNext(updated -> {
+            customerCache.evict(updated);
             
             // TODO: Publicar evento CustomerUpdatedEvent no Kafka
-            
-            return updated;
-        }).subscribeOn(Schedulers.boundedElastic());
+        });
+    }
+
+    /**
+     * Update only the given attributes of a customer (Reactive), without reading it first;
+     * with a version, only if the customer is still at it
+     */
+    public Mono<Customer> patchCustomer(String customerId, Map<String, Object> attributes, Long version) {
+        return supersedeWriteBehind(customerId, attributes.keySet()).then(Mono.defer(() -> {
+            log.info("Patching customer {}: {}", customerId, attributes.keySet());
+            return reactiveCustomerRepository.patch(customerId, attributes, version);
+        }))
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Customer not found: " + customerId)))
+                .doOnNext(updated -> {
+                    customerCache.evict(updated);
+                    
+                    // TODO: Publicar evento CustomerUpdatedEvent no Kafka
+                });
+    }
+
+    /**
+     * Whether an update is written behind ({@link #bufferCustomerUpdate}) rather than synchronously
+     */
+    public boolean isWrittenBehind(Map<String, Object> attributes) {
+        return customerWriteBehind.accepts(attributes);
+    }
+
+    /**
+     * Buffer an update of non-critical fields (Reactive), to be written with a later batch;
+     * the customer as it will be once written
+     */
+    public Mono<Customer> bufferCustomerUpdate(String customerId, Map<String, Object> attributes) {
+        return getCustomerById(customerId)
+                .flatMap(customer -> blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+                    log.debug("Buffering update of customer {}: {}", customerId, attributes.keySet());
+                    customerWriteBehind.buffer(customerId, attributes);
+                    return customerWriteBehind.overlay(customer);
+                }));
     }
 
     /**
      * Activate customer (Reactive)
      */
     public Mono<Customer> activateCustomer(String customerId, String actor) {
-        return Mono.fromCallable(() -> {
+        return Mono.defer(() -> {
             log.info("Activating customer: {}", customerId);
-            
-            Customer customer = customerRepository.findById(customerId)
-                    .orElseThrow(() -> new RuntimeException("Customer not found: " + customerId));
-            
-            customer.activate(actor);
-            Customer updated = customerRepository.save(customer);
-            
-            log.info("Customer activated: {}", customerId);
-            // TODO: Publicar evento CustomerActivatedEvent no Kafka
-            
-            return updated;
-        }).subscribeOn(Schedulers.boundedElastic());
+            return transition(customerId, customer -> customer.activate(actor));
+        })
+                .doOnNext(updated -> {
+                    customerCache.evict(updated);
+                    
+                    log.info("Customer activated: {}", customerId);
+                    // TODO: Publicar evento CustomerActivatedEvent no Kafka
+                });
     }
 
     /**
      * Deactivate customer (Reactive)
      */
     public Mono<Customer> deactivateCustomer(String customerId, String actor) {
-        return Mono.fromCallable(() -> {
+        return Mono.defer(() -> {
             log.info("Deactivating customer: {}", customerId);
-            
-            Customer customer = customerRepository.findById(customerId)
-                    .orElseThrow(() -> new RuntimeException("Customer not found: " + customerId));
-            
-            customer.deactivate(actor);
-            Customer updated = customerRepository.save(customer);
-            
-            log.info("Customer deactivated: {}", customerId);
-            // TODO: Publicar evento CustomerDeactivatedEvent no Kafka
-            
-            return updated;
-        }).subscribeOn(Schedulers.boundedElastic());
+            return transition(customerId, customer -> customer.deactivate(actor));
+        })
+                .doOnNext(updated -> {
+                    customerCache.evict(updated);
+                    
+                    log.info("Customer deactivated: {}", customerId);
+                    // TODO: Publicar evento CustomerDeactivatedEvent no Kafka
+                });
     }
 
     /**
      * Suspend customer (Reactive)
      */
     public Mono<Customer> suspendCustomer(String customerId, String reason, String actor) {
-        return Mono.fromCallable(() -> {
+        return Mono.defer(() -> {
             log.info("Suspending customer: {} - Reason: {}", customerId, reason);
-            
-            Customer customer = customerRepository.findById(customerId)
-                    .orElseThrow(() -> new RuntimeException("Customer not found: " + customerId));
-            
-            customer.suspend(reason, actor);
-            Customer updated = customerRepository.save(customer);
-            
-            log.info("Customer suspended: {}", customerId);
-            // TODO: Publicar evento CustomerSuspendedEvent no Kafka
-            
-            return updated;
-        }).subscribeOn(Schedulers.boundedElastic());
+            return transition(customerId, customer -> customer.suspend(reason, actor));
+        })
+                .doOnNext(updated -> {
+                    customerCache.evict(updated);
+                    
+                    log.info("Customer suspended: {}", customerId);
+                    // TODO: Publicar evento CustomerSuspendedEvent no Kafka
+                });
+    }
+
+    /**
+     * Apply a status change as one conditional UPDATE at the version the customer was read at
+     * (from the cache when it is there); on a version conflict the customer is read again from
+     * the database and the change retried, up to conflictRetries times
+     */
+    private Mono<Customer> transition(String customerId, Consumer<Customer> change) {
+        PersistenceProperties.Transition properties = persistenceProperties.getTransition();
+        return Mono.defer(() -> customerCache.lookup(customerId))
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Customer not found: " + customerId)))
+                .flatMap(customer -> {
+                    change.accept(customer);
+                    return reactiveCustomerRepository.updateStatus(customer)
+                            .switchIfEmpty(Mono.error(() -> {
+                                customerCache.evictStale(customerId);
+                                return new OptimisticLockingFailureException("Customer " + customerId
+                                        + " was changed since version " + customer.getVersion());
+                            }));
+                })
+                .retryWhen(Retry.backoff(properties.getConflictRetries(), properties.getConflictBackoff())
+                        .filter(OptimisticLockingFailureException.class::isInstance)
+                        .doBeforeRetry(signal -> log.debug("Retrying transition of customer {} after a conflict",
+                                customerId))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    /**
+     * Drop buffered values of the fields a synchronous write is about to set, so they do not
+     * overwrite it when flushed
+     */
+    private Mono<Void> supersedeWriteBehind(String customerId, Set<String> fields) {
+        if (!customerWriteBehind.isBuffered(customerId)) {
+            return Mono.empty();
+        }
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            customerWriteBehind.supersede(customerId, fields);
+            return Boolean.TRUE;
+        }).then();
+    }
+
+    /**
+     * Transition the given customers in bulk (Reactive)
+     * One UPDATE per chunk of ids; progress is emitted as each chunk is committed
+     */
+    public Flux<BulkTransitionProgress> transitionCustomers(StatusTransition transition, List<String> customerIds,
+                                                            String reason, String actor) {
+        int chunkSize = customerStatusUpdater.getChunkSize();
+        return Flux.defer(() -> {
+            log.info("Bulk {} of {} customers - Reason: {}", transition, customerIds.size(), reason);
+            return Flux.fromIterable(customerIds).distinct().buffer(chunkSize);
+        })
+                .concatMap(ids -> blockingExecutor.call(BlockingExecutor.BULK,
+                        () -> customerStatusUpdater.transition(ids, transition, actor)))
+                .index()
+                .map(chunk -> committed(chunk.getT1(), chunk.getT2(), transition, reason, actor))
+                .scan(BulkTransitionProgress::followedBy);
+    }
+
+    /**
+     * Transition the customers matching a filter in bulk (Reactive)
+     * Chunks are selected in id order, each with its UPDATE in one transaction; progress is
+     * emitted as each chunk is committed
+     */
+    public Flux<BulkTransitionProgress> transitionCustomers(StatusTransition transition,
+                                                            CustomerStatusUpdater.Filter filter,
+                                                            String reason, String actor) {
+        int chunkSize = customerStatusUpdater.getChunkSize();
+        return Mono.defer(() -> {
+            log.info("Bulk {} of customers matching {} - Reason: {}", transition, filter, reason);
+            return nextChunk(filter, "", transition, actor);
+        })
+                .expand(chunk -> chunk.isLast(chunkSize)
+                        ? Mono.empty()
+                        : nextChunk(filter, chunk.lastId(), transition, actor))
+                .filter(chunk -> !chunk.customerIds().isEmpty())
+                .index()
+                .map(chunk -> committed(chunk.getT1(), chunk.getT2(), transition, reason, actor))
+                .scan(BulkTransitionProgress::followedBy);
+    }
+
+    private Mono<CustomerStatusUpdater.Chunk> nextChunk(CustomerStatusUpdater.Filter filter, String after,
+                                                        StatusTransition transition, String actor) {
+        return blockingExecutor.call(BlockingExecutor.BULK,
+                () -> customerStatusUpdater.transitionNext(filter, after, transition, actor));
+    }
+
+    /**
+     * Evict the chunk's customers and publish its event, once it is committed
+     */
+    private BulkTransitionProgress committed(long index, CustomerStatusUpdater.Chunk chunk, StatusTransition transition,
+                                             String reason, String actor) {
+        chunk.customerIds().forEach(customerCache::evict);
+        customerEventPublisher.publish(new CustomerBatchStateChangeEvent(UUID.randomUUID().toString(),
+                LocalDateTime.now(), transition.name(), transition.getStatus(), reason, actor, index,
+                chunk.customerIds(), chunk.updated()));
+        log.info("Bulk {} chunk {}: {} of {} customers updated", transition, index, chunk.updated(),
+                chunk.customerIds().size());
+        return new BulkTransitionProgress(index, chunk.customerIds().size(), chunk.updated(),
+                chunk.customerIds().size(), chunk.updated());
     }
 
     /**
      * Delete customer (Reactive)
      */
     public Mono<Void> deleteCustomer(String customerId) {
-        return Mono.fromCallable(() -> {
+        return Mono.defer(() -> {
             log.info("Deleting customer: {}", customerId);
-            customerRepository.deleteById(customerId);
+            return reactiveCustomerRepository.deleteById(customerId);
+        }).then(Mono.fromRunnable(() -> {
+            customerCache.evict(customerId);
             
             // TODO: Publicar evento CustomerDeletedEvent no Kafka
-            return null;
-        }).subscribeOn(Schedulers.boundedElastic()).then();
+        }));
     }
 
     /**
      * Count customers by status (Reactive)
      */
-    @Transactional(readOnly = true)
     public Mono<Long> countCustomersByStatus(String status) {
-        return Mono.fromCallable(() -> {
+        return Mono.defer(() -> {
             log.debug("Counting customers by status: {}", status);
-            return customerRepository.countByStatus(status);
-        }).subscribeOn(Schedulers.boundedElastic());
+            return reactiveCustomerRepository.countByStatus(status);
+        });
     }
 }
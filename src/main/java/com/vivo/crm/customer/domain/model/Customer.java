@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -30,11 +31,12 @@ import java.time.LocalDateTime;
  * - nomeGrupo: Nome do grupo (CORPORATE, GOVERNO)
  */
 @Entity
+@DynamicUpdate
 @Table(name = "customer")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Customer {
 
     @Id
@@ -187,11 +189,25 @@ public class Customer {
     @Column(name = "updated_by", length = 100)
     private String updatedBy;
 
+    /**
+     * Versão para controle de concorrência otimista (incrementada a cada escrita; nula em cliente novo)
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "context_data", columnDefinition = "JSON")
     private String contextData;
 
     @PrePersist
     protected void onCreate() {
+        applyCreationDefaults();
+    }
+
+    /**
+     * Valores padrão de um novo cliente (ids, status, identificação)
+     */
+    public void applyCreationDefaults() {
         if (customerId == null) {
             customerId = java.util.UUID.randomUUID().toString();
         }
@@ -233,6 +249,13 @@ public class Customer {
         this.updatedBy = actor;
     }
 
+    /**
+     * Cópia desanexada do cliente (todos os atributos são imutáveis)
+     */
+    public Customer copy() {
+        return toBuilder().build();
+    }
+
     /**
      * Verifica se o cliente está ativo
      */
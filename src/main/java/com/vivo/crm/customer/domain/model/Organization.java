@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDate;
@@ -21,6 +22,7 @@ import java.util.List;
  * Examples include business, department and enterprise.
  */
 @Entity
+@DynamicUpdate
 @Table(name = "organization")
 @Data
 @NoArgsConstructor
@@ -0,0 +1,36 @@
+package com.vivo.crm.customer.domain.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Locale;
+
+/**
+ * Transição de status aplicada em massa
+ * Mesmo efeito de {@link Customer#activate}, {@link Customer#deactivate} e {@link Customer#suspend}
+ */
+@Getter
+@RequiredArgsConstructor
+public enum StatusTransition {
+
+    ACTIVATE("ACTIVE", null),
+    DEACTIVATE("INACTIVE", null),
+    SUSPEND("SUSPENDED", "HIGH");
+
+    /**
+     * Status after the transition
+     */
+    private final String status;
+
+    /**
+     * Risk level after the transition; null keeps the current one
+     */
+    private final String riskLevel;
+
+    /**
+     * Transition named by an endpoint path (activate, deactivate, suspend)
+     */
+    public static StatusTransition from(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+}
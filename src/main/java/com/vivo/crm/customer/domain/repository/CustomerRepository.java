@@ -1,13 +1,19 @@
 package com.vivo.crm.customer.domain.repository;
 
 import com.vivo.crm.customer.domain.model.Customer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +24,12 @@ import java.util.Optional;
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, String> {
 
+    /**
+     * Only the version of a customer (answers conditional requests without reading the row)
+     */
+    @Query("SELECT c.version FROM Customer c WHERE c.customerId = :customerId")
+    Optional<Long> findVersionById(@Param("customerId") String customerId);
+
     Optional<Customer> findByExternalId(String externalId);
 
     Page<Customer> findByExternalId(String externalId, Pageable pageable);
@@ -49,4 +61,80 @@ public interface CustomerRepository extends JpaRepository<Customer, String> {
 
     @Query("SELECT COUNT(c) FROM Customer c WHERE c.status = :status")
     long countByStatus(@Param("status") String status);
+
+    /**
+     * Page of customers in (createdAt, customerId) order, without a count query
+     */
+    @Query("SELECT c FROM Customer c ORDER BY c.createdAt, c.customerId")
+    List<Customer> findPage(Pageable pageable);
+
+    /**
+     * Keyset page: customers strictly after the given (createdAt, customerId) position
+     */
+    @Query("SELECT c FROM Customer c " +
+           "WHERE c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.customerId > :customerId) " +
+           "ORDER BY c.createdAt, c.customerId")
+    List<Customer> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                 @Param("customerId") String customerId,
+                                 Pageable pageable);
+
+    // ========== Keyset scrolling (ordered by customerId, no count query) ==========
+
+    Window<Customer> findByStatusOrderByCustomerIdAsc(String status, ScrollPosition position, Limit limit);
+
+    Window<Customer> findBySegmentOrderByCustomerIdAsc(String segment, ScrollPosition position, Limit limit);
+
+    Window<Customer> findByRiskLevelOrderByCustomerIdAsc(String riskLevel, ScrollPosition position, Limit limit);
+
+    Window<Customer> findByStatusAndSegmentOrderByCustomerIdAsc(String status, String segment,
+                                                              ScrollPosition position, Limit limit);
+
+    // ========== Set-based status transitions ==========
+
+    /**
+     * Ids matching the (optional) filters, not yet in the target status, after the given id
+     */
+    @Query("SELECT c.customerId FROM Customer c " +
+           "WHERE (:segment IS NULL OR c.segment = :segment) " +
+           "AND (:status IS NULL OR c.status = :status) " +
+           "AND (:riskLevel IS NULL OR c.riskLevel = :riskLevel) " +
+           "AND c.status <> :targetStatus AND c.customerId > :after " +
+           "ORDER BY c.customerId")
+    List<String> findIdsForTransition(@Param("segment") String segment,
+                                      @Param("status") String status,
+                                      @Param("riskLevel") String riskLevel,
+                                      @Param("targetStatus") String targetStatus,
+                                      @Param("after") String after,
+                                      Limit limit);
+
+    /**
+     * Move the given customers to a status (and risk level, unless null) in one statement;
+     * customers already in that status are left alone
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Customer c SET c.status = :status, c.riskLevel = COALESCE(:riskLevel, c.riskLevel), " +
+           "c.updatedBy = :actor, c.updatedAt = :updatedAt, c.version = c.version + 1 " +
+           "WHERE c.customerId IN :ids AND c.status <> :status")
+    int updateStatus(@Param("ids") List<String> ids,
+                     @Param("status") String status,
+                     @Param("riskLevel") String riskLevel,
+                     @Param("actor") String actor,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Write a customer's status, risk level and updatedBy in one statement, if it is still at
+     * the given version (which is bumped)
+     *
+     * @return 1 if written, 0 if the customer changed or was deleted since it was read at that version
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Customer c SET c.status = :status, c.riskLevel = :riskLevel, " +
+           "c.updatedBy = :actor, c.updatedAt = :updatedAt, c.version = c.version + 1 " +
+           "WHERE c.customerId = :customerId AND c.version = :version")
+    int updateStatusAtVersion(@Param("customerId") String customerId,
+                              @Param("version") Long version,
+                              @Param("status") String status,
+                              @Param("riskLevel") String riskLevel,
+                              @Param("actor") String actor,
+                              @Param("updatedAt") LocalDateTime updatedAt);
 }
@@ -0,0 +1,72 @@
+package com.vivo.crm.customer.domain.repository;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * TMF629 - Reactive Customer Repository
+ * Customer operations used by CustomerServiceReactive, returning Mono/Flux.
+ *
+ * Implemented over JPA (blocking calls offloaded to the BlockingExecutor) or natively over
+ * R2DBC, selected by customer-service.persistence.mode. Paged, keyset and projected
+ * listings stay on {@link CustomerRepository}.
+ */
+public interface ReactiveCustomerRepository {
+
+    Mono<Customer> findById(String customerId);
+
+    Mono<Boolean> existsById(String customerId);
+
+    /**
+     * Only the version of a customer; empty if there is no such customer
+     */
+    Mono<Long> findVersionById(String customerId);
+
+    Mono<Customer> findByExternalId(String externalId);
+
+    Mono<Customer> findByEmail(String email);
+
+    Mono<Customer> findByCpfCnpj(String cpfCnpj);
+
+    Mono<Customer> findByPartyRoleId(String partyRoleId);
+
+    Flux<Customer> findByStatus(String status);
+
+    Flux<Customer> findBySegment(String segment);
+
+    Flux<Customer> findByRiskLevel(String riskLevel);
+
+    Flux<Customer> searchByName(String name);
+
+    Flux<Customer> findHighRiskActiveCustomers();
+
+    Mono<Long> countByStatus(String status);
+
+    Mono<Long> count();
+
+    /**
+     * Insert or update; the returned customer carries the generated/updated timestamps
+     */
+    Mono<Customer> save(Customer customer);
+
+    /**
+     * Write a changed customer's status, risk level and updatedBy with one
+     * UPDATE ... WHERE customer_id = ? AND version = ?, its version being the one it was read at;
+     * the customer at its new version, or empty if it changed (or was deleted) since it was read
+     */
+    Mono<Customer> updateStatus(Customer customer);
+
+    /**
+     * Write only the given attributes of a customer with one
+     * UPDATE ... WHERE customer_id = ? [AND version = ?], without reading it first; the customer
+     * as written, or empty if there is no such customer. Fails with IllegalArgumentException
+     * if an attribute cannot be updated, and with OptimisticLockingFailureException if a version
+     * is given and the customer is no longer at it
+     */
+    Mono<Customer> patch(String customerId, Map<String, Object> attributes, Long version);
+
+    Mono<Void> deleteById(String customerId);
+}
@@ -0,0 +1,41 @@
+package com.vivo.crm.customer.infrastructure.cache;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.repository.ReactiveCustomerRepository;
+import reactor.core.publisher.Mono;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Customer attributes that identify a customer besides its id
+ */
+public enum AlternateKey {
+
+    EMAIL(Customer::getEmail, ReactiveCustomerRepository::findByEmail),
+    // Lookups by CPF/CNPJ still go through the legacy cpf_cnpj column (uk_customer_cpf_cnpj)
+    @SuppressWarnings("deprecation")
+    CPF_CNPJ(Customer::getCpfCnpj, ReactiveCustomerRepository::findByCpfCnpj),
+    EXTERNAL_ID(Customer::getExternalId, ReactiveCustomerRepository::findByExternalId),
+    PARTY_ROLE_ID(Customer::getPartyRoleId, ReactiveCustomerRepository::findByPartyRoleId);
+
+    private final Function<Customer, String> attribute;
+    private final BiFunction<ReactiveCustomerRepository, String, Mono<Customer>> finder;
+
+    AlternateKey(Function<Customer, String> attribute,
+                 BiFunction<ReactiveCustomerRepository, String, Mono<Customer>> finder) {
+        this.attribute = attribute;
+        this.finder = finder;
+    }
+
+    /**
+     * Value of this key on a customer
+     */
+    public String valueOf(Customer customer) {
+        return attribute.apply(customer);
+    }
+
+    Mono<Customer> find(ReactiveCustomerRepository repository, String value) {
+        return finder.apply(repository, value);
+    }
+}
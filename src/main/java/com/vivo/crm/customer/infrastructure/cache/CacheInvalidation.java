@@ -0,0 +1,23 @@
+package com.vivo.crm.customer.infrastructure.cache;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cluster-wide cache invalidation of one customer
+ *
+ * @param customerId  customer that changed; null for the key values of new customers only
+ * @param version     version of the change; nodes caching this version or a newer one keep it
+ * @param keys        alternate key values the customer took on; nodes drop their mappings of
+ *                    them, including cached "not found" entries, whatever the version
+ * @param origin      node that published the message
+ * @param publishedAt epoch millis when the message was sent (for lag measurement)
+ */
+public record CacheInvalidation(String customerId, long version, Map<AlternateKey, Set<String>> keys,
+                                String origin, long publishedAt) {
+
+    /**
+     * Version of a delete (or of a change whose version is unknown): always evicts
+     */
+    public static final long ANY_VERSION = Long.MAX_VALUE;
+}
@@ -0,0 +1,146 @@
+package com.vivo.crm.customer.infrastructure.cache;
+
+import com.vivo.crm.customer.infrastructure.config.CustomerCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies customer cache invalidations published by the other nodes
+ *
+ * Every node must see every message, and only those published while it runs, so the topic is
+ * consumed without a consumer group: all of its partitions are assigned to this node, read from
+ * the end, and no offsets are committed. Nothing is left on the broker when a node goes away,
+ * whatever its name. Partitions added to the topic are picked up when the consumer restarts.
+ * Messages published by this node are ignored (it already evicted locally).
+ *
+ * If the consumer fails it is recreated from the end of the topic; entries whose invalidation
+ * was missed meanwhile expire with the cache TTL.
+ *
+ * Metrics: customer.cache.invalidation.received, customer.cache.invalidation.lag
+ * (time from publication on the origin node to eviction here)
+ */
+@Component
+@Slf4j
+public class CacheInvalidationListener {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration RESTART_DELAY = Duration.ofSeconds(5);
+
+    private final CustomerCache customerCache;
+    private final CustomerCacheProperties.Invalidation config;
+    private final ConsumerFactory<?, ?> consumerFactory;
+    private final Counter received;
+    private final Timer lag;
+    private volatile boolean running;
+    private volatile Consumer<String, CacheInvalidation> consumer;
+    private Thread thread;
+
+    public CacheInvalidationListener(CustomerCache customerCache, CustomerCacheProperties properties,
+                                     ConsumerFactory<?, ?> consumerFactory, MeterRegistry meterRegistry) {
+        this.customerCache = customerCache;
+        this.config = properties.getInvalidation();
+        this.consumerFactory = consumerFactory;
+        this.received = meterRegistry.counter("customer.cache.invalidation.received");
+        this.lag = Timer.builder("customer.cache.invalidation.lag")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofPlatform().name("cache-invalidation-consumer").daemon().start(this::consume);
+    }
+
+    public void onInvalidation(CacheInvalidation invalidation) {
+        if (config.getNodeId().equals(invalidation.origin())) {
+            return;
+        }
+        received.increment();
+        boolean evicted = customerCache.evictRemote(invalidation.customerId(), invalidation.version(),
+                invalidation.keys());
+        lag.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - invalidation.publishedAt())));
+        log.debug("Invalidation of {} v{} from {}: {}",
+                invalidation.customerId() != null ? invalidation.customerId() : invalidation.keys(), invalidation.version(),
+                invalidation.origin(), evicted ? "evicted" : "kept");
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (thread != null) {
+            running = false;
+            Consumer<String, CacheInvalidation> current = consumer;
+            if (current != null) {
+                current.wakeup();
+            }
+            thread.interrupt();
+            thread.join(RESTART_DELAY.toMillis());
+        }
+    }
+
+    private void consume() {
+        while (running) {
+            try (Consumer<String, CacheInvalidation> current = new KafkaConsumer<>(consumerConfig())) {
+                consumer = current;
+                List<TopicPartition> partitions = current.partitionsFor(config.getTopic()).stream()
+                        .map(partition -> new TopicPartition(partition.topic(), partition.partition()))
+                        .toList();
+                current.assign(partitions);
+                current.seekToEnd(partitions);
+                log.info("Consuming cache invalidations from {} partitions of {}", partitions.size(), config.getTopic());
+                while (running) {
+                    for (ConsumerRecord<String, CacheInvalidation> record : current.poll(POLL_TIMEOUT)) {
+                        onInvalidation(record.value());
+                    }
+                }
+            } catch (WakeupException e) {
+                // Shutting down
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation consumer failed, restarting it in {}: {}", RESTART_DELAY, e.toString());
+                try {
+                    Thread.sleep(RESTART_DELAY);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            } finally {
+                consumer = null;
+            }
+        }
+    }
+
+    /**
+     * The application's consumer settings, without a group and without committing offsets
+     */
+    Map<String, Object> consumerConfig() {
+        Map<String, Object> consumerConfig = new HashMap<>(consumerFactory.getConfigurationProperties());
+        consumerConfig.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        consumerConfig.remove(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG);
+        consumerConfig.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumerConfig.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        consumerConfig.put(ConsumerConfig.CLIENT_ID_CONFIG, "customer-cache-" + config.getNodeId());
+        return consumerConfig;
+    }
+}
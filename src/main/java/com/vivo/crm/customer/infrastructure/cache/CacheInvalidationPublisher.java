@@ -0,0 +1,166 @@
+package com.vivo.crm.customer.infrastructure.cache;
+
+import com.vivo.crm.customer.infrastructure.config.CustomerCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes local customer cache evictions to the other nodes
+ *
+ * Evictions are buffered per customer for the coalesce window and sent as one compact
+ * message carrying the highest version seen and every alternate key value seen, so a burst
+ * of updates to a hot customer costs one message. Messages are keyed by customer id to keep
+ * them ordered per customer.
+ *
+ * New customers cannot be cached anywhere yet; only their key values are sent, those of all
+ * customers created in the window together, at most MAX_KEYS_PER_MESSAGE per message, so a
+ * bulk onboarding costs a handful of messages rather than one per customer.
+ *
+ * Metrics: customer.cache.invalidation.published, customer.cache.invalidation.coalesced
+ */
+@Component
+@Slf4j
+public class CacheInvalidationPublisher {
+
+    static final int MAX_KEYS_PER_MESSAGE = 1000;
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final CustomerCacheProperties.Invalidation config;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final Map<AlternateKey, Set<String>> pendingKeys = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final Counter published;
+    private final Counter coalesced;
+
+    public CacheInvalidationPublisher(KafkaTemplate<String, Object> kafkaTemplate,
+                                      CustomerCacheProperties properties, MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.config = properties.getInvalidation();
+        this.published = meterRegistry.counter("customer.cache.invalidation.published");
+        this.coalesced = meterRegistry.counter("customer.cache.invalidation.coalesced");
+
+        if (config.isEnabled()) {
+            long window = config.getCoalesceWindow().toMillis();
+            this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "cache-invalidation");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, window, window, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * Queue an invalidation of a customer for the other nodes
+     */
+    public void publish(String customerId, long version, Map<AlternateKey, Set<String>> keys) {
+        if (!config.isEnabled() || customerId == null) {
+            return;
+        }
+        pending.merge(customerId, new Pending(version, keys), (queued, next) -> {
+            coalesced.increment();
+            return queued.merge(next);
+        });
+    }
+
+    /**
+     * Queue the alternate key values of a new customer for the other nodes
+     */
+    public void publishKeys(Map<AlternateKey, Set<String>> keys) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        keys.forEach((key, values) -> pendingKeys.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet())
+                .addAll(values));
+    }
+
+    /**
+     * Send everything queued so far
+     */
+    void flush() {
+        flushKeys();
+        for (String customerId : pending.keySet()) {
+            Pending queued = pending.remove(customerId);
+            if (queued == null) {
+                continue;
+            }
+            send(customerId, new CacheInvalidation(
+                    customerId, queued.version(), queued.keys(), config.getNodeId(), System.currentTimeMillis()));
+        }
+    }
+
+    private void flushKeys() {
+        Map<AlternateKey, Set<String>> batch = new EnumMap<>(AlternateKey.class);
+        int size = 0;
+        for (Map.Entry<AlternateKey, Set<String>> queued : pendingKeys.entrySet()) {
+            for (String value : queued.getValue()) {
+                if (!queued.getValue().remove(value)) {
+                    continue;
+                }
+                batch.computeIfAbsent(queued.getKey(), k -> new HashSet<>()).add(value);
+                if (++size == MAX_KEYS_PER_MESSAGE) {
+                    send(null, new CacheInvalidation(null, CacheInvalidation.ANY_VERSION, batch, config.getNodeId(),
+                            System.currentTimeMillis()));
+                    batch = new EnumMap<>(AlternateKey.class);
+                    size = 0;
+                }
+            }
+        }
+        if (size > 0) {
+            send(null, new CacheInvalidation(null, CacheInvalidation.ANY_VERSION, batch, config.getNodeId(),
+                    System.currentTimeMillis()));
+        }
+    }
+
+    private void send(String customerId, CacheInvalidation invalidation) {
+        String subject = customerId != null ? customerId : "new customers";
+        try {
+            kafkaTemplate.send(config.getTopic(), customerId, invalidation)
+                    .whenComplete((result, error) -> {
+                        if (error != null) {
+                            log.warn("Failed to publish cache invalidation for {}: {}", subject, error.getMessage());
+                        }
+                    });
+            published.increment();
+        } catch (RuntimeException e) {
+            // Other nodes fall back to the cache TTL (the negative TTL for new customers' keys)
+            log.warn("Failed to publish cache invalidation for {}: {}", subject, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (flusher != null) {
+            flusher.shutdown();
+            flush();
+        }
+    }
+
+    /**
+     * Invalidation of one customer waiting for the coalesce window
+     */
+    private record Pending(long version, Map<AlternateKey, Set<String>> keys) {
+
+        Pending merge(Pending next) {
+            Map<AlternateKey, Set<String>> merged = new EnumMap<>(AlternateKey.class);
+            keys.forEach((key, values) -> merged.computeIfAbsent(key, k -> new HashSet<>()).addAll(values));
+            next.keys.forEach((key, values) -> merged.computeIfAbsent(key, k -> new HashSet<>()).addAll(values));
+            return new Pending(Math.max(version, next.version), merged);
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.vivo.crm.customer.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.domain.repository.ReactiveCustomerRepository;
+import com.vivo.crm.customer.infrastructure.config.CustomerCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Read-through caches of customers by id and by alternate key
+ *
+ * Customers are cached by id, bounded by size (W-TinyLFU admission/eviction) and by TTL;
+ * misses by id are not cached. Alternate keys (email, CPF/CNPJ, externalId, partyRoleId)
+ * only map to a customer id, which is then resolved through the id cache. Alternate key
+ * lookups that find nothing are remembered for a short negative TTL.
+ *
+ * The reactive lookups load through {@link ReactiveCustomerRepository} without blocking;
+ * concurrent lookups of the same key share one load. {@link #findById(String)} is the
+ * blocking variant for the JPA-based TMF controllers.
+ *
+ * Every write path must call {@link #evict(Customer)} (or {@link #evictCreated} for creations,
+ * {@link #evict(String)} for deletes) once the change is committed. A load still in flight when its key is evicted
+ * completes for its current subscribers but is not kept, so a load that read the old row
+ * cannot be left behind. A key mapping that went stale because the attribute moved away
+ * from the customer is detected on read, since the resolved customer no longer carries
+ * that value.
+ *
+ * Evicting a customer also drops its pre-rendered representations ({@link RenderedCustomerCache}).
+ * Evictions are also published to the other nodes through {@link CacheInvalidationPublisher},
+ * with the alternate key values the customer has now, so the other nodes also drop their
+ * mappings of those values, including negative entries cached before the customer took them.
+ * Mappings of values the customer gave up heal on read as above.
+ *
+ * Callers always get their own copy, so mutating a returned customer (e.g. before
+ * saving it) never changes what other readers see.
+ *
+ * Metrics: cache.gets{result=hit|miss}, cache.evictions, cache.size
+ * (cache=customer.byId, cache=customer.byKey)
+ */
+@Component
+@Slf4j
+public class CustomerCache {
+
+    static final String BY_ID = "customer.byId";
+    static final String BY_KEY = "customer.byKey";
+
+    /**
+     * Cached "no customer has this key"; customer ids are never empty
+     */
+    private static final String NOT_FOUND = "";
+
+    private final CustomerRepository customerRepository;
+    private final ReactiveCustomerRepository reactiveCustomerRepository;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final RenderedCustomerCache renderedCustomerCache;
+    private final AsyncCache<String, Customer> byId;
+    private final AsyncCache<KeyRef, String> byKey;
+
+    public CustomerCache(CustomerRepository customerRepository, ReactiveCustomerRepository reactiveCustomerRepository,
+                         CacheInvalidationPublisher invalidationPublisher, RenderedCustomerCache renderedCustomerCache,
+                         CustomerCacheProperties properties, MeterRegistry meterRegistry) {
+        this.customerRepository = customerRepository;
+        this.reactiveCustomerRepository = reactiveCustomerRepository;
+        this.invalidationPublisher = invalidationPublisher;
+        this.renderedCustomerCache = renderedCustomerCache;
+        if (properties.isEnabled()) {
+            this.byId = Caffeine.newBuilder()
+                    .maximumSize(properties.getById().getMaximumSize())
+                    .expireAfterWrite(properties.getById().getTtl())
+                    .recordStats()
+                    .buildAsync();
+            this.byKey = Caffeine.newBuilder()
+                    .maximumSize(properties.getByKey().getMaximumSize())
+                    .expireAfter(new KeyExpiry(properties.getByKey().getTtl(), properties.getNegativeTtl()))
+                    .recordStats()
+                    .buildAsync();
+            CaffeineCacheMetrics.monitor(meterRegistry, byId, BY_ID);
+            CaffeineCacheMetrics.monitor(meterRegistry, byKey, BY_KEY);
+        } else {
+            this.byId = null;
+            this.byKey = null;
+        }
+    }
+
+    /**
+     * Find a customer by id, loading it from the database on a miss (blocking)
+     */
+    public Optional<Customer> findById(String customerId) {
+        if (byId == null) {
+            return customerRepository.findById(customerId);
+        }
+        Customer cached = byId.synchronous().get(customerId, id -> customerRepository.findById(id).orElse(null));
+        if (cached == null) {
+            // Caffeine drops a null-completed future asynchronously; drop it now so the next call reloads
+            byId.asMap().computeIfPresent(customerId, (id, future) ->
+                    future.isDone() && !future.isCompletedExceptionally() && future.getNow(null) == null ? null : future);
+        }
+        return Optional.ofNullable(cached).map(Customer::copy);
+    }
+
+    /**
+     * Cached customer, without going to the database on a miss
+     */
+    public Optional<Customer> getIfPresent(String customerId) {
+        if (byId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(byId.synchronous().getIfPresent(customerId)).map(Customer::copy);
+    }
+
+    /**
+     * Version of a customer: the cached one if it is loaded, else only the version column is
+     * read; empty if there is no such customer
+     */
+    public Mono<Long> version(String customerId) {
+        return Mono.justOrEmpty(cachedVersion(customerId))
+                .switchIfEmpty(Mono.defer(() -> reactiveCustomerRepository.findVersionById(customerId)));
+    }
+
+    /**
+     * Version of a customer, as {@link #version(String)} (blocking)
+     */
+    public Optional<Long> findVersionById(String customerId) {
+        return cachedVersion(customerId).or(() -> customerRepository.findVersionById(customerId));
+    }
+
+    /**
+     * Find a customer by id, loading it from the database on a miss
+     */
+    public Mono<Customer> lookup(String customerId) {
+        if (byId == null) {
+            return reactiveCustomerRepository.findById(customerId);
+        }
+        // suppressCancel: one subscriber going away must not cancel a load others share
+        return Mono.fromFuture(() -> byId.get(customerId, (id, executor) ->
+                        reactiveCustomerRepository.findById(id).toFuture()), true)
+                .map(Customer::copy);
+    }
+
+    /**
+     * Find a customer by alternate key; the key is resolved to an id, then to the
+     * customer through the id cache
+     */
+    public Mono<Customer> lookup(AlternateKey key, String value) {
+        if (byKey == null) {
+            return key.find(reactiveCustomerRepository, value);
+        }
+
+        KeyRef ref = new KeyRef(key, value);
+        return resolve(ref).flatMap(customerId -> NOT_FOUND.equals(customerId)
+                ? Mono.<Customer>empty()
+                : lookup(customerId)
+                        .filter(c -> value.equals(key.valueOf(c)))
+                        .switchIfEmpty(Mono.defer(() -> {
+                            // The customer was deleted or the attribute changed since the mapping was cached
+                            log.debug("Stale {} mapping for customer {}", key, customerId);
+                            byKey.asMap().remove(ref);
+                            return resolve(ref)
+                                    .filter(refreshed -> !NOT_FOUND.equals(refreshed))
+                                    .flatMap(this::lookup);
+                        })));
+    }
+
+    /**
+     * Drop a customer, and the mappings of its alternate keys, after it was created or changed
+     */
+    public void evict(Customer customer) {
+        if (customer == null) {
+            return;
+        }
+        evictKeysLocal(customer);
+        evictLocal(customer.getCustomerId());
+        invalidationPublisher.publish(customer.getCustomerId(), versionOf(customer), keysOf(customer));
+    }
+
+    /**
+     * Drop the mappings of a new customer's alternate keys (e.g. "not found" cached before it
+     * was created); no node can have the customer itself cached yet, so only its key values
+     * are published, together with those of the other customers created meanwhile
+     */
+    public void evictCreated(Customer customer) {
+        if (customer == null) {
+            return;
+        }
+        evictKeysLocal(customer);
+        invalidationPublisher.publishKeys(keysOf(customer));
+    }
+
+    /**
+     * Drop a customer after it was deleted
+     */
+    public void evict(String customerId) {
+        evictLocal(customerId);
+        invalidationPublisher.publish(customerId, CacheInvalidation.ANY_VERSION, Map.of());
+    }
+
+    /**
+     * Drop a customer found to be stale here (e.g. by a version conflict); other nodes are not
+     * told, the write that made it stale already did
+     */
+    public void evictStale(String customerId) {
+        evictLocal(customerId);
+    }
+
+    /**
+     * Apply an invalidation published by another node: the mappings of the given key values
+     * are dropped; a cached customer that is already at that version (or newer) is kept
+     *
+     * @return true if the customer was cached and got evicted
+     */
+    public boolean evictRemote(String customerId, long version, Map<AlternateKey, Set<String>> keys) {
+        if (byId == null) {
+            return false;
+        }
+        if (keys != null) {
+            keys.forEach((key, values) -> values.forEach(value -> byKey.asMap().remove(new KeyRef(key, value))));
+        }
+        if (customerId == null) {
+            return false;
+        }
+        renderedCustomerCache.evict(customerId);
+        boolean[] evicted = {false};
+        byId.synchronous().asMap().computeIfPresent(customerId, (id, cached) -> {
+            if (cached.getVersion() != null && cached.getVersion() >= version) {
+                return cached;
+            }
+            evicted[0] = true;
+            return null;
+        });
+        return evicted[0];
+    }
+
+    /**
+     * Alternate key values of a customer, as carried by invalidation messages
+     */
+    private static Map<AlternateKey, Set<String>> keysOf(Customer customer) {
+        Map<AlternateKey, Set<String>> keys = new EnumMap<>(AlternateKey.class);
+        for (AlternateKey key : AlternateKey.values()) {
+            String value = key.valueOf(customer);
+            if (value != null) {
+                keys.put(key, Set.of(value));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Version of a customer as carried by invalidation messages (the optimistic lock version,
+     * bumped by the database on every write, so it does not depend on any node's clock)
+     */
+    static long versionOf(Customer customer) {
+        Long version = customer.getVersion();
+        return version == null ? CacheInvalidation.ANY_VERSION : version;
+    }
+
+    /**
+     * Version of the cached customer, if its load has completed (never waits for one in flight)
+     */
+    private Optional<Long> cachedVersion(String customerId) {
+        if (byId == null) {
+            return Optional.empty();
+        }
+        CompletableFuture<Customer> cached = byId.getIfPresent(customerId);
+        if (cached == null || !cached.isDone() || cached.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cached.getNow(null)).map(Customer::getVersion);
+    }
+
+    private void evictKeysLocal(Customer customer) {
+        if (byKey != null) {
+            for (AlternateKey key : AlternateKey.values()) {
+                String value = key.valueOf(customer);
+                if (value != null) {
+                    byKey.asMap().remove(new KeyRef(key, value));
+                }
+            }
+        }
+    }
+
+    private void evictLocal(String customerId) {
+        if (byId != null && customerId != null) {
+            byId.asMap().remove(customerId);
+            renderedCustomerCache.evict(customerId);
+            log.debug("Evicted customer {} from cache", customerId);
+        }
+    }
+
+    private Mono<String> resolve(KeyRef ref) {
+        return Mono.fromFuture(() -> byKey.get(ref, (r, executor) ->
+                r.key().find(reactiveCustomerRepository, r.value())
+                        .map(Customer::getCustomerId)
+                        .defaultIfEmpty(NOT_FOUND)
+                        .toFuture()), true);
+    }
+
+    private record KeyRef(AlternateKey key, String value) {
+    }
+
+    /**
+     * Positive mappings live for the configured TTL, negative ones for the negative TTL
+     */
+    private record KeyExpiry(Duration ttl, Duration negativeTtl) implements Expiry<KeyRef, String> {
+
+        @Override
+        public long expireAfterCreate(KeyRef key, String customerId, long currentTime) {
+            return (NOT_FOUND.equals(customerId) ? negativeTtl : ttl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(KeyRef key, String customerId, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, customerId, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(KeyRef key, String customerId, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
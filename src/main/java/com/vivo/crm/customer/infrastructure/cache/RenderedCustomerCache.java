@@ -0,0 +1,100 @@
+package com.vivo.crm.customer.infrastructure.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.infrastructure.config.CustomerCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+
+/**
+ * Serialized TMF representations of customers, ready to be written to the response
+ *
+ * Entries are keyed by (customerId, representation) and hold the version they were
+ * rendered from; a customer whose version differs is rendered again, so a stale
+ * representation is never served. {@link CustomerCache} drops the entries of a customer
+ * together with the customer itself. Bounded by total size in bytes.
+ *
+ * Metrics: cache.* (cache=customer.rendered)
+ */
+@Component
+public class RenderedCustomerCache {
+
+    static final String RENDERED = "customer.rendered";
+
+    public enum Representation {
+        TMF629_CUSTOMER, TMF669_PARTY_ROLE
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Cache<RenderKey, Rendered> rendered;
+
+    public RenderedCustomerCache(ObjectMapper objectMapper, CustomerCacheProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        if (properties.isEnabled()) {
+            this.rendered = Caffeine.newBuilder()
+                    .maximumWeight(properties.getRenderedMaximumSize().toBytes())
+                    .weigher((RenderKey key, Rendered value) -> value.json().length)
+                    .expireAfterWrite(properties.getById().getTtl())
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, rendered, RENDERED);
+        } else {
+            this.rendered = null;
+        }
+    }
+
+    /**
+     * JSON of a customer in the given representation, rendered and serialized only when
+     * this version of the customer has not been rendered yet
+     */
+    public byte[] render(Customer customer, Representation representation, Function<Customer, Object> renderer) {
+        if (rendered == null || customer.getVersion() == null) {
+            return serialize(renderer.apply(customer));
+        }
+
+        long version = CustomerCache.versionOf(customer);
+        RenderKey key = new RenderKey(customer.getCustomerId(), representation);
+        Rendered cached = rendered.getIfPresent(key);
+        if (cached != null && cached.version() == version) {
+            return cached.json();
+        }
+
+        byte[] json = serialize(renderer.apply(customer));
+        rendered.asMap().merge(key, new Rendered(version, json),
+                (current, next) -> current.version() > next.version() ? current : next);
+        return json;
+    }
+
+    /**
+     * Drop every representation of a customer
+     */
+    public void evict(String customerId) {
+        if (rendered != null && customerId != null) {
+            for (Representation representation : Representation.values()) {
+                rendered.invalidate(new RenderKey(customerId, representation));
+            }
+        }
+    }
+
+    private byte[] serialize(Object representation) {
+        try {
+            return objectMapper.writeValueAsBytes(representation);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record RenderKey(String customerId, Representation representation) {
+    }
+
+    private record Rendered(long version, byte[] json) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.vivo.crm.customer.infrastructure.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight coalescing of concurrent lookups
+ *
+ * Subscribers asking for the same (lookup, key) while a load is in flight join that load
+ * instead of starting their own, and all of them get its value or its error. The load is
+ * only cancelled when every subscriber has cancelled. Nothing is cached: once the load
+ * terminates the next subscriber starts a new one.
+ *
+ * Metrics: customer.lookup.coalesced{lookup} (loads saved by joining an in-flight one)
+ */
+@Component
+@Slf4j
+public class SingleFlight {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<FlightKey, Mono<?>> inFlight = new ConcurrentHashMap<>();
+
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Join the in-flight load of {@code key}, or start one with {@code loader}
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> load(String lookup, String key, Supplier<Mono<T>> loader) {
+        return Mono.defer(() -> {
+            FlightKey flightKey = new FlightKey(lookup, key);
+            boolean[] started = {false};
+            Mono<T> flight = (Mono<T>) inFlight.computeIfAbsent(flightKey, k -> {
+                started[0] = true;
+                return share(k, loader.get());
+            });
+            if (!started[0]) {
+                meterRegistry.counter("customer.lookup.coalesced", "lookup", lookup).increment();
+                log.debug("Joined in-flight {} lookup for {}", lookup, key);
+            }
+            return flight;
+        });
+    }
+
+    private <T> Mono<T> share(FlightKey key, Mono<T> load) {
+        AtomicReference<Mono<T>> self = new AtomicReference<>();
+        // refCount: the load is cancelled once the last subscriber is gone
+        Mono<T> shared = load
+                .doFinally(signal -> inFlight.remove(key, self.get()))
+                .flux()
+                .publish()
+                .refCount(1)
+                .singleOrEmpty();
+        self.set(shared);
+        return shared;
+    }
+
+    private record FlightKey(String lookup, String key) {
+    }
+}
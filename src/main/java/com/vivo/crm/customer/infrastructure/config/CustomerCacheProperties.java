@@ -0,0 +1,93 @@
+package com.vivo.crm.customer.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Settings for the in-process customer caches
+ * Prefix: customer-service.cache
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "customer-service.cache")
+public class CustomerCacheProperties {
+
+    /**
+     * Disables every customer cache (lookups always go to the database)
+     */
+    private boolean enabled = true;
+
+    /**
+     * Customers by id
+     */
+    private Spec byId = new Spec(50_000, Duration.ofMinutes(5));
+
+    /**
+     * Email, CPF/CNPJ, externalId and partyRoleId to customer id
+     */
+    private Spec byKey = new Spec(200_000, Duration.ofMinutes(10));
+
+    /**
+     * How long a lookup that found no customer is remembered
+     */
+    private Duration negativeTtl = Duration.ofSeconds(30);
+
+    /**
+     * Memory budget for pre-rendered TMF629/TMF669 JSON of cached customers
+     */
+    private DataSize renderedMaximumSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Cluster-wide invalidation over Kafka
+     */
+    private Invalidation invalidation = new Invalidation();
+
+    @Data
+    public static class Spec {
+
+        /**
+         * Maximum number of entries; least valuable entries are evicted first
+         */
+        private long maximumSize;
+
+        /**
+         * Time after which an entry is dropped even if it is still being read
+         */
+        private Duration ttl;
+
+        public Spec() {
+        }
+
+        public Spec(long maximumSize, Duration ttl) {
+            this.maximumSize = maximumSize;
+            this.ttl = ttl;
+        }
+    }
+
+    @Data
+    public static class Invalidation {
+
+        /**
+         * Publish local evictions and apply evictions published by other nodes
+         */
+        private boolean enabled = false;
+
+        private String topic = "customer-cache-invalidation";
+
+        /**
+         * Evictions of the same customer within this window are sent as one message
+         */
+        private Duration coalesceWindow = Duration.ofMillis(50);
+
+        /**
+         * Identifies this node in the messages it publishes, so it can skip its own; must be
+         * unique, need not be stable (the topic is consumed without a consumer group)
+         */
+        private String nodeId = UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,44 @@
+package com.vivo.crm.customer.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Request deadlines: how long a request may take before it is abandoned (504) and its
+ * database work cancelled
+ * Prefix: customer-service.deadline
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "customer-service.deadline")
+public class DeadlineProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Request header with the client's own timeout, in milliseconds
+     */
+    private String header = "X-Request-Timeout";
+
+    /**
+     * Deadline of requests that neither send the header nor match an endpoint below;
+     * zero means no deadline
+     */
+    private Duration defaultTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Upper bound for the timeout asked for in the header
+     */
+    private Duration maxTimeout = Duration.ofSeconds(60);
+
+    /**
+     * Deadline per path pattern (e.g. /api/v1/customers/export), first match wins;
+     * zero means no deadline
+     */
+    private Map<String, Duration> endpoints = new LinkedHashMap<>();
+}
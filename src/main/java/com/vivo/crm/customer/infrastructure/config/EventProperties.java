@@ -0,0 +1,19 @@
+package com.vivo.crm.customer.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Customer domain events published to Kafka
+ * Prefix: customer-service.events
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "customer-service.events")
+public class EventProperties {
+
+    private boolean enabled = false;
+
+    private String topic = "customer-events";
+}
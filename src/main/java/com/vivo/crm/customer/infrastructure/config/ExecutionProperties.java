@@ -0,0 +1,87 @@
+package com.vivo.crm.customer.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Where blocking (JDBC/JPA) calls run
+ * Prefix: customer-service.execution
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "customer-service.execution")
+public class ExecutionProperties {
+
+    /**
+     * bounded-elastic: a dedicated thread pool per operation (bulkhead);
+     * virtual-threads: one virtual thread per call, with concurrency limits
+     */
+    private Mode mode = Mode.BOUNDED_ELASTIC;
+
+    /**
+     * Bulkhead per operation (lookup, search, list, write, stream, export, bulk);
+     * operations not listed get the defaults of {@link Bulkhead}
+     */
+    private Map<String, Bulkhead> bulkheads = new HashMap<>();
+
+    /**
+     * Retry-After sent with the 503 when a call is shed (bulkhead full or limiter at its limit)
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /**
+     * Adaptive limit on the database work in flight, across all operations
+     */
+    private Limiter limiter = new Limiter();
+
+    /**
+     * Pinned virtual threads are reported (JFR jdk.VirtualThreadPinned) above this duration
+     */
+    private Duration pinnedThreshold = Duration.ofMillis(20);
+
+    public enum Mode {
+        BOUNDED_ELASTIC, VIRTUAL_THREADS
+    }
+
+    @Data
+    public static class Bulkhead {
+
+        /**
+         * Calls running at once (threads in bounded-elastic mode); defaults to the JDBC pool size
+         */
+        private Integer concurrency;
+
+        /**
+         * Calls waiting for one of those; beyond this calls are rejected
+         */
+        private int queue = 100;
+    }
+
+    @Data
+    public static class Limiter {
+
+        private boolean enabled = true;
+
+        private int initialLimit = 10;
+
+        private int minLimit = 1;
+
+        private int maxLimit = 200;
+
+        /**
+         * Weight of each new estimate in the limit (1.0 = take it as is)
+         */
+        private double smoothing = 1.0;
+
+        /**
+         * The no-load latency is re-measured about every probeMultiplier * limit calls,
+         * so the limit follows a database that became faster or slower for good
+         */
+        private int probeMultiplier = 30;
+    }
+}
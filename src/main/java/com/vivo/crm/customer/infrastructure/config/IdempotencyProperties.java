@@ -0,0 +1,80 @@
+package com.vivo.crm.customer.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Idempotency keys: retried POSTs carrying the same key get the first response back instead
+ * of creating the resource again
+ * Prefix: customer-service.idempotency
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "customer-service.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Request header with the client's key
+     */
+    private String header = "Idempotency-Key";
+
+    /**
+     * POST endpoints (path patterns) where the header is honoured; elsewhere it is ignored
+     */
+    private List<String> endpoints = new ArrayList<>(List.of("/api/v1/customers", "/tmf-api/customer/v5/customer"));
+
+    /**
+     * How long a response is replayed for its key
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * Responses kept in memory, at most; the least recently used go first
+     */
+    private long maxEntries = 100_000;
+
+    /**
+     * Larger responses are not stored (the key can then be retried)
+     */
+    private int maxBodySize = 64 * 1024;
+
+    /**
+     * How long a duplicate waits for the first request with its key to finish before
+     * giving up with 409
+     */
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Shared table of keys (opt-in): keys become visible to every node and survive restarts
+     */
+    private Table table = new Table();
+
+    @Data
+    public static class Table {
+
+        private boolean enabled = false;
+
+        /**
+         * How long a key stays reserved by a request still in flight on some node; a node that
+         * dies mid-request only blocks its keys for this long
+         */
+        private Duration inFlightTtl = Duration.ofMinutes(1);
+
+        /**
+         * How often a duplicate checks the table while the first request runs on another node
+         */
+        private Duration pollInterval = Duration.ofMillis(100);
+
+        /**
+         * How often expired keys are deleted
+         */
+        private Duration purgeInterval = Duration.ofMinutes(10);
+    }
+}
@@ -0,0 +1,53 @@
+package com.vivo.crm.customer.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Pagination settings for the TMF list endpoints
+ * Prefix: customer-service.pagination
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "customer-service.pagination")
+public class PaginationProperties {
+
+    /**
+     * Upper bound for the TMF limit parameter
+     */
+    private int maxLimit = 1000;
+
+    /**
+     * Offsets above this value are served by seeking from the nearest known keyset anchor
+     */
+    private int keysetThreshold = 1000;
+
+    /**
+     * Maximum number of keyset anchors remembered
+     */
+    private int maxAnchors = 10000;
+
+    /**
+     * How long a keyset anchor stays valid
+     */
+    private Duration anchorTtl = Duration.ofMinutes(5);
+
+    private TotalCount totalCount = new TotalCount();
+
+    @Data
+    public static class TotalCount {
+
+        /**
+         * When false, X-Total-Count is omitted and no count query runs
+         */
+        private boolean enabled = true;
+
+        /**
+         * How long a computed total is reused
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,142 @@
+package com.vivo.crm.customer.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Persistence path used by CustomerServiceReactive
+ * Prefix: customer-service.persistence
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "customer-service.persistence")
+public class PersistenceProperties {
+
+    /**
+     * jpa: blocking JPA calls offloaded to the BlockingExecutor; r2dbc: non-blocking R2DBC driver
+     */
+    private Mode mode = Mode.JPA;
+
+    private R2dbc r2dbc = new R2dbc();
+
+    private UnitOfWork unitOfWork = new UnitOfWork();
+
+    private Bulk bulk = new Bulk();
+
+    private Transition transition = new Transition();
+
+    private WriteBehind writeBehind = new WriteBehind();
+
+    public enum Mode {
+        JPA, R2DBC
+    }
+
+    @Data
+    public static class R2dbc {
+
+        /**
+         * e.g. r2dbc:oracle://localhost:1521/xe
+         */
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int initialSize = 10;
+
+        private int maxSize = 50;
+
+        private Duration maxIdleTime = Duration.ofMinutes(30);
+    }
+
+    @Data
+    public static class UnitOfWork {
+
+        /**
+         * Queued units of work committed together in one transaction, at most
+         */
+        private int maxBatch = 20;
+
+        /**
+         * Transactions committing at once; further writes queue up and join the next batch
+         */
+        private int commitSlots = 2;
+    }
+
+    @Data
+    public static class Bulk {
+
+        /**
+         * Customers inserted per transaction by POST /customers/bulk
+         */
+        private int chunkSize = 1000;
+
+        /**
+         * INSERT statements sent per JDBC batch
+         */
+        private int jdbcBatchSize = 500;
+
+        /**
+         * Customers per UPDATE of a bulk status transition (Oracle allows 1000 values in an IN list)
+         */
+        private int transitionChunkSize = 500;
+    }
+
+    @Data
+    public static class Transition {
+
+        /**
+         * Times a status transition is retried (re-reading the customer) when another write
+         * changed it since it was read; 0 fails on the first conflict
+         */
+        private int conflictRetries = 3;
+
+        /**
+         * Backoff before the first retry (doubled on each further one, with jitter)
+         */
+        private Duration conflictBackoff = Duration.ofMillis(10);
+    }
+
+    @Data
+    public static class WriteBehind {
+
+        /**
+         * PUT /customers/{id} updates that only touch the fields below are acknowledged (202)
+         * once journaled, and written to the database later
+         */
+        private boolean enabled = false;
+
+        /**
+         * Non-critical customer attributes that may be written behind
+         */
+        private Set<String> fields = new LinkedHashSet<>(List.of("biometriaStatus", "contextData", "preferredChannel"));
+
+        /**
+         * Buffered updates are written at least this often
+         */
+        private Duration flushInterval = Duration.ofMillis(500);
+
+        /**
+         * ...or as soon as this many customers have buffered updates
+         */
+        private int maxEntries = 1000;
+
+        /**
+         * Local append-only journal of buffered updates, replayed on restart
+         */
+        private Path journal = Path.of("data", "customer-write-behind.journal");
+
+        /**
+         * fsync the journal on every append (survives a host crash, not only a process crash)
+         */
+        private boolean journalSync = false;
+    }
+}
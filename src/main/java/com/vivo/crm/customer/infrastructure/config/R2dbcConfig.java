@@ -0,0 +1,68 @@
+package com.vivo.crm.customer.infrastructure.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * R2DBC connection pool for customer-service.persistence.mode=r2dbc
+ *
+ * Built here rather than by Spring Boot's R2DBC auto-configuration, which is excluded:
+ * it would also register a reactive transaction manager next to the JPA one and fail
+ * at startup when no R2DBC URL is configured (the default JPA mode).
+ *
+ * The pool is not exposed as a ConnectionFactory bean: the JDBC DataSource auto-configuration
+ * backs off when one exists, and JPA still serves the paged listings and TMF endpoints.
+ * Likewise its transaction manager is only reachable through the TransactionalOperator
+ * bean, so @Transactional keeps meaning the JPA one.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "customer-service.persistence", name = "mode", havingValue = "r2dbc")
+public class R2dbcConfig implements DisposableBean {
+
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public DatabaseClient databaseClient(PersistenceProperties properties) {
+        PersistenceProperties.R2dbc r2dbc = properties.getR2dbc();
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(r2dbc.getUrl()).mutate();
+        if (r2dbc.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, r2dbc.getUsername());
+        }
+        if (r2dbc.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, r2dbc.getPassword());
+        }
+        ConnectionFactory connectionFactory = ConnectionFactories.get(options.build());
+
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .initialSize(r2dbc.getInitialSize())
+                .maxSize(r2dbc.getMaxSize())
+                .maxIdleTime(r2dbc.getMaxIdleTime())
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    /**
+     * Transactions on the pool; DatabaseClient calls inside one share its connection
+     */
+    @Bean
+    public TransactionalOperator r2dbcTransactionalOperator(DatabaseClient databaseClient) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(databaseClient.getConnectionFactory()));
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.vivo.crm.customer.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for cursor-backed streaming reads and bulk exports
+ * Prefix: customer-service.streaming
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "customer-service.streaming")
+public class StreamingProperties {
+
+    /**
+     * JDBC fetch size used by streaming queries (rows per round trip)
+     */
+    private int fetchSize = 500;
+
+    /**
+     * Bytes accumulated before a chunk of an export is handed to the response
+     */
+    private int exportChunkSize = 64 * 1024;
+}
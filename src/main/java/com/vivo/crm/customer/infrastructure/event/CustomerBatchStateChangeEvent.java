@@ -0,0 +1,24 @@
+package com.vivo.crm.customer.infrastructure.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Status change of a chunk of customers by a bulk transition (one event per chunk)
+ *
+ * @param eventId     unique id of this event
+ * @param eventTime   when the chunk was committed
+ * @param transition  ACTIVATE, DEACTIVATE or SUSPEND
+ * @param status      status the customers were moved to
+ * @param reason      reason given for the transition, if any
+ * @param actor       who requested it
+ * @param chunk       position of the chunk in the bulk transition, from 0
+ * @param customerIds customers of the chunk
+ * @param updated     how many of them changed (the others already had the status)
+ */
+public record CustomerBatchStateChangeEvent(String eventId, LocalDateTime eventTime, String transition,
+                                            String status, String reason, String actor, long chunk,
+                                            List<String> customerIds, int updated) {
+
+    public static final String EVENT_TYPE = "CustomerBatchStateChangeEvent";
+}
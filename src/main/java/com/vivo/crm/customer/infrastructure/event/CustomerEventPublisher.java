@@ -0,0 +1,51 @@
+package com.vivo.crm.customer.infrastructure.event;
+
+import com.vivo.crm.customer.infrastructure.config.EventProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes customer domain events to Kafka (fire and forget: a failed send is logged,
+ * the change itself is already committed)
+ *
+ * Metrics: customer.events.published{type}
+ */
+@Component
+@Slf4j
+public class CustomerEventPublisher {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final EventProperties properties;
+    private final Counter batchStateChanges;
+
+    public CustomerEventPublisher(KafkaTemplate<String, Object> kafkaTemplate, EventProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.properties = properties;
+        this.batchStateChanges = Counter.builder("customer.events.published")
+                .tag("type", CustomerBatchStateChangeEvent.EVENT_TYPE)
+                .register(meterRegistry);
+    }
+
+    public void publish(CustomerBatchStateChangeEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            kafkaTemplate.send(properties.getTopic(), event.eventId(), event)
+                    .whenComplete((result, error) -> {
+                        if (error != null) {
+                            log.warn("Failed to publish {} {}: {}", CustomerBatchStateChangeEvent.EVENT_TYPE,
+                                    event.eventId(), error.getMessage());
+                        }
+                    });
+            batchStateChanges.increment();
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish {} {}: {}", CustomerBatchStateChangeEvent.EVENT_TYPE,
+                    event.eventId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.vivo.crm.customer.infrastructure.execution;
+
+import com.vivo.crm.customer.infrastructure.config.ExecutionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive limit on database calls in flight (TCP Vegas style)
+ *
+ * Each call's latency is compared to the lowest latency seen for its operation (the no-load
+ * latency; a LIKE search or a bulk chunk is never as fast as a point lookup):
+ * limit * (1 - noLoad / latency) estimates how many calls are queued in the database or
+ * the connection pool rather than being served. A small queue grows the limit, a large one
+ * or a timeout shrinks it, by steps of log10(limit). While fewer than half the permits are
+ * used the latency says nothing about the limit, so it is left alone. A call arriving at
+ * the limit is rejected with {@link ConcurrencyLimitExceededException}.
+ *
+ * Metrics: customer.db.limit, customer.db.inflight, customer.db.rejected
+ */
+@Slf4j
+class AdaptiveConcurrencyLimit {
+
+    private final ExecutionProperties.Limiter config;
+    private final Duration retryAfter;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+    private volatile int limit;
+    private double estimate;
+    private final Map<String, Baseline> baselines = new HashMap<>();
+
+    AdaptiveConcurrencyLimit(ExecutionProperties.Limiter config, Duration retryAfter, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.retryAfter = retryAfter;
+        this.estimate = config.getInitialLimit();
+        this.limit = config.getInitialLimit();
+        Gauge.builder("customer.db.limit", this, AdaptiveConcurrencyLimit::getLimit)
+                .register(meterRegistry);
+        Gauge.builder("customer.db.inflight", inFlight, AtomicInteger::get)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("customer.db.rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a database call if the limit allows it, and learn from its latency
+     */
+    <T> T call(String operation, Callable<T> call) throws Exception {
+        int running = acquire();
+        if (running < 0) {
+            rejected.increment();
+            log.debug("Database limit {} reached, rejecting {} call", limit, operation);
+            throw new ConcurrencyLimitExceededException(operation, retryAfter);
+        }
+        long start = System.nanoTime();
+        boolean dropped = false;
+        try {
+            return call.call();
+        } catch (Exception e) {
+            // A statement cancelled because its caller went away says nothing about the database
+            dropped = isOverload(e) && !QueryScope.isCancelled();
+            throw e;
+        } finally {
+            inFlight.decrementAndGet();
+            onSample(operation, System.nanoTime() - start, running, dropped);
+        }
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Calls in flight including this one, or -1 at the limit
+     */
+    private int acquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    synchronized void onSample(String operation, long latencyNanos, int running, boolean dropped) {
+        Baseline baseline = baselines.computeIfAbsent(operation, o -> new Baseline(nextProbe()));
+        double step = Math.max(1, Math.log10(estimate));
+        double next;
+        if (dropped) {
+            next = estimate - step;
+        } else if (--baseline.untilProbe <= 0) {
+            // Start over from the current latency; the minimum is found again from there
+            baseline.noLoadNanos = latencyNanos;
+            baseline.untilProbe = nextProbe();
+            return;
+        } else if (baseline.noLoadNanos == 0 || latencyNanos < baseline.noLoadNanos) {
+            baseline.noLoadNanos = latencyNanos;
+            return;
+        } else if (running * 2 < estimate) {
+            return;
+        } else if (queued(baseline, latencyNanos) <= step) {
+            next = estimate + 6 * step;
+        } else if (queued(baseline, latencyNanos) < 3 * step) {
+            next = estimate + step;
+        } else if (queued(baseline, latencyNanos) > 6 * step) {
+            next = estimate - step;
+        } else {
+            return;
+        }
+
+        next = Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), next));
+        estimate = (1 - config.getSmoothing()) * estimate + config.getSmoothing() * next;
+        int updated = Math.max(config.getMinLimit(), (int) estimate);
+        if (updated != limit) {
+            log.debug("Database limit {} -> {} ({} latency {} us, no-load {} us)", limit, updated, operation,
+                    latencyNanos / 1_000, baselines.get(operation).noLoadNanos / 1_000);
+            limit = updated;
+        }
+    }
+
+    /**
+     * Calls estimated to be waiting rather than being served
+     */
+    private double queued(Baseline baseline, long latencyNanos) {
+        return Math.ceil(estimate * (1 - (double) baseline.noLoadNanos / latencyNanos));
+    }
+
+    private int nextProbe() {
+        int calls = Math.max(1, config.getProbeMultiplier() * Math.max(1, (int) estimate));
+        return calls + ThreadLocalRandom.current().nextInt(calls);
+    }
+
+    /**
+     * Query and connection timeouts mean the database is overloaded
+     */
+    private static boolean isOverload(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientException || cause instanceof jakarta.persistence.QueryTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * No-load latency of one operation, and samples left until it is measured again
+     */
+    private static final class Baseline {
+
+        private long noLoadNanos;
+        private int untilProbe;
+
+        private Baseline(int untilProbe) {
+            this.untilProbe = untilProbe;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.vivo.crm.customer.infrastructure.execution;
+
+import com.vivo.crm.customer.infrastructure.config.ExecutionProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs blocking JDBC/JPA calls off the event loop, in one bulkhead per operation
+ *
+ * Each operation (point lookups, searches, listings, writes, streams, exports, bulk loads) has its own
+ * concurrency and queue, so a slow LIKE scan cannot take the threads lookups need. A call
+ * arriving when its bulkhead already has concurrency + queue calls admitted is rejected at
+ * once with {@link BulkheadFullException} (served as 503 with Retry-After) rather than
+ * waiting behind them.
+ *
+ * In bounded-elastic mode each bulkhead has its own pool of platform threads, as many as
+ * its concurrency. In virtual-threads mode each call gets its own virtual thread, which waits
+ * (cheaply, unmounted) for a permit of its bulkhead and then for one of the JDBC pool size,
+ * instead of piling up on the pool's connection timeout.
+ *
+ * A stream stays admitted and holds a permit of its bulkhead until it terminates, since it holds
+ * its connection as long; so at most concurrency streams of an operation are open at once. In
+ * bounded-elastic mode an open stream only occupies a thread while it emits, so a stream
+ * waits for its permit on a bounded-elastic thread rather than on one the open streams need.
+ *
+ * A call whose request deadline (see {@link Deadline}) passed while it was queued fails with
+ * {@link DeadlineExceededException} without running; a running call's statements time out at
+ * the deadline and are cancelled if its subscriber cancels (see {@link QueryScope}).
+ *
+ * Once running, calls (not streams, whose duration is set by their consumer) also pass the
+ * {@link AdaptiveConcurrencyLimit} on all database work in flight, which sheds calls with
+ * {@link ConcurrencyLimitExceededException} when the database slows down.
+ *
+ * Metrics: customer.blocking.active{operation}, customer.blocking.queued{operation},
+ * customer.blocking.rejected{operation}, customer.blocking.wait{operation}
+ */
+@Component
+@Slf4j
+public class BlockingExecutor {
+
+    public static final String LOOKUP = "lookup";
+    public static final String SEARCH = "search";
+    public static final String LIST = "list";
+    public static final String WRITE = "write";
+    public static final String STREAM = "stream";
+    public static final String EXPORT = "export";
+    public static final String BULK = "bulk";
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private static final Permit NO_PERMIT = () -> {
+    };
+
+    private final ExecutionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final int poolSize;
+    private final Scheduler virtualThreads;
+    private final Semaphore connections;
+    private final AdaptiveConcurrencyLimit limit;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public BlockingExecutor(ExecutionProperties properties, ObjectProvider<DataSource> dataSource,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.poolSize = poolSizeOf(dataSource.getIfAvailable());
+        this.limit = properties.getLimiter().isEnabled()
+                ? new AdaptiveConcurrencyLimit(properties.getLimiter(), properties.getRetryAfter(), meterRegistry)
+                : null;
+        if (properties.getMode() == ExecutionProperties.Mode.VIRTUAL_THREADS) {
+            this.connections = new Semaphore(poolSize, true);
+            this.virtualThreads = Schedulers.fromExecutorService(
+                    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("customer-vt-", 0).factory()),
+                    "customer-virtual");
+            log.info("Blocking calls run on virtual threads, at most {} at a time", poolSize);
+        } else {
+            this.connections = null;
+            this.virtualThreads = null;
+        }
+    }
+
+    /**
+     * Run a blocking call in the operation's bulkhead, within the {@link Deadline} in the
+     * subscriber's context if any; cancelling the subscription cancels its JDBC statements
+     */
+    public <T> Mono<T> call(String operation, Callable<T> call) {
+        Bulkhead bulkhead = bulkhead(operation);
+        return Mono.using(bulkhead::admit,
+                admittedAt -> Mono.deferContextual(context -> {
+                    QueryScope scope = new QueryScope(Deadline.from(context).orElse(null));
+                    return Mono.fromCallable(() -> {
+                        Permit permit = bulkhead.start(admittedAt);
+                        try {
+                            return scope.run(operation, limit != null ? () -> limit.call(operation, call) : call);
+                        } finally {
+                            permit.release();
+                        }
+                    }).subscribeOn(bulkhead.scheduler).doOnCancel(scope::cancel);
+                }),
+                admittedAt -> bulkhead.leave());
+    }
+
+    /**
+     * Subscribe to a blocking source (e.g. a cursor) in the operation's bulkhead; it stays
+     * admitted and holds its permits until it terminates or is cancelled
+     */
+    public <T> Flux<T> stream(String operation, Flux<T> source) {
+        Bulkhead bulkhead = bulkhead(operation);
+        return Flux.using(bulkhead::admit,
+                admittedAt -> bulkhead.streams == null
+                        ? Flux.using(() -> bulkhead.start(admittedAt), permit -> source, Permit::release)
+                                .subscribeOn(bulkhead.scheduler)
+                        : Flux.using(() -> bulkhead.startStream(admittedAt),
+                                        permit -> source.subscribeOn(bulkhead.scheduler), Permit::release)
+                                .subscribeOn(Schedulers.boundedElastic()),
+                admittedAt -> bulkhead.leave());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bulkheads.values().forEach(bulkhead -> {
+            if (bulkhead.scheduler != virtualThreads) {
+                bulkhead.scheduler.dispose();
+            }
+        });
+        if (virtualThreads != null) {
+            virtualThreads.dispose();
+        }
+    }
+
+    private Bulkhead bulkhead(String operation) {
+        return bulkheads.computeIfAbsent(operation, this::newBulkhead);
+    }
+
+    private Bulkhead newBulkhead(String operation) {
+        ExecutionProperties.Bulkhead config = properties.getBulkheads()
+                .getOrDefault(operation, new ExecutionProperties.Bulkhead());
+        int concurrency = config.getConcurrency() != null ? config.getConcurrency() : poolSize;
+        Bulkhead bulkhead = virtualThreads != null
+                ? new Bulkhead(operation, concurrency, config.getQueue(), virtualThreads, null,
+                        new Semaphore(concurrency, true), null)
+                : newThreadPoolBulkhead(operation, concurrency, config.getQueue());
+
+        Gauge.builder("customer.blocking.active", bulkhead, Bulkhead::active)
+                .tag("operation", operation)
+                .register(meterRegistry);
+        Gauge.builder("customer.blocking.queued", bulkhead, Bulkhead::queued)
+                .tag("operation", operation)
+                .register(meterRegistry);
+        log.debug("Bulkhead {}: concurrency {}, queue {}", operation, concurrency, config.getQueue());
+        return bulkhead;
+    }
+
+    private Bulkhead newThreadPoolBulkhead(String operation, int concurrency, int queue) {
+        // Admission keeps the queue bounded, so the pool itself never has to reject
+        ThreadPoolExecutor threads = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), Thread.ofPlatform().name("customer-" + operation + "-", 0).daemon().factory());
+        threads.allowCoreThreadTimeOut(true);
+        return new Bulkhead(operation, concurrency, queue,
+                Schedulers.fromExecutorService(threads, "customer-" + operation), threads, null,
+                new Semaphore(concurrency, true));
+    }
+
+    private static int poolSizeOf(DataSource dataSource) {
+        try {
+            if (dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("Could not read the JDBC pool size, assuming {}", DEFAULT_POOL_SIZE, e);
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+
+    /**
+     * Concurrency and queue of one operation: a thread pool (bounded-elastic mode, plus a
+     * semaphore for its open streams) or a semaphore in front of the virtual threads
+     */
+    private final class Bulkhead {
+
+        private final String operation;
+        private final int concurrency;
+        private final int capacity;
+        private final Scheduler scheduler;
+        private final ThreadPoolExecutor threads;
+        private final Semaphore permits;
+        private final Semaphore streams;
+        private final AtomicInteger admitted = new AtomicInteger();
+        private final Counter rejected;
+        private final Timer waitTime;
+
+        Bulkhead(String operation, int concurrency, int queue, Scheduler scheduler,
+                 ThreadPoolExecutor threads, Semaphore permits, Semaphore streams) {
+            this.operation = operation;
+            this.concurrency = concurrency;
+            this.capacity = concurrency + queue;
+            this.scheduler = scheduler;
+            this.threads = threads;
+            this.permits = permits;
+            this.streams = streams;
+            this.rejected = Counter.builder("customer.blocking.rejected")
+                    .tag("operation", operation)
+                    .register(meterRegistry);
+            this.waitTime = Timer.builder("customer.blocking.wait")
+                    .tag("operation", operation)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Admit a call, on the subscribing thread; returns when it was admitted
+         */
+        long admit() {
+            if (admitted.incrementAndGet() > capacity) {
+                admitted.decrementAndGet();
+                rejected.increment();
+                log.debug("Bulkhead {} full, rejecting call", operation);
+                throw new BulkheadFullException(operation, properties.getRetryAfter());
+            }
+            return System.nanoTime();
+        }
+
+        void leave() {
+            admitted.decrementAndGet();
+        }
+
+        /**
+         * On the bulkhead's thread, before the call runs: in virtual-thread mode wait for the
+         * operation's permit, then for a connection's
+         */
+        Permit start(long admittedAt) throws InterruptedException {
+            if (permits == null) {
+                waitTime.record(System.nanoTime() - admittedAt, TimeUnit.NANOSECONDS);
+                return NO_PERMIT;
+            }
+            permits.acquire();
+            try {
+                connections.acquire();
+            } catch (InterruptedException e) {
+                permits.release();
+                throw e;
+            }
+            waitTime.record(System.nanoTime() - admittedAt, TimeUnit.NANOSECONDS);
+            return () -> {
+                connections.release();
+                permits.release();
+            };
+        }
+
+        /**
+         * Before a stream opens in bounded-elastic mode, off the bulkhead's threads: wait for
+         * one of the operation's stream permits
+         */
+        Permit startStream(long admittedAt) throws InterruptedException {
+            streams.acquire();
+            waitTime.record(System.nanoTime() - admittedAt, TimeUnit.NANOSECONDS);
+            return streams::release;
+        }
+
+        int active() {
+            return threads != null ? threads.getActiveCount() : concurrency - permits.availablePermits();
+        }
+
+        int queued() {
+            return threads != null ? threads.getQueue().size() : permits.getQueueLength();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Permit {
+
+        void release();
+    }
+}
@@ -0,0 +1,13 @@
+package com.vivo.crm.customer.infrastructure.execution;
+
+import java.time.Duration;
+
+/**
+ * A blocking call was rejected because its operation's bulkhead and queue are full
+ */
+public class BulkheadFullException extends RejectedCallException {
+
+    public BulkheadFullException(String operation, Duration retryAfter) {
+        super("Bulkhead full: " + operation, operation, retryAfter);
+    }
+}
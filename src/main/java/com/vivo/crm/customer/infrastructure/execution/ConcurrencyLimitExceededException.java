@@ -0,0 +1,13 @@
+package com.vivo.crm.customer.infrastructure.execution;
+
+import java.time.Duration;
+
+/**
+ * A blocking call was rejected because the database work in flight is at the adaptive limit
+ */
+public class ConcurrencyLimitExceededException extends RejectedCallException {
+
+    public ConcurrencyLimitExceededException(String operation, Duration retryAfter) {
+        super("Database concurrency limit reached: " + operation, operation, retryAfter);
+    }
+}
@@ -0,0 +1,11 @@
+package com.vivo.crm.customer.infrastructure.execution;
+
+/**
+ * A blocking call was not started because its request's deadline had already passed
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String operation) {
+        super("Deadline exceeded before " + operation + " call");
+    }
+}
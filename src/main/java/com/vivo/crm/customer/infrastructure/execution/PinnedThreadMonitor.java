@@ -0,0 +1,81 @@
+package com.vivo.crm.customer.infrastructure.execution;
+
+import com.vivo.crm.customer.infrastructure.config.ExecutionProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads pinned to their carrier (JFR jdk.VirtualThreadPinned)
+ *
+ * A virtual thread blocking inside a synchronized block or native frame keeps its carrier
+ * thread, so enough of them starve the whole virtual-thread scheduler. Pinned events above
+ * the configured threshold are logged with the frames that caused them and counted. The
+ * events are also in any JFR recording of the process (-XX:StartFlightRecording).
+ *
+ * Metrics: customer.blocking.pinned (count and duration)
+ */
+@Component
+@ConditionalOnProperty(prefix = "customer-service.execution", name = "mode", havingValue = "virtual-threads")
+@Slf4j
+public class PinnedThreadMonitor {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int LOGGED_FRAMES = 8;
+
+    private final ExecutionProperties properties;
+    private final Timer pinned;
+    private RecordingStream recording;
+
+    public PinnedThreadMonitor(ExecutionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.pinned = Timer.builder("customer.blocking.pinned").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(properties.getPinnedThreshold()).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::onPinned);
+        recording.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        if (log.isWarnEnabled()) {
+            log.warn("Virtual thread {} pinned for {} ms at {}",
+                    event.getThread() == null ? "?" : event.getThread().getJavaName(),
+                    event.getDuration().toMillis(),
+                    frames(event));
+        }
+    }
+
+    private static String frames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "(no stack trace)";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        return frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(f -> f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber())
+                .collect(Collectors.joining(" <- "));
+    }
+}
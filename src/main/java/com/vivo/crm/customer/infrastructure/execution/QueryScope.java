@@ -0,0 +1,115 @@
+package com.vivo.crm.customer.infrastructure.execution;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JDBC statements of one blocking call
+ *
+ * While the call runs, every statement its thread creates is registered here (see
+ * QueryScopeDataSource): it gets a query timeout for what is left of the request's deadline,
+ * and is cancelled on the database when the call's subscriber cancels, so abandoned work
+ * stops holding a connection and database capacity.
+ */
+@Slf4j
+public final class QueryScope {
+
+    private static final ThreadLocal<QueryScope> CURRENT = new ThreadLocal<>();
+
+    private final Deadline deadline;
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    QueryScope(Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Register a statement created on the current thread; no-op outside a blocking call
+     */
+    public static void register(Statement statement) throws SQLException {
+        QueryScope scope = CURRENT.get();
+        if (scope == null) {
+            return;
+        }
+        if (scope.deadline != null) {
+            long remainingMillis = scope.deadline.remaining().toMillis();
+            if (remainingMillis <= 0) {
+                throw new SQLTimeoutException("Request deadline exceeded");
+            }
+            // JDBC timeouts are in whole seconds
+            statement.setQueryTimeout((int) Math.max(1, (remainingMillis + 999) / 1000));
+        }
+        scope.statements.add(statement);
+        if (scope.cancelled) {
+            statement.cancel();
+        }
+    }
+
+    /**
+     * Whether the call running on this thread was cancelled by its subscriber
+     */
+    static boolean isCancelled() {
+        QueryScope scope = CURRENT.get();
+        return scope != null && scope.cancelled;
+    }
+
+    /**
+     * Run work on the current thread outside of its call's scope, e.g. work shared with other
+     * calls, which must not get this call's deadline nor be cancelled with it
+     */
+    public static <T> T detached(Callable<T> work) throws Exception {
+        QueryScope scope = CURRENT.get();
+        CURRENT.remove();
+        try {
+            return work.call();
+        } finally {
+            if (scope != null) {
+                CURRENT.set(scope);
+            }
+        }
+    }
+
+    <T> T run(String operation, Callable<T> call) throws Exception {
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException(operation);
+        }
+        CURRENT.set(this);
+        try {
+            return call.call();
+        } catch (Exception e) {
+            if (cancelled) {
+                // Nobody is listening any more; this is the cancelled statement failing
+                log.debug("Cancelled {} call ended: {}", operation, e.toString());
+                return null;
+            }
+            throw e;
+        } finally {
+            CURRENT.remove();
+            statements.clear();
+        }
+    }
+
+    /**
+     * Cancel the statements still running, from the cancelling thread
+     */
+    void cancel() {
+        cancelled = true;
+        for (Statement statement : statements) {
+            try {
+                if (!statement.isClosed()) {
+                    statement.cancel();
+                    log.debug("Cancelled statement of an abandoned call");
+                }
+            } catch (SQLException e) {
+                log.debug("Could not cancel statement", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.vivo.crm.customer.infrastructure.execution;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * A blocking call was shed instead of run; the client should retry after {@link #getRetryAfter()}
+ */
+@Getter
+public abstract class RejectedCallException extends RuntimeException {
+
+    private final String operation;
+    private final Duration retryAfter;
+
+    protected RejectedCallException(String message, String operation, Duration retryAfter) {
+        super(message);
+        this.operation = operation;
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,309 @@
+package com.vivo.crm.customer.infrastructure.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.vivo.crm.customer.infrastructure.config.StreamingProperties;
+import com.vivo.crm.customer.infrastructure.execution.BlockingExecutor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * TMF629 - Customer bulk exporter
+ * Streams the customer table as NDJSON or CSV straight from a forward-only JDBC cursor.
+ *
+ * Rows are written column by column from the ResultSet into the output (no entity, Map or
+ * DTO per row), optionally through gzip, and handed downstream in chunks of
+ * {@code exportChunkSize} bytes. A new chunk is only produced when downstream requests it,
+ * so heap usage is bounded by the fetch size and the chunk size.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerExporter {
+
+    private static final List<Column> COLUMNS = List.of(
+            new Column("customer_id", "id", ColumnType.STRING),
+            new Column("party_role_id", "partyRoleId", ColumnType.STRING),
+            new Column("external_id", "externalId", ColumnType.STRING),
+            new Column("customer_name", "name", ColumnType.STRING),
+            new Column("formatted_name", "formattedName", ColumnType.STRING),
+            new Column("given_name", "givenName", ColumnType.STRING),
+            new Column("family_name", "familyName", ColumnType.STRING),
+            new Column("preferred_given_name", "preferredGivenName", ColumnType.STRING),
+            new Column("trading_name", "tradingName", ColumnType.STRING),
+            new Column("identification_type", "identificationType", ColumnType.STRING),
+            new Column("identification_number", "identificationNumber", ColumnType.STRING),
+            new Column("credit_score", "creditScore", ColumnType.INTEGER),
+            new Column("credit_risk_rating", "creditRiskRating", ColumnType.INTEGER),
+            new Column("biometria_status", "biometriaStatus", ColumnType.STRING),
+            new Column("codigo_grupo", "codigoGrupo", ColumnType.STRING),
+            new Column("nome_grupo", "nomeGrupo", ColumnType.STRING),
+            new Column("email", "email", ColumnType.STRING),
+            new Column("phone", "phone", ColumnType.STRING),
+            new Column("cpf_cnpj", "cpfCnpj", ColumnType.STRING),
+            new Column("segment", "segment", ColumnType.STRING),
+            new Column("preferred_channel", "preferredChannel", ColumnType.STRING),
+            new Column("risk_level", "riskLevel", ColumnType.STRING),
+            new Column("status", "status", ColumnType.STRING),
+            new Column("created_at", "createdAt", ColumnType.TIMESTAMP),
+            new Column("updated_at", "updatedAt", ColumnType.TIMESTAMP),
+            new Column("created_by", "createdBy", ColumnType.STRING),
+            new Column("updated_by", "updatedBy", ColumnType.STRING));
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .disable(StreamWriteFeature.FLUSH_PASSED_TO_STREAM)
+            .build();
+
+    private final DataSource dataSource;
+    private final StreamingProperties properties;
+    private final BlockingExecutor blockingExecutor;
+
+    /**
+     * Export customers, optionally filtered by status and/or segment
+     */
+    public Flux<DataBuffer> export(ExportFormat format, String status, String segment,
+                                   boolean gzip, DataBufferFactory bufferFactory) {
+        return blockingExecutor.stream(BlockingExecutor.EXPORT, Flux.<DataBuffer, ExportCursor>generate(
+                () -> open(format, status, segment, gzip),
+                (cursor, sink) -> {
+                    cursor.nextChunk(bufferFactory, sink);
+                    return cursor;
+                },
+                ExportCursor::close));
+    }
+
+    private ExportCursor open(ExportFormat format, String status, String segment, boolean gzip)
+            throws SQLException, IOException {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(COLUMNS.get(i).name());
+        }
+        sql.append(" FROM customer");
+
+        List<String> parameters = new ArrayList<>();
+        if (status != null) {
+            sql.append(" WHERE status = ?");
+            parameters.add(status);
+        }
+        if (segment != null) {
+            sql.append(parameters.isEmpty() ? " WHERE" : " AND").append(" segment = ?");
+            parameters.add(segment);
+        }
+
+        log.info("Starting customer export - format: {}, status: {}, segment: {}, gzip: {}",
+                format, status, segment, gzip);
+
+        Connection connection = dataSource.getConnection();
+        try {
+            connection.setReadOnly(true);
+            PreparedStatement statement = connection.prepareStatement(
+                    sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(properties.getFetchSize());
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setString(i + 1, parameters.get(i));
+            }
+            ResultSet resultSet = statement.executeQuery();
+            return new ExportCursor(connection, resultSet, format, gzip, properties.getExportChunkSize());
+        } catch (SQLException | IOException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Open JDBC cursor plus the output state of one export
+     */
+    private static final class ExportCursor {
+
+        private final Connection connection;
+        private final ResultSet resultSet;
+        private final ExportFormat format;
+        private final int chunkSize;
+
+        private final ByteArrayOutputStream chunk;
+        private final OutputStream out;
+        private final JsonGenerator json;
+
+        private long rows;
+        private boolean finished;
+
+        ExportCursor(Connection connection, ResultSet resultSet, ExportFormat format,
+                     boolean gzip, int chunkSize) throws IOException {
+            this.connection = connection;
+            this.resultSet = resultSet;
+            this.format = format;
+            this.chunkSize = chunkSize;
+            this.chunk = new ByteArrayOutputStream(chunkSize + 8192);
+            this.out = gzip ? new GZIPOutputStream(chunk, 8192) : chunk;
+            this.json = format == ExportFormat.NDJSON ? JSON_FACTORY.createGenerator(out) : null;
+
+            if (format == ExportFormat.CSV) {
+                writeCsvHeader();
+            }
+        }
+
+        void nextChunk(DataBufferFactory bufferFactory, SynchronousSink<DataBuffer> sink) {
+            if (finished) {
+                sink.complete();
+                return;
+            }
+            try {
+                while (chunk.size() < chunkSize && resultSet.next()) {
+                    if (format == ExportFormat.NDJSON) {
+                        writeJsonRow();
+                    } else {
+                        writeCsvRow();
+                    }
+                    rows++;
+                }
+                if (chunk.size() < chunkSize) {
+                    // Cursor exhausted: flush the encoder (and gzip trailer) into the last chunk
+                    finished = true;
+                    if (json != null) {
+                        json.flush();
+                    }
+                    out.close();
+                    log.info("Customer export finished - {} rows", rows);
+                }
+            } catch (SQLException e) {
+                sink.error(new IllegalStateException("Customer export failed", e));
+                return;
+            } catch (IOException e) {
+                sink.error(new UncheckedIOException(e));
+                return;
+            }
+
+            if (chunk.size() > 0) {
+                DataBuffer buffer = bufferFactory.allocateBuffer(chunk.size());
+                buffer.write(chunk.toByteArray());
+                chunk.reset();
+                sink.next(buffer);
+            } else {
+                sink.complete();
+            }
+        }
+
+        private void writeJsonRow() throws SQLException, IOException {
+            json.writeStartObject();
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                Column column = COLUMNS.get(i);
+                int index = i + 1;
+                switch (column.type()) {
+                    case STRING -> {
+                        String value = resultSet.getString(index);
+                        if (value != null) {
+                            json.writeStringField(column.field(), value);
+                        }
+                    }
+                    case INTEGER -> {
+                        int value = resultSet.getInt(index);
+                        if (!resultSet.wasNull()) {
+                            json.writeNumberField(column.field(), value);
+                        }
+                    }
+                    case TIMESTAMP -> {
+                        Timestamp value = resultSet.getTimestamp(index);
+                        if (value != null) {
+                            json.writeStringField(column.field(), value.toLocalDateTime().toString());
+                        }
+                    }
+                }
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+            json.flush();
+        }
+
+        private void writeCsvHeader() throws IOException {
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                line.append(i == 0 ? "" : ",").append(COLUMNS.get(i).field());
+            }
+            out.write(line.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void writeCsvRow() throws SQLException, IOException {
+            StringBuilder line = new StringBuilder(256);
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                int index = i + 1;
+                switch (COLUMNS.get(i).type()) {
+                    case STRING -> appendCsv(line, resultSet.getString(index));
+                    case INTEGER -> {
+                        int value = resultSet.getInt(index);
+                        if (!resultSet.wasNull()) {
+                            line.append(value);
+                        }
+                    }
+                    case TIMESTAMP -> {
+                        Timestamp value = resultSet.getTimestamp(index);
+                        if (value != null) {
+                            line.append(value.toLocalDateTime());
+                        }
+                    }
+                }
+            }
+            out.write(line.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static void appendCsv(StringBuilder line, String value) {
+            if (value == null) {
+                return;
+            }
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                line.append(value);
+                return;
+            }
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    line.append('"');
+                }
+                line.append(c);
+            }
+            line.append('"');
+        }
+
+        void close() {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.warn("Error closing export connection", e);
+            }
+        }
+    }
+
+    private enum ColumnType {
+        STRING, INTEGER, TIMESTAMP
+    }
+
+    private record Column(String name, String field, ColumnType type) {
+    }
+}
@@ -0,0 +1,256 @@
+package com.vivo.crm.customer.infrastructure.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vivo.crm.customer.infrastructure.config.IdempotencyProperties;
+import com.vivo.crm.customer.infrastructure.execution.BlockingExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Responses stored per idempotency key, for the TTL
+ *
+ * Responses are kept in memory (bounded by size and TTL), so a replay on the node that
+ * answered first never reaches the database. With the table enabled they are also written to
+ * idempotency_key, where every node finds them, and a key is reserved there (a row without
+ * status) before its first request runs, so two nodes never run the same key at once. Rows
+ * past expires_at count as absent and are purged periodically.
+ *
+ * Concurrent requests with the same key on this node are coordinated with a {@link Flight}:
+ * the first one runs, the others wait for its response.
+ *
+ * Metrics: cache.gets{result=hit|miss}, cache.size (cache=idempotency)
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    private static final TypeReference<Map<String, String>> HEADERS = new TypeReference<>() {
+    };
+
+    private final IdempotencyProperties properties;
+    private final BlockingExecutor blockingExecutor;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, StoredResponse> responses;
+    private final Map<String, CompletableFuture<Optional<StoredResponse>>> inFlight = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService purger;
+
+    public IdempotencyStore(IdempotencyProperties properties, BlockingExecutor blockingExecutor,
+                            DataSource dataSource, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.blockingExecutor = blockingExecutor;
+        this.objectMapper = objectMapper;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "idempotency");
+
+        if (properties.isEnabled() && properties.getTable().isEnabled()) {
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            long interval = properties.getTable().getPurgeInterval().toMillis();
+            this.purger = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "idempotency-purge");
+                thread.setDaemon(true);
+                return thread;
+            });
+            purger.scheduleWithFixedDelay(this::purge, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.jdbcTemplate = null;
+            this.purger = null;
+        }
+    }
+
+    /**
+     * Response stored in memory for a key, without going to the table
+     */
+    public Optional<StoredResponse> cached(String key) {
+        return Optional.ofNullable(responses.getIfPresent(key));
+    }
+
+    /**
+     * Response stored for a key, in memory or else in the table; with the table, a key reserved
+     * by a request still in flight is found as an incomplete response
+     */
+    public Mono<StoredResponse> find(String key) {
+        StoredResponse cached = responses.getIfPresent(key);
+        if (cached != null || jdbcTemplate == null) {
+            return Mono.justOrEmpty(cached);
+        }
+        return blockingExecutor.call(BlockingExecutor.LOOKUP, () -> {
+            List<StoredResponse> rows = jdbcTemplate.query(
+                    "SELECT fingerprint, status, headers, body FROM idempotency_key"
+                            + " WHERE idempotency_key = ? AND expires_at > ?",
+                    this::toResponse, key, Timestamp.from(Instant.now()));
+            return rows.isEmpty() ? null : rows.get(0);
+        }).doOnNext(found -> {
+            if (found.isComplete()) {
+                responses.put(key, found);
+            }
+        });
+    }
+
+    /**
+     * Reserve a key in the table for a request about to run
+     *
+     * @return false if the key is already reserved or answered (by any node); always true
+     * without the table
+     */
+    public Mono<Boolean> reserve(String key, String fingerprint) {
+        if (jdbcTemplate == null) {
+            return Mono.just(true);
+        }
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            Instant now = Instant.now();
+            jdbcTemplate.update("DELETE FROM idempotency_key WHERE idempotency_key = ? AND expires_at <= ?",
+                    key, Timestamp.from(now));
+            try {
+                jdbcTemplate.update("INSERT INTO idempotency_key (idempotency_key, fingerprint, expires_at)"
+                                + " VALUES (?, ?, ?)",
+                        key, fingerprint, Timestamp.from(now.plus(properties.getTable().getInFlightTtl())));
+                return true;
+            } catch (DuplicateKeyException e) {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Keep the response of a key for the TTL; it is in memory once this returns, the returned
+     * Mono writes it to the table
+     */
+    public Mono<Void> save(String key, StoredResponse response) {
+        responses.put(key, response);
+        if (jdbcTemplate == null) {
+            return Mono.empty();
+        }
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> jdbcTemplate.update(
+                "UPDATE idempotency_key SET status = ?, headers = ?, body = ?, expires_at = ?"
+                        + " WHERE idempotency_key = ?",
+                response.status(), objectMapper.writeValueAsString(response.headers()), response.body(),
+                Timestamp.from(Instant.now().plus(properties.getTtl())), key)).then();
+    }
+
+    /**
+     * Give up the reservation of a key whose request produced nothing worth replaying, so it
+     * can be retried
+     */
+    public Mono<Void> release(String key) {
+        if (jdbcTemplate == null) {
+            return Mono.empty();
+        }
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> jdbcTemplate.update(
+                "DELETE FROM idempotency_key WHERE idempotency_key = ? AND status IS NULL", key)).then();
+    }
+
+    /**
+     * Join the request running with a key on this node, or become it
+     */
+    public Flight begin(String key) {
+        CompletableFuture<Optional<StoredResponse>> mine = new CompletableFuture<>();
+        CompletableFuture<Optional<StoredResponse>> running = inFlight.putIfAbsent(key, mine);
+        return running == null ? new Flight(key, mine, true) : new Flight(key, running, false);
+    }
+
+    /**
+     * Delete the expired rows of the table
+     */
+    void purge() {
+        try {
+            int purged = jdbcTemplate.update("DELETE FROM idempotency_key WHERE expires_at <= ?",
+                    Timestamp.from(Instant.now()));
+            log.debug("Purged {} expired idempotency keys", purged);
+        } catch (RuntimeException e) {
+            log.warn("Could not purge expired idempotency keys: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+
+    private StoredResponse toResponse(ResultSet rs, int row) throws SQLException {
+        String fingerprint = rs.getString("fingerprint");
+        int status = rs.getInt("status");
+        if (rs.wasNull()) {
+            return StoredResponse.inFlight(fingerprint);
+        }
+        String headers = rs.getString("headers");
+        byte[] body = rs.getBytes("body");
+        try {
+            return new StoredResponse(fingerprint, status,
+                    headers == null ? Map.of() : objectMapper.readValue(headers, HEADERS),
+                    body == null ? new byte[0] : body);
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Unreadable headers stored for an idempotency key", e);
+        }
+    }
+
+    /**
+     * A request with some key running on this node; the first one to begin owns it and must
+     * {@link #finish} it, the others wait for its {@link #result}
+     */
+    public final class Flight {
+
+        private final String key;
+        private final CompletableFuture<Optional<StoredResponse>> future;
+        private final boolean owner;
+
+        private Flight(String key, CompletableFuture<Optional<StoredResponse>> future, boolean owner) {
+            this.key = key;
+            this.future = future;
+            this.owner = owner;
+        }
+
+        public boolean isOwner() {
+            return owner;
+        }
+
+        /**
+         * Response of the owner, empty if it left nothing to replay (the waiters then start over)
+         */
+        public Mono<Optional<StoredResponse>> result(Duration timeout) {
+            // suppressCancel: a waiter giving up must not complete the owner's flight
+            return Mono.fromFuture(future, true).timeout(timeout);
+        }
+
+        /**
+         * End the flight (owner only; repeated calls are ignored)
+         */
+        public void finish(StoredResponse response) {
+            if (owner) {
+                inFlight.remove(key, future);
+                future.complete(Optional.ofNullable(response));
+            }
+        }
+    }
+}
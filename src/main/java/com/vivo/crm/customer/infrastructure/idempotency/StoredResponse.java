@@ -0,0 +1,21 @@
+package com.vivo.crm.customer.infrastructure.idempotency;
+
+import java.util.Map;
+
+/**
+ * Response kept for an idempotency key: status, the headers worth replaying and the body bytes,
+ * with the fingerprint of the request that produced it
+ *
+ * A response with status 0 stands for a key reserved in the shared table by a request still
+ * in flight (on this node or another one).
+ */
+public record StoredResponse(String fingerprint, int status, Map<String, String> headers, byte[] body) {
+
+    static StoredResponse inFlight(String fingerprint) {
+        return new StoredResponse(fingerprint, 0, Map.of(), new byte[0]);
+    }
+
+    public boolean isComplete() {
+        return status != 0;
+    }
+}
@@ -0,0 +1,150 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.infrastructure.config.PersistenceProperties;
+import jakarta.persistence.Column;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Inserts new customers in bulk (blocking)
+ *
+ * A chunk of customers is inserted in one transaction, as JDBC batches of jdbcBatchSize
+ * statements (the persistence context is flushed and cleared after each batch, so memory
+ * does not grow with the chunk). Customers violating a column constraint (required, too
+ * long) are reported without being sent to the database. If the chunk's transaction fails,
+ * e.g. on a duplicate key, its customers are inserted again one transaction each, so only
+ * the offending ones fail.
+ */
+@Component
+@Slf4j
+public class CustomerBulkWriter {
+
+    private static final List<ColumnRule> RULES = Arrays.stream(Customer.class.getDeclaredFields())
+            .filter(field -> field.isAnnotationPresent(Column.class) && field.getType() == String.class)
+            .map(ColumnRule::of)
+            .toList();
+
+    private final TransactionTemplate transactionTemplate;
+    private final PersistenceProperties.Bulk properties;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public CustomerBulkWriter(PlatformTransactionManager transactionManager, PersistenceProperties properties) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties.getBulk();
+    }
+
+    /**
+     * Customers per transaction
+     */
+    public int getChunkSize() {
+        return properties.getChunkSize();
+    }
+
+    /**
+     * Insert a chunk of new customers, assigning ids and creation defaults
+     *
+     * @return per customer, in order: null if inserted, else why it was not
+     */
+    public List<String> insert(List<Customer> customers) {
+        String[] errors = new String[customers.size()];
+        List<Customer> valid = new ArrayList<>(customers.size());
+        for (int i = 0; i < customers.size(); i++) {
+            Customer customer = customers.get(i);
+            customer.applyCreationDefaults();
+            errors[i] = validate(customer);
+            if (errors[i] == null) {
+                valid.add(customer);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(valid));
+        } catch (RuntimeException e) {
+            log.debug("Bulk insert of {} customers failed, inserting them one by one: {}", valid.size(), e.toString());
+            for (int i = 0; i < customers.size(); i++) {
+                if (errors[i] == null) {
+                    errors[i] = insertOne(customers.get(i));
+                }
+            }
+        }
+        return Arrays.asList(errors);
+    }
+
+    private void persist(List<Customer> customers) {
+        int batchSize = properties.getJdbcBatchSize();
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        for (int i = 0; i < customers.size(); i++) {
+            entityManager.persist(customers.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private String insertOne(Customer customer) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> entityManager.persist(customer.copy()));
+            return null;
+        } catch (RuntimeException e) {
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            return message == null ? e.getClass().getSimpleName() : message.lines().findFirst().orElse(message);
+        }
+    }
+
+    /**
+     * First column constraint the customer violates, or null
+     */
+    static String validate(Customer customer) {
+        for (ColumnRule rule : RULES) {
+            String error = rule.check(customer);
+            if (error != null) {
+                return error;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Length and nullability of a String column, as mapped on the entity
+     */
+    private record ColumnRule(Field field, int length, boolean nullable) {
+
+        static ColumnRule of(Field field) {
+            Column column = field.getAnnotation(Column.class);
+            field.setAccessible(true);
+            // Lengths of columns with an explicit definition (e.g. JSON) are not ours to check
+            int length = column.columnDefinition().isEmpty() ? column.length() : Integer.MAX_VALUE;
+            return new ColumnRule(field, length, column.nullable());
+        }
+
+        String check(Customer customer) {
+            String value;
+            try {
+                value = (String) field.get(customer);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+            if (value == null || value.isBlank()) {
+                return nullable ? null : field.getName() + " is required";
+            }
+            return value.length() > length ? field.getName() + " is longer than " + length + " characters" : null;
+        }
+    }
+}
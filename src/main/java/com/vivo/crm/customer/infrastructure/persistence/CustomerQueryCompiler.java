@@ -0,0 +1,270 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.TypedQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * TMF630 filter/sort compiler for Customer queries
+ *
+ * Only attributes backed by an index can be filtered or sorted on, so a client cannot
+ * trigger a full scan of the customer table through the TMF list endpoints.
+ *
+ * Filters are compiled into parameterized JPQL. The query text depends only on the
+ * shape of the request (attributes, operators, sort and selected columns), never on the
+ * values, and is cached per shape: Hibernate's query plan cache and the driver's
+ * statement cache are reused across requests that differ only in their values.
+ */
+@Component
+@Slf4j
+public class CustomerQueryCompiler {
+
+    /**
+     * Filterable TMF attributes and the index backing each one
+     */
+    private static final Map<String, Filterable> FILTERABLE = Map.ofEntries(
+            Map.entry("id", new Filterable("customerId", ValueType.STRING)),                   // PK
+            Map.entry("partyRoleId", new Filterable("partyRoleId", ValueType.STRING)),         // idx_customer_party_role_id
+            Map.entry("externalId", new Filterable("externalId", ValueType.STRING)),           // idx_customer_external_id
+            Map.entry("email", new Filterable("email", ValueType.STRING)),                     // idx_customer_email
+            Map.entry("cpfCnpj", new Filterable("cpfCnpj", ValueType.STRING)),                 // idx_customer_cpf_cnpj
+            Map.entry("status", new Filterable("status", ValueType.STRING)),                   // idx_customer_status
+            Map.entry("segment", new Filterable("segment", ValueType.STRING)),                 // idx_customer_segment
+            Map.entry("riskLevel", new Filterable("riskLevel", ValueType.STRING)),             // idx_customer_risk_level
+            Map.entry("creditScore", new Filterable("creditScore", ValueType.INTEGER)),        // idx_customer_credit_score
+            Map.entry("createdAt", new Filterable("createdAt", ValueType.DATE_TIME)));         // idx_customer_created_at_id
+
+    /**
+     * Sortable TMF attributes (all indexed)
+     */
+    private static final Map<String, String> SORTABLE = Map.of(
+            "id", "customerId",
+            "createdAt", "createdAt",
+            "creditScore", "creditScore",
+            "status", "status",
+            "segment", "segment",
+            "riskLevel", "riskLevel");
+
+    private static final int MAX_CACHED_SHAPES = 512;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<Shape, String> selectCache = new ConcurrentHashMap<>();
+    private final Map<Shape, String> countCache = new ConcurrentHashMap<>();
+
+    /**
+     * Validate filters and sort against the whitelist
+     *
+     * @throws IllegalArgumentException for attributes that are not filterable/sortable or bad values
+     */
+    public void validate(List<FilterCondition> conditions, Sort sort) {
+        for (FilterCondition condition : conditions) {
+            Filterable filterable = filterable(condition.attribute());
+            if (condition.values().isEmpty()) {
+                throw new IllegalArgumentException("Missing value for filter: " + condition.attribute());
+            }
+            if (condition.values().size() > 1
+                    && condition.operator() != FilterCondition.Operator.EQ
+                    && condition.operator() != FilterCondition.Operator.NE) {
+                throw new IllegalArgumentException("Multiple values only allowed with eq/ne: " + condition.attribute());
+            }
+            condition.values().forEach(filterable.type()::convert);
+        }
+        for (Sort.Order order : sort) {
+            sortable(order.getProperty());
+        }
+    }
+
+    /**
+     * Find customers matching the filters; with {@code attributes} only those columns are
+     * selected and detached, partially populated customers are returned
+     */
+    public List<Customer> find(List<FilterCondition> conditions, Sort sort, List<String> attributes,
+                               long offset, int limit) {
+        validate(conditions, sort);
+        Shape shape = Shape.of(conditions, sort, attributes);
+
+        String jpql = cached(selectCache, shape, this::selectJpql);
+        if (attributes == null) {
+            TypedQuery<Customer> query = entityManager.createQuery(jpql, Customer.class);
+            bind(query, conditions);
+            return query.setFirstResult((int) offset).setMaxResults(limit).getResultList();
+        }
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql, Tuple.class);
+        bind(query, conditions);
+        return query.setFirstResult((int) offset).setMaxResults(limit).getResultList().stream()
+                .map(CustomerQueryCompiler::toCustomer)
+                .toList();
+    }
+
+    /**
+     * Count customers matching the filters
+     */
+    public long count(List<FilterCondition> conditions) {
+        validate(conditions, Sort.unsorted());
+        Shape shape = Shape.of(conditions, Sort.unsorted(), null);
+
+        TypedQuery<Long> query = entityManager.createQuery(cached(countCache, shape, this::countJpql), Long.class);
+        bind(query, conditions);
+        return query.getSingleResult();
+    }
+
+    private String selectJpql(Shape shape) {
+        StringBuilder jpql = new StringBuilder("SELECT ");
+        if (shape.attributes() == null) {
+            jpql.append("c");
+        } else {
+            for (int i = 0; i < shape.attributes().size(); i++) {
+                String attribute = shape.attributes().get(i);
+                jpql.append(i == 0 ? "" : ", ").append("c.").append(attribute).append(" AS ").append(attribute);
+            }
+        }
+        jpql.append(" FROM Customer c");
+        appendWhere(jpql, shape.conditions());
+
+        // customerId last keeps the order total, so offset pages are stable
+        List<String> orderBy = new ArrayList<>();
+        for (Sort.Order order : shape.sort()) {
+            String attribute = sortable(order.getProperty());
+            orderBy.add("c." + attribute + (order.isDescending() ? " DESC" : " ASC"));
+        }
+        if (shape.sort().getOrderFor("id") == null) {
+            orderBy.add("c.customerId ASC");
+        }
+        jpql.append(" ORDER BY ").append(String.join(", ", orderBy));
+        return jpql.toString();
+    }
+
+    private String countJpql(Shape shape) {
+        StringBuilder jpql = new StringBuilder("SELECT COUNT(c) FROM Customer c");
+        appendWhere(jpql, shape.conditions());
+        return jpql.toString();
+    }
+
+    private static void appendWhere(StringBuilder jpql, List<ConditionShape> conditions) {
+        for (int i = 0; i < conditions.size(); i++) {
+            ConditionShape condition = conditions.get(i);
+            String attribute = filterable(condition.attribute()).attribute();
+            jpql.append(i == 0 ? " WHERE " : " AND ").append("c.").append(attribute);
+            if (condition.multiValued()) {
+                jpql.append(condition.operator() == FilterCondition.Operator.NE ? " NOT IN (:p" : " IN (:p")
+                        .append(i).append(")");
+            } else {
+                jpql.append(' ').append(condition.operator().getSymbol()).append(" :p").append(i);
+            }
+        }
+    }
+
+    private static void bind(TypedQuery<?> query, List<FilterCondition> conditions) {
+        for (int i = 0; i < conditions.size(); i++) {
+            FilterCondition condition = conditions.get(i);
+            ValueType type = filterable(condition.attribute()).type();
+            if (condition.values().size() > 1) {
+                query.setParameter("p" + i, condition.values().stream().map(type::convert).toList());
+            } else {
+                query.setParameter("p" + i, type.convert(condition.values().get(0)));
+            }
+        }
+    }
+
+    private String cached(Map<Shape, String> cache, Shape shape, Function<Shape, String> compiler) {
+        String jpql = cache.get(shape);
+        if (jpql == null) {
+            if (cache.size() >= MAX_CACHED_SHAPES) {
+                cache.clear();
+            }
+            jpql = cache.computeIfAbsent(shape, compiler);
+            log.debug("Compiled customer query shape: {}", jpql);
+        }
+        return jpql;
+    }
+
+    private static Customer toCustomer(Tuple tuple) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (TupleElement<?> element : tuple.getElements()) {
+            row.put(element.getAlias(), tuple.get(element));
+        }
+        return EntityProjector.toEntity(Customer.class, row);
+    }
+
+    private static Filterable filterable(String name) {
+        Filterable filterable = FILTERABLE.get(name);
+        if (filterable == null) {
+            throw new IllegalArgumentException("Filtering is not supported on attribute: " + name);
+        }
+        return filterable;
+    }
+
+    private static String sortable(String name) {
+        String attribute = SORTABLE.get(name);
+        if (attribute == null) {
+            throw new IllegalArgumentException("Sorting is not supported on attribute: " + name);
+        }
+        return attribute;
+    }
+
+    private enum ValueType {
+        STRING, INTEGER, DATE_TIME;
+
+        Object convert(String value) {
+            try {
+                return switch (this) {
+                    case STRING -> value;
+                    case INTEGER -> Integer.valueOf(value);
+                    case DATE_TIME -> parseDateTime(value);
+                };
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid value: " + value);
+            }
+        }
+
+        private static LocalDateTime parseDateTime(String value) {
+            if (value.length() == 10) {
+                return java.time.LocalDate.parse(value).atStartOfDay();
+            }
+            try {
+                return LocalDateTime.parse(value);
+            } catch (DateTimeParseException e) {
+                return OffsetDateTime.parse(value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            }
+        }
+    }
+
+    private record Filterable(String attribute, ValueType type) {
+    }
+
+    private record ConditionShape(String attribute, FilterCondition.Operator operator, boolean multiValued) {
+    }
+
+    /**
+     * Everything that determines the query text, and nothing that doesn't
+     */
+    private record Shape(List<ConditionShape> conditions, Sort sort, List<String> attributes) {
+
+        static Shape of(List<FilterCondition> conditions, Sort sort, List<String> attributes) {
+            List<ConditionShape> shapes = conditions.stream()
+                    .map(c -> new ConditionShape(c.attribute(), c.operator(), c.values().size() > 1))
+                    .toList();
+            return new Shape(shapes, sort, attributes == null ? null : List.copyOf(attributes));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.vivo.crm.customer.domain.model.StatusTransition;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.infrastructure.config.PersistenceProperties;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Set-based status transitions (blocking)
+ *
+ * Each chunk of customers is moved with one UPDATE ... WHERE customer_id IN (...) in its own
+ * transaction, instead of loading and saving every customer. With a filter, the chunk's ids
+ * are selected (in id order, after the previous chunk) in that same transaction.
+ */
+@Component
+public class CustomerStatusUpdater {
+
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PersistenceProperties.Bulk properties;
+
+    public CustomerStatusUpdater(CustomerRepository customerRepository, PlatformTransactionManager transactionManager,
+                                 PersistenceProperties properties) {
+        this.customerRepository = customerRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties.getBulk();
+    }
+
+    /**
+     * Customers per UPDATE
+     */
+    public int getChunkSize() {
+        return properties.getTransitionChunkSize();
+    }
+
+    /**
+     * Transition the given customers in one statement
+     */
+    public Chunk transition(List<String> customerIds, StatusTransition transition, String actor) {
+        return transactionTemplate.execute(status -> update(customerIds, transition, actor));
+    }
+
+    /**
+     * Transition the next chunk of customers matching the filter, after the given id
+     * (empty for the first chunk)
+     */
+    public Chunk transitionNext(Filter filter, String after, StatusTransition transition, String actor) {
+        return transactionTemplate.execute(status -> update(
+                customerRepository.findIdsForTransition(filter.segment(), filter.status(), filter.riskLevel(),
+                        transition.getStatus(), after, Limit.of(getChunkSize())),
+                transition, actor));
+    }
+
+    private Chunk update(List<String> customerIds, StatusTransition transition, String actor) {
+        if (customerIds.isEmpty()) {
+            return new Chunk(customerIds, 0);
+        }
+        int updated = customerRepository.updateStatus(customerIds, transition.getStatus(),
+                transition.getRiskLevel(), actor, LocalDateTime.now());
+        return new Chunk(customerIds, updated);
+    }
+
+    /**
+     * Customers to transition by attribute; null attributes match anything
+     */
+    public record Filter(String segment, String status, String riskLevel) {
+
+        public boolean isEmpty() {
+            return segment == null && status == null && riskLevel == null;
+        }
+    }
+
+    /**
+     * Customers of a chunk, and how many of them changed (the others already had the status)
+     */
+    public record Chunk(List<String> customerIds, int updated) {
+
+        public boolean isLast(int chunkSize) {
+            return customerIds.size() < chunkSize;
+        }
+
+        public String lastId() {
+            return customerIds.get(customerIds.size() - 1);
+        }
+    }
+}
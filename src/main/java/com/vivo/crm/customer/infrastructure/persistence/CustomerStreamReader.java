@@ -0,0 +1,111 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.infrastructure.config.StreamingProperties;
+import com.vivo.crm.customer.infrastructure.execution.BlockingExecutor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+/**
+ * TMF629 - Customer stream reader
+ * Streams customers from an open database cursor with backpressure.
+ *
+ * Each subscription gets its own EntityManager and read-only transaction (not bound to
+ * a thread, since Reactor may move the subscription between threads). Rows are fetched
+ * {@code fetchSize} at a time as downstream requests them and detached once emitted,
+ * so heap usage does not grow with the size of the result set.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerStreamReader {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final StreamingProperties properties;
+    private final BlockingExecutor blockingExecutor;
+
+    public Flux<Customer> streamByStatus(String status) {
+        return stream("SELECT c FROM Customer c WHERE c.status = :status", Map.of("status", status));
+    }
+
+    public Flux<Customer> streamBySegment(String segment) {
+        return stream("SELECT c FROM Customer c WHERE c.segment = :segment", Map.of("segment", segment));
+    }
+
+    public Flux<Customer> streamByRiskLevel(String riskLevel) {
+        return stream("SELECT c FROM Customer c WHERE c.riskLevel = :riskLevel", Map.of("riskLevel", riskLevel));
+    }
+
+    public Flux<Customer> streamByName(String name) {
+        return stream(BlockingExecutor.SEARCH,
+                "SELECT c FROM Customer c WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :name, '%'))",
+                Map.of("name", name));
+    }
+
+    /**
+     * Run a JPQL query and emit its rows as they are fetched
+     */
+    public Flux<Customer> stream(String jpql, Map<String, Object> parameters) {
+        return stream(BlockingExecutor.STREAM, jpql, parameters);
+    }
+
+    private Flux<Customer> stream(String operation, String jpql, Map<String, Object> parameters) {
+        return blockingExecutor.stream(operation, Flux.using(
+                this::openCursor,
+                cursor -> Flux.fromStream(() -> cursor.query(jpql, parameters).getResultStream())
+                        .map(cursor::detach),
+                StreamCursor::close));
+    }
+
+    private StreamCursor openCursor() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            EntityTransaction transaction = entityManager.getTransaction();
+            transaction.begin();
+            return new StreamCursor(entityManager, transaction, properties.getFetchSize());
+        } catch (RuntimeException e) {
+            entityManager.close();
+            throw e;
+        }
+    }
+
+    /**
+     * One open read-only transaction and its EntityManager
+     */
+    private record StreamCursor(EntityManager entityManager, EntityTransaction transaction, int fetchSize) {
+
+        TypedQuery<Customer> query(String jpql, Map<String, Object> parameters) {
+            TypedQuery<Customer> query = entityManager.createQuery(jpql, Customer.class)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true);
+            parameters.forEach(query::setParameter);
+            return query;
+        }
+
+        Customer detach(Customer customer) {
+            entityManager.detach(customer);
+            return customer;
+        }
+
+        void close() {
+            try {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Error ending streaming transaction", e);
+            } finally {
+                entityManager.close();
+            }
+        }
+    }
+}
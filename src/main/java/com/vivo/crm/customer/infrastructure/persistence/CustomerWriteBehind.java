@@ -0,0 +1,477 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.infrastructure.cache.CustomerCache;
+import com.vivo.crm.customer.infrastructure.config.PersistenceProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind of non-critical customer fields (customer-service.persistence.write-behind)
+ *
+ * Updates are coalesced per customer in memory, a later value of a field replacing the earlier
+ * one, and written by a background flush every flushInterval, or as soon as maxEntries
+ * customers are pending: one JDBC-batched UPDATE per set of fields, in one transaction, setting
+ * only those columns, updated_at and version = version + 1.
+ *
+ * If the batch fails because the database rejects it, its customers are written again one at a
+ * time; an update the database still rejects (e.g. contextData that is not valid JSON) is
+ * logged and dropped, so it cannot hold back the others. If the database cannot be reached,
+ * the updates stay buffered (newer values win).
+ *
+ * Every update is appended to a local journal (one JSON line each) before it is acknowledged.
+ * After a flush the journal is rewritten with only what is still pending; after one that
+ * could not reach the database it is left as is. On
+ * startup the journal is replayed into the buffer, so a crash loses nothing that was
+ * acknowledged (with journalSync, not even a host crash).
+ *
+ * A synchronous write of a buffered field must call {@link #supersede} first, so the older
+ * buffered value is not written over it later. Reads see buffered values once flushed.
+ *
+ * Metrics: customer.write-behind.pending, customer.write-behind.coalesced, customer.write-behind.flushed,
+ * customer.write-behind.dropped
+ */
+@Component
+@Slf4j
+public class CustomerWriteBehind {
+
+    private final PersistenceProperties.WriteBehind config;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final CustomerCache customerCache;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Map<String, Object>> pending = new ConcurrentHashMap<>();
+    private volatile Map<String, Map<String, Object>> inFlight = Map.of();
+    // Guards the buffer and the journal file
+    private final ReentrantLock lock = new ReentrantLock();
+    // Held for a whole flush; supersede waits on it so a flush in progress cannot overwrite its write
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+    private final Counter coalesced;
+    private final Counter flushed;
+    private final Counter dropped;
+    private FileChannel journal;
+
+    public CustomerWriteBehind(PlatformTransactionManager transactionManager, DataSource dataSource,
+                               CustomerCache customerCache, ObjectMapper objectMapper,
+                               PersistenceProperties properties, MeterRegistry meterRegistry) throws IOException {
+        this.config = properties.getWriteBehind();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.customerCache = customerCache;
+        this.objectMapper = objectMapper;
+        this.coalesced = meterRegistry.counter("customer.write-behind.coalesced");
+        this.flushed = meterRegistry.counter("customer.write-behind.flushed");
+        this.dropped = meterRegistry.counter("customer.write-behind.dropped");
+        Gauge.builder("customer.write-behind.pending", pending, Map::size)
+                .register(meterRegistry);
+
+        if (config.isEnabled()) {
+            for (String field : config.getFields()) {
+                if (!EntityPatcher.isPatchable(Customer.class, field)) {
+                    throw new IllegalStateException("Customer " + field + " cannot be written behind");
+                }
+            }
+            replay();
+            long interval = config.getFlushInterval().toMillis();
+            this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "customer-write-behind");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * Whether an update is written behind: enabled, and touching only the configured fields
+     */
+    public boolean accepts(Map<String, Object> attributes) {
+        return config.isEnabled() && !attributes.isEmpty() && config.getFields().containsAll(attributes.keySet());
+    }
+
+    /**
+     * Journal and buffer an update of a customer (blocking: appends to the journal)
+     *
+     * @throws IllegalArgumentException if the update is not accepted or a value is invalid
+     */
+    public void buffer(String customerId, Map<String, Object> attributes) {
+        if (!accepts(attributes)) {
+            throw new IllegalArgumentException(attributes.keySet() + " cannot be written behind");
+        }
+        Map<String, Object> values = EntityPatcher.validate(Customer.class, attributes);
+        lock.lock();
+        try {
+            append(new JournalEntry(customerId, values, null));
+            set(customerId, values);
+        } finally {
+            lock.unlock();
+        }
+        if (pending.size() >= config.getMaxEntries() && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * The customer as it will be once its buffered updates are written
+     */
+    public Customer overlay(Customer customer) {
+        Map<String, Object> values = new LinkedHashMap<>(inFlight.getOrDefault(customer.getCustomerId(), Map.of()));
+        values.putAll(pending.getOrDefault(customer.getCustomerId(), Map.of()));
+        Customer overlaid = customer.copy();
+        values.forEach(PropertyAccessorFactory.forDirectFieldAccess(overlaid)::setPropertyValue);
+        return overlaid;
+    }
+
+    /**
+     * Whether a customer has updates buffered or being written
+     */
+    public boolean isBuffered(String customerId) {
+        return pending.containsKey(customerId) || inFlight.containsKey(customerId);
+    }
+
+    /**
+     * Drop the buffered values of fields about to be written synchronously, once a flush in
+     * progress is over (blocking)
+     */
+    public void supersede(String customerId, Collection<String> fields) {
+        flushLock.lock();
+        try {
+            lock.lock();
+            try {
+                Map<String, Object> queued = pending.get(customerId);
+                if (queued == null || Collections.disjoint(queued.keySet(), fields)) {
+                    return;
+                }
+                append(new JournalEntry(customerId, null, List.copyOf(fields)));
+                clear(customerId, fields);
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Write everything buffered so far (blocking)
+     */
+    void flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            Map<String, Map<String, Object>> batch;
+            lock.lock();
+            try {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = new LinkedHashMap<>(pending);
+                pending.clear();
+                inFlight = batch;
+            } finally {
+                lock.unlock();
+            }
+
+            Collection<String> written = batch.keySet();
+            try {
+                int updated = write(batch);
+                log.debug("Write-behind flush: {} customers, {} rows updated", batch.size(), updated);
+            } catch (RuntimeException e) {
+                if (isRetryable(e)) {
+                    log.warn("Write-behind flush of {} customers failed, keeping them buffered: {}",
+                            batch.size(), e.toString());
+                    requeue(batch);
+                    return;
+                }
+                log.debug("Write-behind flush of {} customers failed, writing them one by one: {}",
+                        batch.size(), e.toString());
+                written = writeOneByOne(batch);
+            }
+            flushed.increment(written.size());
+            written.forEach(customerCache::evict);
+
+            lock.lock();
+            try {
+                compact();
+            } catch (IOException e) {
+                // The journal still holds the written updates too; replaying them is harmless
+                log.warn("Failed to compact write-behind journal: {}", e.toString());
+            } finally {
+                inFlight = Map.of();
+                lock.unlock();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        if (flusher != null) {
+            flusher.shutdown();
+            flushQuietly();
+            journal.close();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Write-behind flush failed: {}", e.toString());
+        }
+    }
+
+    /**
+     * One batched UPDATE per set of fields, all in one transaction
+     */
+    private int write(Map<String, Map<String, Object>> batch) {
+        Map<List<String>, List<String>> customersByFields = batch.entrySet().stream()
+                .collect(Collectors.groupingBy(entry -> List.copyOf(new TreeSet<>(entry.getValue().keySet())),
+                        LinkedHashMap::new, Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        Integer updated = transactionTemplate.execute(status -> {
+            int rows = 0;
+            for (Map.Entry<List<String>, List<String>> group : customersByFields.entrySet()) {
+                List<String> fields = group.getKey();
+                String sql = "UPDATE customer SET "
+                        + fields.stream()
+                                .map(field -> EntityPatcher.columnOf(Customer.class, field) + " = ?")
+                                .collect(Collectors.joining(", "))
+                        + ", updated_at = ?, version = version + 1 WHERE customer_id = ?";
+                List<Object[]> rowsArgs = new ArrayList<>(group.getValue().size());
+                for (String customerId : group.getValue()) {
+                    Object[] args = new Object[fields.size() + 2];
+                    for (int i = 0; i < fields.size(); i++) {
+                        args[i] = batch.get(customerId).get(fields.get(i));
+                    }
+                    args[fields.size()] = now;
+                    args[fields.size() + 1] = customerId;
+                    rowsArgs.add(args);
+                }
+                for (int count : jdbcTemplate.batchUpdate(sql, rowsArgs, sqlTypes(fields))) {
+                    // Customers deleted since are skipped
+                    rows += Math.max(count, 0);
+                }
+            }
+            return rows;
+        });
+        return updated == null ? 0 : updated;
+    }
+
+    /**
+     * Write each customer of a failed batch in its own transaction, so one the database rejects
+     * does not hold back the others; rejected updates are dropped, the others requeued if the
+     * database became unreachable meanwhile
+     *
+     * @return the customers written
+     */
+    private List<String> writeOneByOne(Map<String, Map<String, Object>> batch) {
+        List<String> written = new ArrayList<>(batch.size());
+        Map<String, Map<String, Object>> retry = new LinkedHashMap<>();
+        batch.forEach((customerId, values) -> {
+            try {
+                write(Map.of(customerId, values));
+                written.add(customerId);
+            } catch (RuntimeException e) {
+                if (isRetryable(e)) {
+                    retry.put(customerId, values);
+                } else {
+                    dropped.increment();
+                    log.error("Dropping write-behind update of customer {} to {}, rejected by the database: {}",
+                            customerId, values.keySet(), e.toString());
+                }
+            }
+        });
+        if (!retry.isEmpty()) {
+            log.warn("Write-behind flush of {} customers failed, keeping them buffered", retry.size());
+            requeue(retry);
+        }
+        return written;
+    }
+
+    /**
+     * Whether a failed write may succeed later (database unreachable, lock timeout, ...), as
+     * opposed to a statement the database rejects
+     */
+    private static boolean isRetryable(RuntimeException e) {
+        return !(e instanceof NonTransientDataAccessException) || e instanceof DataAccessResourceFailureException;
+    }
+
+    private void requeue(Map<String, Map<String, Object>> batch) {
+        lock.lock();
+        try {
+            batch.forEach((customerId, values) -> pending.merge(customerId, values, (newer, older) -> {
+                Map<String, Object> merged = new LinkedHashMap<>(older);
+                merged.putAll(newer);
+                return merged;
+            }));
+            inFlight = Map.of();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void set(String customerId, Map<String, Object> values) {
+        pending.compute(customerId, (id, queued) -> {
+            if (queued == null) {
+                return new LinkedHashMap<>(values);
+            }
+            coalesced.increment();
+            Map<String, Object> merged = new LinkedHashMap<>(queued);
+            merged.putAll(values);
+            return merged;
+        });
+    }
+
+    private void clear(String customerId, Collection<String> fields) {
+        pending.computeIfPresent(customerId, (id, queued) -> {
+            Map<String, Object> rest = new LinkedHashMap<>(queued);
+            rest.keySet().removeAll(fields);
+            return rest.isEmpty() ? null : rest;
+        });
+    }
+
+    /**
+     * Load the journal left by the previous run into the buffer; a torn last line is skipped
+     */
+    private void replay() throws IOException {
+        Path path = config.getJournal();
+        Path directory = path.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        if (Files.exists(path)) {
+            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JournalEntry entry = objectMapper.readValue(line, JournalEntry.class);
+                    if (entry.set() != null) {
+                        set(entry.id(), EntityPatcher.validate(Customer.class, entry.set()));
+                    }
+                    if (entry.clear() != null) {
+                        clear(entry.id(), entry.clear());
+                    }
+                } catch (IOException | IllegalArgumentException e) {
+                    log.warn("Skipping unreadable write-behind journal entry: {}", e.getMessage());
+                }
+            }
+            log.info("Replayed {} write-behind journal entries: {} customers pending", lines.size(), pending.size());
+        }
+        compact();
+    }
+
+    /**
+     * Replace the journal with the buffer's current content (caller holds the lock)
+     */
+    private void compact() throws IOException {
+        Path path = config.getJournal();
+        Path compacted = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Map.Entry<String, Map<String, Object>> entry : pending.entrySet()) {
+                write(out, new JournalEntry(entry.getKey(), entry.getValue(), null));
+            }
+            if (config.isJournalSync()) {
+                out.force(true);
+            }
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        try {
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            journal = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+    }
+
+    private void append(JournalEntry entry) {
+        try {
+            write(journal, entry);
+            if (config.isJournalSync()) {
+                journal.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to journal write-behind update of customer " + entry.id(), e);
+        }
+    }
+
+    private void write(FileChannel channel, JournalEntry entry) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap((objectMapper.writeValueAsString(entry) + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+        while (line.hasRemaining()) {
+            channel.write(line);
+        }
+    }
+
+    private static int[] sqlTypes(List<String> fields) {
+        int[] types = new int[fields.size() + 2];
+        for (int i = 0; i < fields.size(); i++) {
+            Class<?> type = EntityPatcher.typeOf(Customer.class, fields.get(i));
+            types[i] = type == Integer.class ? Types.INTEGER
+                    : type == Long.class ? Types.BIGINT
+                    : type == String.class ? Types.VARCHAR
+                    : Types.OTHER;
+        }
+        types[fields.size()] = Types.TIMESTAMP;
+        types[fields.size() + 1] = Types.VARCHAR;
+        return types;
+    }
+
+    /**
+     * One journal line: values set on a customer, or fields no longer buffered for it
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record JournalEntry(String id, Map<String, Object> set, List<String> clear) {
+    }
+}
@@ -0,0 +1,239 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Id;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Version;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Changed-columns-only updates (PATCH, and PUT of the supplied fields)
+ *
+ * Writes only the given basic attributes of an entity with one
+ * UPDATE ... SET <given columns>, updated_at [, version = version + 1] WHERE id = ? [AND version = ?],
+ * without loading the entity first, so a one-field change never rewrites the other columns
+ * (e.g. the context_data JSON). The entity is then read back in the same transaction.
+ *
+ * Attributes are checked against the mapping before anything is written: they must be
+ * updatable {@link Column} fields other than the id, version and timestamps, and values are
+ * converted to the field type (JSON numbers to Integer/Long, ISO strings to dates) and checked
+ * against nullable/length.
+ */
+@Component
+public class EntityPatcher {
+
+    private static final ConversionService CONVERSION = DefaultConversionService.getSharedInstance();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public EntityPatcher(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Write the given attributes of one entity; with a version, only if the entity is still at it
+     *
+     * @return the entity as written, empty if there is no such entity
+     * @throws IllegalArgumentException if an attribute cannot be patched or its value is invalid
+     * @throws OptimisticLockingFailureException if the entity is no longer at the given version
+     */
+    public <T> Optional<T> patch(Class<T> type, Object id, Map<String, Object> attributes, Long version) {
+        Map<String, Object> values = validate(type, attributes);
+        return Optional.ofNullable(transactionTemplate.execute(status -> update(type, id, values, version)));
+    }
+
+    /**
+     * Check the attributes against the entity mapping and convert their values to the field types
+     *
+     * @return attribute -> converted value, in the given order
+     * @throws IllegalArgumentException naming the first attribute that cannot be patched
+     */
+    public static Map<String, Object> validate(Class<?> type, Map<String, Object> attributes) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        attributes.forEach((name, value) -> {
+            if (!isPatchable(type, name)) {
+                throw new IllegalArgumentException(name + " cannot be updated");
+            }
+            Field field = findField(type, name);
+            values.put(name, convert(field, field.getAnnotation(Column.class), value));
+        });
+        return values;
+    }
+
+    /**
+     * Whether an attribute is an updatable column other than the id, version and timestamps
+     */
+    public static boolean isPatchable(Class<?> type, String attribute) {
+        Field field = findField(type, attribute);
+        Column column = field == null ? null : field.getAnnotation(Column.class);
+        return column != null && column.updatable() && !field.isAnnotationPresent(Id.class)
+                && !field.isAnnotationPresent(Version.class) && !field.isAnnotationPresent(CreationTimestamp.class)
+                && !field.isAnnotationPresent(UpdateTimestamp.class);
+    }
+
+    /**
+     * Column an attribute is mapped to
+     */
+    public static String columnOf(Class<?> type, String attribute) {
+        Field field = findField(type, attribute);
+        Column column = field == null ? null : field.getAnnotation(Column.class);
+        if (column == null) {
+            throw new IllegalArgumentException(attribute + " is not a column of " + type.getSimpleName());
+        }
+        return column.name().isEmpty() ? attribute : column.name();
+    }
+
+    /**
+     * Java type of an attribute
+     */
+    public static Class<?> typeOf(Class<?> type, String attribute) {
+        Field field = findField(type, attribute);
+        if (field == null) {
+            throw new IllegalArgumentException(attribute + " is not an attribute of " + type.getSimpleName());
+        }
+        return ClassUtils.resolvePrimitiveIfNecessary(field.getType());
+    }
+
+    private <T> T update(Class<T> type, Object id, Map<String, Object> values, Long version) {
+        String idName = annotatedField(type, Id.class);
+        String versionName = annotatedField(type, Version.class);
+
+        if (values.isEmpty()) {
+            // Nothing to write: only the precondition is checked
+            T entity = entityManager.find(type, id);
+            if (entity != null && version != null && versionName != null
+                    && !version.equals(readField(entity, versionName))) {
+                throw conflict(type, id, version);
+            }
+            return entity;
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<T> update = cb.createCriteriaUpdate(type);
+        Root<T> root = update.from(type);
+        values.forEach(update::set);
+
+        String updatedAtName = annotatedField(type, UpdateTimestamp.class);
+        if (updatedAtName != null) {
+            update.set(updatedAtName, LocalDateTime.now());
+        }
+        Predicate where = cb.equal(root.get(idName), id);
+        if (versionName != null) {
+            Path<Long> versionPath = root.get(versionName);
+            update.set(versionPath, cb.sum(versionPath, 1L));
+            if (version != null) {
+                where = cb.and(where, cb.equal(versionPath, version));
+            }
+        }
+        update.where(where);
+
+        if (entityManager.createQuery(update).executeUpdate() == 0) {
+            if (version != null && entityManager.find(type, id) != null) {
+                throw conflict(type, id, version);
+            }
+            return null;
+        }
+        return reload(type, id);
+    }
+
+    /**
+     * Read the entity as just written; an instance already managed in this transaction (another
+     * unit of work of the same batch) is refreshed, since the UPDATE bypassed it. Its collections
+     * are loaded too, so it can still be rendered once the transaction is over.
+     */
+    private <T> T reload(Class<T> type, Object id) {
+        T reference = entityManager.getReference(type, id);
+        if (Hibernate.isInitialized(reference)) {
+            entityManager.refresh(reference);
+        } else {
+            Hibernate.initialize(reference);
+        }
+        T entity = Hibernate.unproxy(reference, type);
+        EntityType<T> entityType = entityManager.getMetamodel().entity(type);
+        for (PluralAttribute<? super T, ?, ?> collection : entityType.getPluralAttributes()) {
+            Hibernate.initialize(readField(entity, collection.getName()));
+        }
+        return entity;
+    }
+
+    private static Object convert(Field field, Column column, Object value) {
+        String name = field.getName();
+        if (value == null) {
+            if (!column.nullable()) {
+                throw new IllegalArgumentException(name + " is required");
+            }
+            return null;
+        }
+        Object converted;
+        try {
+            converted = CONVERSION.convert(value, ClassUtils.resolvePrimitiveIfNecessary(field.getType()));
+        } catch (ConversionException e) {
+            throw new IllegalArgumentException(name + " has an invalid value: " + value, e);
+        }
+        if (converted instanceof String text && column.columnDefinition().isEmpty()
+                && text.length() > column.length()) {
+            throw new IllegalArgumentException(name + " exceeds " + column.length() + " characters");
+        }
+        return converted;
+    }
+
+    private static OptimisticLockingFailureException conflict(Class<?> type, Object id, Long version) {
+        return new OptimisticLockingFailureException(type.getSimpleName() + " " + id
+                + " is no longer at version " + version);
+    }
+
+    private static Object readField(Object entity, String name) {
+        Field field = findField(entity.getClass(), name);
+        field.setAccessible(true);
+        try {
+            return field.get(entity);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String annotatedField(Class<?> type, Class<? extends Annotation> annotation) {
+        for (Field field : type.getDeclaredFields()) {
+            if (field.isAnnotationPresent(annotation)) {
+                return field.getName();
+            }
+        }
+        return null;
+    }
+
+    private static Field findField(Class<?> type, String name) {
+        try {
+            return type.getDeclaredField(name);
+        } catch (NoSuchFieldException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.PropertyAccessor;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Column-level projection queries (TMF630 fields=)
+ *
+ * Selects only the requested basic attributes of an entity with a JPA tuple query, so the
+ * database reads and ships only those columns. Rows come back as attribute -> value maps;
+ * {@link #toEntity} turns one into a detached, partially populated entity when existing
+ * rendering code needs the entity type.
+ */
+@Component
+public class EntityProjector {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Resolve requested attribute names into the columns to select.
+     * The id attribute is always selected first; unknown names are ignored.
+     *
+     * @return empty when a requested attribute is an association or collection,
+     * which cannot be projected (callers then load the full entity)
+     */
+    public Optional<List<String>> resolve(Class<?> type, Collection<String> requested) {
+        EntityType<?> entity = entityManager.getMetamodel().entity(type);
+        String idName = entity.getId(entity.getIdType().getJavaType()).getName();
+
+        List<String> attributes = new ArrayList<>();
+        attributes.add(idName);
+        for (String name : requested) {
+            Attribute<?, ?> attribute = findAttribute(entity, name);
+            if (attribute == null || attributes.contains(name)) {
+                continue;
+            }
+            if (!(attribute instanceof SingularAttribute<?, ?> singular)
+                    || singular.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC) {
+                return Optional.empty();
+            }
+            attributes.add(name);
+        }
+        return Optional.of(attributes);
+    }
+
+    /**
+     * Select the given attributes of the rows matching {@code specification}
+     */
+    public <T> List<Map<String, Object>> select(Class<T> type, List<String> attributes,
+                                                Specification<T> specification, Sort sort,
+                                                long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(type);
+
+        query.multiselect(selections(root, attributes));
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (sort != null && sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) offset)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(EntityProjector::toMap)
+                .toList();
+    }
+
+    /**
+     * Select the given attributes of one entity by id
+     */
+    public <T> Optional<Map<String, Object>> selectById(Class<T> type, List<String> attributes, Object id) {
+        String idName = attributes.get(0);
+        Specification<T> byId = (root, query, cb) -> cb.equal(root.get(idName), id);
+        return select(type, attributes, byId, Sort.unsorted(), 0, 1).stream().findFirst();
+    }
+
+    /**
+     * Build a detached entity with only the projected attributes populated
+     */
+    public static <T> T toEntity(Class<T> type, Map<String, Object> row) {
+        T entity = BeanUtils.instantiateClass(type);
+        PropertyAccessor accessor = PropertyAccessorFactory.forDirectFieldAccess(entity);
+        row.forEach(accessor::setPropertyValue);
+        return entity;
+    }
+
+    private static <T> List<Selection<?>> selections(Root<T> root, List<String> attributes) {
+        List<Selection<?>> selections = new ArrayList<>(attributes.size());
+        for (String attribute : attributes) {
+            selections.add(root.get(attribute).alias(attribute));
+        }
+        return selections;
+    }
+
+    private static Map<String, Object> toMap(Tuple tuple) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (TupleElement<?> element : tuple.getElements()) {
+            row.put(element.getAlias(), tuple.get(element));
+        }
+        return row;
+    }
+
+    private static Attribute<?, ?> findAttribute(EntityType<?> entity, String name) {
+        try {
+            return entity.getAttribute(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import java.util.List;
+
+/**
+ * TMF630 attribute filter ({@code creditScore.gt=700}, {@code status=ACTIVE,SUSPENDED})
+ *
+ * @param attribute TMF attribute name as sent by the client
+ * @param operator  comparison operator
+ * @param values    raw values; more than one value means IN / NOT IN
+ */
+public record FilterCondition(String attribute, Operator operator, List<String> values) {
+
+    public enum Operator {
+        EQ("="), NE("<>"), GT(">"), GTE(">="), LT("<"), LTE("<=");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        /**
+         * Resolve a TMF630 operator suffix (gt, gte, lt, lte, eq, ne); null if not an operator
+         */
+        public static Operator fromSuffix(String suffix) {
+            for (Operator operator : values()) {
+                if (operator.name().equalsIgnoreCase(suffix)) {
+                    return operator;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.domain.repository.ReactiveCustomerRepository;
+import com.vivo.crm.customer.infrastructure.execution.BlockingExecutor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * ReactiveCustomerRepository over JPA (default)
+ * Blocking calls run on the BlockingExecutor; streams come from a database cursor.
+ * Writes run as units of work ({@link UnitOfWork}), batched into shared commits under load.
+ */
+@Component
+@ConditionalOnProperty(prefix = "customer-service.persistence", name = "mode", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaReactiveCustomerRepository implements ReactiveCustomerRepository {
+
+    private final CustomerRepository customerRepository;
+    private final CustomerStreamReader customerStreamReader;
+    private final BlockingExecutor blockingExecutor;
+    private final UnitOfWork unitOfWork;
+    private final EntityPatcher entityPatcher;
+
+    @Override
+    public Mono<Customer> findById(String customerId) {
+        return lookup(() -> customerRepository.findById(customerId).orElse(null));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String customerId) {
+        return lookup(() -> customerRepository.existsById(customerId));
+    }
+
+    @Override
+    public Mono<Long> findVersionById(String customerId) {
+        return lookup(() -> customerRepository.findVersionById(customerId).orElse(null));
+    }
+
+    @Override
+    public Mono<Customer> findByExternalId(String externalId) {
+        return lookup(() -> customerRepository.findByExternalId(externalId).orElse(null));
+    }
+
+    @Override
+    public Mono<Customer> findByEmail(String email) {
+        return lookup(() -> customerRepository.findByEmail(email).orElse(null));
+    }
+
+    @Override
+    public Mono<Customer> findByCpfCnpj(String cpfCnpj) {
+        return lookup(() -> customerRepository.findByCpfCnpj(cpfCnpj).orElse(null));
+    }
+
+    @Override
+    public Mono<Customer> findByPartyRoleId(String partyRoleId) {
+        return lookup(() -> customerRepository.findByPartyRoleId(partyRoleId).orElse(null));
+    }
+
+    @Override
+    public Flux<Customer> findByStatus(String status) {
+        return customerStreamReader.streamByStatus(status);
+    }
+
+    @Override
+    public Flux<Customer> findBySegment(String segment) {
+        return customerStreamReader.streamBySegment(segment);
+    }
+
+    @Override
+    public Flux<Customer> findByRiskLevel(String riskLevel) {
+        return customerStreamReader.streamByRiskLevel(riskLevel);
+    }
+
+    @Override
+    public Flux<Customer> searchByName(String name) {
+        return customerStreamReader.streamByName(name);
+    }
+
+    @Override
+    public Flux<Customer> findHighRiskActiveCustomers() {
+        return list(customerRepository::findHighRiskActiveCustomers).flatMapMany(Flux::fromIterable);
+    }
+
+    @Override
+    public Mono<Long> countByStatus(String status) {
+        return list(() -> customerRepository.countByStatus(status));
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return list(customerRepository::count);
+    }
+
+    @Override
+    public Mono<Customer> save(Customer customer) {
+        return unitOfWork.execute(() -> customerRepository.save(customer));
+    }
+
+    @Override
+    public Mono<Customer> updateStatus(Customer customer) {
+        return unitOfWork.execute(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            int updated = customerRepository.updateStatusAtVersion(customer.getCustomerId(), customer.getVersion(),
+                    customer.getStatus(), customer.getRiskLevel(), customer.getUpdatedBy(), now);
+            if (updated == 0) {
+                return null;
+            }
+            Customer written = customer.copy();
+            written.setUpdatedAt(now);
+            written.setVersion(customer.getVersion() + 1);
+            return written;
+        });
+    }
+
+    @Override
+    public Mono<Customer> patch(String customerId, Map<String, Object> attributes, Long version) {
+        return unitOfWork.execute(() -> entityPatcher.patch(Customer.class, customerId, attributes, version)
+                .orElse(null));
+    }
+
+    @Override
+    public Mono<Void> deleteById(String customerId) {
+        return unitOfWork.execute(() -> {
+            customerRepository.deleteById(customerId);
+            return null;
+        }).then();
+    }
+
+    private <T> Mono<T> lookup(Callable<T> call) {
+        return blockingExecutor.call(BlockingExecutor.LOOKUP, call);
+    }
+
+    private <T> Mono<T> list(Callable<T> call) {
+        return blockingExecutor.call(BlockingExecutor.LIST, call);
+    }
+}
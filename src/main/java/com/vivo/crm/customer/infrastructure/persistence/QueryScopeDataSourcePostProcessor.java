@@ -0,0 +1,21 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's DataSource in a {@link QueryScopeDataSource}
+ */
+@Component
+public class QueryScopeDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof QueryScopeDataSource)) {
+            return new QueryScopeDataSource(dataSource);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,345 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.repository.ReactiveCustomerRepository;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * ReactiveCustomerRepository over R2DBC (customer-service.persistence.mode=r2dbc)
+ *
+ * Non-blocking end to end: no thread is parked while the database works. Maps the same
+ * customer table as the JPA entity; the JPA lifecycle (creation defaults, timestamps)
+ * is applied here explicitly.
+ */
+@Component
+@ConditionalOnProperty(prefix = "customer-service.persistence", name = "mode", havingValue = "r2dbc")
+@RequiredArgsConstructor
+@Slf4j
+public class R2dbcCustomerRepository implements ReactiveCustomerRepository {
+
+    // Every column of the table is mapped, the legacy cpf_cnpj included, so rows round-trip intact
+    @SuppressWarnings("deprecation")
+    private static final List<Column<?>> COLUMNS = List.of(
+            new Column<>("customer_id", String.class, Customer::getCustomerId, Customer::setCustomerId),
+            new Column<>("party_role_id", String.class, Customer::getPartyRoleId, Customer::setPartyRoleId),
+            new Column<>("external_id", String.class, Customer::getExternalId, Customer::setExternalId),
+            new Column<>("customer_name", String.class, Customer::getName, Customer::setName),
+            new Column<>("formatted_name", String.class, Customer::getFormattedName, Customer::setFormattedName),
+            new Column<>("given_name", String.class, Customer::getGivenName, Customer::setGivenName),
+            new Column<>("family_name", String.class, Customer::getFamilyName, Customer::setFamilyName),
+            new Column<>("preferred_given_name", String.class, Customer::getPreferredGivenName, Customer::setPreferredGivenName),
+            new Column<>("trading_name", String.class, Customer::getTradingName, Customer::setTradingName),
+            new Column<>("identification_type", String.class, Customer::getIdentificationType, Customer::setIdentificationType),
+            new Column<>("identification_number", String.class, Customer::getIdentificationNumber, Customer::setIdentificationNumber),
+            new Column<>("credit_score", Integer.class, Customer::getCreditScore, Customer::setCreditScore),
+            new Column<>("credit_risk_rating", Integer.class, Customer::getCreditRiskRating, Customer::setCreditRiskRating),
+            new Column<>("biometria_status", String.class, Customer::getBiometriaStatus, Customer::setBiometriaStatus),
+            new Column<>("codigo_grupo", String.class, Customer::getCodigoGrupo, Customer::setCodigoGrupo),
+            new Column<>("nome_grupo", String.class, Customer::getNomeGrupo, Customer::setNomeGrupo),
+            new Column<>("email", String.class, Customer::getEmail, Customer::setEmail),
+            new Column<>("phone", String.class, Customer::getPhone, Customer::setPhone),
+            new Column<>("cpf_cnpj", String.class, Customer::getCpfCnpj, Customer::setCpfCnpj),
+            new Column<>("segment", String.class, Customer::getSegment, Customer::setSegment),
+            new Column<>("preferred_channel", String.class, Customer::getPreferredChannel, Customer::setPreferredChannel),
+            new Column<>("risk_level", String.class, Customer::getRiskLevel, Customer::setRiskLevel),
+            new Column<>("status", String.class, Customer::getStatus, Customer::setStatus),
+            new Column<>("created_at", LocalDateTime.class, Customer::getCreatedAt, Customer::setCreatedAt),
+            new Column<>("updated_at", LocalDateTime.class, Customer::getUpdatedAt, Customer::setUpdatedAt),
+            new Column<>("created_by", String.class, Customer::getCreatedBy, Customer::setCreatedBy),
+            new Column<>("updated_by", String.class, Customer::getUpdatedBy, Customer::setUpdatedBy),
+            new Column<>("version", Long.class, Customer::getVersion, Customer::setVersion),
+            new Column<>("context_data", String.class, Customer::getContextData, Customer::setContextData));
+
+    private static final String SELECT = "SELECT " + COLUMNS.stream().map(Column::name).collect(Collectors.joining(", "))
+            + " FROM customer";
+
+    private static final String INSERT = "INSERT INTO customer ("
+            + COLUMNS.stream().map(Column::name).collect(Collectors.joining(", "))
+            + ") VALUES ("
+            + COLUMNS.stream().map(c -> ":" + c.name()).collect(Collectors.joining(", "))
+            + ")";
+
+    // created_at is not updatable, as in the entity mapping; the version is checked and bumped
+    private static final String UPDATE = "UPDATE customer SET "
+            + COLUMNS.stream()
+                    .filter(c -> !c.name().equals("customer_id") && !c.name().equals("created_at")
+                            && !c.name().equals("version"))
+                    .map(c -> c.name() + " = :" + c.name())
+                    .collect(Collectors.joining(", "))
+            + ", version = version + 1 WHERE customer_id = :customer_id AND version = :version";
+
+    private static final String UPDATE_STATUS = "UPDATE customer SET status = :status, risk_level = :risk_level, "
+            + "updated_by = :updated_by, updated_at = :updated_at, version = version + 1 "
+            + "WHERE customer_id = :customer_id AND version = :version";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+
+    @Override
+    public Mono<Customer> findById(String customerId) {
+        return selectOne("customer_id", customerId);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String customerId) {
+        return databaseClient.sql("SELECT COUNT(*) FROM customer WHERE customer_id = :id")
+                .bind("id", customerId)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .map(count -> count > 0);
+    }
+
+    @Override
+    public Mono<Long> findVersionById(String customerId) {
+        return databaseClient.sql("SELECT version FROM customer WHERE customer_id = :id")
+                .bind("id", customerId)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    @Override
+    public Mono<Customer> findByExternalId(String externalId) {
+        return selectOne("external_id", externalId);
+    }
+
+    @Override
+    public Mono<Customer> findByEmail(String email) {
+        return selectOne("email", email);
+    }
+
+    @Override
+    public Mono<Customer> findByCpfCnpj(String cpfCnpj) {
+        return selectOne("cpf_cnpj", cpfCnpj);
+    }
+
+    @Override
+    public Mono<Customer> findByPartyRoleId(String partyRoleId) {
+        return selectOne("party_role_id", partyRoleId);
+    }
+
+    @Override
+    public Flux<Customer> findByStatus(String status) {
+        return selectMany("status", status);
+    }
+
+    @Override
+    public Flux<Customer> findBySegment(String segment) {
+        return selectMany("segment", segment);
+    }
+
+    @Override
+    public Flux<Customer> findByRiskLevel(String riskLevel) {
+        return selectMany("risk_level", riskLevel);
+    }
+
+    @Override
+    public Flux<Customer> searchByName(String name) {
+        return databaseClient.sql(SELECT + " WHERE LOWER(customer_name) LIKE LOWER(:name)")
+                .bind("name", "%" + name + "%")
+                .map(R2dbcCustomerRepository::toCustomer)
+                .all();
+    }
+
+    @Override
+    public Flux<Customer> findHighRiskActiveCustomers() {
+        return databaseClient.sql(SELECT + " WHERE status = 'ACTIVE' AND risk_level = 'HIGH'")
+                .map(R2dbcCustomerRepository::toCustomer)
+                .all();
+    }
+
+    @Override
+    public Mono<Long> countByStatus(String status) {
+        return databaseClient.sql("SELECT COUNT(*) FROM customer WHERE status = :status")
+                .bind("status", status)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return databaseClient.sql("SELECT COUNT(*) FROM customer")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    /**
+     * INSERT a new customer (no version yet), else UPDATE it at the version it was read at;
+     * fails with OptimisticLockingFailureException if it changed since, as a JPA merge does
+     */
+    @Override
+    public Mono<Customer> save(Customer customer) {
+        return Mono.defer(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            Customer toSave = customer.copy();
+            toSave.setUpdatedAt(now);
+            if (toSave.getCustomerId() == null || toSave.getVersion() == null) {
+                return insert(toSave, now);
+            }
+            return bindAll(databaseClient.sql(UPDATE), toSave, true)
+                    .fetch()
+                    .rowsUpdated()
+                    .flatMap(updated -> updated > 0
+                            ? Mono.just(atNextVersion(toSave))
+                            : Mono.error(new OptimisticLockingFailureException("Customer " + toSave.getCustomerId()
+                                    + " was changed or deleted since version " + toSave.getVersion())));
+        });
+    }
+
+    @Override
+    public Mono<Customer> updateStatus(Customer customer) {
+        return Mono.defer(() -> {
+            Customer written = customer.copy();
+            written.setUpdatedAt(LocalDateTime.now());
+            DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(UPDATE_STATUS)
+                    .bind("status", written.getStatus())
+                    .bind("updated_at", written.getUpdatedAt())
+                    .bind("customer_id", written.getCustomerId())
+                    .bind("version", written.getVersion());
+            spec = bindNullable(spec, "risk_level", written.getRiskLevel());
+            spec = bindNullable(spec, "updated_by", written.getUpdatedBy());
+            return spec.fetch()
+                    .rowsUpdated()
+                    .filter(updated -> updated > 0)
+                    .map(updated -> atNextVersion(written));
+        });
+    }
+
+    /**
+     * UPDATE of only the given columns (plus updated_at and version), then the customer is
+     * read back in the same transaction
+     */
+    @Override
+    public Mono<Customer> patch(String customerId, Map<String, Object> attributes, Long version) {
+        return Mono.defer(() -> {
+            Map<String, Object> values = EntityPatcher.validate(Customer.class, attributes);
+            if (values.isEmpty()) {
+                // Nothing to write: only the precondition is checked
+                return findById(customerId).flatMap(customer -> checkVersion(customer, version));
+            }
+            StringBuilder sql = new StringBuilder("UPDATE customer SET ");
+            values.keySet().forEach(attribute -> {
+                String column = EntityPatcher.columnOf(Customer.class, attribute);
+                sql.append(column).append(" = :").append(column).append(", ");
+            });
+            sql.append("updated_at = :updated_at, version = version + 1 WHERE customer_id = :customer_id");
+            if (version != null) {
+                sql.append(" AND version = :version");
+            }
+            DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+                    .bind("updated_at", LocalDateTime.now())
+                    .bind("customer_id", customerId);
+            if (version != null) {
+                spec = spec.bind("version", version);
+            }
+            for (Map.Entry<String, Object> value : values.entrySet()) {
+                Column<?> column = column(EntityPatcher.columnOf(Customer.class, value.getKey()));
+                spec = value.getValue() == null
+                        ? spec.bindNull(column.name(), column.type())
+                        : spec.bind(column.name(), value.getValue());
+            }
+            return spec.fetch()
+                    .rowsUpdated()
+                    .flatMap(updated -> updated > 0
+                            ? findById(customerId)
+                            : findById(customerId).flatMap(customer -> checkVersion(customer, version)));
+        }).as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<Void> deleteById(String customerId) {
+        return databaseClient.sql("DELETE FROM customer WHERE customer_id = :id")
+                .bind("id", customerId)
+                .then();
+    }
+
+    private Mono<Customer> insert(Customer customer, LocalDateTime now) {
+        customer.applyCreationDefaults();
+        customer.setCreatedAt(now);
+        customer.setVersion(0L);
+        return bindAll(databaseClient.sql(INSERT), customer, false)
+                .fetch()
+                .rowsUpdated()
+                .thenReturn(customer);
+    }
+
+    private Mono<Customer> selectOne(String column, String value) {
+        return databaseClient.sql(SELECT + " WHERE " + column + " = :value")
+                .bind("value", value)
+                .map(R2dbcCustomerRepository::toCustomer)
+                .one();
+    }
+
+    private Flux<Customer> selectMany(String column, String value) {
+        return databaseClient.sql(SELECT + " WHERE " + column + " = :value")
+                .bind("value", value)
+                .map(R2dbcCustomerRepository::toCustomer)
+                .all();
+    }
+
+    private static Mono<Customer> checkVersion(Customer customer, Long version) {
+        return version == null || version.equals(customer.getVersion())
+                ? Mono.just(customer)
+                : Mono.error(new OptimisticLockingFailureException("Customer " + customer.getCustomerId()
+                        + " is no longer at version " + version));
+    }
+
+    private static Column<?> column(String name) {
+        return COLUMNS.stream()
+                .filter(column -> column.name().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(name + " is not mapped"));
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindAll(DatabaseClient.GenericExecuteSpec spec, Customer customer,
+                                                             boolean update) {
+        for (Column<?> column : COLUMNS) {
+            if (update && column.name().equals("created_at")) {
+                continue;
+            }
+            Object value = column.getter().apply(customer);
+            spec = value == null ? spec.bindNull(column.name(), column.type()) : spec.bind(column.name(), value);
+        }
+        return spec;
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                                  String value) {
+        return value == null ? spec.bindNull(name, String.class) : spec.bind(name, value);
+    }
+
+    private static Customer atNextVersion(Customer customer) {
+        customer.setVersion(customer.getVersion() + 1);
+        return customer;
+    }
+
+    private static Customer toCustomer(Readable row) {
+        Customer customer = new Customer();
+        for (Column<?> column : COLUMNS) {
+            column.read(row, customer);
+        }
+        return customer;
+    }
+
+    private record Column<T>(String name, Class<T> type, Function<Customer, T> getter, BiConsumer<Customer, T> setter) {
+
+        void read(Readable row, Customer customer) {
+            setter.accept(customer, row.get(name, type));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.vivo.crm.customer.infrastructure.config.PersistenceProperties;
+import com.vivo.crm.customer.infrastructure.execution.BlockingExecutor;
+import com.vivo.crm.customer.infrastructure.execution.QueryScope;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Runs a sequence of JPA calls (typically load, mutate, save) in one transaction, on one
+ * connection, on the BlockingExecutor's write bulkhead
+ *
+ * Without it each repository call opens its own transaction and checks out its own
+ * connection, and a concurrent write can slip in between the load and the save.
+ *
+ * Units of work are committed in batches: at most commitSlots transactions run at once, and
+ * each takes up to maxBatch queued units, so under load several writes share one connection
+ * checkout and one commit. With no queue a unit runs alone, as it would without batching. If
+ * a batch fails, its units are retried one transaction each, so one failing unit never fails
+ * the others. A shared batch runs outside its callers' deadlines and cancellation (see
+ * {@link QueryScope#detached}); a unit already queued is committed even if its caller went away.
+ *
+ * Metrics: customer.uow.pending, customer.uow.batch.size
+ */
+@Component
+@Slf4j
+public class UnitOfWork {
+
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingExecutor blockingExecutor;
+    private final int maxBatch;
+    private final Semaphore commitSlots;
+    private final Queue<Work<?>> pending = new ConcurrentLinkedQueue<>();
+    private final DistributionSummary batchSize;
+
+    public UnitOfWork(PlatformTransactionManager transactionManager, BlockingExecutor blockingExecutor,
+                      PersistenceProperties properties, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.blockingExecutor = blockingExecutor;
+        this.maxBatch = Math.max(1, properties.getUnitOfWork().getMaxBatch());
+        this.commitSlots = new Semaphore(Math.max(1, properties.getUnitOfWork().getCommitSlots()), true);
+        this.batchSize = DistributionSummary.builder("customer.uow.batch.size")
+                .register(meterRegistry);
+        Gauge.builder("customer.uow.pending", pending, Queue::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a unit of work in a transaction; an empty Mono if it returns null
+     */
+    public <T> Mono<T> execute(Supplier<T> work) {
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> run(work));
+    }
+
+    /**
+     * Run a unit of work in a transaction on the calling thread, possibly batched with
+     * other queued units (blocking)
+     */
+    public <T> T run(Supplier<T> work) throws InterruptedException {
+        Work<T> unit = new Work<>(work);
+        pending.add(unit);
+        while (!unit.claimed) {
+            commitSlots.acquire();
+            try {
+                if (!unit.claimed) {
+                    commitNextBatch(unit);
+                }
+            } finally {
+                commitSlots.release();
+            }
+        }
+        try {
+            return unit.result.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Commit the oldest queued units in one transaction; the caller's own unit may still be
+     * queued behind them afterwards
+     */
+    private void commitNextBatch(Work<?> own) {
+        List<Work<?>> batch = new ArrayList<>();
+        Work<?> next;
+        while (batch.size() < maxBatch && (next = pending.poll()) != null) {
+            next.claimed = true;
+            batch.add(next);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        batchSize.record(batch.size());
+        if (batch.size() == 1 && batch.get(0) == own) {
+            commit(batch);
+            return;
+        }
+        try {
+            QueryScope.detached(() -> {
+                commit(batch);
+                return null;
+            });
+        } catch (Exception e) {
+            // commit() completes every unit itself
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void commit(List<Work<?>> batch) {
+        try {
+            List<Object> results = transactionTemplate.execute(status -> {
+                List<Object> values = new ArrayList<>(batch.size());
+                for (Work<?> unit : batch) {
+                    values.add(unit.work.get());
+                }
+                return values;
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).complete(results.get(i));
+            }
+        } catch (RuntimeException | Error e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            log.debug("Batch of {} units of work failed, retrying them one by one: {}", batch.size(), e.toString());
+            for (Work<?> unit : batch) {
+                commit(List.of(unit));
+            }
+        }
+    }
+
+    private static final class Work<T> {
+
+        private final Supplier<T> work;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private volatile boolean claimed;
+
+        Work(Supplier<T> work) {
+            this.work = work;
+        }
+
+        @SuppressWarnings("unchecked")
+        void complete(Object value) {
+            result.complete((T) value);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.vivo.crm.customer.presentation.conditional;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Strong entity tags of customers, derived from the version column
+ *
+ * The tag is the quoted version ({@code "7"}), the same for every representation of the
+ * customer, so a conditional request is answered by comparing versions, without loading
+ * or rendering the customer.
+ */
+@Component
+public class CustomerETag {
+
+    private static final String ANY = "*";
+    private static final String WEAK = "W/";
+
+    /**
+     * Tag of the customer as it is now
+     */
+    public String of(Customer customer) {
+        return of(customer.getVersion());
+    }
+
+    public String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Whether an If-None-Match header lists the given version (or is "*"), i.e. the client's
+     * copy is current; tags are compared weakly, as that header requires
+     */
+    public boolean isNotModified(String ifNoneMatch, long version) {
+        String tag = of(version);
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .anyMatch(candidate -> candidate.equals(ANY) || strip(candidate).equals(tag));
+    }
+
+    /**
+     * Version an If-Match header requires; empty for "*" (any current version)
+     *
+     * @throws IllegalArgumentException unless the header is "*" or a single strong tag of a
+     *         version, which no current version could match
+     */
+    public Optional<Long> requiredVersion(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.equals(ANY)) {
+            return Optional.empty();
+        }
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new IllegalArgumentException("Not a customer entity tag: " + ifMatch);
+        }
+        try {
+            return Optional.of(Long.parseLong(tag.substring(1, tag.length() - 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a customer entity tag: " + ifMatch);
+        }
+    }
+
+    private static String strip(String tag) {
+        return tag.startsWith(WEAK) ? tag.substring(WEAK.length()) : tag;
+    }
+}
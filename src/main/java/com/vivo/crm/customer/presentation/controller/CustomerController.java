@@ -1,20 +1,48 @@
 package com.vivo.crm.customer.presentation.controller;
 
 import com.vivo.crm.customer.application.service.CustomerServiceReactive;
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.model.StatusTransition;
+import com.vivo.crm.customer.infrastructure.config.PaginationProperties;
+import com.vivo.crm.customer.infrastructure.export.CustomerExporter;
+import com.vivo.crm.customer.infrastructure.execution.DeadlineExceededException;
+import com.vivo.crm.customer.infrastructure.execution.RejectedCallException;
+import com.vivo.crm.customer.infrastructure.export.ExportFormat;
+import com.vivo.crm.customer.infrastructure.persistence.CustomerStatusUpdater;
+import com.vivo.crm.customer.presentation.dto.BulkCreateResponseDTO;
+import com.vivo.crm.customer.presentation.dto.BulkItemResultDTO;
+import com.vivo.crm.customer.presentation.dto.BulkTransitionProgressDTO;
+import com.vivo.crm.customer.presentation.dto.BulkTransitionRequest;
 import com.vivo.crm.customer.presentation.dto.CreateCustomerRequest;
+import com.vivo.crm.customer.presentation.dto.CursorPageDTO;
 import com.vivo.crm.customer.presentation.dto.CustomerDTO;
+import com.vivo.crm.customer.presentation.conditional.CustomerETag;
 import com.vivo.crm.customer.presentation.mapper.CustomerMapper;
+import com.vivo.crm.customer.presentation.negotiation.AcceptEncoding;
+import com.vivo.crm.customer.presentation.pagination.CursorCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
 /**
  * TMF629 - Customer REST Controller
  * Reactive API endpoints for customer management
@@ -25,8 +53,19 @@ import reactor.core.publisher.Mono;
 @Slf4j
 public class CustomerController {
 
+    /**
+     * Errors the endpoints map themselves; shed calls are left to RejectedCallHandler (503)
+     * and missed deadlines to DeadlineFilter (504)
+     */
+    private static final Predicate<Throwable> HANDLED =
+            e -> !(e instanceof RejectedCallException || e instanceof DeadlineExceededException);
+
     private final CustomerServiceReactive customerService;
     private final CustomerMapper customerMapper;
+    private final CursorCodec cursorCodec;
+    private final PaginationProperties paginationProperties;
+    private final CustomerExporter customerExporter;
+    private final CustomerETag customerETag;
 
     /**
      * Create a new customer
@@ -39,26 +78,117 @@ public class CustomerController {
         return request
                 .map(customerMapper::toEntity)
                 .flatMap(customerService::createCustomer)
-                .map(customerMapper::toDTO)
-                .map(dto -> ResponseEntity.status(HttpStatus.CREATED).body(dto))
-                .onErrorResume(e -> {
+                .map(c -> ResponseEntity.status(HttpStatus.CREATED)
+                        .eTag(customerETag.of(c))
+                        .body(customerMapper.toDTO(c)))
+                .onErrorResume(HANDLED, e -> {
                     log.error("Error creating customer", e);
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
                 });
     }
 
+    /**
+     * Create customers in bulk, from a JSON array or NDJSON (one customer per line)
+     * POST /customers/bulk
+     * 201 if every customer was created, else 207 with the reason of each failure
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<BulkCreateResponseDTO>> createCustomers(
+            @RequestBody Flux<CreateCustomerRequest> requests) {
+        log.info("POST /api/v1/customers/bulk - Creating customers in bulk");
+        
+        return customerService.createCustomers(requests.map(customerMapper::toEntity))
+                .map(customerMapper::toBulkItemDTO)
+                .collectList()
+                .map(items -> {
+                    int failed = (int) items.stream()
+                            .filter(item -> BulkItemResultDTO.FAILED.equals(item.getStatus()))
+                            .count();
+                    log.info("POST /api/v1/customers/bulk - {} created, {} failed", items.size() - failed, failed);
+                    return ResponseEntity.status(failed == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS)
+                            .body(BulkCreateResponseDTO.builder()
+                                    .total(items.size())
+                                    .created(items.size() - failed)
+                                    .failed(failed)
+                                    .items(items)
+                                    .build());
+                })
+                .onErrorResume(ServerWebInputException.class, e -> {
+                    // Chunks before the malformed customer are already committed
+                    log.error("Malformed bulk request: {}", e.getReason());
+                    return Mono.just(ResponseEntity.badRequest().build());
+                })
+                .onErrorResume(HANDLED, e -> {
+                    log.error("Error creating customers in bulk", e);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+                });
+    }
+
+    /**
+     * Activate, deactivate or suspend customers in bulk, given their ids or a filter
+     * POST /customers/bulk/{activate|deactivate|suspend}
+     * Progress is streamed as NDJSON, one line per committed chunk
+     */
+    @PostMapping(value = "/bulk/{transition}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<BulkTransitionProgressDTO>> transitionCustomers(
+            @PathVariable String transition,
+            @RequestBody BulkTransitionRequest request,
+            @RequestParam(required = false, defaultValue = "SYSTEM") String actor) {
+        log.info("POST /api/v1/customers/bulk/{} - Transitioning customers in bulk", transition);
+        
+        StatusTransition statusTransition;
+        try {
+            statusTransition = StatusTransition.from(transition);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid bulk transition: {}", transition);
+            return ResponseEntity.badRequest().build();
+        }
+        CustomerStatusUpdater.Filter filter = new CustomerStatusUpdater.Filter(
+                request.getSegment(), request.getStatus(), request.getRiskLevel());
+        boolean byIds = request.getIds() != null && !request.getIds().isEmpty();
+        if (byIds == !filter.isEmpty()) {
+            log.error("Bulk {} needs either ids or a filter", transition);
+            return ResponseEntity.badRequest().build();
+        }
+        if (statusTransition == StatusTransition.SUSPEND && !StringUtils.hasText(request.getReason())) {
+            log.error("Bulk suspend needs a reason");
+            return ResponseEntity.badRequest().build();
+        }
+        
+        Flux<BulkTransitionProgressDTO> progress = (byIds
+                ? customerService.transitionCustomers(statusTransition, request.getIds(), request.getReason(), actor)
+                : customerService.transitionCustomers(statusTransition, filter, request.getReason(), actor))
+                .map(customerMapper::toBulkTransitionDTO)
+                // Chunks already streamed are committed; the client sees the stream cut short
+                .doOnError(e -> log.error("Error in bulk {} of customers", transition, e));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(progress);
+    }
+
     /**
      * Get customer by ID
      * GET /customers/{id}
+     * 304 when If-None-Match carries the current ETag
      */
     @GetMapping("/{id}")
-    public Mono<ResponseEntity<CustomerDTO>> getCustomerById(@PathVariable String id) {
+    public Mono<ResponseEntity<CustomerDTO>> getCustomerById(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("GET /api/v1/customers/{} - Getting customer", id);
         
-        return customerService.getCustomerById(id)
-                .map(customerMapper::toDTO)
-                .map(ResponseEntity::ok)
-                .onErrorResume(e -> {
+        Mono<ResponseEntity<CustomerDTO>> customer = customerService.getCustomerById(id)
+                .map(c -> ResponseEntity.ok().eTag(customerETag.of(c)).body(customerMapper.toDTO(c)));
+        // A client holding the current version gets 304, checked on the version alone
+        Mono<ResponseEntity<CustomerDTO>> response = ifNoneMatch == null ? customer
+                : customerService.getCustomerVersion(id)
+                        .filter(version -> customerETag.isNotModified(ifNoneMatch, version))
+                        .map(version -> ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .eTag(customerETag.of(version))
+                                .<CustomerDTO>build())
+                        .switchIfEmpty(customer);
+        return response
+                .onErrorResume(HANDLED, e -> {
                     log.error("Customer not found: {}", id);
                     return Mono.just(ResponseEntity.notFound().build());
                 });
@@ -75,7 +205,7 @@ public class CustomerController {
         return customerService.getCustomerByExternalId(externalId)
                 .map(customerMapper::toDTO)
                 .map(ResponseEntity::ok)
-                .onErrorResume(e -> {
+                .onErrorResume(HANDLED, e -> {
                     log.error("Customer not found with external ID: {}", externalId);
                     return Mono.just(ResponseEntity.notFound().build());
                 });
@@ -92,7 +222,7 @@ public class CustomerController {
         return customerService.getCustomerByEmail(email)
                 .map(customerMapper::toDTO)
                 .map(ResponseEntity::ok)
-                .onErrorResume(e -> {
+                .onErrorResume(HANDLED, e -> {
                     log.error("Customer not found with email: {}", email);
                     return Mono.just(ResponseEntity.notFound().build());
                 });
@@ -109,7 +239,7 @@ public class CustomerController {
         return customerService.getCustomerByCpfCnpj(cpfCnpj)
                 .map(customerMapper::toDTO)
                 .map(ResponseEntity::ok)
-                .onErrorResume(e -> {
+                .onErrorResume(HANDLED, e -> {
                     log.error("Customer not found with CPF/CNPJ: {}", cpfCnpj);
                     return Mono.just(ResponseEntity.notFound().build());
                 });
@@ -125,7 +255,7 @@ public class CustomerController {
         
         return customerService.searchCustomersByName(name)
                 .map(customerMapper::toDTO)
-                .onErrorResume(e -> {
+                .onErrorResume(HANDLED, e -> {
                     log.error("Error searching customers by name: {}", name);
                     return Flux.empty();
                 });
@@ -141,7 +271,7 @@ public class CustomerController {
         
         return customerService.getCustomersByStatus(status)
                 .map(customerMapper::toDTO)
-                .onErrorResume(e -> {
+                .onErrorResume(HANDLED, e -> {
                     log.error("Error getting customers by status: {}", status);
                     return Flux.empty();
                 });
@@ -157,7 +287,7 @@ public class CustomerController {
         
         return customerService.getCustomersBySegment(segment)
                 .map(customerMapper::toDTO)
-                .onErrorResume(e -> {
+                .onErrorResume(HANDLED, e -> {
                     log.error("Error getting customers by segment: {}", segment);
                     return Flux.empty();
                 });
@@ -173,12 +303,84 @@ public class CustomerController {
         
         return customerService.getCustomersByRiskLevel(riskLevel)
                 .map(customerMapper::toDTO)
-                .onErrorResume(e -> {
+                .onErrorResume(HANDLED, e -> {
                     log.error("Error getting customers by risk level: {}", riskLevel);
                     return Flux.empty();
                 });
     }
 
+    /**
+     * Scroll customers with an opaque cursor (keyset pagination)
+     * GET /customers/scroll?status={status}&segment={segment}&riskLevel={riskLevel}&cursor={next}&limit={limit}
+     */
+    @GetMapping("/scroll")
+    public Mono<ResponseEntity<CursorPageDTO<CustomerDTO>>> scrollCustomers(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String segment,
+            @RequestParam(required = false) String riskLevel,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") Integer limit) {
+        log.info("GET /api/v1/customers/scroll - status: {}, segment: {}, riskLevel: {}", status, segment, riskLevel);
+        
+        int pageSize = Math.min(Math.max(limit, 1), paginationProperties.getMaxLimit());
+        
+        String afterCustomerId;
+        try {
+            afterCustomerId = cursor == null ? null : cursorCodec.decode(cursor, status, segment, riskLevel);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid cursor: {}", e.getMessage());
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        
+        return customerService.scrollCustomers(status, segment, riskLevel, afterCustomerId, pageSize)
+                .map(window -> ResponseEntity.ok(toCursorPage(window, pageSize, status, segment, riskLevel)))
+                .onErrorResume(IllegalArgumentException.class, e -> {
+                    log.error("Invalid scroll request: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.badRequest().build());
+                })
+                .onErrorResume(HANDLED, e -> {
+                    log.error("Error scrolling customers", e);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+                });
+    }
+
+    /**
+     * Export customers as NDJSON or CSV (streamed, gzip when accepted by the client)
+     * GET /customers/export?format={ndjson|csv}&status={status}&segment={segment}
+     */
+    @GetMapping("/export")
+    public ResponseEntity<Flux<DataBuffer>> exportCustomers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String segment,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            ServerHttpResponse response) {
+        log.info("GET /api/v1/customers/export?format={} - Exporting customers (status: {}, segment: {})",
+                format, status, segment);
+        
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid export format: {}", format);
+            return ResponseEntity.badRequest().build();
+        }
+        
+        boolean gzip = AcceptEncoding.accepts(acceptEncoding, "gzip");
+        
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"customers." + exportFormat.getExtension() + "\"");
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        
+        return builder.body(customerExporter.export(
+                exportFormat, status, segment, gzip, response.bufferFactory()));
+    }
+
     /**
      * Get high risk active customers
      * GET /customers/risk/high/active
@@ -189,7 +391,7 @@ public class CustomerController {
         
         return customerService.getHighRiskActiveCustomers()
                 .map(customerMapper::toDTO)
-                .onErrorResume(e -> {
+                .onErrorResume(HANDLED, e -> {
                     log.error("Error getting high risk active customers");
                     return Flux.empty();
                 });
@@ -198,20 +400,47 @@ public class CustomerController {
     /**
      * Update customer
      * PUT /customers/{id}
+     * Only the fields present in the body are written, without reading the customer first
+     * 412 when If-Match does not carry the current ETag
+     * 202 when only write-behind fields change (customer-service.persistence.write-behind):
+     * the update is journaled and written with a later batch
      */
     @PutMapping("/{id}")
     public Mono<ResponseEntity<CustomerDTO>> updateCustomer(
             @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody Mono<CustomerDTO> request) {
         log.info("PUT /api/v1/customers/{} - Updating customer", id);
         
+        Optional<Long> requiredVersion;
+        try {
+            requiredVersion = ifMatch == null ? Optional.empty() : customerETag.requiredVersion(ifMatch);
+        } catch (IllegalArgumentException e) {
+            log.error("Precondition failed updating customer {}: {}", id, e.getMessage());
+            return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build());
+        }
+        
         return request
-                .flatMap(dto -> customerService.getCustomerById(id)
-                        .doOnNext(customer -> customerMapper.updateEntityFromDTO(dto, customer))
-                        .flatMap(customerService::updateCustomer))
-                .map(customerMapper::toDTO)
-                .map(ResponseEntity::ok)
-                .onErrorResume(e -> {
+                .map(customerMapper::toAttributes)
+                .flatMap(attributes -> {
+                    if (requiredVersion.isEmpty() && customerService.isWrittenBehind(attributes)) {
+                        return customerService.bufferCustomerUpdate(id, attributes)
+                                .map(c -> ResponseEntity.status(HttpStatus.ACCEPTED).body(customerMapper.toDTO(c)));
+                    }
+                    // Written at the client's version: the write fails if that is not the current one
+                    return customerService.patchCustomer(id, attributes, requiredVersion.orElse(null))
+                            .map(c -> ResponseEntity.ok().eTag(customerETag.of(c)).body(customerMapper.toDTO(c)));
+                })
+                .onErrorResume(IllegalArgumentException.class, e -> {
+                    log.error("Invalid update of customer {}: {}", id, e.getMessage());
+                    return Mono.just(ResponseEntity.badRequest().build());
+                })
+                .onErrorResume(OptimisticLockingFailureException.class, e -> {
+                    log.error("Conflict updating customer: {}", id);
+                    return Mono.just(ResponseEntity.status(
+                            ifMatch == null ? HttpStatus.CONFLICT : HttpStatus.PRECONDITION_FAILED).build());
+                })
+                .onErrorResume(HANDLED, e -> {
                     log.error("Error updating customer: {}", id);
                     return Mono.just(ResponseEntity.notFound().build());
                 });
@@ -230,7 +459,11 @@ public class CustomerController {
         return customerService.activateCustomer(id, actor)
                 .map(customerMapper::toDTO)
                 .map(ResponseEntity::ok)
-                .onErrorResume(e -> {
+                .onErrorResume(OptimisticLockingFailureException.class, e -> {
+                    log.error("Conflict activating customer: {}", id);
+                    return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build());
+                })
+                .onErrorResume(HANDLED, e -> {
                     log.error("Error activating customer: {}", id);
                     return Mono.just(ResponseEntity.notFound().build());
                 });
@@ -249,7 +482,11 @@ public class CustomerController {
         return customerService.deactivateCustomer(id, actor)
                 .map(customerMapper::toDTO)
                 .map(ResponseEntity::ok)
-                .onErrorResume(e -> {
+                .onErrorResume(OptimisticLockingFailureException.class, e -> {
+                    log.error("Conflict deactivating customer: {}", id);
+                    return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build());
+                })
+                .onErrorResume(HANDLED, e -> {
                     log.error("Error deactivating customer: {}", id);
                     return Mono.just(ResponseEntity.notFound().build());
                 });
@@ -269,7 +506,11 @@ public class CustomerController {
         return customerService.suspendCustomer(id, reason, actor)
                 .map(customerMapper::toDTO)
                 .map(ResponseEntity::ok)
-                .onErrorResume(e -> {
+                .onErrorResume(OptimisticLockingFailureException.class, e -> {
+                    log.error("Conflict suspending customer: {}", id);
+                    return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build());
+                })
+                .onErrorResume(HANDLED, e -> {
                     log.error("Error suspending customer: {}", id);
                     return Mono.just(ResponseEntity.notFound().build());
                 });
@@ -285,7 +526,7 @@ public class CustomerController {
         
         return customerService.deleteCustomer(id)
                 .then(Mono.just(ResponseEntity.noContent().<Void>build()))
-                .onErrorResume(e -> {
+                .onErrorResume(HANDLED, e -> {
                     log.error("Error deleting customer: {}", id);
                     return Mono.just(ResponseEntity.notFound().build());
                 });
@@ -301,9 +542,27 @@ public class CustomerController {
         
         return customerService.countCustomersByStatus(status)
                 .map(ResponseEntity::ok)
-                .onErrorResume(e -> {
+                .onErrorResume(HANDLED, e -> {
                     log.error("Error counting customers by status: {}", status);
                     return Mono.just(ResponseEntity.ok(0L));
                 });
     }
+
+    private CursorPageDTO<CustomerDTO> toCursorPage(Window<Customer> window, int limit,
+                                                    String status, String segment, String riskLevel) {
+        List<CustomerDTO> items = window.getContent().stream()
+                .map(customerMapper::toDTO)
+                .toList();
+        
+        String next = null;
+        if (window.hasNext() && !items.isEmpty()) {
+            next = cursorCodec.encode(items.get(items.size() - 1).getCustomerId(), status, segment, riskLevel);
+        }
+        
+        return CursorPageDTO.<CustomerDTO>builder()
+                .items(items)
+                .next(next)
+                .limit(limit)
+                .build();
+    }
 }
@@ -2,11 +2,13 @@ package com.vivo.crm.customer.presentation.controller;
 
 import com.vivo.crm.customer.domain.model.Hub;
 import com.vivo.crm.customer.domain.repository.HubRepository;
+import com.vivo.crm.customer.infrastructure.execution.BlockingExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.util.Optional;
 
@@ -30,6 +32,7 @@ import java.util.Optional;
 public class HubController {
 
     private final HubRepository hubRepository;
+    private final BlockingExecutor blockingExecutor;
 
     // ========== TMF629 Customer Management Hub ==========
 
@@ -38,12 +41,14 @@ public class HubController {
      * POST /tmf-api/customer/v5/hub
      */
     @PostMapping("/tmf-api/customer/v5/hub")
-    public ResponseEntity<Hub> createCustomerHub(@RequestBody Hub hub) {
+    public Mono<ResponseEntity<Hub>> createCustomerHub(@RequestBody Hub hub) {
         log.info("POST /tmf-api/customer/v5/hub - Creating subscription: {}", hub.getCallback());
         
-        Hub saved = hubRepository.save(hub);
-        
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            Hub saved = hubRepository.save(hub);
+            
+            return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        });
     }
 
     /**
@@ -51,14 +56,16 @@ public class HubController {
      * GET /tmf-api/customer/v5/hub/{id}
      */
     @GetMapping("/tmf-api/customer/v5/hub/{id}")
-    public ResponseEntity<Hub> getCustomerHub(@PathVariable String id) {
+    public Mono<ResponseEntity<Hub>> getCustomerHub(@PathVariable String id) {
         log.info("GET /tmf-api/customer/v5/hub/{}", id);
         
-        Optional<Hub> hub = hubRepository.findById(id);
-        
-        return hub
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        return blockingExecutor.call(BlockingExecutor.LOOKUP, () -> {
+            Optional<Hub> hub = hubRepository.findById(id);
+            
+            return hub
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        });
     }
 
     /**
@@ -66,16 +73,18 @@ public class HubController {
      * DELETE /tmf-api/customer/v5/hub/{id}
      */
     @DeleteMapping("/tmf-api/customer/v5/hub/{id}")
-    public ResponseEntity<Void> deleteCustomerHub(@PathVariable String id) {
+    public Mono<ResponseEntity<Void>> deleteCustomerHub(@PathVariable String id) {
         log.info("DELETE /tmf-api/customer/v5/hub/{}", id);
         
-        if (!hubRepository.existsById(id)) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        hubRepository.deleteById(id);
-        
-        return ResponseEntity.noContent().build();
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            if (!hubRepository.existsById(id)) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            hubRepository.deleteById(id);
+            
+            return ResponseEntity.noContent().build();
+        });
     }
 
     // ========== TMF632 Party Management Hub ==========
@@ -85,12 +94,14 @@ public class HubController {
      * POST /tmf-api/partyManagement/v5/hub
      */
     @PostMapping("/tmf-api/partyManagement/v5/hub")
-    public ResponseEntity<Hub> createPartyHub(@RequestBody Hub hub) {
+    public Mono<ResponseEntity<Hub>> createPartyHub(@RequestBody Hub hub) {
         log.info("POST /tmf-api/partyManagement/v5/hub - Creating subscription: {}", hub.getCallback());
         
-        Hub saved = hubRepository.save(hub);
-        
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            Hub saved = hubRepository.save(hub);
+            
+            return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        });
     }
 
     /**
@@ -98,14 +109,16 @@ public class HubController {
      * GET /tmf-api/partyManagement/v5/hub/{id}
      */
     @GetMapping("/tmf-api/partyManagement/v5/hub/{id}")
-    public ResponseEntity<Hub> getPartyHub(@PathVariable String id) {
+    public Mono<ResponseEntity<Hub>> getPartyHub(@PathVariable String id) {
         log.info("GET /tmf-api/partyManagement/v5/hub/{}", id);
         
-        Optional<Hub> hub = hubRepository.findById(id);
-        
-        return hub
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        return blockingExecutor.call(BlockingExecutor.LOOKUP, () -> {
+            Optional<Hub> hub = hubRepository.findById(id);
+            
+            return hub
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        });
     }
 
     /**
@@ -113,16 +126,18 @@ public class HubController {
      * DELETE /tmf-api/partyManagement/v5/hub/{id}
      */
     @DeleteMapping("/tmf-api/partyManagement/v5/hub/{id}")
-    public ResponseEntity<Void> deletePartyHub(@PathVariable String id) {
+    public Mono<ResponseEntity<Void>> deletePartyHub(@PathVariable String id) {
         log.info("DELETE /tmf-api/partyManagement/v5/hub/{}", id);
         
-        if (!hubRepository.existsById(id)) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        hubRepository.deleteById(id);
-        
-        return ResponseEntity.noContent().build();
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            if (!hubRepository.existsById(id)) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            hubRepository.deleteById(id);
+            
+            return ResponseEntity.noContent().build();
+        });
     }
 
     // ========== TMF669 Party Role Management Hub ==========
@@ -132,12 +147,14 @@ public class HubController {
      * POST /tmf-api/partyRoleManagement/v5/hub
      */
     @PostMapping("/tmf-api/partyRoleManagement/v5/hub")
-    public ResponseEntity<Hub> createPartyRoleHub(@RequestBody Hub hub) {
+    public Mono<ResponseEntity<Hub>> createPartyRoleHub(@RequestBody Hub hub) {
         log.info("POST /tmf-api/partyRoleManagement/v5/hub - Creating subscription: {}", hub.getCallback());
         
-        Hub saved = hubRepository.save(hub);
-        
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            Hub saved = hubRepository.save(hub);
+            
+            return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        });
     }
 
     /**
@@ -145,14 +162,16 @@ public class HubController {
      * GET /tmf-api/partyRoleManagement/v5/hub/{id}
      */
     @GetMapping("/tmf-api/partyRoleManagement/v5/hub/{id}")
-    public ResponseEntity<Hub> getPartyRoleHub(@PathVariable String id) {
+    public Mono<ResponseEntity<Hub>> getPartyRoleHub(@PathVariable String id) {
         log.info("GET /tmf-api/partyRoleManagement/v5/hub/{}", id);
         
-        Optional<Hub> hub = hubRepository.findById(id);
-        
-        return hub
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        return blockingExecutor.call(BlockingExecutor.LOOKUP, () -> {
+            Optional<Hub> hub = hubRepository.findById(id);
+            
+            return hub
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        });
     }
 
     /**
@@ -160,15 +179,17 @@ public class HubController {
      * DELETE /tmf-api/partyRoleManagement/v5/hub/{id}
      */
     @DeleteMapping("/tmf-api/partyRoleManagement/v5/hub/{id}")
-    public ResponseEntity<Void> deletePartyRoleHub(@PathVariable String id) {
+    public Mono<ResponseEntity<Void>> deletePartyRoleHub(@PathVariable String id) {
         log.info("DELETE /tmf-api/partyRoleManagement/v5/hub/{}", id);
         
-        if (!hubRepository.existsById(id)) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        hubRepository.deleteById(id);
-        
-        return ResponseEntity.noContent().build();
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            if (!hubRepository.existsById(id)) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            hubRepository.deleteById(id);
+            
+            return ResponseEntity.noContent().build();
+        });
     }
 }
@@ -2,11 +2,18 @@ package com.vivo.crm.customer.presentation.controller;
 
 import com.vivo.crm.customer.domain.model.Individual;
 import com.vivo.crm.customer.domain.repository.IndividualRepository;
+import com.vivo.crm.customer.infrastructure.persistence.EntityProjector;
+import com.vivo.crm.customer.infrastructure.persistence.OffsetPageRequest;
+import com.vivo.crm.customer.presentation.query.FieldSelection;
+import com.vivo.crm.customer.infrastructure.execution.BlockingExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Map;
@@ -25,29 +32,47 @@ import java.util.Optional;
 public class IndividualController {
 
     private final IndividualRepository individualRepository;
+    private final EntityProjector entityProjector;
+    private final BlockingExecutor blockingExecutor;
 
     /**
      * List or find Individual objects
      * GET /individual
      */
     @GetMapping
-    public ResponseEntity<List<Individual>> listIndividual(
+    public Mono<ResponseEntity<List<?>>> listIndividual(
             @RequestParam(required = false) String fields,
             @RequestParam(defaultValue = "0") Integer offset,
             @RequestParam(defaultValue = "100") Integer limit) {
         log.info("GET /tmf-api/partyManagement/v5/individual - Listing individuals");
         
-        List<Individual> individuals = individualRepository.findAll();
-        
-        // Apply pagination
-        int start = Math.min(offset, individuals.size());
-        int end = Math.min(offset + limit, individuals.size());
-        List<Individual> pagedResult = individuals.subList(start, end);
-        
-        return ResponseEntity.ok()
-                .header("X-Total-Count", String.valueOf(individuals.size()))
-                .header("X-Result-Count", String.valueOf(pagedResult.size()))
-                .body(pagedResult);
+        return blockingExecutor.call(BlockingExecutor.LIST, () -> {
+            FieldSelection selection = FieldSelection.parse(fields);
+            OffsetPageRequest page = OffsetPageRequest.of(Math.max(offset, 0), Math.max(limit, 1), Sort.by("id"));
+            
+            // fields= selects only the requested columns (collections are not projected)
+            Optional<List<String>> projection = selection.isAll()
+                    ? Optional.empty()
+                    : entityProjector.resolve(Individual.class, selection.getFields());
+            
+            if (projection.isPresent()) {
+                List<Map<String, Object>> rows = entityProjector.select(
+                        Individual.class, projection.get(), null, page.getSort(), page.getOffset(), page.getPageSize());
+            
+                return ResponseEntity.ok()
+                        .header("X-Total-Count", String.valueOf(individualRepository.count()))
+                        .header("X-Result-Count", String.valueOf(rows.size()))
+                        .body(rows);
+            }
+            
+            // Pagination is applied by the database
+            Page<Individual> pagedResult = individualRepository.findAll(page);
+            
+            return ResponseEntity.ok()
+                    .header("X-Total-Count", String.valueOf(pagedResult.getTotalElements()))
+                    .header("X-Result-Count", String.valueOf(pagedResult.getNumberOfElements()))
+                    .body(pagedResult.getContent());
+        });
     }
 
     /**
@@ -55,13 +80,15 @@ public class IndividualController {
      * POST /individual
      */
     @PostMapping
-    public ResponseEntity<Individual> createIndividual(@RequestBody Individual individual) {
+    public Mono<ResponseEntity<Individual>> createIndividual(@RequestBody Individual individual) {
         log.info("POST /tmf-api/partyManagement/v5/individual - Creating individual: {}", 
                 individual.getGivenName());
         
-        Individual saved = individualRepository.save(individual);
-        
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            Individual saved = individualRepository.save(individual);
+            
+            return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        });
     }
 
     /**
@@ -69,16 +96,29 @@ public class IndividualController {
      * GET /individual/{id}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Individual> retrieveIndividual(
+    public Mono<ResponseEntity<?>> retrieveIndividual(
             @PathVariable String id,
             @RequestParam(required = false) String fields) {
         log.info("GET /tmf-api/partyManagement/v5/individual/{} - Retrieving individual", id);
         
-        Optional<Individual> individual = individualRepository.findById(id);
-        
-        return individual
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        return blockingExecutor.call(BlockingExecutor.LOOKUP, () -> {
+            FieldSelection selection = FieldSelection.parse(fields);
+            Optional<List<String>> projection = selection.isAll()
+                    ? Optional.empty()
+                    : entityProjector.resolve(Individual.class, selection.getFields());
+            
+            if (projection.isPresent()) {
+                return entityProjector.selectById(Individual.class, projection.get(), id)
+                        .<ResponseEntity<?>>map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build());
+            }
+            
+            Optional<Individual> individual = individualRepository.findById(id);
+            
+            return individual
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        });
     }
 
     /**
@@ -86,57 +126,59 @@ public class IndividualController {
      * PATCH /individual/{id}
      */
     @PatchMapping("/{id}")
-    public ResponseEntity<Individual> patchIndividual(
+    public Mono<ResponseEntity<Individual>> patchIndividual(
             @PathVariable String id,
             @RequestBody Map<String, Object> updates) {
         log.info("PATCH /tmf-api/partyManagement/v5/individual/{} - Updating individual", id);
         
-        Optional<Individual> existingOpt = individualRepository.findById(id);
-        
-        if (existingOpt.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        Individual existing = existingOpt.get();
-        
-        // Apply partial updates
-        if (updates.containsKey("givenName")) {
-            existing.setGivenName((String) updates.get("givenName"));
-        }
-        if (updates.containsKey("familyName")) {
-            existing.setFamilyName((String) updates.get("familyName"));
-        }
-        if (updates.containsKey("formattedName")) {
-            existing.setFormattedName((String) updates.get("formattedName"));
-        }
-        if (updates.containsKey("preferredGivenName")) {
-            existing.setPreferredGivenName((String) updates.get("preferredGivenName"));
-        }
-        if (updates.containsKey("title")) {
-            existing.setTitle((String) updates.get("title"));
-        }
-        if (updates.containsKey("gender")) {
-            existing.setGender((String) updates.get("gender"));
-        }
-        if (updates.containsKey("nationality")) {
-            existing.setNationality((String) updates.get("nationality"));
-        }
-        if (updates.containsKey("maritalStatus")) {
-            existing.setMaritalStatus((String) updates.get("maritalStatus"));
-        }
-        if (updates.containsKey("email")) {
-            existing.setEmail((String) updates.get("email"));
-        }
-        if (updates.containsKey("phone")) {
-            existing.setPhone((String) updates.get("phone"));
-        }
-        if (updates.containsKey("status")) {
-            existing.setStatus((String) updates.get("status"));
-        }
-        
-        Individual updated = individualRepository.save(existing);
-        
-        return ResponseEntity.ok(updated);
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            Optional<Individual> existingOpt = individualRepository.findById(id);
+            
+            if (existingOpt.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            Individual existing = existingOpt.get();
+            
+            // Apply partial updates
+            if (updates.containsKey("givenName")) {
+                existing.setGivenName((String) updates.get("givenName"));
+            }
+            if (updates.containsKey("familyName")) {
+                existing.setFamilyName((String) updates.get("familyName"));
+            }
+            if (updates.containsKey("formattedName")) {
+                existing.setFormattedName((String) updates.get("formattedName"));
+            }
+            if (updates.containsKey("preferredGivenName")) {
+                existing.setPreferredGivenName((String) updates.get("preferredGivenName"));
+            }
+            if (updates.containsKey("title")) {
+                existing.setTitle((String) updates.get("title"));
+            }
+            if (updates.containsKey("gender")) {
+                existing.setGender((String) updates.get("gender"));
+            }
+            if (updates.containsKey("nationality")) {
+                existing.setNationality((String) updates.get("nationality"));
+            }
+            if (updates.containsKey("maritalStatus")) {
+                existing.setMaritalStatus((String) updates.get("maritalStatus"));
+            }
+            if (updates.containsKey("email")) {
+                existing.setEmail((String) updates.get("email"));
+            }
+            if (updates.containsKey("phone")) {
+                existing.setPhone((String) updates.get("phone"));
+            }
+            if (updates.containsKey("status")) {
+                existing.setStatus((String) updates.get("status"));
+            }
+            
+            Individual updated = individualRepository.save(existing);
+            
+            return ResponseEntity.ok(updated);
+        });
     }
 
     /**
@@ -144,16 +186,18 @@ public class IndividualController {
      * DELETE /individual/{id}
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteIndividual(@PathVariable String id) {
+    public Mono<ResponseEntity<Void>> deleteIndividual(@PathVariable String id) {
         log.info("DELETE /tmf-api/partyManagement/v5/individual/{} - Deleting individual", id);
         
-        if (!individualRepository.existsById(id)) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        individualRepository.deleteById(id);
-        
-        return ResponseEntity.noContent().build();
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            if (!individualRepository.existsById(id)) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            individualRepository.deleteById(id);
+            
+            return ResponseEntity.noContent().build();
+        });
     }
 
     // ========== Additional endpoints ==========
@@ -163,17 +207,19 @@ public class IndividualController {
      * GET /individual/identification/{type}/{number}
      */
     @GetMapping("/identification/{type}/{number}")
-    public ResponseEntity<Individual> findByIdentification(
+    public Mono<ResponseEntity<Individual>> findByIdentification(
             @PathVariable String type,
             @PathVariable String number) {
         log.info("GET /tmf-api/partyManagement/v5/individual/identification/{}/{}", type, number);
         
-        Optional<Individual> individual = individualRepository
-                .findByIdentificationTypeAndIdentificationNumber(type, number);
-        
-        return individual
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        return blockingExecutor.call(BlockingExecutor.LOOKUP, () -> {
+            Optional<Individual> individual = individualRepository
+                    .findByIdentificationTypeAndIdentificationNumber(type, number);
+            
+            return individual
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        });
     }
 
     /**
@@ -181,11 +227,13 @@ public class IndividualController {
      * GET /individual/search?name={name}
      */
     @GetMapping("/search")
-    public ResponseEntity<List<Individual>> searchByName(@RequestParam String name) {
+    public Mono<ResponseEntity<List<Individual>>> searchByName(@RequestParam String name) {
         log.info("GET /tmf-api/partyManagement/v5/individual/search?name={}", name);
         
-        List<Individual> individuals = individualRepository.searchByName(name);
-        
-        return ResponseEntity.ok(individuals);
+        return blockingExecutor.call(BlockingExecutor.SEARCH, () -> {
+            List<Individual> individuals = individualRepository.searchByName(name);
+            
+            return ResponseEntity.ok(individuals);
+        });
     }
 }
@@ -2,15 +2,25 @@ package com.vivo.crm.customer.presentation.controller;
 
 import com.vivo.crm.customer.domain.model.Organization;
 import com.vivo.crm.customer.domain.repository.OrganizationRepository;
+import com.vivo.crm.customer.infrastructure.persistence.EntityPatcher;
+import com.vivo.crm.customer.infrastructure.persistence.EntityProjector;
+import com.vivo.crm.customer.infrastructure.persistence.OffsetPageRequest;
+import com.vivo.crm.customer.presentation.query.FieldSelection;
+import com.vivo.crm.customer.infrastructure.execution.BlockingExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * TMF632 - Organization REST Controller
@@ -24,30 +34,55 @@ import java.util.Optional;
 @Slf4j
 public class OrganizationController {
 
+    /**
+     * Organization attributes a PATCH may change (unknown members are ignored)
+     */
+    private static final Set<String> ORGANIZATION_PATCHABLE = Set.of("name", "tradingName", "nameType",
+            "organizationType", "isLegalEntity", "isHeadOffice", "email", "phone", "status");
+
     private final OrganizationRepository organizationRepository;
+    private final EntityProjector entityProjector;
+    private final EntityPatcher entityPatcher;
+    private final BlockingExecutor blockingExecutor;
 
     /**
      * List or find Organization objects
      * GET /organization
      */
     @GetMapping
-    public ResponseEntity<List<Organization>> listOrganization(
+    public Mono<ResponseEntity<List<?>>> listOrganization(
             @RequestParam(required = false) String fields,
             @RequestParam(defaultValue = "0") Integer offset,
             @RequestParam(defaultValue = "100") Integer limit) {
         log.info("GET /tmf-api/partyManagement/v5/organization - Listing organizations");
         
-        List<Organization> organizations = organizationRepository.findAll();
-        
-        // Apply pagination
-        int start = Math.min(offset, organizations.size());
-        int end = Math.min(offset + limit, organizations.size());
-        List<Organization> pagedResult = organizations.subList(start, end);
-        
-        return ResponseEntity.ok()
-                .header("X-Total-Count", String.valueOf(organizations.size()))
-                .header("X-Result-Count", String.valueOf(pagedResult.size()))
-                .body(pagedResult);
+        return blockingExecutor.call(BlockingExecutor.LIST, () -> {
+            FieldSelection selection = FieldSelection.parse(fields);
+            OffsetPageRequest page = OffsetPageRequest.of(Math.max(offset, 0), Math.max(limit, 1), Sort.by("id"));
+            
+            // fields= selects only the requested columns (collections are not projected)
+            Optional<List<String>> projection = selection.isAll()
+                    ? Optional.empty()
+                    : entityProjector.resolve(Organization.class, selection.getFields());
+            
+            if (projection.isPresent()) {
+                List<Map<String, Object>> rows = entityProjector.select(
+                        Organization.class, projection.get(), null, page.getSort(), page.getOffset(), page.getPageSize());
+            
+                return ResponseEntity.ok()
+                        .header("X-Total-Count", String.valueOf(organizationRepository.count()))
+                        .header("X-Result-Count", String.valueOf(rows.size()))
+                        .body(rows);
+            }
+            
+            // Pagination is applied by the database
+            Page<Organization> pagedResult = organizationRepository.findAll(page);
+            
+            return ResponseEntity.ok()
+                    .header("X-Total-Count", String.valueOf(pagedResult.getTotalElements()))
+                    .header("X-Result-Count", String.valueOf(pagedResult.getNumberOfElements()))
+                    .body(pagedResult.getContent());
+        });
     }
 
     /**
@@ -55,13 +90,15 @@ public class OrganizationController {
      * POST /organization
      */
     @PostMapping
-    public ResponseEntity<Organization> createOrganization(@RequestBody Organization organization) {
+    public Mono<ResponseEntity<Organization>> createOrganization(@RequestBody Organization organization) {
         log.info("POST /tmf-api/partyManagement/v5/organization - Creating organization: {}", 
                 organization.getName());
         
-        Organization saved = organizationRepository.save(organization);
-        
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            Organization saved = organizationRepository.save(organization);
+            
+            return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        });
     }
 
     /**
@@ -69,68 +106,55 @@ public class OrganizationController {
      * GET /organization/{id}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Organization> retrieveOrganization(
+    public Mono<ResponseEntity<?>> retrieveOrganization(
             @PathVariable String id,
             @RequestParam(required = false) String fields) {
         log.info("GET /tmf-api/partyManagement/v5/organization/{} - Retrieving organization", id);
         
-        Optional<Organization> organization = organizationRepository.findById(id);
-        
-        return organization
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        return blockingExecutor.call(BlockingExecutor.LOOKUP, () -> {
+            FieldSelection selection = FieldSelection.parse(fields);
+            Optional<List<String>> projection = selection.isAll()
+                    ? Optional.empty()
+                    : entityProjector.resolve(Organization.class, selection.getFields());
+            
+            if (projection.isPresent()) {
+                return entityProjector.selectById(Organization.class, projection.get(), id)
+                        .<ResponseEntity<?>>map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build());
+            }
+            
+            Optional<Organization> organization = organizationRepository.findById(id);
+            
+            return organization
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        });
     }
 
     /**
      * Updates partially an Organization
      * PATCH /organization/{id}
+     * JSON Merge Patch: only the supplied columns are written, without reading the organization first
      */
     @PatchMapping("/{id}")
-    public ResponseEntity<Organization> patchOrganization(
+    public Mono<ResponseEntity<Organization>> patchOrganization(
             @PathVariable String id,
             @RequestBody Map<String, Object> updates) {
         log.info("PATCH /tmf-api/partyManagement/v5/organization/{} - Updating organization", id);
         
-        Optional<Organization> existingOpt = organizationRepository.findById(id);
-        
-        if (existingOpt.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        Organization existing = existingOpt.get();
-        
-        // Apply partial updates
-        if (updates.containsKey("name")) {
-            existing.setName((String) updates.get("name"));
-        }
-        if (updates.containsKey("tradingName")) {
-            existing.setTradingName((String) updates.get("tradingName"));
-        }
-        if (updates.containsKey("nameType")) {
-            existing.setNameType((String) updates.get("nameType"));
-        }
-        if (updates.containsKey("organizationType")) {
-            existing.setOrganizationType((String) updates.get("organizationType"));
-        }
-        if (updates.containsKey("isLegalEntity")) {
-            existing.setIsLegalEntity((Boolean) updates.get("isLegalEntity"));
-        }
-        if (updates.containsKey("isHeadOffice")) {
-            existing.setIsHeadOffice((Boolean) updates.get("isHeadOffice"));
-        }
-        if (updates.containsKey("email")) {
-            existing.setEmail((String) updates.get("email"));
-        }
-        if (updates.containsKey("phone")) {
-            existing.setPhone((String) updates.get("phone"));
-        }
-        if (updates.containsKey("status")) {
-            existing.setStatus((String) updates.get("status"));
-        }
-        
-        Organization updated = organizationRepository.save(existing);
-        
-        return ResponseEntity.ok(updated);
+        Map<String, Object> attributes = new LinkedHashMap<>(updates);
+        attributes.keySet().retainAll(ORGANIZATION_PATCHABLE);
+        
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            try {
+                return entityPatcher.patch(Organization.class, id, attributes, null)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build());
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid patch of organization {}: {}", id, e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
     }
 
     /**
@@ -138,16 +162,18 @@ public class OrganizationController {
      * DELETE /organization/{id}
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteOrganization(@PathVariable String id) {
+    public Mono<ResponseEntity<Void>> deleteOrganization(@PathVariable String id) {
         log.info("DELETE /tmf-api/partyManagement/v5/organization/{} - Deleting organization", id);
         
-        if (!organizationRepository.existsById(id)) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        organizationRepository.deleteById(id);
-        
-        return ResponseEntity.noContent().build();
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            if (!organizationRepository.existsById(id)) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            organizationRepository.deleteById(id);
+            
+            return ResponseEntity.noContent().build();
+        });
     }
 
     // ========== Additional endpoints ==========
@@ -157,17 +183,19 @@ public class OrganizationController {
      * GET /organization/identification/{type}/{number}
      */
     @GetMapping("/identification/{type}/{number}")
-    public ResponseEntity<Organization> findByIdentification(
+    public Mono<ResponseEntity<Organization>> findByIdentification(
             @PathVariable String type,
             @PathVariable String number) {
         log.info("GET /tmf-api/partyManagement/v5/organization/identification/{}/{}", type, number);
         
-        Optional<Organization> organization = organizationRepository
-                .findByIdentificationTypeAndIdentificationNumber(type, number);
-        
-        return organization
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        return blockingExecutor.call(BlockingExecutor.LOOKUP, () -> {
+            Optional<Organization> organization = organizationRepository
+                    .findByIdentificationTypeAndIdentificationNumber(type, number);
+            
+            return organization
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        });
     }
 
     /**
@@ -175,12 +203,14 @@ public class OrganizationController {
      * GET /organization/search?name={name}
      */
     @GetMapping("/search")
-    public ResponseEntity<List<Organization>> searchByName(@RequestParam String name) {
+    public Mono<ResponseEntity<List<Organization>>> searchByName(@RequestParam String name) {
         log.info("GET /tmf-api/partyManagement/v5/organization/search?name={}", name);
         
-        List<Organization> organizations = organizationRepository.searchByName(name);
-        
-        return ResponseEntity.ok(organizations);
+        return blockingExecutor.call(BlockingExecutor.SEARCH, () -> {
+            List<Organization> organizations = organizationRepository.searchByName(name);
+            
+            return ResponseEntity.ok(organizations);
+        });
     }
 
     /**
@@ -188,11 +218,13 @@ public class OrganizationController {
      * GET /organization/{id}/children
      */
     @GetMapping("/{id}/children")
-    public ResponseEntity<List<Organization>> findChildOrganizations(@PathVariable String id) {
+    public Mono<ResponseEntity<List<Organization>>> findChildOrganizations(@PathVariable String id) {
         log.info("GET /tmf-api/partyManagement/v5/organization/{}/children", id);
         
-        List<Organization> children = organizationRepository.findByParentOrganizationId(id);
-        
-        return ResponseEntity.ok(children);
+        return blockingExecutor.call(BlockingExecutor.LIST, () -> {
+            List<Organization> children = organizationRepository.findByParentOrganizationId(id);
+            
+            return ResponseEntity.ok(children);
+        });
     }
 }
@@ -1,17 +1,30 @@
 package com.vivo.crm.customer.presentation.controller;
 
+import com.vivo.crm.customer.application.service.CustomerListingService;
 import com.vivo.crm.customer.domain.model.Customer;
 import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.infrastructure.cache.CustomerCache;
+import com.vivo.crm.customer.infrastructure.cache.RenderedCustomerCache;
+import com.vivo.crm.customer.infrastructure.persistence.EntityPatcher;
+import com.vivo.crm.customer.presentation.query.FieldSelection;
+import com.vivo.crm.customer.presentation.query.TmfFilter;
+import com.vivo.crm.customer.infrastructure.execution.BlockingExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -29,35 +42,82 @@ import java.util.stream.Collectors;
 @Slf4j
 public class PartyRoleController {
 
+    /**
+     * Customer attributes needed to render each TMF669 attribute (fields= projection)
+     */
+    private static final Map<String, List<String>> PARTY_ROLE_ATTRIBUTES = Map.ofEntries(
+            Map.entry("id", List.of("customerId")),
+            Map.entry("href", List.of("customerId")),
+            Map.entry("name", List.of("name")),
+            Map.entry("status", List.of("status")),
+            Map.entry("engagedParty", List.of("partyRoleId", "name", "identificationType", "identificationNumber")),
+            Map.entry("creditProfile", List.of("creditScore", "creditRiskRating")),
+            Map.entry("characteristic", List.of("segment", "riskLevel")),
+            Map.entry("validFor", List.of("createdAt")));
+
+    /**
+     * PartyRole attributes a PATCH may change (unknown members are ignored)
+     */
+    private static final Set<String> PARTY_ROLE_PATCHABLE = Set.of("name", "status", "segment", "creditScore",
+            "creditRiskRating");
+
     private final CustomerRepository customerRepository;
+    private final CustomerListingService customerListingService;
+    private final CustomerCache customerCache;
+    private final RenderedCustomerCache renderedCustomerCache;
+    private final BlockingExecutor blockingExecutor;
+    private final EntityPatcher entityPatcher;
 
     /**
      * List or find PartyRole objects
      * GET /partyRole
      */
     @GetMapping
-    public ResponseEntity<List<Map<String, Object>>> listPartyRole(
+    public Mono<ResponseEntity<List<Map<String, Object>>>> listPartyRole(
             @RequestParam(required = false) String fields,
             @RequestParam(defaultValue = "0") Integer offset,
-            @RequestParam(defaultValue = "100") Integer limit) {
+            @RequestParam(defaultValue = "100") Integer limit,
+            @RequestParam MultiValueMap<String, String> params) {
         log.info("GET /tmf-api/partyRoleManagement/v5/partyRole - Listing party roles");
         
-        List<Customer> customers = customerRepository.findAll();
-        
-        // Apply pagination
-        int start = Math.min(offset, customers.size());
-        int end = Math.min(offset + limit, customers.size());
-        List<Customer> pagedResult = customers.subList(start, end);
-        
-        // Convert to PartyRole format
-        List<Map<String, Object>> partyRoles = pagedResult.stream()
-                .map(this::customerToPartyRole)
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok()
-                .header("X-Total-Count", String.valueOf(customers.size()))
-                .header("X-Result-Count", String.valueOf(pagedResult.size()))
-                .body(partyRoles);
+        return blockingExecutor.call(BlockingExecutor.LIST, () -> {
+            FieldSelection selection = FieldSelection.parse(fields);
+            TmfFilter filter = TmfFilter.parse(params);
+            
+            // Filtering, sorting, pagination (and fields= projection) are applied by the database
+            List<Customer> pagedResult;
+            OptionalLong totalCount;
+            try {
+                if (filter.isNone()) {
+                    pagedResult = selection.isAll()
+                            ? customerListingService.findPage(offset, limit)
+                            : customerListingService.findPage(offset, limit, selection.attributes(PARTY_ROLE_ATTRIBUTES));
+                    totalCount = customerListingService.totalCount();
+                } else {
+                    pagedResult = customerListingService.findFiltered(filter.getConditions(), filter.getSort(),
+                            offset, limit, selection.isAll() ? null : selection.attributes(PARTY_ROLE_ATTRIBUTES));
+                    totalCount = customerListingService.filteredCount(filter.getConditions());
+                }
+            } catch (IllegalArgumentException e) {
+                log.warn("Rejected customer query: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+            
+            // Convert to PartyRole format
+            List<Map<String, Object>> partyRoles = pagedResult.stream()
+                    .map(this::customerToPartyRole)
+                    .map(selection::apply)
+                    .collect(Collectors.toList());
+            
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .header("X-Result-Count", String.valueOf(pagedResult.size()));
+            
+            if (totalCount.isPresent()) {
+                response.header("X-Total-Count", String.valueOf(totalCount.getAsLong()));
+            }
+            
+            return response.body(partyRoles);
+        });
     }
 
     /**
@@ -65,14 +125,17 @@ public class PartyRoleController {
      * POST /partyRole
      */
     @PostMapping
-    public ResponseEntity<Map<String, Object>> createPartyRole(@RequestBody Map<String, Object> partyRole) {
+    public Mono<ResponseEntity<Map<String, Object>>> createPartyRole(@RequestBody Map<String, Object> partyRole) {
         log.info("POST /tmf-api/partyRoleManagement/v5/partyRole - Creating party role");
         
-        // Convert PartyRole to Customer
-        Customer customer = partyRoleToCustomer(partyRole);
-        Customer saved = customerRepository.save(customer);
-        
-        return ResponseEntity.status(HttpStatus.CREATED).body(customerToPartyRole(saved));
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            // Convert PartyRole to Customer
+            Customer customer = partyRoleToCustomer(partyRole);
+            Customer saved = customerRepository.save(customer);
+            customerCache.evictCreated(saved);
+            
+            return ResponseEntity.status(HttpStatus.CREATED).body(customerToPartyRole(saved));
+        });
     }
 
     /**
@@ -80,56 +143,54 @@ public class PartyRoleController {
      * GET /partyRole/{id}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> retrievePartyRole(
+    public Mono<ResponseEntity<byte[]>> retrievePartyRole(
             @PathVariable String id,
             @RequestParam(required = false) String fields) {
         log.info("GET /tmf-api/partyRoleManagement/v5/partyRole/{} - Retrieving party role", id);
         
-        Optional<Customer> customer = customerRepository.findById(id);
-        
-        return customer
-                .map(c -> ResponseEntity.ok(customerToPartyRole(c)))
-                .orElse(ResponseEntity.notFound().build());
+        return blockingExecutor.call(BlockingExecutor.LOOKUP, () -> {
+            Optional<Customer> customer = customerCache.findById(id);
+            
+            // Serialized once per customer version
+            return customer
+                    .map(c -> ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(renderedCustomerCache.render(
+                                    c, RenderedCustomerCache.Representation.TMF669_PARTY_ROLE, this::customerToPartyRole)))
+                    .orElse(ResponseEntity.notFound().build());
+        });
     }
 
     /**
      * Updates partially a PartyRole
      * PATCH /partyRole/{id}
+     * JSON Merge Patch: only the supplied columns are written, without reading the customer first
      */
     @PatchMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> patchPartyRole(
+    public Mono<ResponseEntity<Map<String, Object>>> patchPartyRole(
             @PathVariable String id,
             @RequestBody Map<String, Object> updates) {
         log.info("PATCH /tmf-api/partyRoleManagement/v5/partyRole/{} - Updating party role", id);
         
-        Optional<Customer> existingOpt = customerRepository.findById(id);
+        Map<String, Object> attributes = new LinkedHashMap<>(updates);
+        attributes.keySet().retainAll(PARTY_ROLE_PATCHABLE);
         
-        if (existingOpt.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        Customer existing = existingOpt.get();
-        
-        // Apply partial updates
-        if (updates.containsKey("name")) {
-            existing.setName((String) updates.get("name"));
-        }
-        if (updates.containsKey("status")) {
-            existing.setStatus((String) updates.get("status"));
-        }
-        if (updates.containsKey("segment")) {
-            existing.setSegment((String) updates.get("segment"));
-        }
-        if (updates.containsKey("creditScore")) {
-            existing.setCreditScore((Integer) updates.get("creditScore"));
-        }
-        if (updates.containsKey("creditRiskRating")) {
-            existing.setCreditRiskRating((Integer) updates.get("creditRiskRating"));
-        }
-        
-        Customer updated = customerRepository.save(existing);
-        
-        return ResponseEntity.ok(customerToPartyRole(updated));
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            Optional<Customer> updated;
+            try {
+                updated = entityPatcher.patch(Customer.class, id, attributes, null);
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid patch of party role {}: {}", id, e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+            
+            if (updated.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            customerCache.evict(updated.get());
+            
+            return ResponseEntity.ok(customerToPartyRole(updated.get()));
+        });
     }
 
     /**
@@ -137,16 +198,19 @@ public class PartyRoleController {
      * DELETE /partyRole/{id}
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deletePartyRole(@PathVariable String id) {
+    public Mono<ResponseEntity<Void>> deletePartyRole(@PathVariable String id) {
         log.info("DELETE /tmf-api/partyRoleManagement/v5/partyRole/{} - Deleting party role", id);
         
-        if (!customerRepository.existsById(id)) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        customerRepository.deleteById(id);
-        
-        return ResponseEntity.noContent().build();
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            if (!customerRepository.existsById(id)) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            customerRepository.deleteById(id);
+            customerCache.evict(id);
+            
+            return ResponseEntity.noContent().build();
+        });
     }
 
     // ========== Helper methods ==========
@@ -2,11 +2,13 @@ package com.vivo.crm.customer.presentation.controller;
 
 import com.vivo.crm.customer.domain.model.PartyRoleSpecification;
 import com.vivo.crm.customer.domain.repository.PartyRoleSpecificationRepository;
+import com.vivo.crm.customer.infrastructure.execution.BlockingExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Map;
@@ -25,29 +27,32 @@ import java.util.Optional;
 public class PartyRoleSpecificationController {
 
     private final PartyRoleSpecificationRepository specificationRepository;
+    private final BlockingExecutor blockingExecutor;
 
     /**
      * List or find PartyRoleSpecification objects
      * GET /partyRoleSpecification
      */
     @GetMapping
-    public ResponseEntity<List<PartyRoleSpecification>> listPartyRoleSpecification(
+    public Mono<ResponseEntity<List<PartyRoleSpecification>>> listPartyRoleSpecification(
             @RequestParam(required = false) String fields,
             @RequestParam(defaultValue = "0") Integer offset,
             @RequestParam(defaultValue = "100") Integer limit) {
         log.info("GET /tmf-api/partyRoleManagement/v5/partyRoleSpecification - Listing specifications");
         
-        List<PartyRoleSpecification> specifications = specificationRepository.findAll();
-        
-        // Apply pagination
-        int start = Math.min(offset, specifications.size());
-        int end = Math.min(offset + limit, specifications.size());
-        List<PartyRoleSpecification> pagedResult = specifications.subList(start, end);
-        
-        return ResponseEntity.ok()
-                .header("X-Total-Count", String.valueOf(specifications.size()))
-                .header("X-Result-Count", String.valueOf(pagedResult.size()))
-                .body(pagedResult);
+        return blockingExecutor.call(BlockingExecutor.LIST, () -> {
+            List<PartyRoleSpecification> specifications = specificationRepository.findAll();
+            
+            // Apply pagination
+            int start = Math.min(offset, specifications.size());
+            int end = Math.min(offset + limit, specifications.size());
+            List<PartyRoleSpecification> pagedResult = specifications.subList(start, end);
+            
+            return ResponseEntity.ok()
+                    .header("X-Total-Count", String.valueOf(specifications.size()))
+                    .header("X-Result-Count", String.valueOf(pagedResult.size()))
+                    .body(pagedResult);
+        });
     }
 
     /**
@@ -55,14 +60,16 @@ public class PartyRoleSpecificationController {
      * POST /partyRoleSpecification
      */
     @PostMapping
-    public ResponseEntity<PartyRoleSpecification> createPartyRoleSpecification(
+    public Mono<ResponseEntity<PartyRoleSpecification>> createPartyRoleSpecification(
             @RequestBody PartyRoleSpecification specification) {
         log.info("POST /tmf-api/partyRoleManagement/v5/partyRoleSpecification - Creating: {}", 
                 specification.getName());
         
-        PartyRoleSpecification saved = specificationRepository.save(specification);
-        
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            PartyRoleSpecification saved = specificationRepository.save(specification);
+            
+            return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        });
     }
 
     /**
@@ -70,16 +77,18 @@ public class PartyRoleSpecificationController {
      * GET /partyRoleSpecification/{id}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<PartyRoleSpecification> retrievePartyRoleSpecification(
+    public Mono<ResponseEntity<PartyRoleSpecification>> retrievePartyRoleSpecification(
             @PathVariable String id,
             @RequestParam(required = false) String fields) {
         log.info("GET /tmf-api/partyRoleManagement/v5/partyRoleSpecification/{}", id);
         
-        Optional<PartyRoleSpecification> specification = specificationRepository.findById(id);
-        
-        return specification
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        return blockingExecutor.call(BlockingExecutor.LOOKUP, () -> {
+            Optional<PartyRoleSpecification> specification = specificationRepository.findById(id);
+            
+            return specification
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        });
     }
 
     /**
@@ -87,39 +96,41 @@ public class PartyRoleSpecificationController {
      * PATCH /partyRoleSpecification/{id}
      */
     @PatchMapping("/{id}")
-    public ResponseEntity<PartyRoleSpecification> patchPartyRoleSpecification(
+    public Mono<ResponseEntity<PartyRoleSpecification>> patchPartyRoleSpecification(
             @PathVariable String id,
             @RequestBody Map<String, Object> updates) {
         log.info("PATCH /tmf-api/partyRoleManagement/v5/partyRoleSpecification/{}", id);
         
-        Optional<PartyRoleSpecification> existingOpt = specificationRepository.findById(id);
-        
-        if (existingOpt.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        PartyRoleSpecification existing = existingOpt.get();
-        
-        // Apply partial updates
-        if (updates.containsKey("name")) {
-            existing.setName((String) updates.get("name"));
-        }
-        if (updates.containsKey("description")) {
-            existing.setDescription((String) updates.get("description"));
-        }
-        if (updates.containsKey("status")) {
-            existing.setStatus((String) updates.get("status"));
-        }
-        if (updates.containsKey("statusReason")) {
-            existing.setStatusReason((String) updates.get("statusReason"));
-        }
-        if (updates.containsKey("version")) {
-            existing.setVersion((String) updates.get("version"));
-        }
-        
-        PartyRoleSpecification updated = specificationRepository.save(existing);
-        
-        return ResponseEntity.ok(updated);
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            Optional<PartyRoleSpecification> existingOpt = specificationRepository.findById(id);
+            
+            if (existingOpt.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            PartyRoleSpecification existing = existingOpt.get();
+            
+            // Apply partial updates
+            if (updates.containsKey("name")) {
+                existing.setName((String) updates.get("name"));
+            }
+            if (updates.containsKey("description")) {
+                existing.setDescription((String) updates.get("description"));
+            }
+            if (updates.containsKey("status")) {
+                existing.setStatus((String) updates.get("status"));
+            }
+            if (updates.containsKey("statusReason")) {
+                existing.setStatusReason((String) updates.get("statusReason"));
+            }
+            if (updates.containsKey("version")) {
+                existing.setVersion((String) updates.get("version"));
+            }
+            
+            PartyRoleSpecification updated = specificationRepository.save(existing);
+            
+            return ResponseEntity.ok(updated);
+        });
     }
 
     /**
@@ -127,16 +138,18 @@ public class PartyRoleSpecificationController {
      * DELETE /partyRoleSpecification/{id}
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deletePartyRoleSpecification(@PathVariable String id) {
+    public Mono<ResponseEntity<Void>> deletePartyRoleSpecification(@PathVariable String id) {
         log.info("DELETE /tmf-api/partyRoleManagement/v5/partyRoleSpecification/{}", id);
         
-        if (!specificationRepository.existsById(id)) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        specificationRepository.deleteById(id);
-        
-        return ResponseEntity.noContent().build();
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            if (!specificationRepository.existsById(id)) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            specificationRepository.deleteById(id);
+            
+            return ResponseEntity.noContent().build();
+        });
     }
 
     // ========== Additional endpoints ==========
@@ -146,12 +159,14 @@ public class PartyRoleSpecificationController {
      * GET /partyRoleSpecification/active
      */
     @GetMapping("/active")
-    public ResponseEntity<List<PartyRoleSpecification>> findActiveSpecifications() {
+    public Mono<ResponseEntity<List<PartyRoleSpecification>>> findActiveSpecifications() {
         log.info("GET /tmf-api/partyRoleManagement/v5/partyRoleSpecification/active");
         
-        List<PartyRoleSpecification> active = specificationRepository.findActiveSpecifications();
-        
-        return ResponseEntity.ok(active);
+        return blockingExecutor.call(BlockingExecutor.LIST, () -> {
+            List<PartyRoleSpecification> active = specificationRepository.findActiveSpecifications();
+            
+            return ResponseEntity.ok(active);
+        });
     }
 
     /**
@@ -159,13 +174,15 @@ public class PartyRoleSpecificationController {
      * GET /partyRoleSpecification/search?query={query}
      */
     @GetMapping("/search")
-    public ResponseEntity<List<PartyRoleSpecification>> searchSpecifications(
+    public Mono<ResponseEntity<List<PartyRoleSpecification>>> searchSpecifications(
             @RequestParam String query) {
         log.info("GET /tmf-api/partyRoleManagement/v5/partyRoleSpecification/search?query={}", query);
         
-        List<PartyRoleSpecification> results = specificationRepository
-                .searchByNameOrDescription(query);
-        
-        return ResponseEntity.ok(results);
+        return blockingExecutor.call(BlockingExecutor.LIST, () -> {
+            List<PartyRoleSpecification> results = specificationRepository
+                    .searchByNameOrDescription(query);
+            
+            return ResponseEntity.ok(results);
+        });
     }
 }
@@ -0,0 +1,26 @@
+package com.vivo.crm.customer.presentation.controller;
+
+import com.vivo.crm.customer.infrastructure.execution.RejectedCallException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Load shedding: a call rejected by its bulkhead or by the adaptive database limit is
+ * answered 503 with Retry-After, so clients back off instead of waiting in an unbounded queue
+ */
+@RestControllerAdvice
+@Slf4j
+public class RejectedCallHandler {
+
+    @ExceptionHandler(RejectedCallException.class)
+    public ResponseEntity<Void> rejected(RejectedCallException e) {
+        log.debug("Rejected request: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .build();
+    }
+}
@@ -1,19 +1,37 @@
 package com.vivo.crm.customer.presentation.controller;
 
+import com.vivo.crm.customer.application.service.CustomerListingService;
 import com.vivo.crm.customer.domain.model.Customer;
 import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.infrastructure.cache.CustomerCache;
+import com.vivo.crm.customer.infrastructure.cache.RenderedCustomerCache;
+import com.vivo.crm.customer.infrastructure.persistence.EntityPatcher;
+import com.vivo.crm.customer.infrastructure.persistence.EntityProjector;
+import com.vivo.crm.customer.presentation.conditional.CustomerETag;
 import com.vivo.crm.customer.presentation.dto.CustomerDTO;
 import com.vivo.crm.customer.presentation.mapper.CustomerMapper;
+import com.vivo.crm.customer.presentation.query.FieldSelection;
+import com.vivo.crm.customer.presentation.query.TmfFilter;
+import com.vivo.crm.customer.infrastructure.execution.BlockingExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.stream.Collectors;
 
 /**
@@ -28,36 +46,87 @@ import java.util.stream.Collectors;
 @Slf4j
 public class TMF629CustomerController {
 
+    /**
+     * Customer attributes needed to render each TMF629 attribute (fields= projection)
+     */
+    private static final Map<String, List<String>> TMF629_ATTRIBUTES = Map.ofEntries(
+            Map.entry("id", List.of("customerId")),
+            Map.entry("href", List.of("customerId")),
+            Map.entry("name", List.of("name")),
+            Map.entry("status", List.of("status")),
+            Map.entry("engagedParty", List.of("partyRoleId", "name", "formattedName", "givenName", "familyName",
+                    "preferredGivenName", "tradingName", "identificationType", "identificationNumber")),
+            Map.entry("creditProfile", List.of("creditScore", "creditRiskRating")),
+            Map.entry("contactMedium", List.of("email", "phone")),
+            Map.entry("characteristic", List.of("segment", "riskLevel", "biometriaStatus", "codigoGrupo", "nomeGrupo")),
+            Map.entry("validFor", List.of("createdAt")));
+
+    /**
+     * TMF629 attributes a PATCH writes as is (creditProfile is mapped separately)
+     */
+    private static final Set<String> TMF629_PATCHABLE = Set.of("name", "status", "segment", "formattedName",
+            "givenName", "familyName", "preferredGivenName", "tradingName");
+
     private final CustomerRepository customerRepository;
     private final CustomerMapper customerMapper;
+    private final CustomerListingService customerListingService;
+    private final CustomerCache customerCache;
+    private final RenderedCustomerCache renderedCustomerCache;
+    private final EntityProjector entityProjector;
+    private final EntityPatcher entityPatcher;
+    private final BlockingExecutor blockingExecutor;
+    private final CustomerETag customerETag;
 
     /**
      * List or find Customer objects
      * GET /customer
      */
     @GetMapping
-    public ResponseEntity<List<Map<String, Object>>> listCustomer(
+    public Mono<ResponseEntity<List<Map<String, Object>>>> listCustomer(
             @RequestParam(required = false) String fields,
             @RequestParam(defaultValue = "0") Integer offset,
-            @RequestParam(defaultValue = "100") Integer limit) {
+            @RequestParam(defaultValue = "100") Integer limit,
+            @RequestParam MultiValueMap<String, String> params) {
         log.info("GET /tmf-api/customer/v5/customer - Listing customers");
         
-        List<Customer> customers = customerRepository.findAll();
-        
-        // Apply pagination
-        int start = Math.min(offset, customers.size());
-        int end = Math.min(offset + limit, customers.size());
-        List<Customer> pagedResult = customers.subList(start, end);
-        
-        // Convert to TMF629 format
-        List<Map<String, Object>> tmfCustomers = pagedResult.stream()
-                .map(this::customerToTMF629Format)
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok()
-                .header("X-Total-Count", String.valueOf(customers.size()))
-                .header("X-Result-Count", String.valueOf(pagedResult.size()))
-                .body(tmfCustomers);
+        return blockingExecutor.call(BlockingExecutor.LIST, () -> {
+            FieldSelection selection = FieldSelection.parse(fields);
+            TmfFilter filter = TmfFilter.parse(params);
+            
+            // Filtering, sorting, pagination (and fields= projection) are applied by the database
+            List<Customer> pagedResult;
+            OptionalLong totalCount;
+            try {
+                if (filter.isNone()) {
+                    pagedResult = selection.isAll()
+                            ? customerListingService.findPage(offset, limit)
+                            : customerListingService.findPage(offset, limit, selection.attributes(TMF629_ATTRIBUTES));
+                    totalCount = customerListingService.totalCount();
+                } else {
+                    pagedResult = customerListingService.findFiltered(filter.getConditions(), filter.getSort(),
+                            offset, limit, selection.isAll() ? null : selection.attributes(TMF629_ATTRIBUTES));
+                    totalCount = customerListingService.filteredCount(filter.getConditions());
+                }
+            } catch (IllegalArgumentException e) {
+                log.warn("Rejected customer query: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+            
+            // Convert to TMF629 format
+            List<Map<String, Object>> tmfCustomers = pagedResult.stream()
+                    .map(this::customerToTMF629Format)
+                    .map(selection::apply)
+                    .collect(Collectors.toList());
+            
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .header("X-Result-Count", String.valueOf(pagedResult.size()));
+            
+            if (totalCount.isPresent()) {
+                response.header("X-Total-Count", String.valueOf(totalCount.getAsLong()));
+            }
+            
+            return response.body(tmfCustomers);
+        });
     }
 
     /**
@@ -65,94 +134,115 @@ public class TMF629CustomerController {
      * POST /customer
      */
     @PostMapping
-    public ResponseEntity<Map<String, Object>> createCustomer(@RequestBody Map<String, Object> customerData) {
+    public Mono<ResponseEntity<Map<String, Object>>> createCustomer(@RequestBody Map<String, Object> customerData) {
         log.info("POST /tmf-api/customer/v5/customer - Creating customer");
         
-        Customer customer = tmf629FormatToCustomer(customerData);
-        Customer saved = customerRepository.save(customer);
-        
-        return ResponseEntity.status(HttpStatus.CREATED).body(customerToTMF629Format(saved));
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            Customer customer = tmf629FormatToCustomer(customerData);
+            Customer saved = customerRepository.save(customer);
+            customerCache.evictCreated(saved);
+            
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .eTag(customerETag.of(saved))
+                    .body(customerToTMF629Format(saved));
+        });
     }
 
     /**
      * Retrieves a Customer by ID
      * GET /customer/{id}
+     * 304 when If-None-Match carries the current ETag
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> retrieveCustomer(
+    public Mono<ResponseEntity<?>> retrieveCustomer(
             @PathVariable String id,
-            @RequestParam(required = false) String fields) {
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("GET /tmf-api/customer/v5/customer/{} - Retrieving customer", id);
         
-        Optional<Customer> customer = customerRepository.findById(id);
-        
-        return customer
-                .map(c -> ResponseEntity.ok(customerToTMF629Format(c)))
-                .orElse(ResponseEntity.notFound().build());
+        return blockingExecutor.call(BlockingExecutor.LOOKUP, () -> {
+            FieldSelection selection = FieldSelection.parse(fields);
+            
+            // A client holding the current version gets 304, checked on the version alone
+            if (ifNoneMatch != null) {
+                Optional<Long> version = customerCache.findVersionById(id);
+                if (version.isEmpty()) {
+                    return ResponseEntity.notFound().build();
+                }
+                if (customerETag.isNotModified(ifNoneMatch, version.get())) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(customerETag.of(version.get())).build();
+                }
+            }
+            
+            if (selection.isAll()) {
+                // Full representation: serialized once per customer version
+                return customerCache.findById(id)
+                        .<ResponseEntity<?>>map(c -> ResponseEntity.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .eTag(customerETag.of(c))
+                                .body(renderedCustomerCache.render(
+                                        c, RenderedCustomerCache.Representation.TMF629_CUSTOMER, this::customerToTMF629Format)))
+                        .orElse(ResponseEntity.notFound().build());
+            }
+            
+            // A cached customer serves any fields= selection; otherwise only the selected columns
+            // (and the version, for the ETag) are read
+            Optional<Customer> customer = customerCache.getIfPresent(id)
+                    .or(() -> findProjected(id, withVersion(selection.attributes(TMF629_ATTRIBUTES))));
+            
+            return customer
+                    .<ResponseEntity<?>>map(c -> ResponseEntity.ok()
+                            .eTag(customerETag.of(c))
+                            .body(selection.apply(customerToTMF629Format(c))))
+                    .orElse(ResponseEntity.notFound().build());
+        });
     }
 
     /**
      * Updates partially a Customer
      * PATCH /customer/{id}
+     * JSON Merge Patch (RFC 7396, application/merge-patch+json or application/json): only the
+     * supplied columns are written, with one UPDATE and without reading the customer first;
+     * 412 when If-Match does not carry the current ETag
      */
     @PatchMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> patchCustomer(
+    public Mono<ResponseEntity<Map<String, Object>>> patchCustomer(
             @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody Map<String, Object> updates) {
         log.info("PATCH /tmf-api/customer/v5/customer/{} - Updating customer", id);
         
-        Optional<Customer> existingOpt = customerRepository.findById(id);
-        
-        if (existingOpt.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        Customer existing = existingOpt.get();
-        
-        // Apply partial updates
-        if (updates.containsKey("name")) {
-            existing.setName((String) updates.get("name"));
-        }
-        if (updates.containsKey("status")) {
-            existing.setStatus((String) updates.get("status"));
-        }
-        if (updates.containsKey("segment")) {
-            existing.setSegment((String) updates.get("segment"));
-        }
-        if (updates.containsKey("formattedName")) {
-            existing.setFormattedName((String) updates.get("formattedName"));
-        }
-        if (updates.containsKey("givenName")) {
-            existing.setGivenName((String) updates.get("givenName"));
-        }
-        if (updates.containsKey("familyName")) {
-            existing.setFamilyName((String) updates.get("familyName"));
-        }
-        if (updates.containsKey("preferredGivenName")) {
-            existing.setPreferredGivenName((String) updates.get("preferredGivenName"));
-        }
-        if (updates.containsKey("tradingName")) {
-            existing.setTradingName((String) updates.get("tradingName"));
+        Optional<Long> requiredVersion;
+        try {
+            requiredVersion = ifMatch == null ? Optional.empty() : customerETag.requiredVersion(ifMatch);
+        } catch (IllegalArgumentException e) {
+            log.warn("Precondition failed patching customer {}: {}", id, e.getMessage());
+            return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build());
         }
         
-        // Handle nested creditProfile
-        if (updates.containsKey("creditProfile")) {
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> creditProfiles = (List<Map<String, Object>>) updates.get("creditProfile");
-            if (creditProfiles != null && !creditProfiles.isEmpty()) {
-                Map<String, Object> cp = creditProfiles.get(0);
-                if (cp.containsKey("creditScore")) {
-                    existing.setCreditScore((Integer) cp.get("creditScore"));
-                }
-                if (cp.containsKey("creditRiskRating")) {
-                    existing.setCreditRiskRating((Integer) cp.get("creditRiskRating"));
-                }
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            Optional<Customer> updated;
+            try {
+                // Optimistic concurrency: with If-Match the UPDATE only applies at the client's version
+                updated = entityPatcher.patch(Customer.class, id, toAttributes(updates), requiredVersion.orElse(null));
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid patch of customer {}: {}", id, e.getMessage());
+                return ResponseEntity.badRequest().build();
+            } catch (OptimisticLockingFailureException e) {
+                log.warn("Precondition failed patching customer {}: changed since version {}", id,
+                        requiredVersion.orElse(null));
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
             }
-        }
-        
-        Customer updated = customerRepository.save(existing);
-        
-        return ResponseEntity.ok(customerToTMF629Format(updated));
+            
+            if (updated.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            customerCache.evict(updated.get());
+            
+            return ResponseEntity.ok()
+                    .eTag(customerETag.of(updated.get()))
+                    .body(customerToTMF629Format(updated.get()));
+        });
     }
 
     /**
@@ -160,20 +250,67 @@ public class TMF629CustomerController {
      * DELETE /customer/{id}
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteCustomer(@PathVariable String id) {
+    public Mono<ResponseEntity<Void>> deleteCustomer(@PathVariable String id) {
         log.info("DELETE /tmf-api/customer/v5/customer/{} - Deleting customer", id);
         
-        if (!customerRepository.existsById(id)) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        customerRepository.deleteById(id);
-        
-        return ResponseEntity.noContent().build();
+        return blockingExecutor.call(BlockingExecutor.WRITE, () -> {
+            if (!customerRepository.existsById(id)) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            customerRepository.deleteById(id);
+            customerCache.evict(id);
+            
+            return ResponseEntity.noContent().build();
+        });
     }
 
     // ========== Helper methods ==========
 
+    /**
+     * Customer attributes written by a merge patch: members set to null clear the attribute, and
+     * creditProfile, an array, is replaced as a whole (only its first entry is stored).
+     * Unknown members are ignored.
+     */
+    private static Map<String, Object> toAttributes(Map<String, Object> patch) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        patch.forEach((name, value) -> {
+            if (TMF629_PATCHABLE.contains(name)) {
+                attributes.put(name, value);
+            }
+        });
+        if (patch.containsKey("creditProfile")) {
+            Map<?, ?> creditProfile = Map.of();
+            Object value = patch.get("creditProfile");
+            if (value instanceof List<?> list && !list.isEmpty()) {
+                if (!(list.get(0) instanceof Map<?, ?> first)) {
+                    throw new IllegalArgumentException("creditProfile entries must be objects");
+                }
+                creditProfile = first;
+            } else if (value != null && !(value instanceof List<?>)) {
+                throw new IllegalArgumentException("creditProfile must be an array");
+            }
+            attributes.put("creditScore", creditProfile.get("creditScore"));
+            attributes.put("creditRiskRating", creditProfile.get("creditRiskRating"));
+        }
+        return attributes;
+    }
+
+    private static Set<String> withVersion(Set<String> attributes) {
+        Set<String> withVersion = new HashSet<>(attributes);
+        withVersion.add("version");
+        return withVersion;
+    }
+
+    /**
+     * Loads only the columns needed for the selected attributes
+     */
+    private Optional<Customer> findProjected(String id, Set<String> attributes) {
+        List<String> columns = entityProjector.resolve(Customer.class, attributes).orElseThrow();
+        return entityProjector.selectById(Customer.class, columns, id)
+                .map(row -> EntityProjector.toEntity(Customer.class, row));
+    }
+
     /**
      * Converts Customer entity to TMF629 format
      */
@@ -0,0 +1,32 @@
+package com.vivo.crm.customer.presentation.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Bulk Create Response DTO
+ * Totals and per-customer results of POST /customers/bulk, in request order
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkCreateResponseDTO {
+
+    @JsonProperty("total")
+    private Integer total;
+
+    @JsonProperty("created")
+    private Integer created;
+
+    @JsonProperty("failed")
+    private Integer failed;
+
+    @JsonProperty("items")
+    private List<BulkItemResultDTO> items;
+}
@@ -0,0 +1,39 @@
+package com.vivo.crm.customer.presentation.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Bulk Item Result DTO
+ * Outcome of one customer of POST /customers/bulk: CREATED with its id, or FAILED with the reason
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkItemResultDTO {
+
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    /**
+     * Position of the customer in the request, from 0
+     */
+    @JsonProperty("index")
+    private Long index;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("id")
+    private String customerId;
+
+    @JsonProperty("status")
+    private String status;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("error")
+    private String error;
+}
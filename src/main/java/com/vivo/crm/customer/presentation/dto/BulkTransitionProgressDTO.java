@@ -0,0 +1,39 @@
+package com.vivo.crm.customer.presentation.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Bulk Transition Progress DTO
+ * One line of POST /customers/bulk/{transition}, emitted as each chunk is committed
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkTransitionProgressDTO {
+
+    /**
+     * Position of the chunk, from 0
+     */
+    @JsonProperty("chunk")
+    private Long chunk;
+
+    @JsonProperty("selected")
+    private Integer selected;
+
+    /**
+     * Customers of the chunk that changed (the others already had the status)
+     */
+    @JsonProperty("updated")
+    private Integer updated;
+
+    @JsonProperty("processed")
+    private Long processed;
+
+    @JsonProperty("totalUpdated")
+    private Long totalUpdated;
+}
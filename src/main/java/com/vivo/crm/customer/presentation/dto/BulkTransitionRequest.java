@@ -0,0 +1,36 @@
+package com.vivo.crm.customer.presentation.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Bulk Transition Request DTO
+ * Customers of POST /customers/bulk/{transition}: either their ids, or a filter by
+ * segment, status and risk level (absent attributes match anything)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkTransitionRequest {
+
+    @JsonProperty("ids")
+    private List<String> ids;
+
+    @JsonProperty("segment")
+    private String segment;
+
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("riskLevel")
+    private String riskLevel;
+
+    @JsonProperty("reason")
+    private String reason;
+}
@@ -0,0 +1,32 @@
+package com.vivo.crm.customer.presentation.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Cursor Page DTO
+ * One page of a keyset listing. {@code next} is an opaque token to be sent back
+ * as the {@code cursor} parameter; it is absent on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageDTO<T> {
+
+    @JsonProperty("items")
+    private List<T> items;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("next")
+    private String next;
+
+    @JsonProperty("limit")
+    private Integer limit;
+}
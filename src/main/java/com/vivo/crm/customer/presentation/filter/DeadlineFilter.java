@@ -0,0 +1,88 @@
+package com.vivo.crm.customer.presentation.filter;
+
+import com.vivo.crm.customer.infrastructure.config.DeadlineProperties;
+import com.vivo.crm.customer.infrastructure.execution.Deadline;
+import com.vivo.crm.customer.infrastructure.execution.DeadlineExceededException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Request deadlines
+ *
+ * The timeout comes from the client's header (capped at the configured maximum), else from
+ * the first matching endpoint pattern, else from the default. The resulting {@link Deadline}
+ * is put in the Reactor context, where BlockingExecutor turns it into JDBC query timeouts.
+ * When it passes the request is cancelled, which cancels its running statements, and the
+ * client gets 504 unless the response was already committed.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class DeadlineFilter implements WebFilter {
+
+    private final DeadlineProperties properties;
+    private final Map<PathPattern, Duration> endpoints = new LinkedHashMap<>();
+
+    public DeadlineFilter(DeadlineProperties properties) {
+        this.properties = properties;
+        properties.getEndpoints().forEach((pattern, timeout) ->
+                endpoints.put(PathPatternParser.defaultInstance.parse(pattern), timeout));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        Duration timeout = properties.isEnabled() ? timeoutOf(exchange.getRequest()) : Duration.ZERO;
+        if (timeout.isZero() || timeout.isNegative()) {
+            return chain.filter(exchange);
+        }
+
+        Deadline deadline = Deadline.after(timeout);
+        ServerHttpResponse response = exchange.getResponse();
+        return chain.filter(exchange)
+                .timeout(timeout)
+                .onErrorResume(e -> (e instanceof TimeoutException || e instanceof DeadlineExceededException)
+                        && !response.isCommitted(), e -> {
+                    log.warn("{} {} - Deadline of {} ms exceeded", exchange.getRequest().getMethod(),
+                            exchange.getRequest().getPath(), timeout.toMillis());
+                    response.setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+                    return response.setComplete();
+                })
+                .contextWrite(context -> context.put(Deadline.class, deadline));
+    }
+
+    private Duration timeoutOf(ServerHttpRequest request) {
+        String header = request.getHeaders().getFirst(properties.getHeader());
+        if (header != null) {
+            try {
+                Duration requested = Duration.ofMillis(Long.parseLong(header.trim()));
+                if (requested.isPositive()) {
+                    return requested.compareTo(properties.getMaxTimeout()) < 0 ? requested : properties.getMaxTimeout();
+                }
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring invalid {} header: {}", properties.getHeader(), header);
+            }
+        }
+        for (Map.Entry<PathPattern, Duration> endpoint : endpoints.entrySet()) {
+            if (endpoint.getKey().matches(request.getPath().pathWithinApplication())) {
+                return endpoint.getValue();
+            }
+        }
+        return properties.getDefaultTimeout();
+    }
+}
@@ -0,0 +1,343 @@
+package com.vivo.crm.customer.presentation.filter;
+
+import com.vivo.crm.customer.infrastructure.config.IdempotencyProperties;
+import com.vivo.crm.customer.infrastructure.execution.RejectedCallException;
+import com.vivo.crm.customer.infrastructure.idempotency.IdempotencyStore;
+import com.vivo.crm.customer.infrastructure.idempotency.StoredResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Idempotency-Key on creation endpoints
+ *
+ * The first POST with a key runs and its response (status, Content-Type/ETag/Location and
+ * body) is kept by {@link IdempotencyStore} for the TTL; later POSTs with the key get that
+ * response back, marked Idempotent-Replayed, without running. A POST arriving while the first
+ * one is still running waits for it (up to the wait timeout, then 409).
+ *
+ * Keys are scoped to the endpoint, and a request is fingerprinted by method, path, query and
+ * body: reusing a key for a different request is answered 422. 5xx, 408 and 429 responses,
+ * and responses above the size limit, are not kept, so the key can be retried.
+ *
+ * Metrics: customer.idempotency.requests{outcome=executed|replayed|joined|mismatch|timeout}
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@Slf4j
+public class IdempotencyFilter implements WebFilter {
+
+    static final String REPLAYED = "Idempotent-Replayed";
+
+    /**
+     * Request bodies are read whole to fingerprint them; same bound as the codecs' default
+     */
+    private static final int MAX_REQUEST_SIZE = 256 * 1024;
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final List<String> REPLAYED_HEADERS =
+            List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG, HttpHeaders.LOCATION);
+
+    private final IdempotencyProperties properties;
+    private final IdempotencyStore store;
+    private final MeterRegistry meterRegistry;
+    private final List<PathPattern> endpoints;
+
+    public IdempotencyFilter(IdempotencyProperties properties, IdempotencyStore store, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.store = store;
+        this.meterRegistry = meterRegistry;
+        this.endpoints = properties.getEndpoints().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String key = request.getHeaders().getFirst(properties.getHeader());
+        if (!properties.isEnabled() || key == null || request.getMethod() != HttpMethod.POST
+                || endpoints.stream().noneMatch(p -> p.matches(request.getPath().pathWithinApplication()))) {
+            return chain.filter(exchange);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return status(exchange, HttpStatus.BAD_REQUEST);
+        }
+
+        String storeKey = request.getPath().pathWithinApplication().value() + " " + key;
+        return DataBufferUtils.join(request.getBody(), MAX_REQUEST_SIZE)
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .flatMap(body -> {
+                    ServerWebExchange replayable = exchange.mutate().request(withBody(request, body, exchange)).build();
+                    return respond(replayable, chain, storeKey, fingerprint(request, body));
+                })
+                .onErrorResume(DataBufferLimitException.class, e -> status(exchange, HttpStatus.PAYLOAD_TOO_LARGE))
+                .onErrorResume(RejectedCallException.class, e -> {
+                    exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                            String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())));
+                    return status(exchange, HttpStatus.SERVICE_UNAVAILABLE);
+                });
+    }
+
+    private Mono<Void> respond(ServerWebExchange exchange, WebFilterChain chain, String key, String fingerprint) {
+        return Mono.defer(() -> {
+            Optional<StoredResponse> cached = store.cached(key);
+            if (cached.isPresent()) {
+                return replay(exchange, cached.get(), fingerprint);
+            }
+            IdempotencyStore.Flight flight = store.begin(key);
+            if (!flight.isOwner()) {
+                count("joined");
+                log.debug("Waiting for the request in flight with idempotency key {}", key);
+                return flight.result(properties.getWaitTimeout())
+                        .flatMap(result -> result
+                                .map(response -> replay(exchange, response, fingerprint))
+                                // The first request left nothing to replay: run as if it had not happened
+                                .orElseGet(() -> respond(exchange, chain, key, fingerprint)))
+                        .onErrorResume(TimeoutException.class, e -> timeout(exchange, key));
+            }
+            long deadline = System.nanoTime() + properties.getWaitTimeout().toNanos();
+            return claim(exchange, chain, key, fingerprint, flight, deadline)
+                    .doFinally(signal -> flight.finish(null));
+        });
+    }
+
+    /**
+     * As the owner of the key on this node: replay its response if some node already has one,
+     * wait while another node runs it, else reserve it and run
+     */
+    private Mono<Void> claim(ServerWebExchange exchange, WebFilterChain chain, String key, String fingerprint,
+                             IdempotencyStore.Flight flight, long deadline) {
+        return store.find(key)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(found -> {
+                    if (found.isPresent() && found.get().isComplete()) {
+                        flight.finish(found.get());
+                        return replay(exchange, found.get(), fingerprint);
+                    }
+                    if (found.isPresent()) {
+                        return awaitOtherNode(exchange, chain, key, fingerprint, flight, deadline);
+                    }
+                    return store.reserve(key, fingerprint).flatMap(reserved -> reserved
+                            ? execute(exchange, chain, key, fingerprint, flight)
+                            : awaitOtherNode(exchange, chain, key, fingerprint, flight, deadline));
+                });
+    }
+
+    private Mono<Void> awaitOtherNode(ServerWebExchange exchange, WebFilterChain chain, String key,
+                                      String fingerprint, IdempotencyStore.Flight flight, long deadline) {
+        if (System.nanoTime() >= deadline) {
+            return timeout(exchange, key);
+        }
+        return Mono.delay(properties.getTable().getPollInterval())
+                .then(Mono.defer(() -> claim(exchange, chain, key, fingerprint, flight, deadline)));
+    }
+
+    private Mono<Void> execute(ServerWebExchange exchange, WebFilterChain chain, String key, String fingerprint,
+                               IdempotencyStore.Flight flight) {
+        count("executed");
+        CapturingResponse response = new CapturingResponse(exchange.getResponse(), properties.getMaxBodySize(),
+                fingerprint, stored -> {
+                    Mono<Void> outcome = stored == null ? store.release(key) : store.save(key, stored);
+                    flight.finish(stored);
+                    // Recorded even if the client goes away meanwhile, so the key is not left reserved
+                    return Mono.fromFuture(outcome.toFuture(), true).onErrorResume(e -> {
+                        log.warn("Could not record the response for idempotency key {}: {}", key, e.getMessage());
+                        return Mono.empty();
+                    });
+                });
+        return chain.filter(exchange.mutate().response(response).build())
+                .then(Mono.defer(response::answer))
+                .onErrorResume(e -> !response.isAnswered(), e -> store.release(key)
+                        .onErrorResume(released -> Mono.empty())
+                        .then(Mono.error(e)))
+                .doOnCancel(() -> {
+                    if (!response.isAnswered()) {
+                        store.release(key).subscribe(null, e ->
+                                log.warn("Could not release idempotency key {}: {}", key, e.getMessage()));
+                    }
+                });
+    }
+
+    private Mono<Void> replay(ServerWebExchange exchange, StoredResponse stored, String fingerprint) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            count("mismatch");
+            return status(exchange, HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        count("replayed");
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(stored.status()));
+        stored.headers().forEach(response.getHeaders()::set);
+        response.getHeaders().set(REPLAYED, "true");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(stored.body())));
+    }
+
+    private Mono<Void> timeout(ServerWebExchange exchange, String key) {
+        count("timeout");
+        log.warn("Gave up waiting for the request in flight with idempotency key {}", key);
+        return status(exchange, HttpStatus.CONFLICT);
+    }
+
+    private static Mono<Void> status(ServerWebExchange exchange, HttpStatus status) {
+        exchange.getResponse().setStatusCode(status);
+        return exchange.getResponse().setComplete();
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("customer.idempotency.requests", "outcome", outcome).increment();
+    }
+
+    private static ServerHttpRequest withBody(ServerHttpRequest request, byte[] body, ServerWebExchange exchange) {
+        return new ServerHttpRequestDecorator(request) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return Flux.defer(() -> Flux.just(exchange.getResponse().bufferFactory().wrap(body)));
+            }
+        };
+    }
+
+    private static String fingerprint(ServerHttpRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod().name() + " " + request.getURI().getRawPath() + "?"
+                    + Objects.toString(request.getURI().getRawQuery(), "") + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Keeps a copy of the body written through it, up to the size limit, and has it recorded
+     * before the response goes out, so a retry can never arrive before its key is answered
+     */
+    private static class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final int maxBodySize;
+        private final String fingerprint;
+        private final Function<StoredResponse, Mono<Void>> recorder;
+        private final AtomicBoolean answered = new AtomicBoolean();
+        private boolean storable = true;
+
+        CapturingResponse(ServerHttpResponse delegate, int maxBodySize, String fingerprint,
+                          Function<StoredResponse, Mono<Void>> recorder) {
+            super(delegate);
+            this.maxBodySize = maxBodySize;
+            this.fingerprint = fingerprint;
+            this.recorder = recorder;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return DataBufferUtils.join(body)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(joined -> answer(joined.map(this::copy).orElse(new byte[0]))
+                            .then(super.writeWith(Mono.justOrEmpty(joined))));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            // Streamed responses are not replayed
+            storable = false;
+            return answer().then(super.writeAndFlushWith(body));
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            return answer().then(super.setComplete());
+        }
+
+        boolean isAnswered() {
+            return answered.get();
+        }
+
+        /**
+         * Record the response as it stands, without a body; only the first answer counts
+         */
+        Mono<Void> answer() {
+            return answer(new byte[0]);
+        }
+
+        private Mono<Void> answer(byte[] body) {
+            if (!answered.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            return recorder.apply(toStoredResponse(body));
+        }
+
+        private byte[] copy(DataBuffer buffer) {
+            int size = buffer.readableByteCount();
+            if (size > maxBodySize) {
+                storable = false;
+                return new byte[0];
+            }
+            byte[] bytes = new byte[size];
+            buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(bytes), 0, size);
+            return bytes;
+        }
+
+        /**
+         * The response as written, null if it is not worth replaying
+         */
+        private StoredResponse toStoredResponse(byte[] body) {
+            HttpStatusCode status = getStatusCode() != null ? getStatusCode() : HttpStatus.OK;
+            if (!storable || status.is5xxServerError() || status.value() == HttpStatus.REQUEST_TIMEOUT.value()
+                    || status.value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                return null;
+            }
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (String name : REPLAYED_HEADERS) {
+                String value = getHeaders().getFirst(name);
+                if (value != null) {
+                    headers.put(name, value);
+                }
+            }
+            return new StoredResponse(fingerprint, status.value(), headers, body);
+        }
+    }
+}
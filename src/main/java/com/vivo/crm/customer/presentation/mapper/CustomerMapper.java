@@ -1,10 +1,17 @@
 package com.vivo.crm.customer.presentation.mapper;
 
+import com.vivo.crm.customer.application.service.BulkCreateResult;
+import com.vivo.crm.customer.application.service.BulkTransitionProgress;
 import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.presentation.dto.BulkItemResultDTO;
+import com.vivo.crm.customer.presentation.dto.BulkTransitionProgressDTO;
 import com.vivo.crm.customer.presentation.dto.CreateCustomerRequest;
 import com.vivo.crm.customer.presentation.dto.CustomerDTO;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * TMF629 - Customer Mapper
  * Converts between Customer entity and DTOs
@@ -113,75 +120,70 @@ public class CustomerMapper {
     }
 
     /**
-     * Update Customer entity from DTO
+     * Customer attributes to update from DTO: only the fields it carries (non-null)
      */
-    public void updateEntityFromDTO(CustomerDTO dto, Customer customer) {
-        if (dto == null || customer == null) {
-            return;
+    public Map<String, Object> toAttributes(CustomerDTO dto) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        if (dto == null) {
+            return attributes;
         }
 
         // Novos campos TMF632 Individual
-        if (dto.getFormattedName() != null) {
-            customer.setFormattedName(dto.getFormattedName());
-        }
-        if (dto.getGivenName() != null) {
-            customer.setGivenName(dto.getGivenName());
-        }
-        if (dto.getFamilyName() != null) {
-            customer.setFamilyName(dto.getFamilyName());
-        }
-        if (dto.getPreferredGivenName() != null) {
-            customer.setPreferredGivenName(dto.getPreferredGivenName());
-        }
+        putIfPresent(attributes, "formattedName", dto.getFormattedName());
+        putIfPresent(attributes, "givenName", dto.getGivenName());
+        putIfPresent(attributes, "familyName", dto.getFamilyName());
+        putIfPresent(attributes, "preferredGivenName", dto.getPreferredGivenName());
         // Novos campos TMF632 Organization
-        if (dto.getTradingName() != null) {
-            customer.setTradingName(dto.getTradingName());
-        }
+        putIfPresent(attributes, "tradingName", dto.getTradingName());
         // Novos campos TMF632 Party Identification
-        if (dto.getIdentificationType() != null) {
-            customer.setIdentificationType(dto.getIdentificationType());
-        }
-        if (dto.getIdentificationNumber() != null) {
-            customer.setIdentificationNumber(dto.getIdentificationNumber());
-        }
+        putIfPresent(attributes, "identificationType", dto.getIdentificationType());
+        putIfPresent(attributes, "identificationNumber", dto.getIdentificationNumber());
         // Novos campos TMF669 Credit Profile
-        if (dto.getCreditScore() != null) {
-            customer.setCreditScore(dto.getCreditScore());
-        }
-        if (dto.getCreditRiskRating() != null) {
-            customer.setCreditRiskRating(dto.getCreditRiskRating());
-        }
+        putIfPresent(attributes, "creditScore", dto.getCreditScore());
+        putIfPresent(attributes, "creditRiskRating", dto.getCreditRiskRating());
         // Novos campos de negócio
-        if (dto.getBiometriaStatus() != null) {
-            customer.setBiometriaStatus(dto.getBiometriaStatus());
-        }
-        if (dto.getCodigoGrupo() != null) {
-            customer.setCodigoGrupo(dto.getCodigoGrupo());
-        }
-        if (dto.getNomeGrupo() != null) {
-            customer.setNomeGrupo(dto.getNomeGrupo());
-        }
+        putIfPresent(attributes, "biometriaStatus", dto.getBiometriaStatus());
+        putIfPresent(attributes, "codigoGrupo", dto.getCodigoGrupo());
+        putIfPresent(attributes, "nomeGrupo", dto.getNomeGrupo());
         // Campos existentes
-        if (dto.getEmail() != null) {
-            customer.setEmail(dto.getEmail());
-        }
-        if (dto.getPhone() != null) {
-            customer.setPhone(dto.getPhone());
-        }
-        if (dto.getSegment() != null) {
-            customer.setSegment(dto.getSegment());
-        }
-        if (dto.getPreferredChannel() != null) {
-            customer.setPreferredChannel(dto.getPreferredChannel());
-        }
-        if (dto.getRiskLevel() != null) {
-            customer.setRiskLevel(dto.getRiskLevel());
-        }
-        if (dto.getStatus() != null) {
-            customer.setStatus(dto.getStatus());
-        }
-        if (dto.getContextData() != null) {
-            customer.setContextData(dto.getContextData());
+        putIfPresent(attributes, "email", dto.getEmail());
+        putIfPresent(attributes, "phone", dto.getPhone());
+        putIfPresent(attributes, "segment", dto.getSegment());
+        putIfPresent(attributes, "preferredChannel", dto.getPreferredChannel());
+        putIfPresent(attributes, "riskLevel", dto.getRiskLevel());
+        putIfPresent(attributes, "status", dto.getStatus());
+        putIfPresent(attributes, "contextData", dto.getContextData());
+        return attributes;
+    }
+
+    /**
+     * Convert the outcome of one customer of a bulk creation to DTO
+     */
+    public BulkItemResultDTO toBulkItemDTO(BulkCreateResult result) {
+        return BulkItemResultDTO.builder()
+                .index(result.index())
+                .customerId(result.created() ? result.customer().getCustomerId() : null)
+                .status(result.created() ? BulkItemResultDTO.CREATED : BulkItemResultDTO.FAILED)
+                .error(result.error())
+                .build();
+    }
+
+    /**
+     * Convert the progress of a bulk status transition to DTO
+     */
+    public BulkTransitionProgressDTO toBulkTransitionDTO(BulkTransitionProgress progress) {
+        return BulkTransitionProgressDTO.builder()
+                .chunk(progress.chunk())
+                .selected(progress.selected())
+                .updated(progress.updated())
+                .processed(progress.processed())
+                .totalUpdated(progress.totalUpdated())
+                .build();
+    }
+
+    private static void putIfPresent(Map<String, Object> attributes, String name, Object value) {
+        if (value != null) {
+            attributes.put(name, value);
         }
     }
 }
@@ -0,0 +1,57 @@
+package com.vivo.crm.customer.presentation.negotiation;
+
+import java.util.Locale;
+
+/**
+ * Accept-Encoding negotiation (RFC 9110, section 12.5.3)
+ *
+ * A coding is accepted if the header lists it, or lists {@code *} without listing it, with a
+ * qvalue above zero; {@code gzip;q=0} refuses gzip. Responses negotiated with it must carry
+ * {@code Vary: Accept-Encoding}.
+ */
+public final class AcceptEncoding {
+
+    private AcceptEncoding() {
+    }
+
+    /**
+     * Whether the given Accept-Encoding header value (null if absent) accepts a content coding
+     */
+    public static boolean accepts(String header, String coding) {
+        if (header == null) {
+            return false;
+        }
+        Double exact = null;
+        Double wildcard = null;
+        for (String element : header.split(",")) {
+            String[] parts = element.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = qvalue(parts);
+            if (name.equals(coding)) {
+                exact = exact == null ? q : Math.max(exact, q);
+            } else if (name.equals("*")) {
+                wildcard = wildcard == null ? q : Math.max(wildcard, q);
+            }
+        }
+        Double q = exact != null ? exact : wildcard;
+        return q != null && q > 0;
+    }
+
+    /**
+     * qvalue of one element (1 if absent, 0 if malformed)
+     */
+    private static double qvalue(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 1 && Character.toLowerCase(parameter.charAt(0)) == 'q'
+                    && parameter.substring(1).trim().startsWith("=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(parameter.indexOf('=') + 1).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,60 @@
+package com.vivo.crm.customer.presentation.pagination;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.CRC32;
+
+/**
+ * Opaque cursor codec for keyset listings
+ *
+ * A cursor carries the last customerId of a page plus a fingerprint of the filters it
+ * was issued for, so a token cannot be replayed against a different listing.
+ * Format (before base64url): {@code v1:<filter fingerprint>:<last customerId>}
+ */
+@Component
+public class CursorCodec {
+
+    private static final String VERSION = "v1";
+
+    /**
+     * Encode the last seen sort key for the given filter values
+     */
+    public String encode(String lastCustomerId, String... filters) {
+        String raw = VERSION + ":" + fingerprint(filters) + ":" + lastCustomerId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor back into the last seen customerId
+     *
+     * @throws IllegalArgumentException if the token is malformed or was issued for other filters
+     */
+    public String decode(String cursor, String... filters) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        String[] parts = raw.split(":", 3);
+        if (parts.length != 3 || !VERSION.equals(parts[0]) || parts[2].isEmpty()) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!fingerprint(filters).equals(parts[1])) {
+            throw new IllegalArgumentException("Cursor does not match the requested filters");
+        }
+        return parts[2];
+    }
+
+    private String fingerprint(String... filters) {
+        CRC32 crc = new CRC32();
+        for (String filter : filters) {
+            crc.update((filter == null ? "" : filter).getBytes(StandardCharsets.UTF_8));
+            crc.update(0);
+        }
+        return Long.toHexString(crc.getValue());
+    }
+}
@@ -0,0 +1,87 @@
+package com.vivo.crm.customer.presentation.query;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * TMF630 attribute selection ({@code fields=id,name,status})
+ *
+ * Only first-level attributes are honoured ({@code engagedParty.name} selects
+ * {@code engagedParty}). {@code id}, {@code href} and {@code @type} are always rendered.
+ */
+public final class FieldSelection {
+
+    private static final Set<String> ALWAYS_RENDERED = Set.of("id", "href", "@type");
+
+    private static final FieldSelection ALL = new FieldSelection(null);
+
+    private final Set<String> fields;
+
+    private FieldSelection(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Parse the fields parameter; null or blank selects every attribute
+     */
+    public static FieldSelection parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            int dot = name.indexOf('.');
+            if (dot > 0) {
+                name = name.substring(0, dot);
+            }
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        return names.isEmpty() ? ALL : new FieldSelection(Collections.unmodifiableSet(names));
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Entity attributes needed to render the selected representation attributes
+     */
+    public Set<String> attributes(Map<String, List<String>> attributesByField) {
+        Set<String> attributes = new LinkedHashSet<>();
+        for (String field : fields) {
+            Collection<String> mapped = attributesByField.get(field);
+            if (mapped != null) {
+                attributes.addAll(mapped);
+            }
+        }
+        return attributes;
+    }
+
+    /**
+     * Keep only the selected attributes of a rendered representation
+     */
+    public Map<String, Object> apply(Map<String, Object> representation) {
+        if (isAll()) {
+            return representation;
+        }
+        Map<String, Object> selected = new LinkedHashMap<>();
+        representation.forEach((name, value) -> {
+            if (fields.contains(name) || ALWAYS_RENDERED.contains(name)) {
+                selected.put(name, value);
+            }
+        });
+        return selected;
+    }
+}
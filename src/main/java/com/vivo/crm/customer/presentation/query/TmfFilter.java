@@ -0,0 +1,125 @@
+package com.vivo.crm.customer.presentation.query;
+
+import com.vivo.crm.customer.infrastructure.persistence.FilterCondition;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.MultiValueMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * TMF630 attribute filtering and sorting
+ * ({@code status=ACTIVE&segment=Premium&creditScore.gt=700&sort=-createdAt})
+ *
+ * Every query parameter that is not a reserved TMF parameter is a filter. An operator
+ * suffix ({@code .gt}, {@code .gte}, {@code .lt}, {@code .lte}, {@code .eq}, {@code .ne})
+ * selects the comparison, equality is the default, and comma separated values match any
+ * of them; so do the values of a repeated {@code eq}/{@code ne} parameter, while repeated
+ * range operators all apply. {@code sort} takes a comma separated list of attributes, {@code -} for descending.
+ */
+public final class TmfFilter {
+
+    private static final Set<String> RESERVED = Set.of("fields", "offset", "limit", "sort");
+
+    private static final TmfFilter NONE = new TmfFilter(Collections.emptyList(), Sort.unsorted());
+
+    private final List<FilterCondition> conditions;
+    private final Sort sort;
+
+    private TmfFilter(List<FilterCondition> conditions, Sort sort) {
+        this.conditions = conditions;
+        this.sort = sort;
+    }
+
+    /**
+     * Parse filters and sort from the request query parameters
+     */
+    public static TmfFilter parse(MultiValueMap<String, String> params) {
+        if (params == null || params.isEmpty()) {
+            return NONE;
+        }
+
+        List<FilterCondition> conditions = new ArrayList<>();
+        // Values of repeated EQ/NE parameters on one attribute, merged into one IN / NOT IN
+        Map<String, FilterCondition> merged = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> param : params.entrySet()) {
+            if (RESERVED.contains(param.getKey())) {
+                continue;
+            }
+            String attribute = param.getKey();
+            FilterCondition.Operator operator = FilterCondition.Operator.EQ;
+            int dot = attribute.lastIndexOf('.');
+            if (dot > 0) {
+                FilterCondition.Operator suffix = FilterCondition.Operator.fromSuffix(attribute.substring(dot + 1));
+                if (suffix != null) {
+                    operator = suffix;
+                    attribute = attribute.substring(0, dot);
+                }
+            }
+            for (String value : param.getValue()) {
+                List<String> values = split(value);
+                if (operator != FilterCondition.Operator.EQ && operator != FilterCondition.Operator.NE) {
+                    // creditScore.gt=600&creditScore.lt=800 is a range: every bound applies
+                    conditions.add(new FilterCondition(attribute, operator, values));
+                    continue;
+                }
+                // status=ACTIVE&status=SUSPENDED is the same as status=ACTIVE,SUSPENDED
+                merged.merge(attribute + "." + operator, new FilterCondition(attribute, operator, values),
+                        (existing, next) -> new FilterCondition(existing.attribute(), existing.operator(),
+                                Stream.concat(existing.values().stream(), next.values().stream()).distinct().toList()));
+            }
+        }
+        conditions.addAll(0, merged.values());
+
+        Sort sort = parseSort(params.getFirst("sort"));
+        if (conditions.isEmpty() && sort.isUnsorted()) {
+            return NONE;
+        }
+        return new TmfFilter(Collections.unmodifiableList(conditions), sort);
+    }
+
+    static Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.unsorted();
+        }
+        List<Sort.Order> orders = new ArrayList<>();
+        for (String property : split(sort)) {
+            if (property.startsWith("-")) {
+                orders.add(Sort.Order.desc(property.substring(1)));
+            } else if (property.startsWith("+")) {
+                orders.add(Sort.Order.asc(property.substring(1)));
+            } else {
+                orders.add(Sort.Order.asc(property));
+            }
+        }
+        return Sort.by(orders);
+    }
+
+    private static List<String> split(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(v -> !v.isEmpty())
+                .toList();
+    }
+
+    /**
+     * True when neither filters nor a sort were requested
+     */
+    public boolean isNone() {
+        return conditions.isEmpty() && sort.isUnsorted();
+    }
+
+    public List<FilterCondition> getConditions() {
+        return conditions;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+}
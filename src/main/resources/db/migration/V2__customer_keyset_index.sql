@@ -0,0 +1,4 @@
+-- TMF629 Customer Management - Keyset pagination
+-- Supports ORDER BY created_at, customer_id and the keyset seek used by deep TMF offsets
+
+CREATE INDEX idx_customer_created_at_id ON customer(created_at, customer_id);
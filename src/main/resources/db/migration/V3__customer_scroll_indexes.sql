@@ -0,0 +1,7 @@
+-- TMF629 Customer Management - Cursor (keyset) listing
+-- Composite indexes so "WHERE <filter> AND customer_id > ? ORDER BY customer_id" is a range scan
+
+CREATE INDEX idx_customer_status_id ON customer(status, customer_id);
+CREATE INDEX idx_customer_segment_id ON customer(segment, customer_id);
+CREATE INDEX idx_customer_risk_level_id ON customer(risk_level, customer_id);
+CREATE INDEX idx_customer_status_segment_id ON customer(status, segment, customer_id);
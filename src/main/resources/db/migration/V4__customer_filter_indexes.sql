@@ -0,0 +1,4 @@
+-- TMF629 Customer Management - TMF630 attribute filtering
+-- creditScore is filterable/sortable (creditScore.gt=700, sort=-creditScore); index it like the other filter columns
+
+CREATE INDEX idx_customer_credit_score ON customer(credit_score, customer_id);
@@ -0,0 +1,4 @@
+-- TMF629 Customer Management - Optimistic locking
+-- Every write bumps the version; status transitions are a single UPDATE ... WHERE customer_id = ? AND version = ?
+
+ALTER TABLE customer ADD version NUMBER(19) DEFAULT 0 NOT NULL;
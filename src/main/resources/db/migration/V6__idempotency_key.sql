@@ -0,0 +1,14 @@
+-- Idempotency-Key on customer creation (optional shared store, customer-service.idempotency.table)
+-- A row without status reserves a key whose first request is still running; expired rows are purged
+
+CREATE TABLE idempotency_key (
+    idempotency_key VARCHAR2(512) NOT NULL,
+    fingerprint     VARCHAR2(64)  NOT NULL,
+    status          NUMBER(3),
+    headers         VARCHAR2(2000),
+    body            BLOB,
+    expires_at      TIMESTAMP     NOT NULL,
+    CONSTRAINT pk_idempotency_key PRIMARY KEY (idempotency_key)
+);
+
+CREATE INDEX idx_idempotency_key_expires_at ON idempotency_key(expires_at);
@@ -0,0 +1,126 @@
+package com.vivo.crm.customer.application.service;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.infrastructure.config.PaginationProperties;
+import com.vivo.crm.customer.infrastructure.persistence.CustomerQueryCompiler;
+import com.vivo.crm.customer.infrastructure.persistence.EntityProjector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerListingServiceTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private EntityProjector entityProjector;
+
+    @Mock
+    private CustomerQueryCompiler customerQueryCompiler;
+
+    private PaginationProperties properties;
+
+    private CustomerListingService listingService;
+
+    private final LocalDateTime baseTime = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @BeforeEach
+    void setUp() {
+        properties = new PaginationProperties();
+        properties.setKeysetThreshold(100);
+        listingService = new CustomerListingService(customerRepository, properties, entityProjector, customerQueryCompiler);
+    }
+
+    @Test
+    void testSmallOffsetUsesOffsetQuery() {
+        when(customerRepository.findPage(any(Pageable.class))).thenReturn(customers(0, 10));
+
+        List<Customer> page = listingService.findPage(20, 10);
+
+        assertEquals(10, page.size());
+        verify(customerRepository).findPage(argThat(p -> p.getOffset() == 20 && p.getPageSize() == 10));
+        verify(customerRepository, never()).findPageAfter(any(), any(), any());
+    }
+
+    @Test
+    void testDeepOffsetSeeksFromPreviousPage() {
+        when(customerRepository.findPage(any(Pageable.class))).thenReturn(customers(0, 100));
+        when(customerRepository.findPageAfter(any(), any(), any(Pageable.class))).thenReturn(customers(150, 50));
+
+        listingService.findPage(0, 100);
+        List<Customer> page = listingService.findPage(150, 50);
+
+        // Offset 150 seeks from the anchor recorded after the first page and skips 50 rows
+        assertEquals("C-150", page.get(0).getCustomerId());
+        verify(customerRepository, times(1)).findPage(any(Pageable.class));
+        verify(customerRepository).findPageAfter(
+                eq(baseTime.plusSeconds(99)), eq("C-99"),
+                argThat(p -> p.getOffset() == 50 && p.getPageSize() == 50));
+    }
+
+    @Test
+    void testDeepOffsetWithoutAnchorFallsBackToOffset() {
+        when(customerRepository.findPage(any(Pageable.class))).thenReturn(List.of());
+
+        listingService.findPage(5000, 10);
+
+        verify(customerRepository).findPage(argThat(p -> p.getOffset() == 5000));
+        verify(customerRepository, never()).findPageAfter(any(), any(), any());
+    }
+
+    @Test
+    void testLimitIsClamped() {
+        properties.setMaxLimit(50);
+        when(customerRepository.findPage(any(Pageable.class))).thenReturn(List.of());
+
+        listingService.findPage(0, 10_000);
+
+        verify(customerRepository).findPage(argThat(p -> p.getPageSize() == 50));
+    }
+
+    @Test
+    void testTotalCountIsCached() {
+        when(customerRepository.count()).thenReturn(42L);
+
+        assertEquals(42L, listingService.totalCount().getAsLong());
+        assertEquals(42L, listingService.totalCount().getAsLong());
+
+        verify(customerRepository, times(1)).count();
+    }
+
+    @Test
+    void testTotalCountDisabled() {
+        properties.getTotalCount().setEnabled(false);
+
+        assertTrue(listingService.totalCount().isEmpty());
+
+        verify(customerRepository, never()).count();
+    }
+
+    private List<Customer> customers(int from, int count) {
+        return IntStream.range(from, from + count)
+                .mapToObj(i -> Customer.builder()
+                        .customerId("C-" + i)
+                        .name("Customer " + i)
+                        .status("ACTIVE")
+                        .createdAt(baseTime.plusSeconds(i))
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,140 @@
+package com.vivo.crm.customer.application.service;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.domain.repository.ReactiveCustomerRepository;
+import com.vivo.crm.customer.infrastructure.cache.CustomerCache;
+import com.vivo.crm.customer.infrastructure.cache.SingleFlight;
+import com.vivo.crm.customer.infrastructure.config.PersistenceProperties;
+import com.vivo.crm.customer.infrastructure.event.CustomerEventPublisher;
+import com.vivo.crm.customer.infrastructure.execution.BlockingExecutor;
+import com.vivo.crm.customer.infrastructure.persistence.CustomerBulkWriter;
+import com.vivo.crm.customer.infrastructure.persistence.CustomerStatusUpdater;
+import com.vivo.crm.customer.infrastructure.persistence.CustomerWriteBehind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Single-customer status transitions: conditional UPDATE at the read version, retried on conflict
+ */
+@ExtendWith(MockitoExtension.class)
+class CustomerTransitionTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private ReactiveCustomerRepository reactiveCustomerRepository;
+
+    @Mock
+    private CustomerCache customerCache;
+
+    @Mock
+    private SingleFlight singleFlight;
+
+    @Mock
+    private BlockingExecutor blockingExecutor;
+
+    @Mock
+    private CustomerBulkWriter customerBulkWriter;
+
+    @Mock
+    private CustomerStatusUpdater customerStatusUpdater;
+
+    @Mock
+    private CustomerEventPublisher customerEventPublisher;
+
+    @Mock
+    private CustomerWriteBehind customerWriteBehind;
+
+    private CustomerServiceReactive customerService;
+
+    @BeforeEach
+    void setUp() {
+        PersistenceProperties properties = new PersistenceProperties();
+        properties.getTransition().setConflictRetries(2);
+        properties.getTransition().setConflictBackoff(Duration.ofMillis(1));
+        customerService = new CustomerServiceReactive(customerRepository, reactiveCustomerRepository, customerCache,
+                singleFlight, blockingExecutor, customerBulkWriter, customerStatusUpdater,
+                customerEventPublisher, properties, customerWriteBehind);
+    }
+
+    @Test
+    void testTransitionWritesTheReadVersion() {
+        when(customerCache.lookup("C-1")).thenReturn(Mono.fromSupplier(() -> customer(4L)));
+        when(reactiveCustomerRepository.updateStatus(any())).thenAnswer(call -> {
+            Customer written = call.<Customer>getArgument(0).copy();
+            written.setVersion(written.getVersion() + 1);
+            return Mono.just(written);
+        });
+
+        StepVerifier.create(customerService.suspendCustomer("C-1", "fraud", "analyst"))
+                .assertNext(updated -> {
+                    assertEquals("SUSPENDED", updated.getStatus());
+                    assertEquals(5L, updated.getVersion());
+                })
+                .verifyComplete();
+        verify(reactiveCustomerRepository).updateStatus(argThatIs("SUSPENDED", 4L));
+        verify(customerCache).evict(any(Customer.class));
+    }
+
+    @Test
+    void testConflictRereadsAndRetries() {
+        when(customerCache.lookup("C-1"))
+                .thenReturn(Mono.fromSupplier(() -> customer(4L)), Mono.fromSupplier(() -> customer(5L)));
+        when(reactiveCustomerRepository.updateStatus(any()))
+                .thenReturn(Mono.empty(), Mono.fromSupplier(() -> customer(6L)));
+
+        StepVerifier.create(customerService.activateCustomer("C-1", "agent"))
+                .assertNext(updated -> assertEquals(6L, updated.getVersion()))
+                .verifyComplete();
+        verify(customerCache).evictStale("C-1");
+        verify(reactiveCustomerRepository).updateStatus(argThatIs("ACTIVE", 4L));
+        verify(reactiveCustomerRepository).updateStatus(argThatIs("ACTIVE", 5L));
+    }
+
+    @Test
+    void testConflictFailsOnceRetriesAreExhausted() {
+        when(customerCache.lookup("C-1")).thenReturn(Mono.fromSupplier(() -> customer(4L)));
+        when(reactiveCustomerRepository.updateStatus(any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(customerService.deactivateCustomer("C-1", "agent"))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify(Duration.ofSeconds(5));
+        // The first attempt and two retries
+        verify(reactiveCustomerRepository, times(3)).updateStatus(any());
+        verify(customerCache, never()).evict(any(Customer.class));
+    }
+
+    @Test
+    void testMissingCustomerIsNotRetried() {
+        when(customerCache.lookup("missing")).thenReturn(Mono.empty());
+
+        StepVerifier.create(customerService.activateCustomer("missing", "agent"))
+                .expectErrorMessage("Customer not found: missing")
+                .verify(Duration.ofSeconds(5));
+        verify(customerCache, times(1)).lookup("missing");
+        verify(reactiveCustomerRepository, never()).updateStatus(any());
+    }
+
+    private static Customer argThatIs(String status, long version) {
+        return argThat(c -> status.equals(c.getStatus()) && c.getVersion() == version);
+    }
+
+    private static Customer customer(long version) {
+        return Customer.builder().customerId("C-1").name("Ana").status("INACTIVE").riskLevel("LOW")
+                .version(version).build();
+    }
+}
@@ -0,0 +1,201 @@
+package com.vivo.crm.customer.infrastructure.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.domain.repository.ReactiveCustomerRepository;
+import com.vivo.crm.customer.infrastructure.config.CustomerCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.*;
+
+/**
+ * Several nodes wired to an in-memory stand-in for the invalidation topic
+ */
+class CacheInvalidationTest {
+
+    private static final long V1 = 1;
+    private static final long V2 = 2;
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 10, 0);
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final List<CacheInvalidation> sent = new ArrayList<>();
+
+    private Node nodeA;
+    private Node nodeB;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Every message is delivered to every node, like one consumer group per node
+        KafkaTemplate<String, Object> broker = mock(KafkaTemplate.class);
+        when(broker.send(anyString(), nullable(String.class), any())).thenAnswer(invocation -> {
+            CacheInvalidation invalidation = invocation.getArgument(2);
+            sent.add(invalidation);
+            nodes.forEach(node -> node.listener.onInvalidation(invalidation));
+            return CompletableFuture.completedFuture(null);
+        });
+        nodeA = new Node("A", broker);
+        nodeB = new Node("B", broker);
+        nodes.addAll(List.of(nodeA, nodeB));
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(node -> node.publisher.shutdown());
+    }
+
+    @Test
+    void testUpdateOnOneNodeEvictsOlderCopyOnOthers() {
+        when(nodeB.repository.findById("C-1"))
+                .thenReturn(Optional.of(customer(V1)))
+                .thenReturn(Optional.of(customer(V2)));
+        nodeB.cache.findById("C-1");
+
+        nodeA.cache.evict(customer(V2));
+        nodeA.publisher.flush();
+
+        assertEquals(V2, nodeB.cache.findById("C-1").orElseThrow().getVersion());
+        verify(nodeB.repository, times(2)).findById("C-1");
+        assertEquals(1, nodeB.meterRegistry.get("customer.cache.invalidation.lag").timer().count());
+        // The origin ignores its own message
+        assertEquals(0.0, nodeA.meterRegistry.get("customer.cache.invalidation.received").counter().count());
+    }
+
+    @Test
+    void testNodeAlreadyAtThatVersionKeepsItsEntry() {
+        when(nodeB.repository.findById("C-1")).thenReturn(Optional.of(customer(V2)));
+        nodeB.cache.findById("C-1");
+
+        nodeA.cache.evict(customer(V2));
+        nodeA.publisher.flush();
+
+        assertTrue(nodeB.cache.getIfPresent("C-1").isPresent());
+    }
+
+    @Test
+    void testNewerVersionEvictsEvenIfWrittenByASlowerClock() {
+        when(nodeB.repository.findById("C-1"))
+                .thenReturn(Optional.of(customer(V1)))
+                .thenReturn(Optional.of(customer(V2)));
+        nodeB.cache.findById("C-1");
+
+        // Node A's clock is behind node B's, but the version still moved forward
+        nodeA.cache.evict(customer(V2, NOW.minusMinutes(5)));
+        nodeA.publisher.flush();
+
+        assertEquals(V2, nodeB.cache.findById("C-1").orElseThrow().getVersion());
+    }
+
+    @Test
+    void testNewKeyValueDropsNotFoundEntriesOnOtherNodes() {
+        Customer ana = customer(V2).toBuilder().email("ana@vivo.com.br").build();
+        when(nodeB.reactiveRepository.findByEmail("ana@vivo.com.br"))
+                .thenReturn(Mono.empty())
+                .thenReturn(Mono.just(ana));
+        when(nodeB.reactiveRepository.findById("C-1")).thenReturn(Mono.just(ana));
+        assertNull(nodeB.cache.lookup(AlternateKey.EMAIL, "ana@vivo.com.br").block());
+
+        nodeA.cache.evict(ana);
+        nodeA.publisher.flush();
+
+        assertEquals(Set.of("ana@vivo.com.br"), sent.get(0).keys().get(AlternateKey.EMAIL));
+        assertEquals("C-1", nodeB.cache.lookup(AlternateKey.EMAIL, "ana@vivo.com.br").map(Customer::getCustomerId).block());
+    }
+
+    @Test
+    void testCreationsOnlyPublishTheirKeysTogether() {
+        when(nodeB.reactiveRepository.findByEmail("c-2@vivo.com.br")).thenReturn(Mono.empty());
+        assertNull(nodeB.cache.lookup(AlternateKey.EMAIL, "c-2@vivo.com.br").block());
+
+        for (int i = 0; i < CacheInvalidationPublisher.MAX_KEYS_PER_MESSAGE + 1; i++) {
+            nodeA.cache.evictCreated(Customer.builder().customerId("C-" + i).email("c-" + i + "@vivo.com.br").build());
+        }
+        nodeA.publisher.flush();
+
+        assertEquals(2, sent.size());
+        assertTrue(sent.stream().allMatch(invalidation -> invalidation.customerId() == null));
+        Customer created = Customer.builder().customerId("C-2").email("c-2@vivo.com.br").build();
+        when(nodeB.reactiveRepository.findByEmail("c-2@vivo.com.br")).thenReturn(Mono.just(created));
+        when(nodeB.reactiveRepository.findById("C-2")).thenReturn(Mono.just(created));
+        assertEquals("C-2", nodeB.cache.lookup(AlternateKey.EMAIL, "c-2@vivo.com.br").map(Customer::getCustomerId).block());
+    }
+
+    @Test
+    void testTopicIsConsumedWithoutAGroup() {
+        Map<String, Object> config = nodeA.listener.consumerConfig();
+
+        assertFalse(config.containsKey(ConsumerConfig.GROUP_ID_CONFIG));
+        assertEquals(false, config.get(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG));
+        assertEquals("latest", config.get(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG));
+    }
+
+    @Test
+    void testBurstIsCoalescedAndDeleteWins() {
+        when(nodeB.repository.findById("C-1")).thenReturn(Optional.of(customer(V2)));
+        nodeB.cache.findById("C-1");
+
+        nodeA.cache.evict(customer(V1));
+        nodeA.cache.evict(customer(V2));
+        nodeA.cache.evict("C-1");
+        nodeA.publisher.flush();
+
+        assertEquals(1, sent.size());
+        assertEquals(CacheInvalidation.ANY_VERSION, sent.get(0).version());
+        assertEquals(2.0, nodeA.meterRegistry.get("customer.cache.invalidation.coalesced").counter().count());
+        assertTrue(nodeB.cache.getIfPresent("C-1").isEmpty());
+    }
+
+    private static Customer customer(long version) {
+        return customer(version, NOW);
+    }
+
+    private static Customer customer(long version, LocalDateTime updatedAt) {
+        return Customer.builder().customerId("C-1").name("Ana").version(version).updatedAt(updatedAt).build();
+    }
+
+    private static final class Node {
+
+        final CustomerRepository repository = mock(CustomerRepository.class);
+        final ReactiveCustomerRepository reactiveRepository = mock(ReactiveCustomerRepository.class);
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final CacheInvalidationPublisher publisher;
+        final CustomerCache cache;
+        final CacheInvalidationListener listener;
+
+        Node(String nodeId, KafkaTemplate<String, Object> broker) {
+            CustomerCacheProperties properties = new CustomerCacheProperties();
+            properties.getInvalidation().setEnabled(true);
+            properties.getInvalidation().setNodeId(nodeId);
+            // Flushed explicitly by the tests
+            properties.getInvalidation().setCoalesceWindow(Duration.ofHours(1));
+
+            publisher = new CacheInvalidationPublisher(broker, properties, meterRegistry);
+            cache = new CustomerCache(repository, reactiveRepository, publisher,
+                    new RenderedCustomerCache(new ObjectMapper(), properties, meterRegistry), properties, meterRegistry);
+            listener = new CacheInvalidationListener(cache, properties, new DefaultKafkaConsumerFactory<>(
+                    Map.of(ConsumerConfig.GROUP_ID_CONFIG, "crm-customer-service")), meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.vivo.crm.customer.infrastructure.cache;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.domain.repository.ReactiveCustomerRepository;
+import com.vivo.crm.customer.infrastructure.config.CustomerCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerCacheTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private ReactiveCustomerRepository reactiveCustomerRepository;
+
+    @Mock
+    private CacheInvalidationPublisher invalidationPublisher;
+
+    @Mock
+    private RenderedCustomerCache renderedCustomerCache;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CustomerCache customerCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        customerCache = new CustomerCache(customerRepository, reactiveCustomerRepository, invalidationPublisher, renderedCustomerCache,
+                new CustomerCacheProperties(), meterRegistry);
+    }
+
+    @Test
+    void testReadThroughAndHitMetrics() {
+        when(customerRepository.findById("C-1"))
+                .thenReturn(Optional.of(Customer.builder().customerId("C-1").name("Ana").build()));
+
+        assertEquals("Ana", customerCache.findById("C-1").orElseThrow().getName());
+        assertEquals("Ana", customerCache.findById("C-1").orElseThrow().getName());
+
+        verify(customerRepository, times(1)).findById("C-1");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "customer.byId").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "customer.byId").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void testCallersGetTheirOwnCopy() {
+        when(customerRepository.findById("C-1"))
+                .thenReturn(Optional.of(Customer.builder().customerId("C-1").name("Ana").build()));
+
+        customerCache.findById("C-1").orElseThrow().setName("Changed");
+
+        assertEquals("Ana", customerCache.findById("C-1").orElseThrow().getName());
+    }
+
+    @Test
+    void testEvictReloads() {
+        when(customerRepository.findById("C-1"))
+                .thenReturn(Optional.of(Customer.builder().customerId("C-1").status("ACTIVE").build()))
+                .thenReturn(Optional.of(Customer.builder().customerId("C-1").status("SUSPENDED").build()));
+
+        customerCache.findById("C-1");
+        customerCache.evict("C-1");
+
+        assertEquals("SUSPENDED", customerCache.findById("C-1").orElseThrow().getStatus());
+        assertTrue(customerCache.getIfPresent("C-1").isPresent());
+    }
+
+    @Test
+    void testMissesAreNotCached() {
+        when(customerRepository.findById("missing")).thenReturn(Optional.empty());
+
+        assertTrue(customerCache.findById("missing").isEmpty());
+        assertTrue(customerCache.findById("missing").isEmpty());
+
+        verify(customerRepository, times(2)).findById("missing");
+    }
+
+    @Test
+    void testReactiveLookupSharesTheIdCache() {
+        when(reactiveCustomerRepository.findById("C-1"))
+                .thenReturn(Mono.just(Customer.builder().customerId("C-1").name("Ana").build()));
+
+        assertEquals("Ana", customerCache.lookup("C-1").block().getName());
+        assertEquals("Ana", customerCache.findById("C-1").orElseThrow().getName());
+        assertEquals("Ana", customerCache.lookup("C-1").block().getName());
+
+        verify(reactiveCustomerRepository, times(1)).findById("C-1");
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void testConcurrentReactiveLookupsShareOneLoad() {
+        Sinks.One<Customer> row = Sinks.one();
+        when(reactiveCustomerRepository.findById("C-1")).thenReturn(row.asMono());
+
+        Mono<Customer> first = customerCache.lookup("C-1").cache();
+        Mono<Customer> second = customerCache.lookup("C-1").cache();
+        first.subscribe();
+        second.subscribe();
+        row.tryEmitValue(Customer.builder().customerId("C-1").name("Ana").build());
+
+        assertNotSame(first.block(), second.block());
+        verify(reactiveCustomerRepository, times(1)).findById("C-1");
+    }
+
+    @Test
+    void testEvictDuringLoadDoesNotKeepTheStaleRow() {
+        Sinks.One<Customer> row = Sinks.one();
+        when(reactiveCustomerRepository.findById("C-1")).thenReturn(row.asMono());
+
+        Mono<Customer> inFlight = customerCache.lookup("C-1").cache();
+        inFlight.subscribe();
+        customerCache.evict("C-1");
+        row.tryEmitValue(Customer.builder().customerId("C-1").status("ACTIVE").build());
+
+        assertEquals("ACTIVE", inFlight.block().getStatus());
+        assertTrue(customerCache.getIfPresent("C-1").isEmpty());
+    }
+
+    @Test
+    void testKeyLookupResolvesThroughIdCache() {
+        Customer ana = Customer.builder().customerId("C-1").email("ana@vivo.com.br").build();
+        when(reactiveCustomerRepository.findByEmail("ana@vivo.com.br")).thenReturn(Mono.just(ana));
+        when(reactiveCustomerRepository.findById("C-1")).thenReturn(Mono.just(ana));
+
+        assertEquals("C-1", customerCache.lookup(AlternateKey.EMAIL, "ana@vivo.com.br").block().getCustomerId());
+        assertEquals("C-1", customerCache.lookup(AlternateKey.EMAIL, "ana@vivo.com.br").block().getCustomerId());
+        assertEquals("C-1", customerCache.findById("C-1").orElseThrow().getCustomerId());
+
+        verify(reactiveCustomerRepository, times(1)).findByEmail("ana@vivo.com.br");
+        verify(reactiveCustomerRepository, times(1)).findById("C-1");
+    }
+
+    @Test
+    void testMissingKeysAreNegativelyCachedUntilCreated() {
+        when(reactiveCustomerRepository.findByCpfCnpj("12345678901"))
+                .thenReturn(Mono.empty())
+                .thenReturn(Mono.just(Customer.builder().customerId("C-9").cpfCnpj("12345678901").build()));
+        when(reactiveCustomerRepository.findById("C-9"))
+                .thenReturn(Mono.just(Customer.builder().customerId("C-9").cpfCnpj("12345678901").build()));
+
+        assertNull(customerCache.lookup(AlternateKey.CPF_CNPJ, "12345678901").block());
+        assertNull(customerCache.lookup(AlternateKey.CPF_CNPJ, "12345678901").block());
+        verify(reactiveCustomerRepository, times(1)).findByCpfCnpj("12345678901");
+
+        // Creating the customer drops the negative entry
+        customerCache.evict(Customer.builder().customerId("C-9").cpfCnpj("12345678901").build());
+
+        assertEquals("C-9", customerCache.lookup(AlternateKey.CPF_CNPJ, "12345678901").block().getCustomerId());
+    }
+
+    @Test
+    void testChangedKeyIsDetectedOnRead() {
+        when(reactiveCustomerRepository.findByEmail("old@vivo.com.br"))
+                .thenReturn(Mono.just(Customer.builder().customerId("C-1").email("old@vivo.com.br").build()))
+                .thenReturn(Mono.empty());
+        when(reactiveCustomerRepository.findById("C-1"))
+                .thenReturn(Mono.just(Customer.builder().customerId("C-1").email("old@vivo.com.br").build()))
+                .thenReturn(Mono.just(Customer.builder().customerId("C-1").email("new@vivo.com.br").build()));
+
+        assertNotNull(customerCache.lookup(AlternateKey.EMAIL, "old@vivo.com.br").block());
+
+        // The update only knows the new values
+        customerCache.evict(Customer.builder().customerId("C-1").email("new@vivo.com.br").build());
+
+        assertNull(customerCache.lookup(AlternateKey.EMAIL, "old@vivo.com.br").block());
+    }
+}
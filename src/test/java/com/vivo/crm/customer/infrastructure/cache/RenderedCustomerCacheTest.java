@@ -0,0 +1,71 @@
+package com.vivo.crm.customer.infrastructure.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.infrastructure.config.CustomerCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.vivo.crm.customer.infrastructure.cache.RenderedCustomerCache.Representation.TMF629_CUSTOMER;
+import static com.vivo.crm.customer.infrastructure.cache.RenderedCustomerCache.Representation.TMF669_PARTY_ROLE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderedCustomerCacheTest {
+
+    private static final long V1 = 1;
+
+    private final AtomicInteger renders = new AtomicInteger();
+    private final Function<Customer, Object> renderer = c -> {
+        renders.incrementAndGet();
+        return Map.of("id", c.getCustomerId(), "name", c.getName());
+    };
+
+    private RenderedCustomerCache renderedCache;
+
+    @BeforeEach
+    void setUp() {
+        renderedCache = new RenderedCustomerCache(new ObjectMapper(), new CustomerCacheProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testRendersOncePerVersionAndRepresentation() {
+        Customer ana = Customer.builder().customerId("C-1").name("Ana").version(V1).build();
+
+        byte[] first = renderedCache.render(ana, TMF629_CUSTOMER, renderer);
+        byte[] second = renderedCache.render(ana.copy(), TMF629_CUSTOMER, renderer);
+        renderedCache.render(ana, TMF669_PARTY_ROLE, renderer);
+
+        assertSame(first, second);
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void testNewVersionIsRenderedAgain() {
+        renderedCache.render(Customer.builder().customerId("C-1").name("Ana").version(V1).build(), TMF629_CUSTOMER, renderer);
+
+        byte[] json = renderedCache.render(
+                Customer.builder().customerId("C-1").name("Bia").version(V1 + 1).build(), TMF629_CUSTOMER, renderer);
+
+        assertTrue(new String(json, StandardCharsets.UTF_8).contains("Bia"));
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void testEvictDropsAllRepresentations() {
+        Customer ana = Customer.builder().customerId("C-1").name("Ana").version(V1).build();
+        renderedCache.render(ana, TMF629_CUSTOMER, renderer);
+        renderedCache.render(ana, TMF669_PARTY_ROLE, renderer);
+
+        renderedCache.evict("C-1");
+        renderedCache.render(ana, TMF629_CUSTOMER, renderer);
+        renderedCache.render(ana, TMF669_PARTY_ROLE, renderer);
+
+        assertEquals(4, renders.get());
+    }
+}
@@ -0,0 +1,105 @@
+package com.vivo.crm.customer.infrastructure.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight singleFlight;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight(meterRegistry);
+    }
+
+    @Test
+    void testConcurrentSubscribersShareOneLoad() {
+        Sinks.One<String> db = Sinks.one();
+
+        Mono<String> first = singleFlight.load("byId", "C-1", () -> load(db));
+        Mono<String> second = singleFlight.load("byId", "C-1", () -> load(db));
+
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> db.tryEmitValue("Ana"))
+                .assertNext(both -> {
+                    assertEquals("Ana", both.getT1());
+                    assertEquals("Ana", both.getT2());
+                })
+                .verifyComplete();
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("customer.lookup.coalesced").tag("lookup", "byId").counter().count());
+    }
+
+    @Test
+    void testErrorReachesEverySubscriberAndIsNotKept() {
+        Sinks.One<String> db = Sinks.one();
+
+        Mono<String> first = singleFlight.load("byId", "C-1", () -> load(db));
+        Mono<String> second = singleFlight.load("byId", "C-1", () -> load(db));
+
+        StepVerifier.create(Mono.zipDelayError(first.onErrorReturn("failed"), second.onErrorReturn("failed")))
+                .then(() -> db.tryEmitError(new RuntimeException("Customer not found: C-1")))
+                .assertNext(both -> {
+                    assertEquals("failed", both.getT1());
+                    assertEquals("failed", both.getT2());
+                })
+                .verifyComplete();
+
+        StepVerifier.create(singleFlight.load("byId", "C-1", () -> Mono.just("Ana")))
+                .expectNext("Ana")
+                .verifyComplete();
+    }
+
+    @Test
+    void testLoadIsCancelledOnlyWhenEverySubscriberCancels() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Mono<String> pending = Mono.<String>never().doOnCancel(() -> cancelled.set(true));
+
+        Disposable first = singleFlight.load("byId", "C-1", () -> pending).subscribe();
+        Disposable second = singleFlight.load("byId", "C-1", () -> pending).subscribe();
+
+        first.dispose();
+        assertFalse(cancelled.get());
+
+        second.dispose();
+        assertTrue(cancelled.get());
+
+        // Nothing left in flight: the next lookup loads again
+        StepVerifier.create(singleFlight.load("byId", "C-1", () -> Mono.just("Ana")))
+                .expectNext("Ana")
+                .verifyComplete();
+    }
+
+    @Test
+    void testDifferentKeysDoNotShare() {
+        StepVerifier.create(Mono.zip(
+                        singleFlight.load("byId", "C-1", () -> Mono.fromCallable(() -> "C-1:" + loads.incrementAndGet())),
+                        singleFlight.load("byCpfCnpj", "C-1", () -> Mono.fromCallable(() -> "C-1:" + loads.incrementAndGet()))))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(2, loads.get());
+    }
+
+    private Mono<String> load(Sinks.One<String> db) {
+        return Mono.defer(() -> {
+            loads.incrementAndGet();
+            return db.asMono();
+        });
+    }
+}
@@ -0,0 +1,217 @@
+package com.vivo.crm.customer.infrastructure.execution;
+
+import com.vivo.crm.customer.infrastructure.config.ExecutionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testLimitGrowsWhileLatencyStaysAtNoLoad() {
+        AdaptiveConcurrencyLimit limit = limit(10);
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(BlockingExecutor.LOOKUP, 5 * MILLIS, limit.getLimit(), false);
+        }
+
+        assertTrue(limit.getLimit() > 10, "limit " + limit.getLimit());
+        assertEquals(limit.getLimit(), meterRegistry.get("customer.db.limit").gauge().value());
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyRises() {
+        AdaptiveConcurrencyLimit limit = limit(50);
+        limit.onSample(BlockingExecutor.LOOKUP, 5 * MILLIS, 50, false);
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(BlockingExecutor.LOOKUP, 50 * MILLIS, limit.getLimit(), false);
+        }
+
+        assertTrue(limit.getLimit() < 50, "limit " + limit.getLimit());
+    }
+
+    @Test
+    void testLimitIsKeptWhileMostlyIdle() {
+        AdaptiveConcurrencyLimit limit = limit(50);
+        limit.onSample(BlockingExecutor.LOOKUP, 5 * MILLIS, 1, false);
+
+        limit.onSample(BlockingExecutor.LOOKUP, 50 * MILLIS, 1, false);
+
+        assertEquals(50, limit.getLimit());
+    }
+
+    @Test
+    void testEachOperationIsComparedToItsOwnNoLoadLatency() {
+        AdaptiveConcurrencyLimit limit = limit(10);
+        limit.onSample(BlockingExecutor.LOOKUP, 2 * MILLIS, 1, false);
+        limit.onSample(BlockingExecutor.SEARCH, 100 * MILLIS, 1, false);
+        limit.onSample(BlockingExecutor.BULK, 400 * MILLIS, 1, false);
+
+        // A healthy database under full load: every operation at its usual latency
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(BlockingExecutor.LOOKUP, 2 * MILLIS, limit.getLimit(), false);
+            limit.onSample(BlockingExecutor.SEARCH, 100 * MILLIS, limit.getLimit(), false);
+            limit.onSample(BlockingExecutor.BULK, 400 * MILLIS, limit.getLimit(), false);
+        }
+        int healthy = limit.getLimit();
+        assertTrue(healthy > 10, "limit " + healthy);
+
+        // Searches slowing down tenfold still shrink it
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(BlockingExecutor.SEARCH, 1_000 * MILLIS, limit.getLimit(), false);
+        }
+        assertTrue(limit.getLimit() < healthy, "limit " + limit.getLimit() + " after " + healthy);
+    }
+
+    @Test
+    void testTimeoutsShrinkTheLimit() {
+        AdaptiveConcurrencyLimit limit = limit(10);
+
+        assertThrows(SQLTimeoutException.class, () -> limit.call(BlockingExecutor.LOOKUP, () -> {
+            throw new SQLTimeoutException("timeout");
+        }));
+        assertThrows(SQLTimeoutException.class, () -> limit.call(BlockingExecutor.LOOKUP, () -> {
+            throw new SQLTimeoutException("timeout");
+        }));
+
+        assertEquals(8, limit.getLimit());
+    }
+
+    @Test
+    void testCallsBeyondTheLimitAreRejected() throws Exception {
+        AdaptiveConcurrencyLimit limit = limit(1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread.ofVirtual().start(() -> {
+            try {
+                limit.call(BlockingExecutor.LOOKUP, () -> {
+                    running.countDown();
+                    return release.await(5, TimeUnit.SECONDS);
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        ConcurrencyLimitExceededException rejected = assertThrows(ConcurrencyLimitExceededException.class,
+                () -> limit.call(BlockingExecutor.WRITE, () -> true));
+        assertEquals(BlockingExecutor.WRITE, rejected.getOperation());
+        assertEquals(1.0, meterRegistry.get("customer.db.rejected").counter().count());
+        release.countDown();
+    }
+
+    @Test
+    void testLimitFollowsASlowedDatabase() {
+        SlowDataSource database = new SlowDataSource(4, Duration.ofMillis(20));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        // Opening the in-memory database is slow; it must not pass for the no-load latency
+        jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+        ExecutionProperties properties = new ExecutionProperties();
+        ExecutionProperties.Bulkhead bulkhead = new ExecutionProperties.Bulkhead();
+        bulkhead.setConcurrency(64);
+        bulkhead.setQueue(10_000);
+        properties.getBulkheads().put(BlockingExecutor.LOOKUP, bulkhead);
+        properties.getLimiter().setInitialLimit(64);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("dataSource", database);
+        BlockingExecutor executor = new BlockingExecutor(properties, beanFactory.getBeanProvider(DataSource.class),
+                meterRegistry);
+        try {
+            // 4 statements at a time: 64 in flight wait 16 times as long as one
+            load(executor, jdbcTemplate, 400);
+            double slowed = limitGauge();
+            assertTrue(slowed < 32, "limit under load " + slowed);
+            assertTrue(meterRegistry.get("customer.db.rejected").counter().count() > 0);
+
+            // Healthy again, same latency at any concurrency: the limit opens back up
+            database.setCapacity(1_000);
+            load(executor, jdbcTemplate, 1_000);
+            assertTrue(limitGauge() > slowed, "limit " + limitGauge() + " after " + slowed);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void load(BlockingExecutor executor, JdbcTemplate jdbcTemplate, int calls) {
+        Flux.range(0, calls)
+                .flatMap(i -> executor.call(BlockingExecutor.LOOKUP,
+                                () -> jdbcTemplate.queryForObject("SELECT 1", Integer.class))
+                        .onErrorResume(ConcurrencyLimitExceededException.class, e -> Mono.delay(Duration.ofMillis(1))
+                                .then(Mono.empty())), 64)
+                .then()
+                .block(Duration.ofSeconds(60));
+    }
+
+    private double limitGauge() {
+        return meterRegistry.get("customer.db.limit").gauge().value();
+    }
+
+    private AdaptiveConcurrencyLimit limit(int initialLimit) {
+        ExecutionProperties.Limiter config = new ExecutionProperties.Limiter();
+        config.setInitialLimit(initialLimit);
+        config.setProbeMultiplier(1_000);
+        return new AdaptiveConcurrencyLimit(config, Duration.ofSeconds(1), meterRegistry);
+    }
+
+    /**
+     * In-memory H2 made to behave like a database serving a few statements at a time
+     */
+    private static class SlowDataSource extends DelegatingDataSource {
+
+        private final Duration delay;
+        private volatile Semaphore capacity;
+
+        SlowDataSource(int capacity, Duration delay) {
+            super(h2());
+            this.delay = delay;
+            setCapacity(capacity);
+        }
+
+        void setCapacity(int capacity) {
+            this.capacity = new Semaphore(capacity, true);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Semaphore statements = capacity;
+            statements.acquireUninterruptibly();
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                statements.release();
+            }
+            return super.getConnection();
+        }
+
+        private static DataSource h2() {
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:slow;DB_CLOSE_DELAY=-1");
+            dataSource.setUser("sa");
+            return dataSource;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.vivo.crm.customer.infrastructure.execution;
+
+import com.vivo.crm.customer.infrastructure.config.ExecutionProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockingExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BlockingExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testBoundedElasticModeRunsOnTheOperationsThreads() {
+        executor = new BlockingExecutor(new ExecutionProperties(), dataSource(10), meterRegistry);
+
+        String thread = executor.call(BlockingExecutor.LOOKUP, () -> Thread.currentThread().getName()).block();
+
+        assertTrue(thread.startsWith("customer-lookup-"), thread);
+    }
+
+    @Test
+    void testBoundedElasticConcurrencyIsPerOperation() {
+        ExecutionProperties properties = new ExecutionProperties();
+        properties.getBulkheads().put(BlockingExecutor.SEARCH, bulkhead(2, 100));
+        executor = new BlockingExecutor(properties, dataSource(10), meterRegistry);
+
+        assertEquals(2, maxConcurrency(BlockingExecutor.SEARCH, 20));
+        assertEquals(10, maxConcurrency(BlockingExecutor.LOOKUP, 20));
+    }
+
+    @Test
+    void testSlowSearchesDoNotDelayLookups() {
+        ExecutionProperties properties = new ExecutionProperties();
+        properties.getBulkheads().put(BlockingExecutor.SEARCH, bulkhead(1, 10));
+        executor = new BlockingExecutor(properties, dataSource(10), meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Mono<Boolean>> searches = IntStream.range(0, 5)
+                .mapToObj(i -> executor.call(BlockingExecutor.SEARCH, () -> release.await(5, TimeUnit.SECONDS)).cache())
+                .toList();
+        searches.forEach(Mono::subscribe);
+
+        assertEquals("C-1", executor.call(BlockingExecutor.LOOKUP, () -> "C-1").block(Duration.ofSeconds(1)));
+        assertEquals(4.0, gauge("customer.blocking.queued", BlockingExecutor.SEARCH));
+        release.countDown();
+        searches.forEach(search -> assertTrue(search.block(Duration.ofSeconds(5))));
+    }
+
+    @Test
+    void testFullBulkheadRejectsAtOnce() {
+        ExecutionProperties properties = new ExecutionProperties();
+        properties.getBulkheads().put(BlockingExecutor.WRITE, bulkhead(1, 1));
+        properties.setRetryAfter(Duration.ofSeconds(3));
+        executor = new BlockingExecutor(properties, dataSource(10), meterRegistry);
+        assertRejectsBeyondQueue();
+    }
+
+    @Test
+    void testFullVirtualThreadBulkheadRejectsAtOnce() {
+        ExecutionProperties properties = virtualThreads();
+        properties.getBulkheads().put(BlockingExecutor.WRITE, bulkhead(1, 1));
+        properties.setRetryAfter(Duration.ofSeconds(3));
+        executor = new BlockingExecutor(properties, dataSource(10), meterRegistry);
+        assertRejectsBeyondQueue();
+    }
+
+    @Test
+    void testFullBulkheadRejectsStreams() {
+        ExecutionProperties properties = new ExecutionProperties();
+        properties.getBulkheads().put(BlockingExecutor.EXPORT, bulkhead(1, 0));
+        executor = new BlockingExecutor(properties, dataSource(10), meterRegistry);
+
+        Flux<Long> first = executor.stream(BlockingExecutor.EXPORT, Flux.interval(Duration.ofMillis(10)));
+        var open = first.subscribe();
+        try {
+            assertThrows(BulkheadFullException.class, () -> executor.stream(BlockingExecutor.EXPORT, Flux.just(1L))
+                    .blockFirst(Duration.ofSeconds(1)));
+        } finally {
+            open.dispose();
+        }
+
+        // The first stream left the bulkhead when it was cancelled
+        assertEquals(1L, executor.stream(BlockingExecutor.EXPORT, Flux.just(1L)).blockFirst(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void testVirtualThreadModeRunsOnVirtualThreads() {
+        executor = new BlockingExecutor(virtualThreads(), dataSource(10), meterRegistry);
+
+        assertTrue(executor.call(BlockingExecutor.LOOKUP, () -> Thread.currentThread().isVirtual()).block());
+    }
+
+    @Test
+    void testConcurrencyIsLimitedByJdbcPoolSize() {
+        executor = new BlockingExecutor(virtualThreads(), dataSource(3), meterRegistry);
+
+        assertEquals(3, maxConcurrency(BlockingExecutor.LOOKUP, 30));
+    }
+
+    @Test
+    void testPerOperationLimit() {
+        ExecutionProperties properties = virtualThreads();
+        properties.getBulkheads().put(BlockingExecutor.EXPORT, bulkhead(1, 100));
+        executor = new BlockingExecutor(properties, dataSource(10), meterRegistry);
+
+        assertEquals(1, maxConcurrency(BlockingExecutor.EXPORT, 10));
+        assertEquals(10, meterRegistry.get("customer.blocking.wait").tag("operation", BlockingExecutor.EXPORT)
+                .timer().count());
+    }
+
+    @Test
+    void testStreamHoldsItsPermitUntilCancelled() {
+        ExecutionProperties properties = virtualThreads();
+        properties.getBulkheads().put(BlockingExecutor.STREAM, bulkhead(1, 100));
+        executor = new BlockingExecutor(properties, dataSource(10), meterRegistry);
+
+        Flux<Long> first = executor.stream(BlockingExecutor.STREAM, Flux.interval(Duration.ofMillis(10)));
+        assertEquals(0L, first.blockFirst());
+
+        // blockFirst cancelled the first stream, so the second one gets the permit
+        assertEquals(0L, executor.stream(BlockingExecutor.STREAM, Flux.interval(Duration.ofMillis(10)))
+                .blockFirst(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void testBoundedElasticStreamHoldsItsPermitUntilCancelled() throws InterruptedException {
+        ExecutionProperties properties = new ExecutionProperties();
+        properties.getBulkheads().put(BlockingExecutor.STREAM, bulkhead(1, 10));
+        executor = new BlockingExecutor(properties, dataSource(10), meterRegistry);
+        AtomicInteger opened = new AtomicInteger();
+        Flux<Long> cursor = Flux.defer(() -> {
+            opened.incrementAndGet();
+            return Flux.interval(Duration.ofMillis(10));
+        });
+
+        var first = executor.stream(BlockingExecutor.STREAM, cursor).subscribe();
+        var second = executor.stream(BlockingExecutor.STREAM, cursor).subscribe();
+        try {
+            // The first stream leaves the thread free between rows, but keeps its permit
+            Thread.sleep(200);
+            assertEquals(1, opened.get());
+
+            first.dispose();
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (opened.get() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(2, opened.get());
+        } finally {
+            first.dispose();
+            second.dispose();
+        }
+    }
+
+    private int maxConcurrency(String operation, int calls) {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger max = new AtomicInteger();
+        Flux.range(0, calls)
+                .flatMap(i -> executor.call(operation, () -> {
+                    max.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(20);
+                    running.decrementAndGet();
+                    return i;
+                }), calls)
+                .then(Mono.empty())
+                .block(Duration.ofSeconds(10));
+        return max.get();
+    }
+
+    private void assertRejectsBeyondQueue() {
+        CountDownLatch release = new CountDownLatch(1);
+        Mono<Boolean> running = executor.call(BlockingExecutor.WRITE, () -> release.await(5, TimeUnit.SECONDS)).cache();
+        Mono<Boolean> queued = executor.call(BlockingExecutor.WRITE, () -> true).cache();
+        running.subscribe();
+        queued.subscribe();
+
+        BulkheadFullException rejected = assertThrows(BulkheadFullException.class,
+                () -> executor.call(BlockingExecutor.WRITE, () -> true).block(Duration.ofSeconds(1)));
+        assertEquals(BlockingExecutor.WRITE, rejected.getOperation());
+        assertEquals(Duration.ofSeconds(3), rejected.getRetryAfter());
+        assertEquals(1.0, meterRegistry.get("customer.blocking.rejected").tag("operation", BlockingExecutor.WRITE)
+                .counter().count());
+
+        release.countDown();
+        assertTrue(running.block(Duration.ofSeconds(5)));
+        assertTrue(queued.block(Duration.ofSeconds(5)));
+        // Room again once the admitted calls completed
+        assertTrue(executor.call(BlockingExecutor.WRITE, () -> true).block(Duration.ofSeconds(5)));
+    }
+
+    private double gauge(String name, String operation) {
+        return meterRegistry.get(name).tag("operation", operation).gauge().value();
+    }
+
+    private static ExecutionProperties.Bulkhead bulkhead(int concurrency, int queue) {
+        ExecutionProperties.Bulkhead bulkhead = new ExecutionProperties.Bulkhead();
+        bulkhead.setConcurrency(concurrency);
+        bulkhead.setQueue(queue);
+        return bulkhead;
+    }
+
+    private static ExecutionProperties virtualThreads() {
+        ExecutionProperties properties = new ExecutionProperties();
+        properties.setMode(ExecutionProperties.Mode.VIRTUAL_THREADS);
+        return properties;
+    }
+
+    private static ObjectProvider<DataSource> dataSource(int poolSize) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(poolSize);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("dataSource", dataSource);
+        return beanFactory.getBeanProvider(DataSource.class);
+    }
+}
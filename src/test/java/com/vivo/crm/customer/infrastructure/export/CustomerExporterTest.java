@@ -0,0 +1,113 @@
+package com.vivo.crm.customer.infrastructure.export;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.infrastructure.config.ExecutionProperties;
+import com.vivo.crm.customer.infrastructure.config.StreamingProperties;
+import com.vivo.crm.customer.infrastructure.execution.BlockingExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "customer-service.streaming.export-chunk-size=1024")
+@Import({CustomerExporter.class, StreamingProperties.class, BlockingExecutor.class, ExecutionProperties.class,
+        SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerExporterTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerExporter customerExporter;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.saveAll(IntStream.range(0, 100)
+                .mapToObj(i -> Customer.builder()
+                        .name(i == 0 ? "Souza, \"Silva\" Ltda" : "Customer " + i)
+                        .status(i % 4 == 0 ? "SUSPENDED" : "ACTIVE")
+                        .segment("Premium")
+                        .creditScore(i == 1 ? null : 700 + i)
+                        .build())
+                .toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void testNdjsonExport() {
+        List<DataBuffer> chunks = export(ExportFormat.NDJSON, "ACTIVE", null, false);
+        String body = text(chunks);
+
+        assertTrue(chunks.size() > 1, "export should be chunked");
+        String[] lines = body.split("\n");
+        assertEquals(75, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":\""));
+        assertTrue(body.endsWith("}\n"));
+        assertFalse(body.contains("SUSPENDED"));
+    }
+
+    @Test
+    void testCsvExportEscapesValues() {
+        String body = text(export(ExportFormat.CSV, null, "Premium", false));
+        String[] lines = body.split("\n");
+
+        assertEquals(101, lines.length);
+        assertTrue(lines[0].startsWith("id,partyRoleId,externalId,name,"));
+        assertTrue(body.contains("\"Souza, \"\"Silva\"\" Ltda\""));
+    }
+
+    @Test
+    void testGzipExport() throws IOException {
+        byte[] compressed = bytes(export(ExportFormat.NDJSON, null, null, true));
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(100, body.split("\n").length);
+        }
+    }
+
+    private List<DataBuffer> export(ExportFormat format, String status, String segment, boolean gzip) {
+        return customerExporter.export(format, status, segment, gzip, DefaultDataBufferFactory.sharedInstance)
+                .collectList()
+                .block();
+    }
+
+    private String text(List<DataBuffer> chunks) {
+        return new String(bytes(chunks), StandardCharsets.UTF_8);
+    }
+
+    private byte[] bytes(List<DataBuffer> chunks) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (DataBuffer chunk : chunks) {
+            byte[] data = new byte[chunk.readableByteCount()];
+            chunk.read(data);
+            out.writeBytes(data);
+            DataBufferUtils.release(chunk);
+        }
+        return out.toByteArray();
+    }
+}
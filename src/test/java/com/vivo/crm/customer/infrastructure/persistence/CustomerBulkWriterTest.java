@@ -0,0 +1,105 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.infrastructure.config.PersistenceProperties;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "customer-service.persistence.bulk.jdbc-batch-size=50",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({CustomerBulkWriter.class, PersistenceProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerBulkWriterTest {
+
+    @Autowired
+    private CustomerBulkWriter customerBulkWriter;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void testInsertsAChunkInJdbcBatches() {
+        List<Customer> customers = IntStream.range(0, 120)
+                .mapToObj(i -> Customer.builder().name("Customer " + i).segment("Premium").build())
+                .toList();
+
+        List<String> errors = customerBulkWriter.insert(customers);
+
+        assertEquals(120, errors.size());
+        assertTrue(errors.stream().allMatch(Objects::isNull));
+        assertEquals(120, statistics.getEntityInsertCount());
+        assertEquals(1, statistics.getTransactionCount());
+        // 120 inserts in batches of 50: 3 round trips
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(120, customerRepository.count());
+        Customer saved = customerRepository.findById(customers.get(0).getCustomerId()).orElseThrow();
+        assertEquals("ACTIVE", saved.getStatus());
+        assertNotNull(saved.getPartyRoleId());
+        assertNotNull(saved.getCreatedAt());
+    }
+
+    @Test
+    void testInvalidCustomersAreReportedWithoutReachingTheDatabase() {
+        List<Customer> customers = List.of(
+                Customer.builder().name("Ana").build(),
+                Customer.builder().email("nameless@vivo.com.br").build(),
+                Customer.builder().name("Bia").phone("1".repeat(21)).build());
+
+        List<String> errors = customerBulkWriter.insert(customers);
+
+        assertNull(errors.get(0));
+        assertEquals("name is required", errors.get(1));
+        assertEquals("phone is longer than 20 characters", errors.get(2));
+        assertEquals(1, customerRepository.count());
+    }
+
+    @Test
+    void testDuplicateKeyFailsOnlyItsCustomer() {
+        customerRepository.save(Customer.builder().customerId("C-1").name("Existing").build());
+
+        List<String> errors = customerBulkWriter.insert(List.of(
+                Customer.builder().customerId("C-0").name("Ana").build(),
+                Customer.builder().customerId("C-1").name("Duplicate").build(),
+                Customer.builder().customerId("C-2").name("Bia").build()));
+
+        assertNull(errors.get(0));
+        assertNotNull(errors.get(1));
+        assertNull(errors.get(2));
+        assertEquals(3, customerRepository.count());
+        assertEquals("Existing", customerRepository.findById("C-1").orElseThrow().getName());
+    }
+}
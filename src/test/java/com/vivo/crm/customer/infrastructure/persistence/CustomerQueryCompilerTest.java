@@ -0,0 +1,70 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static com.vivo.crm.customer.infrastructure.persistence.FilterCondition.Operator.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(CustomerQueryCompiler.class)
+class CustomerQueryCompilerTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerQueryCompiler compiler;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.saveAll(List.of(
+                Customer.builder().customerId("C-1").name("Ana").status("ACTIVE").segment("Premium").creditScore(810).build(),
+                Customer.builder().customerId("C-2").name("Bruno").status("ACTIVE").segment("Premium").creditScore(650).build(),
+                Customer.builder().customerId("C-3").name("Carla").status("SUSPENDED").segment("Premium").creditScore(900).build(),
+                Customer.builder().customerId("C-4").name("Davi").status("ACTIVE").segment("Basic").creditScore(750).build()));
+    }
+
+    @Test
+    void testFilterAndSort() {
+        List<FilterCondition> conditions = List.of(
+                new FilterCondition("status", EQ, List.of("ACTIVE", "SUSPENDED")),
+                new FilterCondition("segment", EQ, List.of("Premium")),
+                new FilterCondition("creditScore", GT, List.of("700")));
+
+        List<Customer> result = compiler.find(conditions, Sort.by(Sort.Order.desc("creditScore")), null, 0, 10);
+
+        assertEquals(List.of("C-3", "C-1"), result.stream().map(Customer::getCustomerId).toList());
+        assertEquals(2, compiler.count(conditions));
+    }
+
+    @Test
+    void testProjectionAndPaging() {
+        List<FilterCondition> conditions = List.of(new FilterCondition("status", NE, List.of("SUSPENDED")));
+
+        List<Customer> result = compiler.find(conditions, Sort.unsorted(), List.of("customerId", "name"), 1, 2);
+
+        assertEquals(List.of("C-2", "C-4"), result.stream().map(Customer::getCustomerId).toList());
+        assertEquals("Bruno", result.get(0).getName());
+        assertNull(result.get(0).getStatus());
+    }
+
+    @Test
+    void testRejectsAttributesWithoutIndex() {
+        List<FilterCondition> byName = List.of(new FilterCondition("name", EQ, List.of("Ana")));
+
+        assertThrows(IllegalArgumentException.class, () -> compiler.find(byName, Sort.unsorted(), null, 0, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> compiler.find(List.of(), Sort.by("name"), null, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> compiler.count(
+                List.of(new FilterCondition("creditScore", GT, List.of("high")))));
+    }
+}
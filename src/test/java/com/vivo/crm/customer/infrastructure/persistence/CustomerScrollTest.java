@@ -0,0 +1,113 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Keyset scrolling finders of CustomerRepository, resumed the way CustomerServiceReactive does
+ */
+@DataJpaTest
+class CustomerScrollTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Saved out of id order, so the ordering comes from the query and not from insertion
+        customerRepository.saveAll(List.of(
+                customer("C-05", "ACTIVE", "Premium", "LOW"),
+                customer("C-02", "SUSPENDED", "Basic", "HIGH"),
+                customer("C-07", "ACTIVE", "Basic", "HIGH"),
+                customer("C-01", "ACTIVE", "Premium", "HIGH"),
+                customer("C-06", "SUSPENDED", "Premium", "LOW"),
+                customer("C-03", "ACTIVE", "Basic", "LOW"),
+                customer("C-04", "ACTIVE", "Premium", "MEDIUM")));
+    }
+
+    @Test
+    void testStatusScrollIsOrderedByCustomerIdAcrossPages() {
+        Window<Customer> first = customerRepository.findByStatusOrderByCustomerIdAsc(
+                "ACTIVE", ScrollPosition.keyset(), Limit.of(2));
+        Window<Customer> second = customerRepository.findByStatusOrderByCustomerIdAsc(
+                "ACTIVE", after(first), Limit.of(2));
+        Window<Customer> third = customerRepository.findByStatusOrderByCustomerIdAsc(
+                "ACTIVE", after(second), Limit.of(2));
+
+        assertEquals(List.of("C-01", "C-03"), ids(first));
+        assertTrue(first.hasNext());
+        assertEquals(List.of("C-04", "C-05"), ids(second));
+        assertTrue(second.hasNext());
+        assertEquals(List.of("C-07"), ids(third));
+        assertFalse(third.hasNext());
+    }
+
+    @Test
+    void testHasNextIsFalseWhenTheLastPageIsExactlyFull() {
+        // Four Premium customers: the second page of two ends the scroll
+        Window<Customer> first = customerRepository.findBySegmentOrderByCustomerIdAsc(
+                "Premium", ScrollPosition.keyset(), Limit.of(2));
+        Window<Customer> second = customerRepository.findBySegmentOrderByCustomerIdAsc(
+                "Premium", after(first), Limit.of(2));
+
+        assertEquals(List.of("C-01", "C-04"), ids(first));
+        assertTrue(first.hasNext());
+        assertEquals(List.of("C-05", "C-06"), ids(second));
+        assertFalse(second.hasNext());
+
+        Window<Customer> beyond = customerRepository.findBySegmentOrderByCustomerIdAsc(
+                "Premium", after(second), Limit.of(2));
+        assertTrue(beyond.isEmpty());
+        assertFalse(beyond.hasNext());
+    }
+
+    @Test
+    void testRiskLevelScrollOnlyReturnsThatLevel() {
+        Window<Customer> window = customerRepository.findByRiskLevelOrderByCustomerIdAsc(
+                "HIGH", ScrollPosition.keyset(), Limit.of(10));
+
+        assertEquals(List.of("C-01", "C-02", "C-07"), ids(window));
+        assertFalse(window.hasNext());
+    }
+
+    @Test
+    void testStatusAndSegmentScrollCombinesBothFilters() {
+        Window<Customer> first = customerRepository.findByStatusAndSegmentOrderByCustomerIdAsc(
+                "ACTIVE", "Basic", ScrollPosition.keyset(), Limit.of(1));
+        Window<Customer> second = customerRepository.findByStatusAndSegmentOrderByCustomerIdAsc(
+                "ACTIVE", "Basic", after(first), Limit.of(1));
+
+        assertEquals(List.of("C-03"), ids(first));
+        assertTrue(first.hasNext());
+        assertEquals(List.of("C-07"), ids(second));
+        assertFalse(second.hasNext());
+
+        assertTrue(customerRepository.findByStatusAndSegmentOrderByCustomerIdAsc(
+                "SUSPENDED", "Basic", after(first), Limit.of(1)).isEmpty());
+    }
+
+    private static ScrollPosition after(Window<Customer> window) {
+        List<Customer> content = window.getContent();
+        return ScrollPosition.forward(Map.of("customerId", content.get(content.size() - 1).getCustomerId()));
+    }
+
+    private static List<String> ids(Window<Customer> window) {
+        return window.getContent().stream().map(Customer::getCustomerId).toList();
+    }
+
+    private static Customer customer(String id, String status, String segment, String riskLevel) {
+        return Customer.builder().customerId(id).name(id).status(status).segment(segment).riskLevel(riskLevel).build();
+    }
+}
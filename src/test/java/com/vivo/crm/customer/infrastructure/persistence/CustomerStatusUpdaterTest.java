@@ -0,0 +1,133 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.model.StatusTransition;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.infrastructure.config.PersistenceProperties;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "customer-service.persistence.bulk.transition-chunk-size=4",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({CustomerStatusUpdater.class, PersistenceProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerStatusUpdaterTest {
+
+    @Autowired
+    private CustomerStatusUpdater customerStatusUpdater;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.saveAll(IntStream.range(0, 10)
+                .mapToObj(i -> Customer.builder()
+                        .customerId("C-" + i)
+                        .name("Customer " + i)
+                        .segment(i % 2 == 0 ? "Premium" : "Basic")
+                        .riskLevel("LOW")
+                        .build())
+                .toList());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void testTransitionsGivenCustomersInOneStatement() {
+        CustomerStatusUpdater.Chunk chunk = customerStatusUpdater.transition(
+                List.of("C-1", "C-2", "C-3"), StatusTransition.SUSPEND, "analyst");
+
+        assertEquals(3, chunk.updated());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        Customer suspended = customerRepository.findById("C-2").orElseThrow();
+        assertEquals("SUSPENDED", suspended.getStatus());
+        assertEquals("HIGH", suspended.getRiskLevel());
+        assertEquals("analyst", suspended.getUpdatedBy());
+        assertEquals(1L, suspended.getVersion());
+        assertEquals("ACTIVE", customerRepository.findById("C-4").orElseThrow().getStatus());
+    }
+
+    @Test
+    void testKeepsRiskLevelWhenTheTransitionHasNone() {
+        customerStatusUpdater.transition(List.of("C-1"), StatusTransition.DEACTIVATE, "agent");
+
+        Customer deactivated = customerRepository.findById("C-1").orElseThrow();
+        assertEquals("INACTIVE", deactivated.getStatus());
+        assertEquals("LOW", deactivated.getRiskLevel());
+    }
+
+    @Test
+    void testCustomersAlreadyInTheStatusAreNotCounted() {
+        customerStatusUpdater.transition(List.of("C-1"), StatusTransition.DEACTIVATE, "agent");
+
+        CustomerStatusUpdater.Chunk chunk = customerStatusUpdater.transition(
+                List.of("C-1", "C-3", "missing"), StatusTransition.DEACTIVATE, "other");
+
+        assertEquals(1, chunk.updated());
+        assertEquals("agent", customerRepository.findById("C-1").orElseThrow().getUpdatedBy());
+    }
+
+    @Test
+    void testFilterIsTransitionedChunkByChunk() {
+        CustomerStatusUpdater.Filter premium = new CustomerStatusUpdater.Filter("Premium", null, null);
+        List<CustomerStatusUpdater.Chunk> chunks = new ArrayList<>();
+        CustomerStatusUpdater.Chunk chunk = customerStatusUpdater.transitionNext(
+                premium, "", StatusTransition.DEACTIVATE, "agent");
+        chunks.add(chunk);
+        while (!chunk.isLast(customerStatusUpdater.getChunkSize())) {
+            chunk = customerStatusUpdater.transitionNext(premium, chunk.lastId(), StatusTransition.DEACTIVATE, "agent");
+            chunks.add(chunk);
+        }
+
+        assertEquals(List.of("C-0", "C-2", "C-4", "C-6"), chunks.get(0).customerIds());
+        assertEquals(List.of("C-8"), chunks.get(1).customerIds());
+        assertEquals(2, chunks.size());
+        assertEquals(5, customerRepository.findAll().stream()
+                .filter(c -> "INACTIVE".equals(c.getStatus()))
+                .filter(c -> "Premium".equals(c.getSegment()))
+                .count());
+        assertEquals(5, customerRepository.findAll().stream()
+                .filter(c -> "ACTIVE".equals(c.getStatus()))
+                .count());
+    }
+
+    @Test
+    void testFilterSkipsCustomersAlreadyInTheStatus() {
+        customerStatusUpdater.transition(List.of("C-0", "C-2"), StatusTransition.SUSPEND, "analyst");
+
+        CustomerStatusUpdater.Chunk chunk = customerStatusUpdater.transitionNext(
+                new CustomerStatusUpdater.Filter("Premium", null, null), "", StatusTransition.SUSPEND, "analyst");
+
+        assertEquals(List.of("C-4", "C-6", "C-8"), chunk.customerIds());
+        assertEquals(3, chunk.updated());
+    }
+}
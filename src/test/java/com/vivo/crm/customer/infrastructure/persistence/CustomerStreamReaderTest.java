@@ -0,0 +1,80 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.infrastructure.config.ExecutionProperties;
+import com.vivo.crm.customer.infrastructure.config.StreamingProperties;
+import com.vivo.crm.customer.infrastructure.execution.BlockingExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.test.StepVerifier;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "customer-service.streaming.fetch-size=10")
+@Import({CustomerStreamReader.class, StreamingProperties.class, BlockingExecutor.class, ExecutionProperties.class,
+        SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerStreamReaderTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerStreamReader customerStreamReader;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.saveAll(IntStream.range(0, 250)
+                .mapToObj(i -> Customer.builder()
+                        .name("Customer " + i)
+                        .status(i % 5 == 0 ? "SUSPENDED" : "ACTIVE")
+                        .segment("Premium")
+                        .build())
+                .toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void testStreamsAllMatchingRows() {
+        StepVerifier.create(customerStreamReader.streamByStatus("ACTIVE"))
+                .expectNextCount(200)
+                .verifyComplete();
+    }
+
+    @Test
+    void testEmitsOnDemand() {
+        StepVerifier.create(customerStreamReader.streamBySegment("Premium"), 0)
+                .expectSubscription()
+                .thenRequest(3)
+                .expectNextCount(3)
+                .expectNoEvent(java.time.Duration.ofMillis(50))
+                .thenRequest(2)
+                .expectNextCount(2)
+                .thenCancel()
+                .verify();
+
+        // The cursor was released on cancel: the table is still readable and writable
+        assertEquals(250, customerRepository.count());
+    }
+
+    @Test
+    void testSearchByName() {
+        StepVerifier.create(customerStreamReader.streamByName("customer 24"))
+                .expectNextCount(11)
+                .verifyComplete();
+    }
+}
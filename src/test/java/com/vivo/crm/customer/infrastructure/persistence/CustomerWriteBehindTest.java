@@ -0,0 +1,178 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.infrastructure.cache.CustomerCache;
+import com.vivo.crm.customer.infrastructure.config.PersistenceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Write-behind against H2, with the journal in a temporary directory; flushes are triggered
+ * by the test unless stated otherwise
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerWriteBehindTest {
+
+    @TempDir
+    private Path directory;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final CustomerCache customerCache = mock(CustomerCache.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.saveAll(List.of(
+                Customer.builder().customerId("C-1").name("Ana").segment("Premium").preferredChannel("SMS").build(),
+                Customer.builder().customerId("C-2").name("Bruno").build()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("ALTER TABLE customer DROP CONSTRAINT IF EXISTS ck_test_channel");
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void testCoalescesUpdatesAndWritesThemInOneFlush() throws IOException {
+        CustomerWriteBehind writeBehind = writeBehind(1000);
+
+        writeBehind.buffer("C-1", Map.of("preferredChannel", "EMAIL"));
+        writeBehind.buffer("C-1", Map.of("preferredChannel", "WHATSAPP", "biometriaStatus", "COLLECTED"));
+
+        Customer pending = writeBehind.overlay(customerRepository.findById("C-1").orElseThrow());
+        assertEquals("WHATSAPP", pending.getPreferredChannel());
+        assertEquals("SMS", customerRepository.findById("C-1").orElseThrow().getPreferredChannel());
+
+        writeBehind.flush();
+
+        Customer written = customerRepository.findById("C-1").orElseThrow();
+        assertEquals("WHATSAPP", written.getPreferredChannel());
+        assertEquals("COLLECTED", written.getBiometriaStatus());
+        assertEquals("Premium", written.getSegment());
+        assertEquals(1L, written.getVersion());
+        assertFalse(writeBehind.isBuffered("C-1"));
+        assertEquals(1.0, meterRegistry.counter("customer.write-behind.coalesced").count());
+        verify(customerCache).evict("C-1");
+    }
+
+    @Test
+    void testOnlyConfiguredFieldsAreWrittenBehind() throws IOException {
+        CustomerWriteBehind writeBehind = writeBehind(1000);
+
+        assertTrue(writeBehind.accepts(Map.of("contextData", "{}", "preferredChannel", "SMS")));
+        assertFalse(writeBehind.accepts(Map.of("preferredChannel", "SMS", "status", "INACTIVE")));
+        assertFalse(writeBehind.accepts(Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> writeBehind.buffer("C-1", Map.of("status", "INACTIVE")));
+        assertThrows(IllegalArgumentException.class,
+                () -> writeBehind.buffer("C-1", Map.of("preferredChannel", "x".repeat(51))));
+    }
+
+    @Test
+    void testJournalIsReplayedAfterARestart() throws IOException {
+        writeBehind(1000).buffer("C-1", Map.of("preferredChannel", "EMAIL"));
+        writeBehind(1000).buffer("C-2", Map.of("biometriaStatus", "PENDING"));
+
+        CustomerWriteBehind restarted = writeBehind(1000);
+        assertTrue(restarted.isBuffered("C-1"));
+        restarted.flush();
+
+        assertEquals("EMAIL", customerRepository.findById("C-1").orElseThrow().getPreferredChannel());
+        assertEquals("PENDING", customerRepository.findById("C-2").orElseThrow().getBiometriaStatus());
+        assertFalse(writeBehind(1000).isBuffered("C-1"));
+    }
+
+    @Test
+    void testSupersededValuesAreNotWritten() throws IOException {
+        CustomerWriteBehind writeBehind = writeBehind(1000);
+        writeBehind.buffer("C-1", Map.of("preferredChannel", "EMAIL", "biometriaStatus", "COLLECTED"));
+
+        writeBehind.supersede("C-1", List.of("preferredChannel"));
+
+        CustomerWriteBehind restarted = writeBehind(1000);
+        restarted.flush();
+        Customer written = customerRepository.findById("C-1").orElseThrow();
+        assertEquals("SMS", written.getPreferredChannel());
+        assertEquals("COLLECTED", written.getBiometriaStatus());
+    }
+
+    @Test
+    void testRejectedUpdateIsDroppedWithoutHoldingBackTheOthers() throws IOException {
+        // Stands in for a value that passes validation but not the database (e.g. invalid JSON on PostgreSQL)
+        jdbcTemplate.execute("ALTER TABLE customer ADD CONSTRAINT ck_test_channel CHECK (preferred_channel <> 'FAX')");
+        CustomerWriteBehind writeBehind = writeBehind(1000);
+        writeBehind.buffer("C-1", Map.of("preferredChannel", "FAX"));
+        writeBehind.buffer("C-2", Map.of("preferredChannel", "EMAIL"));
+
+        writeBehind.flush();
+
+        assertEquals("EMAIL", customerRepository.findById("C-2").orElseThrow().getPreferredChannel());
+        assertEquals("SMS", customerRepository.findById("C-1").orElseThrow().getPreferredChannel());
+        assertFalse(writeBehind.isBuffered("C-1"));
+        assertEquals(1.0, meterRegistry.counter("customer.write-behind.dropped").count());
+        verify(customerCache).evict("C-2");
+        verify(customerCache, never()).evict("C-1");
+        // The journal was compacted without the dropped update
+        assertFalse(writeBehind(1000).isBuffered("C-1"));
+    }
+
+    @Test
+    void testFlushesEarlyAtMaxEntries() throws Exception {
+        CustomerWriteBehind writeBehind = writeBehind(2);
+
+        writeBehind.buffer("C-1", Map.of("preferredChannel", "EMAIL"));
+        writeBehind.buffer("C-2", Map.of("preferredChannel", "EMAIL"));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (writeBehind.isBuffered("C-2") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("EMAIL", customerRepository.findById("C-2").orElseThrow().getPreferredChannel());
+    }
+
+    private CustomerWriteBehind writeBehind(int maxEntries) throws IOException {
+        PersistenceProperties properties = new PersistenceProperties();
+        properties.getWriteBehind().setEnabled(true);
+        properties.getWriteBehind().setFlushInterval(Duration.ofHours(1));
+        properties.getWriteBehind().setMaxEntries(maxEntries);
+        properties.getWriteBehind().setJournal(directory.resolve("write-behind.journal"));
+        return new CustomerWriteBehind(transactionManager, dataSource, customerCache, new ObjectMapper(),
+                properties, meterRegistry);
+    }
+}
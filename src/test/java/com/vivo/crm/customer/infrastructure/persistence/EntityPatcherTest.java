@@ -0,0 +1,160 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.model.Organization;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.domain.repository.OrganizationRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Changed-columns-only updates against H2, capturing the SQL Hibernate sends
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.vivo.crm.customer.infrastructure.persistence.EntityPatcherTest$Recorder")
+@Import(EntityPatcher.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EntityPatcherTest {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Autowired
+    private EntityPatcher entityPatcher;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.save(Customer.builder().customerId("C-1").name("Ana").segment("Premium")
+                .creditScore(700).contextData("{\"large\":true}").build());
+        STATEMENTS.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteAll();
+        organizationRepository.deleteAll();
+    }
+
+    @Test
+    void testUpdatesOnlyTheSuppliedColumnsWithoutReadingFirst() {
+        Customer updated = entityPatcher.patch(Customer.class, "C-1", Map.of("status", "SUSPENDED"), null)
+                .orElseThrow();
+
+        assertEquals("SUSPENDED", updated.getStatus());
+        assertEquals("Premium", updated.getSegment());
+        assertNotNull(updated.getContextData());
+        assertEquals(1L, updated.getVersion());
+
+        String update = STATEMENTS.get(0);
+        assertTrue(update.startsWith("update"), "first statement: " + update);
+        assertTrue(update.contains("status"));
+        assertFalse(update.contains("context_data"));
+        assertFalse(update.contains("segment"));
+        assertEquals(1, STATEMENTS.stream().filter(sql -> sql.startsWith("update")).count());
+    }
+
+    @Test
+    void testNullClearsAndValuesAreConverted() {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("segment", null);
+        attributes.put("creditScore", 650L);
+
+        Customer updated = entityPatcher.patch(Customer.class, "C-1", attributes, null).orElseThrow();
+
+        assertNull(updated.getSegment());
+        assertEquals(650, updated.getCreditScore());
+    }
+
+    @Test
+    void testWritesOnlyAtTheGivenVersion() {
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> entityPatcher.patch(Customer.class, "C-1", Map.of("status", "SUSPENDED"), 5L));
+        assertEquals("ACTIVE", customerRepository.findById("C-1").orElseThrow().getStatus());
+
+        Customer updated = entityPatcher.patch(Customer.class, "C-1", Map.of("status", "SUSPENDED"), 0L)
+                .orElseThrow();
+        assertEquals(1L, updated.getVersion());
+    }
+
+    @Test
+    void testMissingEntityIsEmpty() {
+        assertTrue(entityPatcher.patch(Customer.class, "C-404", Map.of("status", "SUSPENDED"), null).isEmpty());
+        assertTrue(entityPatcher.patch(Customer.class, "C-404", Map.of("status", "SUSPENDED"), 0L).isEmpty());
+    }
+
+    @Test
+    void testRejectsAttributesThatCannotBePatched() {
+        for (Map<String, Object> invalid : List.of(
+                Map.<String, Object>of("customerId", "C-2"),
+                Map.<String, Object>of("createdAt", "2024-01-01T00:00:00"),
+                Map.<String, Object>of("version", 3),
+                Map.<String, Object>of("unknown", "x"),
+                Map.<String, Object>of("creditScore", "high"),
+                Map.<String, Object>of("phone", "1".repeat(21)))) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> entityPatcher.patch(Customer.class, "C-1", invalid, null), invalid.toString());
+        }
+        Map<String, Object> noName = new HashMap<>();
+        noName.put("name", null);
+        assertThrows(IllegalArgumentException.class, () -> entityPatcher.patch(Customer.class, "C-1", noName, null));
+
+        assertTrue(STATEMENTS.isEmpty());
+    }
+
+    @Test
+    void testPatchesEntitiesWithoutVersion() {
+        Organization organization = organizationRepository.save(Organization.builder().name("Vivo").build());
+        STATEMENTS.clear();
+
+        Organization updated = entityPatcher.patch(Organization.class, organization.getId(),
+                Map.of("tradingName", "Telefonica Brasil", "isLegalEntity", true), null).orElseThrow();
+
+        assertEquals("Vivo", updated.getName());
+        assertEquals("Telefonica Brasil", updated.getTradingName());
+        assertTrue(updated.getIsLegalEntity());
+        assertFalse(STATEMENTS.get(0).contains(" name="));
+    }
+
+    @Test
+    void testSaveOfALoadedCustomerWritesOnlyChangedColumns() {
+        Customer customer = customerRepository.findById("C-1").orElseThrow();
+        customer.setSegment("Basic");
+        STATEMENTS.clear();
+
+        customerRepository.save(customer);
+
+        String update = STATEMENTS.stream().filter(sql -> sql.startsWith("update")).findFirst().orElseThrow();
+        assertTrue(update.contains("segment"));
+        assertFalse(update.contains("context_data"));
+    }
+
+    public static class Recorder implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql.toLowerCase(Locale.ROOT));
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.model.Individual;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(EntityProjector.class)
+class EntityProjectorTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityProjector entityProjector;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.saveAll(List.of(
+                Customer.builder().customerId("C-1").name("Ana").status("ACTIVE").segment("Premium")
+                        .contextData("{\"large\":true}").build(),
+                Customer.builder().customerId("C-2").name("Bruno").status("SUSPENDED").segment("Basic").build(),
+                Customer.builder().customerId("C-3").name("Carla").status("ACTIVE").segment("Basic").build()));
+    }
+
+    @Test
+    void testResolveAlwaysSelectsIdAndIgnoresUnknown() {
+        List<String> columns = entityProjector.resolve(Customer.class, List.of("name", "unknown", "status")).orElseThrow();
+
+        assertEquals(List.of("customerId", "name", "status"), columns);
+    }
+
+    @Test
+    void testResolveRejectsCollections() {
+        assertTrue(entityProjector.resolve(Individual.class, List.of("givenName", "contactMedium")).isEmpty());
+        assertTrue(entityProjector.resolve(Individual.class, List.of("givenName")).isPresent());
+    }
+
+    @Test
+    void testSelectReturnsOnlyRequestedColumns() {
+        Specification<Customer> active = (root, query, cb) -> cb.equal(root.get("status"), "ACTIVE");
+
+        List<Map<String, Object>> rows = entityProjector.select(
+                Customer.class, List.of("customerId", "name"), active, Sort.by("customerId"), 0, 10);
+
+        assertEquals(List.of(
+                Map.of("customerId", "C-1", "name", "Ana"),
+                Map.of("customerId", "C-3", "name", "Carla")), rows);
+    }
+
+    @Test
+    void testSelectByIdAndToEntity() {
+        Map<String, Object> row = entityProjector.selectById(
+                Customer.class, List.of("customerId", "segment"), "C-1").orElseThrow();
+
+        Customer customer = EntityProjector.toEntity(Customer.class, row);
+
+        assertEquals("C-1", customer.getCustomerId());
+        assertEquals("Premium", customer.getSegment());
+        assertNull(customer.getName());
+        assertNull(customer.getContextData());
+        assertTrue(entityProjector.selectById(Customer.class, List.of("customerId"), "missing").isEmpty());
+    }
+}
@@ -0,0 +1,114 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.vivo.crm.customer.infrastructure.config.ExecutionProperties;
+import com.vivo.crm.customer.infrastructure.execution.BlockingExecutor;
+import com.vivo.crm.customer.infrastructure.execution.Deadline;
+import com.vivo.crm.customer.infrastructure.execution.DeadlineExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import reactor.core.Disposable;
+
+import javax.sql.DataSource;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryScopeDataSourceTest {
+
+    /**
+     * Runs for minutes unless cancelled
+     */
+    private static final String SLOW_QUERY = "SELECT SUM(X) FROM SYSTEM_RANGE(1, 100000000000)";
+
+    private final QueryScopeDataSource dataSource = new QueryScopeDataSource(h2());
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final BlockingExecutor executor = executor(dataSource);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testCancellingTheSubscriberCancelsTheStatement() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Throwable> outcome = new CompletableFuture<>();
+        Disposable subscription = executor.call(BlockingExecutor.LOOKUP, () -> {
+            started.countDown();
+            try {
+                return jdbcTemplate.queryForObject(SLOW_QUERY, Long.class);
+            } catch (RuntimeException e) {
+                outcome.complete(e);
+                throw e;
+            }
+        }).subscribe();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+
+        subscription.dispose();
+
+        Throwable cancelled = outcome.get(5, TimeUnit.SECONDS);
+        assertNotNull(cancelled);
+    }
+
+    @Test
+    void testDeadlineBecomesTheQueryTimeout() {
+        long start = System.nanoTime();
+
+        Throwable timedOut = assertThrows(RuntimeException.class, () -> executor
+                .call(BlockingExecutor.LOOKUP, () -> jdbcTemplate.queryForObject(SLOW_QUERY, Long.class))
+                .contextWrite(context -> context.put(Deadline.class, Deadline.after(Duration.ofMillis(500))))
+                .block(Duration.ofSeconds(10)));
+
+        assertInstanceOf(SQLTimeoutException.class, rootCause(timedOut));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0);
+    }
+
+    @Test
+    void testExpiredDeadlineSkipsTheCall() {
+        AtomicBoolean ran = new AtomicBoolean();
+
+        assertThrows(DeadlineExceededException.class, () -> executor
+                .call(BlockingExecutor.LOOKUP, () -> ran.getAndSet(true))
+                .contextWrite(context -> context.put(Deadline.class, Deadline.after(Duration.ofMillis(-1))))
+                .block(Duration.ofSeconds(5)));
+
+        assertFalse(ran.get());
+    }
+
+    @Test
+    void testStatementsOutsideBlockingCallsAreLeftAlone() {
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT 1 + 2", Integer.class));
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static BlockingExecutor executor(DataSource dataSource) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("dataSource", dataSource);
+        return new BlockingExecutor(new ExecutionProperties(), beanFactory.getBeanProvider(DataSource.class),
+                new SimpleMeterRegistry());
+    }
+
+    private static DataSource h2() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:scoped;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+}
@@ -0,0 +1,144 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.infrastructure.config.PersistenceProperties;
+import com.vivo.crm.customer.infrastructure.config.R2dbcConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * R2DBC repository against the H2 database whose schema JPA created
+ */
+@DataJpaTest(properties = {
+        "customer-service.persistence.mode=r2dbc",
+        "customer-service.persistence.r2dbc.url=r2dbc:h2:mem:///crm;DB_CLOSE_DELAY=-1",
+        "customer-service.persistence.r2dbc.username=sa"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({R2dbcConfig.class, PersistenceProperties.class, R2dbcCustomerRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class R2dbcCustomerRepositoryTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private R2dbcCustomerRepository r2dbcCustomerRepository;
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void testReadsRowsWrittenByJpa() {
+        Customer saved = customerRepository.save(Customer.builder()
+                .name("Ana").email("ana@vivo.com.br").cpfCnpj("12345678901").segment("Premium")
+                .creditScore(720).contextData("{\"origin\":\"store\"}").build());
+
+        StepVerifier.create(r2dbcCustomerRepository.findByEmail("ana@vivo.com.br"))
+                .assertNext(found -> {
+                    assertEquals(saved.getCustomerId(), found.getCustomerId());
+                    assertEquals("Ana", found.getName());
+                    assertEquals(720, found.getCreditScore());
+                    assertEquals("ACTIVE", found.getStatus());
+                    assertNotNull(found.getCreatedAt());
+                    assertNotNull(found.getContextData());
+                })
+                .verifyComplete();
+        StepVerifier.create(r2dbcCustomerRepository.findById("missing")).verifyComplete();
+    }
+
+    @Test
+    void testInsertThenUpdate() {
+        Customer customer = Customer.builder().customerId("C-1").name("Ana").build();
+
+        Customer inserted = r2dbcCustomerRepository.save(customer).block();
+
+        assertNotNull(inserted.getCreatedAt());
+        assertEquals("ACTIVE", inserted.getStatus());
+        assertNotNull(inserted.getPartyRoleId());
+        assertTrue(customerRepository.findById("C-1").isPresent());
+
+        inserted.suspend("fraud", "analyst");
+        r2dbcCustomerRepository.save(inserted).block();
+
+        Customer reloaded = customerRepository.findById("C-1").orElseThrow();
+        assertEquals("SUSPENDED", reloaded.getStatus());
+        assertEquals(inserted.getCreatedAt().withNano(0), reloaded.getCreatedAt().withNano(0));
+    }
+
+    @Test
+    void testUpdateStatusAndSaveCheckTheVersion() {
+        Customer read = r2dbcCustomerRepository.save(Customer.builder().customerId("C-3").name("Caio").build()).block();
+        assertEquals(0L, read.getVersion());
+
+        read.deactivate("agent");
+        StepVerifier.create(r2dbcCustomerRepository.updateStatus(read))
+                .assertNext(updated -> assertEquals(1L, updated.getVersion()))
+                .verifyComplete();
+        StepVerifier.create(r2dbcCustomerRepository.updateStatus(read)).verifyComplete();
+        StepVerifier.create(r2dbcCustomerRepository.save(read))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+
+        Customer reloaded = customerRepository.findById("C-3").orElseThrow();
+        assertEquals("INACTIVE", reloaded.getStatus());
+        assertEquals(1L, reloaded.getVersion());
+    }
+
+    @Test
+    void testPatchWritesOnlyTheGivenColumns() {
+        customerRepository.save(Customer.builder().customerId("C-4").name("Davi").segment("Premium")
+                .contextData("{\"origin\":\"store\"}").build());
+
+        StepVerifier.create(r2dbcCustomerRepository.patch("C-4", Map.of("status", "SUSPENDED", "creditScore", 610L), 0L))
+                .assertNext(updated -> {
+                    assertEquals("SUSPENDED", updated.getStatus());
+                    assertEquals(610, updated.getCreditScore());
+                    assertEquals("Premium", updated.getSegment());
+                    assertEquals(1L, updated.getVersion());
+                })
+                .verifyComplete();
+        StepVerifier.create(r2dbcCustomerRepository.patch("C-4", Map.of("segment", "Basic"), 0L))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+        StepVerifier.create(r2dbcCustomerRepository.patch("C-4", Map.of("customerId", "C-5"), null))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        StepVerifier.create(r2dbcCustomerRepository.patch("missing", Map.of("segment", "Basic"), null))
+                .verifyComplete();
+
+        Customer reloaded = customerRepository.findById("C-4").orElseThrow();
+        assertEquals("Premium", reloaded.getSegment());
+        assertNotNull(reloaded.getContextData());
+    }
+
+    @Test
+    void testStreamsCountsAndDeletes() {
+        customerRepository.save(Customer.builder().customerId("C-1").name("Ana Souza").status("ACTIVE")
+                .riskLevel("HIGH").build());
+        customerRepository.save(Customer.builder().customerId("C-2").name("Bruno").status("SUSPENDED").build());
+
+        StepVerifier.create(r2dbcCustomerRepository.searchByName("souza")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(r2dbcCustomerRepository.findHighRiskActiveCustomers()).expectNextCount(1).verifyComplete();
+        StepVerifier.create(r2dbcCustomerRepository.countByStatus("ACTIVE")).expectNext(1L).verifyComplete();
+
+        StepVerifier.create(r2dbcCustomerRepository.deleteById("C-2")).verifyComplete();
+        StepVerifier.create(r2dbcCustomerRepository.existsById("C-2")).expectNext(false).verifyComplete();
+        StepVerifier.create(r2dbcCustomerRepository.count()).expectNext(1L).verifyComplete();
+    }
+}
@@ -0,0 +1,138 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.domain.repository.ReactiveCustomerRepository;
+import com.vivo.crm.customer.infrastructure.config.PersistenceProperties;
+import com.vivo.crm.customer.infrastructure.config.R2dbcConfig;
+import com.vivo.crm.customer.infrastructure.config.ExecutionProperties;
+import com.vivo.crm.customer.infrastructure.config.StreamingProperties;
+import com.vivo.crm.customer.infrastructure.execution.BlockingExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * findById at 5k concurrent requests, JPA on boundedElastic vs R2DBC
+ *
+ * Not part of the regular build: mvn test -Dtest=ReactivePersistenceBenchmarkTest -Dbenchmark=true
+ * H2 in memory hides network latency, which is where R2DBC gains most; point both
+ * URLs at Oracle for representative numbers.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DataJpaTest(properties = {
+        "customer-service.persistence.mode=r2dbc",
+        "customer-service.persistence.r2dbc.url=r2dbc:h2:mem:///crm;DB_CLOSE_DELAY=-1",
+        "customer-service.persistence.r2dbc.username=sa",
+        // Raw throughput: every request queued, none shed
+        "customer-service.execution.bulkheads.lookup.queue=5000",
+        "customer-service.execution.limiter.enabled=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({R2dbcConfig.class, PersistenceProperties.class, R2dbcCustomerRepository.class,
+        CustomerStreamReader.class, StreamingProperties.class, BlockingExecutor.class, ExecutionProperties.class,
+        UnitOfWork.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReactivePersistenceBenchmarkTest {
+
+    private static final int CUSTOMERS = 1_000;
+    private static final int REQUESTS = 5_000;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerStreamReader customerStreamReader;
+
+    @Autowired
+    private BlockingExecutor blockingExecutor;
+
+    @Autowired
+    private UnitOfWork unitOfWork;
+
+    @Autowired
+    private R2dbcCustomerRepository r2dbcCustomerRepository;
+
+    private List<String> ids;
+
+    @BeforeAll
+    void seed() {
+        ids = customerRepository.saveAll(IntStream.range(0, CUSTOMERS)
+                        .mapToObj(i -> Customer.builder().name("Customer " + i).segment("Premium").build())
+                        .toList())
+                .stream().map(Customer::getCustomerId).toList();
+    }
+
+    @AfterAll
+    void tearDown() {
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void compareFindByIdAt5kConcurrentRequests() {
+        ReactiveCustomerRepository jpa = new JpaReactiveCustomerRepository(customerRepository, customerStreamReader,
+                blockingExecutor, unitOfWork, null);
+
+        // Warm up both paths (JIT, pools) before measuring
+        run(jpa);
+        run(r2dbcCustomerRepository);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            report("jpa", round, run(jpa));
+            report("r2dbc", round, run(r2dbcCustomerRepository));
+        }
+    }
+
+    private Result run(ReactiveCustomerRepository repository) {
+        long[] latencies = new long[REQUESTS];
+        long start = System.nanoTime();
+        Long found = Flux.range(0, REQUESTS)
+                .flatMap(i -> Mono.defer(() -> {
+                    long requested = System.nanoTime();
+                    return repository.findById(ids.get(i % CUSTOMERS))
+                            .doOnNext(c -> latencies[i] = System.nanoTime() - requested);
+                }), REQUESTS)
+                .count()
+                .block();
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(REQUESTS, found);
+        Arrays.sort(latencies);
+        return new Result(elapsed, latencies);
+    }
+
+    private static void report(String name, int round, Result result) {
+        System.out.printf("%-6s round %d: %,8.0f req/s  p50 %6.2f ms  p99 %6.2f ms  max %6.2f ms%n",
+                name, round,
+                REQUESTS / (result.elapsedNanos() / 1e9),
+                result.percentile(0.50) / 1e6,
+                result.percentile(0.99) / 1e6,
+                result.latencies()[REQUESTS - 1] / 1e6);
+    }
+
+    private record Result(long elapsedNanos, long[] latencies) {
+
+        long percentile(double p) {
+            return latencies[(int) Math.ceil(p * latencies.length) - 1];
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.vivo.crm.customer.infrastructure.persistence;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.infrastructure.config.ExecutionProperties;
+import com.vivo.crm.customer.infrastructure.config.PersistenceProperties;
+import com.vivo.crm.customer.infrastructure.config.StreamingProperties;
+import com.vivo.crm.customer.infrastructure.execution.BlockingExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Units of work against H2, counting the connections checked out of the DataSource
+ */
+@DataJpaTest(properties = "customer-service.persistence.unit-of-work.commit-slots=1")
+@Import({UnitOfWork.class, PersistenceProperties.class, BlockingExecutor.class, ExecutionProperties.class,
+        JpaReactiveCustomerRepository.class, CustomerStreamReader.class, StreamingProperties.class,
+        EntityPatcher.class, SimpleMeterRegistry.class, UnitOfWorkTest.CheckoutCounting.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UnitOfWorkTest {
+
+    private static final AtomicInteger CHECKOUTS = new AtomicInteger();
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JpaReactiveCustomerRepository reactiveCustomerRepository;
+
+    @Autowired
+    private UnitOfWork unitOfWork;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.save(Customer.builder().customerId("C-1").name("Ana").build());
+        CHECKOUTS.set(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void testMergeOfAChangedCustomerChecksOutOneConnection() {
+        Customer customer = customerRepository.findById("C-1").orElseThrow();
+        CHECKOUTS.set(0);
+        customer.suspend("fraud", "analyst");
+
+        // SELECT and UPDATE of the merge, one transaction on one connection
+        Customer saved = reactiveCustomerRepository.save(customer).block(Duration.ofSeconds(5));
+
+        assertEquals("SUSPENDED", saved.getStatus());
+        assertEquals(1, CHECKOUTS.get());
+        assertEquals("SUSPENDED", customerRepository.findById("C-1").orElseThrow().getStatus());
+    }
+
+    @Test
+    void testLoadThenSaveWithoutAUnitOfWorkChecksOutTwo() {
+        Customer customer = customerRepository.findById("C-1").orElseThrow();
+        customer.suspend("fraud", "analyst");
+        customerRepository.save(customer);
+
+        assertEquals(2, CHECKOUTS.get());
+    }
+
+    @Test
+    void testPatchChecksOutOneConnectionAndIsEmptyForAMissingCustomer() {
+        Customer patched = reactiveCustomerRepository.patch("C-1", Map.of("segment", "Gold"), null)
+                .block(Duration.ofSeconds(5));
+
+        assertEquals("Gold", patched.getSegment());
+        assertEquals(1, CHECKOUTS.get());
+        assertNull(reactiveCustomerRepository.patch("missing", Map.of("segment", "Gold"), null)
+                .block(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void testStatusUpdateIsOneStatementAtTheReadVersion() {
+        Customer read = customerRepository.findById("C-1").orElseThrow();
+        CHECKOUTS.set(0);
+        read.suspend("fraud", "analyst");
+
+        Customer updated = reactiveCustomerRepository.updateStatus(read).block(Duration.ofSeconds(5));
+
+        assertEquals(1, CHECKOUTS.get());
+        assertEquals(read.getVersion() + 1, updated.getVersion());
+        Customer reloaded = customerRepository.findById("C-1").orElseThrow();
+        assertEquals("SUSPENDED", reloaded.getStatus());
+        assertEquals("HIGH", reloaded.getRiskLevel());
+        assertEquals(updated.getVersion(), reloaded.getVersion());
+
+        // Written at a version that is no longer current: nothing changes
+        read.activate("agent");
+        assertNull(reactiveCustomerRepository.updateStatus(read).block(Duration.ofSeconds(5)));
+        assertEquals("SUSPENDED", customerRepository.findById("C-1").orElseThrow().getStatus());
+    }
+
+    @Test
+    void testQueuedWritesShareOneCommit() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Customer> first = runAsync(() -> {
+            holding.countDown();
+            await(release);
+            return customerRepository.save(Customer.builder().customerId("C-0").name("First").build());
+        });
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        // The only commit slot is taken: these queue up behind it
+        List<CompletableFuture<Customer>> queued = new ArrayList<>();
+        for (int i = 2; i <= 10; i++) {
+            String id = "C-" + i;
+            queued.add(runAsync(() -> customerRepository.save(Customer.builder().customerId(id).name(id).build())));
+        }
+        awaitPending(9);
+        release.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<Customer> write : queued) {
+            assertNotNull(write.get(5, TimeUnit.SECONDS).getCustomerId());
+        }
+        assertEquals(2, CHECKOUTS.get());
+        assertEquals(9.0, meterRegistry.get("customer.uow.batch.size").summary().max());
+        assertEquals(11, customerRepository.count());
+    }
+
+    @Test
+    void testFailingUnitDoesNotFailItsBatch() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Customer> first = runAsync(() -> {
+            holding.countDown();
+            await(release);
+            return null;
+        });
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Customer> ok1 = runAsync(() ->
+                customerRepository.save(Customer.builder().customerId("C-2").name("Bia").build()));
+        CompletableFuture<Customer> failing = runAsync(() -> {
+            customerRepository.save(Customer.builder().customerId("C-3").name("Caio").build());
+            throw new IllegalArgumentException("invalid");
+        });
+        CompletableFuture<Customer> ok2 = runAsync(() ->
+                customerRepository.save(Customer.builder().customerId("C-4").name("Duda").build()));
+        awaitPending(3);
+        release.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        assertNotNull(ok1.get(5, TimeUnit.SECONDS));
+        assertNotNull(ok2.get(5, TimeUnit.SECONDS));
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+        assertTrue(customerRepository.existsById("C-2"));
+        assertFalse(customerRepository.existsById("C-3"));
+        assertTrue(customerRepository.existsById("C-4"));
+    }
+
+    private <T> CompletableFuture<T> runAsync(Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Thread.ofVirtual().start(() -> {
+            try {
+                result.complete(unitOfWork.run(work));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private void awaitPending(int units) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("customer.uow.pending").gauge().value() < units) {
+            assertTrue(System.nanoTime() < deadline, "units never queued");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @TestConfiguration
+    static class CheckoutCounting {
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            CHECKOUTS.incrementAndGet();
+                            return super.getConnection();
+                        }
+                    } : bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.vivo.crm.customer.presentation.conditional;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerETagTest {
+
+    private final CustomerETag customerETag = new CustomerETag();
+
+    @Test
+    void testTagIsTheQuotedVersion() {
+        assertEquals("\"7\"", customerETag.of(Customer.builder().customerId("C-1").version(7L).build()));
+    }
+
+    @Test
+    void testIfNoneMatch() {
+        assertTrue(customerETag.isNotModified("\"7\"", 7));
+        assertTrue(customerETag.isNotModified("\"5\", W/\"7\"", 7));
+        assertTrue(customerETag.isNotModified("*", 7));
+        assertFalse(customerETag.isNotModified("\"6\"", 7));
+        assertFalse(customerETag.isNotModified("\"77\"", 7));
+    }
+
+    @Test
+    void testIfMatch() {
+        assertEquals(Optional.of(7L), customerETag.requiredVersion(" \"7\" "));
+        assertEquals(Optional.empty(), customerETag.requiredVersion("*"));
+        assertThrows(IllegalArgumentException.class, () -> customerETag.requiredVersion("W/\"7\""));
+        assertThrows(IllegalArgumentException.class, () -> customerETag.requiredVersion("\"6\", \"7\""));
+        assertThrows(IllegalArgumentException.class, () -> customerETag.requiredVersion("\"\""));
+    }
+}
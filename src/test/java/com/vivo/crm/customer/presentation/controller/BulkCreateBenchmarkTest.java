@@ -0,0 +1,107 @@
+package com.vivo.crm.customer.presentation.controller;
+
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import com.vivo.crm.customer.presentation.dto.BulkCreateResponseDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Customers created per second: POST /customers one at a time vs POST /customers/bulk
+ *
+ * Not part of the regular build: mvn test -Dtest=BulkCreateBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "customer-service.deadline.enabled=false",
+        "customer-service.execution.limiter.enabled=false"
+})
+class BulkCreateBenchmarkTest {
+
+    private static final int SINGLE = 2_000;
+    private static final int BULK = 50_000;
+    private static final int CONCURRENCY = 8;
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void compareSingleAndBulkInserts() {
+        // Warm up both paths (JIT, pools) before measuring
+        single(200);
+        bulk(2_000);
+        customerRepository.deleteAllInBatch();
+
+        double single = SINGLE / seconds(() -> single(SINGLE));
+        double bulk = BULK / seconds(() -> bulk(BULK));
+
+        System.out.printf("single %,10.0f customers/s%nbulk   %,10.0f customers/s (%.1fx)%n",
+                single, bulk, bulk / single);
+        assertEquals(SINGLE + BULK + 0L, customerRepository.count());
+        assertTrue(bulk >= 10 * single, "bulk " + bulk + "/s vs single " + single + "/s");
+    }
+
+    private void single(int customers) {
+        Flux.range(0, customers)
+                .flatMap(i -> Mono.fromRunnable(() -> client.post().uri("/api/v1/customers")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(customer(i))
+                                .exchange()
+                                .expectStatus().isCreated())
+                        .subscribeOn(Schedulers.boundedElastic()), CONCURRENCY)
+                .blockLast(Duration.ofMinutes(5));
+    }
+
+    private void bulk(int customers) {
+        String ndjson = IntStream.range(0, customers)
+                .mapToObj(i -> "{\"name\":\"Bulk " + i + "\",\"segment\":\"Premium\",\"email\":\"bulk" + i + "@vivo.com.br\"}")
+                .collect(Collectors.joining("\n"));
+        BulkCreateResponseDTO response = client.mutate()
+                .responseTimeout(Duration.ofMinutes(5))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+                .build()
+                .post().uri("/api/v1/customers/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(ndjson)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(BulkCreateResponseDTO.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(response);
+        assertEquals(customers, response.getCreated());
+    }
+
+    private static Map<String, Object> customer(int i) {
+        return Map.of("name", "Single " + i, "segment", "Premium", "email", "single" + i + "@vivo.com.br");
+    }
+
+    private static double seconds(Runnable run) {
+        long start = System.nanoTime();
+        run.run();
+        return (System.nanoTime() - start) / 1e9;
+    }
+}
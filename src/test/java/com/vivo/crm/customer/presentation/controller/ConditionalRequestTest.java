@@ -0,0 +1,106 @@
+package com.vivo.crm.customer.presentation.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ETag, If-None-Match and If-Match on the customer endpoints, over HTTP
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ConditionalRequestTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    void testIfNoneMatchOnTheCustomerApi() {
+        String id = create("/api/v1/customers", "\"0\"");
+        String uri = "/api/v1/customers/" + id;
+
+        client.get().uri(uri).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"");
+        client.get().uri(uri).header(HttpHeaders.IF_NONE_MATCH, "\"0\"").exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody().isEmpty();
+
+        client.put().uri(uri + "/suspend?reason=fraud").exchange().expectStatus().isOk();
+
+        client.get().uri(uri).header(HttpHeaders.IF_NONE_MATCH, "\"0\"").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+        client.get().uri("/api/v1/customers/missing").header(HttpHeaders.IF_NONE_MATCH, "\"0\"").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testIfMatchOnPut() {
+        String id = create("/api/v1/customers", "\"0\"");
+        String uri = "/api/v1/customers/" + id;
+        client.put().uri(uri + "/activate").exchange().expectStatus().isOk();
+
+        client.put().uri(uri).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("segment", "Premium"))
+                .exchange()
+                .expectStatus().isEqualTo(412);
+        client.put().uri(uri).header(HttpHeaders.IF_MATCH, "\"1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("segment", "Premium"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"2\"")
+                .expectBody().jsonPath("$.segment").isEqualTo("Premium");
+    }
+
+    @Test
+    void testConditionalRequestsOnTheTmf629Api() {
+        String id = create("/tmf-api/customer/v5/customer", "\"0\"");
+        String uri = "/tmf-api/customer/v5/customer/" + id;
+
+        client.get().uri(uri + "?fields=name").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"");
+        client.get().uri(uri).header(HttpHeaders.IF_NONE_MATCH, "W/\"0\"").exchange()
+                .expectStatus().isNotModified();
+
+        client.patch().uri(uri).header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("segment", "Premium"))
+                .exchange()
+                .expectStatus().isEqualTo(412);
+        client.patch().uri(uri).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("segment", "Premium"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+
+        client.get().uri(uri).header(HttpHeaders.IF_NONE_MATCH, "\"0\"").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+    }
+
+    private String create(String uri, String etag) {
+        Map<?, ?> created = client.post().uri(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("name", "Ana"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+                .expectBody(Map.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(created);
+        return String.valueOf(created.get("id"));
+    }
+}
@@ -0,0 +1,169 @@
+package com.vivo.crm.customer.presentation.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.blockhound.BlockHound;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives every REST endpoint over HTTP with BlockHound installed and fails if any request
+ * path blocks a Reactor Netty event-loop thread
+ *
+ * Runs only with the blockhound profile: mvn test -Pblockhound
+ */
+@Tag("blockhound")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class EventLoopBlockingTest {
+
+    private static final List<String> VIOLATIONS = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private WebTestClient client;
+
+    @BeforeAll
+    static void installBlockHound() {
+        BlockHound.install(builder -> builder
+                // Against Oracle every JDBC call waits on the network; in-memory H2 does not,
+                // so checking out a connection stands in for it
+                .markAsBlocking("com.zaxxer.hikari.HikariDataSource", "getConnection", "()Ljava/sql/Connection;")
+                // Console logging, not a request path concern
+                .allowBlockingCallsInside("ch.qos.logback.core.OutputStreamAppender", "writeBytes")
+                // Reads /dev/urandom, which never blocks
+                .allowBlockingCallsInside("java.util.UUID", "randomUUID")
+                // One-time native library load by the test client's HTTP decompressor
+                .allowBlockingCallsInside("io.netty.handler.codec.compression.Zstd", "<clinit>")
+                .blockingMethodCallback(method -> VIOLATIONS.add(method + " at " + callerFrames())));
+    }
+
+    @AfterEach
+    void assertNothingBlocked() {
+        List<String> violations = List.copyOf(VIOLATIONS);
+        VIOLATIONS.clear();
+        assertTrue(violations.isEmpty(), "Blocking calls on the event loop:\n" + String.join("\n", violations));
+    }
+
+    @Test
+    void testTmf629AndPartyRoleEndpoints() {
+        String id = created("/tmf-api/customer/v5/customer", Map.of("name", "Ana", "email", "ana@vivo.com.br"));
+
+        call(HttpMethod.GET, "/tmf-api/customer/v5/customer?status=ACTIVE&sort=-createdAt", null);
+        call(HttpMethod.GET, "/tmf-api/customer/v5/customer/" + id, null);
+        call(HttpMethod.GET, "/tmf-api/customer/v5/customer/" + id + "?fields=name,status", null);
+        call(HttpMethod.PATCH, "/tmf-api/customer/v5/customer/" + id, Map.of("status", "SUSPENDED"));
+        call(HttpMethod.GET, "/tmf-api/partyRoleManagement/v5/partyRole?limit=10", null);
+        call(HttpMethod.GET, "/tmf-api/partyRoleManagement/v5/partyRole/" + id, null);
+        call(HttpMethod.PATCH, "/tmf-api/partyRoleManagement/v5/partyRole/" + id, Map.of("status", "ACTIVE"));
+        call(HttpMethod.DELETE, "/tmf-api/partyRoleManagement/v5/partyRole/" + id, null);
+        call(HttpMethod.DELETE, "/tmf-api/customer/v5/customer/" + id, null);
+    }
+
+    @Test
+    void testPartyManagementEndpoints() {
+        String individual = created("/tmf-api/partyManagement/v5/individual",
+                Map.of("givenName", "Ana", "familyName", "Souza", "identificationType", "CPF",
+                        "identificationNumber", "12345678901"));
+        call(HttpMethod.GET, "/tmf-api/partyManagement/v5/individual", null);
+        call(HttpMethod.GET, "/tmf-api/partyManagement/v5/individual/" + individual, null);
+        call(HttpMethod.GET, "/tmf-api/partyManagement/v5/individual/identification/CPF/12345678901", null);
+        call(HttpMethod.GET, "/tmf-api/partyManagement/v5/individual/search?name=Ana", null);
+        call(HttpMethod.PATCH, "/tmf-api/partyManagement/v5/individual/" + individual, Map.of("title", "Sra"));
+        call(HttpMethod.DELETE, "/tmf-api/partyManagement/v5/individual/" + individual, null);
+
+        String organization = created("/tmf-api/partyManagement/v5/organization", Map.of("name", "Vivo"));
+        call(HttpMethod.GET, "/tmf-api/partyManagement/v5/organization?fields=name", null);
+        call(HttpMethod.GET, "/tmf-api/partyManagement/v5/organization/" + organization, null);
+        call(HttpMethod.GET, "/tmf-api/partyManagement/v5/organization/search?name=Vivo", null);
+        call(HttpMethod.GET, "/tmf-api/partyManagement/v5/organization/" + organization + "/children", null);
+        call(HttpMethod.PATCH, "/tmf-api/partyManagement/v5/organization/" + organization, Map.of("name", "Telefonica"));
+        call(HttpMethod.DELETE, "/tmf-api/partyManagement/v5/organization/" + organization, null);
+
+        String specification = created("/tmf-api/partyRoleManagement/v5/partyRoleSpecification", Map.of("name", "Customer"));
+        call(HttpMethod.GET, "/tmf-api/partyRoleManagement/v5/partyRoleSpecification", null);
+        call(HttpMethod.GET, "/tmf-api/partyRoleManagement/v5/partyRoleSpecification/" + specification, null);
+        call(HttpMethod.GET, "/tmf-api/partyRoleManagement/v5/partyRoleSpecification/active", null);
+        call(HttpMethod.PATCH, "/tmf-api/partyRoleManagement/v5/partyRoleSpecification/" + specification,
+                Map.of("description", "Customer role"));
+        call(HttpMethod.DELETE, "/tmf-api/partyRoleManagement/v5/partyRoleSpecification/" + specification, null);
+
+        String hub = created("/tmf-api/customer/v5/hub", Map.of("callback", "http://localhost/listener"));
+        call(HttpMethod.GET, "/tmf-api/customer/v5/hub/" + hub, null);
+        call(HttpMethod.DELETE, "/tmf-api/customer/v5/hub/" + hub, null);
+    }
+
+    @Test
+    void testCustomerApiEndpoints() {
+        String id = created("/api/v1/customers",
+                Map.of("name", "Bruno", "email", "bruno@vivo.com.br", "cpfCnpj", "98765432100", "segment", "Premium"));
+
+        call(HttpMethod.GET, "/api/v1/customers/" + id, null);
+        call(HttpMethod.GET, "/api/v1/customers/email/bruno@vivo.com.br", null);
+        call(HttpMethod.GET, "/api/v1/customers/cpf/98765432100", null);
+        call(HttpMethod.GET, "/api/v1/customers/search?name=Bruno", null);
+        call(HttpMethod.GET, "/api/v1/customers/status/ACTIVE", null);
+        call(HttpMethod.GET, "/api/v1/customers/scroll?status=ACTIVE", null);
+        call(HttpMethod.GET, "/api/v1/customers/export", null);
+        call(HttpMethod.GET, "/api/v1/customers/risk/high/active", null);
+        call(HttpMethod.GET, "/api/v1/customers/count/status/ACTIVE", null);
+        call(HttpMethod.POST, "/api/v1/customers/bulk", List.of(Map.of("name", "Carla"), Map.of("name", "Davi")));
+        call(HttpMethod.POST, "/api/v1/customers/bulk/suspend", Map.of("ids", List.of(id), "reason", "fraud"));
+        call(HttpMethod.POST, "/api/v1/customers/bulk/activate", Map.of("status", "SUSPENDED"));
+        call(HttpMethod.PUT, "/api/v1/customers/" + id + "/suspend?reason=fraud", null);
+        call(HttpMethod.PUT, "/api/v1/customers/" + id + "/activate", null);
+        call(HttpMethod.DELETE, "/api/v1/customers/" + id, null);
+    }
+
+    private String created(String uri, Map<String, Object> body) {
+        Map<?, ?> response = client.post().uri(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Map.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(response);
+        return String.valueOf(response.get("id"));
+    }
+
+    private void call(HttpMethod method, String uri, Object body) {
+        WebTestClient.RequestBodySpec request = client.method(method).uri(uri);
+        (body == null ? request : request.contentType(MediaType.APPLICATION_JSON).bodyValue(body))
+                .exchange()
+                .expectBody().returnResult();
+    }
+
+    /**
+     * Code that made the blocking call: the innermost frames outside the JDK and BlockHound,
+     * and the innermost application frame
+     */
+    private static String callerFrames() {
+        List<StackTraceElement> frames = Arrays.stream(new Throwable().getStackTrace())
+                .filter(frame -> !frame.getClassName().equals(EventLoopBlockingTest.class.getName()))
+                .filter(frame -> !frame.getClassName().startsWith("reactor.blockhound."))
+                .filter(frame -> !frame.getClassName().matches("(java|javax|jdk|sun)\\..*"))
+                .toList();
+        String caller = frames.stream()
+                .limit(2)
+                .map(StackTraceElement::toString)
+                .collect(Collectors.joining(" <- "));
+        return frames.stream()
+                .filter(frame -> frame.getClassName().startsWith("com.vivo.crm"))
+                .findFirst()
+                .map(frame -> caller + " ... " + frame)
+                .orElse(caller);
+    }
+}
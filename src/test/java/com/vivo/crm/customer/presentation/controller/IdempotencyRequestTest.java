@@ -0,0 +1,101 @@
+package com.vivo.crm.customer.presentation.controller;
+
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Idempotency-Key on the creation endpoints, over HTTP, with the shared table
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "customer-service.idempotency.table.enabled=true",
+        "customer-service.idempotency.wait-timeout=300ms"})
+class IdempotencyRequestTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Not a JPA entity, so not created by ddl-auto (see V6__idempotency_key.sql)
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS idempotency_key (idempotency_key VARCHAR(512) PRIMARY KEY,"
+                + " fingerprint VARCHAR(64) NOT NULL, status INT, headers VARCHAR(2000), body BLOB,"
+                + " expires_at TIMESTAMP NOT NULL)");
+    }
+
+    @Test
+    void testRetriedCreationsReturnTheFirstCustomer() {
+        for (String uri : new String[]{"/api/v1/customers", "/tmf-api/customer/v5/customer"}) {
+            long before = customerRepository.count();
+            String key = "retry-" + uri.hashCode();
+
+            String first = create(uri, key);
+            String retried = client.post().uri(uri).header("Idempotency-Key", key)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("name", "Ana"))
+                    .exchange()
+                    .expectStatus().isCreated()
+                    .expectHeader().valueEquals("Idempotent-Replayed", "true")
+                    .expectHeader().valueEquals("ETag", "\"0\"")
+                    .expectBody(Map.class).returnResult().getResponseBody().get("id").toString();
+
+            assertEquals(first, retried);
+            assertEquals(before + 1, customerRepository.count());
+            assertEquals(201, jdbcTemplate.queryForObject(
+                    "SELECT status FROM idempotency_key WHERE idempotency_key = ?", Integer.class, uri + " " + key));
+        }
+    }
+
+    @Test
+    void testKeysAnsweredOrRunningOnAnotherNode() {
+        Timestamp expiresAt = Timestamp.from(Instant.now().plus(1, ChronoUnit.HOURS));
+        jdbcTemplate.update("INSERT INTO idempotency_key (idempotency_key, fingerprint, status, headers, body, expires_at)"
+                + " VALUES (?, 'another-request', 201, '{}', ?, ?)", "/api/v1/customers answered", new byte[0], expiresAt);
+        jdbcTemplate.update("INSERT INTO idempotency_key (idempotency_key, fingerprint, expires_at) VALUES (?, 'x', ?)",
+                "/api/v1/customers running", expiresAt);
+        long before = customerRepository.count();
+
+        post("answered").expectStatus().isEqualTo(422);
+        post("running").expectStatus().isEqualTo(409);
+
+        assertEquals(before, customerRepository.count());
+    }
+
+    private WebTestClient.ResponseSpec post(String key) {
+        return client.post().uri("/api/v1/customers").header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("name", "Ana"))
+                .exchange();
+    }
+
+    private String create(String uri, String key) {
+        Map<?, ?> created = client.post().uri(uri).header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("name", "Ana"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Map.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(created);
+        return String.valueOf(created.get("id"));
+    }
+}
@@ -0,0 +1,104 @@
+package com.vivo.crm.customer.presentation.controller;
+
+import com.vivo.crm.customer.domain.model.Customer;
+import com.vivo.crm.customer.domain.repository.CustomerRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Keyset scrolling over HTTP: following the opaque next cursor, without count queries
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.vivo.crm.customer.presentation.controller.ScrollRequestTest$SqlRecorder")
+class ScrollRequestTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    void testFollowingNextVisitsEveryCustomerOnceWithoutCounting() {
+        String segment = "Scroll-" + UUID.randomUUID();
+        String prefix = segment + "-";
+        customerRepository.saveAll(List.of(
+                customer(prefix + "3", segment), customer(prefix + "1", segment), customer(prefix + "5", segment),
+                customer(prefix + "2", segment), customer(prefix + "4", segment)));
+        SqlRecorder.STATEMENTS.clear();
+
+        List<String> visited = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String next = null;
+        do {
+            Map<?, ?> page = next == null
+                    ? scroll("/api/v1/customers/scroll?segment={segment}&limit=2", segment)
+                    : scroll("/api/v1/customers/scroll?segment={segment}&limit=2&cursor={cursor}", segment, next);
+            List<?> items = (List<?>) page.get("items");
+            items.forEach(item -> visited.add((String) ((Map<?, ?>) item).get("id")));
+            pageSizes.add(items.size());
+            next = (String) page.get("next");
+        } while (next != null && pageSizes.size() < 10);
+
+        assertEquals(List.of(prefix + "1", prefix + "2", prefix + "3", prefix + "4", prefix + "5"), visited);
+        assertEquals(List.of(2, 2, 1), pageSizes);
+        assertFalse(SqlRecorder.STATEMENTS.isEmpty());
+        assertTrue(SqlRecorder.STATEMENTS.stream().noneMatch(sql -> sql.toLowerCase().contains("count(")),
+                () -> "count query issued: " + SqlRecorder.STATEMENTS);
+    }
+
+    @Test
+    void testCursorIsBoundToItsFilters() {
+        String segment = "Scroll-" + UUID.randomUUID();
+        customerRepository.saveAll(List.of(customer(segment + "-1", segment), customer(segment + "-2", segment)));
+        String next = (String) scroll("/api/v1/customers/scroll?segment={segment}&limit=1", segment).get("next");
+        assertNotNull(next);
+
+        client.get().uri("/api/v1/customers/scroll?segment={segment}&limit=1&cursor={cursor}", "Basic", next)
+                .exchange()
+                .expectStatus().isBadRequest();
+        client.get().uri("/api/v1/customers/scroll?segment={segment}&limit=1&cursor={cursor}", segment, "garbage")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private Map<?, ?> scroll(String uri, Object... variables) {
+        return client.get().uri(uri, variables)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private static Customer customer(String id, String segment) {
+        return Customer.builder().customerId(id).name(id).segment(segment).build();
+    }
+
+    /**
+     * Records every SQL statement Hibernate prepares
+     */
+    public static class SqlRecorder implements StatementInspector {
+
+        static final Queue<String> STATEMENTS = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.vivo.crm.customer.presentation.filter;
+
+import com.vivo.crm.customer.infrastructure.config.DeadlineProperties;
+import com.vivo.crm.customer.infrastructure.execution.Deadline;
+import com.vivo.crm.customer.infrastructure.execution.DeadlineExceededException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineFilterTest {
+
+    private final DeadlineProperties properties = new DeadlineProperties();
+
+    @Test
+    void testHeaderSetsTheDeadline() {
+        Optional<Deadline> deadline = deadlineOf(MockServerHttpRequest.get("/api/v1/customers/C-1")
+                .header("X-Request-Timeout", "2000"));
+
+        Duration remaining = deadline.orElseThrow().remaining();
+        assertTrue(remaining.compareTo(Duration.ofMillis(2000)) <= 0 && remaining.compareTo(Duration.ofMillis(1000)) > 0,
+                remaining.toString());
+    }
+
+    @Test
+    void testHeaderIsCappedAtTheMaximum() {
+        properties.setMaxTimeout(Duration.ofSeconds(1));
+
+        Optional<Deadline> deadline = deadlineOf(MockServerHttpRequest.get("/api/v1/customers/C-1")
+                .header("X-Request-Timeout", "600000"));
+
+        assertTrue(deadline.orElseThrow().remaining().compareTo(Duration.ofSeconds(1)) <= 0);
+    }
+
+    @Test
+    void testEndpointTimeoutAndDefault() {
+        properties.getEndpoints().put("/api/v1/customers/export", Duration.ZERO);
+        properties.getEndpoints().put("/api/v1/customers/status/*", Duration.ofSeconds(30));
+
+        assertTrue(deadlineOf(MockServerHttpRequest.get("/api/v1/customers/export")).isEmpty());
+        assertTrue(deadlineOf(MockServerHttpRequest.get("/api/v1/customers/status/ACTIVE")).orElseThrow()
+                .remaining().compareTo(Duration.ofSeconds(20)) > 0);
+        assertTrue(deadlineOf(MockServerHttpRequest.get("/api/v1/customers/C-1")).orElseThrow()
+                .remaining().compareTo(Duration.ofSeconds(10)) <= 0);
+    }
+
+    @Test
+    void testMissedDeadlineAnswers504() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/customers/C-1")
+                .header("X-Request-Timeout", "50"));
+
+        new DeadlineFilter(properties).filter(exchange, e -> Mono.never()).block(Duration.ofSeconds(5));
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    void testDeadlineExceededBeforeTheCallAnswers504() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/customers/C-1"));
+
+        new DeadlineFilter(properties).filter(exchange, e -> Mono.error(new DeadlineExceededException("lookup")))
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, exchange.getResponse().getStatusCode());
+    }
+
+    private Optional<Deadline> deadlineOf(MockServerHttpRequest.BaseBuilder<?> request) {
+        AtomicReference<Optional<Deadline>> deadline = new AtomicReference<>();
+        WebFilterChain chain = exchange -> Mono.deferContextual(context -> {
+            deadline.set(Deadline.from(context));
+            return Mono.empty();
+        });
+        new DeadlineFilter(properties).filter(MockServerWebExchange.from(request), chain).block(Duration.ofSeconds(5));
+        return deadline.get();
+    }
+}
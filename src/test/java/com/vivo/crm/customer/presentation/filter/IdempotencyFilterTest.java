@@ -0,0 +1,163 @@
+package com.vivo.crm.customer.presentation.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vivo.crm.customer.infrastructure.config.IdempotencyProperties;
+import com.vivo.crm.customer.infrastructure.idempotency.IdempotencyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Idempotency keys with the in-memory store
+ */
+class IdempotencyFilterTest {
+
+    private final IdempotencyProperties properties = new IdempotencyProperties();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    private HttpStatus status = HttpStatus.CREATED;
+
+    private Mono<Void> gate = Mono.empty();
+
+    @Test
+    void testRepeatedKeyReplaysTheFirstResponse() {
+        IdempotencyFilter filter = filter();
+
+        MockServerWebExchange first = post(filter, "/api/v1/customers", "k-1", "{\"name\":\"Ana\"}");
+        MockServerWebExchange retry = post(filter, "/api/v1/customers", "k-1", "{\"name\":\"Ana\"}");
+
+        assertEquals(1, created.get());
+        assertEquals(HttpStatus.CREATED, retry.getResponse().getStatusCode());
+        assertEquals(first.getResponse().getBodyAsString().block(), retry.getResponse().getBodyAsString().block());
+        assertEquals("\"0\"", retry.getResponse().getHeaders().getETag());
+        assertEquals("true", retry.getResponse().getHeaders().getFirst(IdempotencyFilter.REPLAYED));
+        assertNull(first.getResponse().getHeaders().getFirst(IdempotencyFilter.REPLAYED));
+    }
+
+    @Test
+    void testKeysAreScopedToTheEndpointAndTheRequest() {
+        IdempotencyFilter filter = filter();
+        post(filter, "/api/v1/customers", "k-1", "{\"name\":\"Ana\"}");
+
+        MockServerWebExchange other = post(filter, "/api/v1/customers", "k-1", "{\"name\":\"Bruno\"}");
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, other.getResponse().getStatusCode());
+
+        post(filter, "/tmf-api/customer/v5/customer", "k-1", "{\"name\":\"Ana\"}");
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    void testRequestsWithoutKeyOrElsewhereAlwaysRun() {
+        IdempotencyFilter filter = filter();
+
+        post(filter, "/api/v1/customers", null, "{}");
+        post(filter, "/api/v1/customers", null, "{}");
+        post(filter, "/api/v1/customers/bulk", "k-1", "{}");
+        post(filter, "/api/v1/customers/bulk", "k-1", "{}");
+
+        assertEquals(4, created.get());
+        assertEquals(HttpStatus.BAD_REQUEST, post(filter, "/api/v1/customers", " ", "{}").getResponse().getStatusCode());
+    }
+
+    @Test
+    void testServerErrorsAreNotReplayed() {
+        IdempotencyFilter filter = filter();
+        status = HttpStatus.INTERNAL_SERVER_ERROR;
+        post(filter, "/api/v1/customers", "k-1", "{}");
+
+        status = HttpStatus.CREATED;
+        MockServerWebExchange retry = post(filter, "/api/v1/customers", "k-1", "{}");
+
+        assertEquals(2, created.get());
+        assertEquals(HttpStatus.CREATED, retry.getResponse().getStatusCode());
+    }
+
+    @Test
+    void testConcurrentDuplicateWaitsForTheFirst() {
+        IdempotencyFilter filter = filter();
+        Sinks.Empty<Void> release = Sinks.empty();
+        gate = release.asMono();
+
+        MockServerWebExchange first = exchange("/api/v1/customers", "k-1", "{}");
+        MockServerWebExchange duplicate = exchange("/api/v1/customers", "k-1", "{}");
+        Mono<Void> running = filter.filter(first, this::create).cache();
+        running.subscribe();
+        Mono<Void> waiting = filter.filter(duplicate, this::create).cache();
+        waiting.subscribe();
+
+        assertNull(duplicate.getResponse().getStatusCode());
+        release.tryEmitEmpty();
+        running.block(Duration.ofSeconds(5));
+        waiting.block(Duration.ofSeconds(5));
+
+        assertEquals(1, created.get());
+        assertEquals(HttpStatus.CREATED, duplicate.getResponse().getStatusCode());
+        assertEquals("true", duplicate.getResponse().getHeaders().getFirst(IdempotencyFilter.REPLAYED));
+        assertEquals(1.0, meterRegistry.counter("customer.idempotency.requests", "outcome", "joined").count());
+    }
+
+    @Test
+    void testDuplicateGivesUpAfterTheWaitTimeout() {
+        properties.setWaitTimeout(Duration.ofMillis(50));
+        IdempotencyFilter filter = filter();
+        gate = Mono.never();
+
+        filter.filter(exchange("/api/v1/customers", "k-1", "{}"), this::create).subscribe();
+        MockServerWebExchange duplicate = post(filter, "/api/v1/customers", "k-1", "{}");
+
+        assertEquals(HttpStatus.CONFLICT, duplicate.getResponse().getStatusCode());
+    }
+
+    private IdempotencyFilter filter() {
+        IdempotencyStore store = new IdempotencyStore(properties, null, null, new ObjectMapper(), meterRegistry);
+        return new IdempotencyFilter(properties, store, meterRegistry);
+    }
+
+    /**
+     * Stands in for the controller: reads the body, then answers with a new id
+     */
+    private Mono<Void> create(ServerWebExchange exchange) {
+        return DataBufferUtils.join(exchange.getRequest().getBody())
+                .then(gate)
+                .then(Mono.defer(() -> {
+                    int id = created.incrementAndGet();
+                    exchange.getResponse().setStatusCode(status);
+                    exchange.getResponse().getHeaders().setETag("\"0\"");
+                    byte[] body = ("{\"id\":\"C-" + id + "\"}").getBytes(StandardCharsets.UTF_8);
+                    return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+                }));
+    }
+
+    private MockServerWebExchange post(IdempotencyFilter filter, String path, String key, String body) {
+        MockServerWebExchange exchange = exchange(path, key, body);
+        WebFilterChain chain = this::create;
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+        return exchange;
+    }
+
+    private static MockServerWebExchange exchange(String path, String key, String body) {
+        MockServerHttpRequest.BodyBuilder request = MockServerHttpRequest.post(path)
+                .header(HttpHeaders.CONTENT_TYPE, "application/json");
+        if (key != null) {
+            request.header("Idempotency-Key", key);
+        }
+        return MockServerWebExchange.from(request.body(body));
+    }
+}
@@ -0,0 +1,33 @@
+package com.vivo.crm.customer.presentation.negotiation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AcceptEncodingTest {
+
+    @Test
+    void testListedCodingIsAccepted() {
+        assertTrue(AcceptEncoding.accepts("gzip", "gzip"));
+        assertTrue(AcceptEncoding.accepts("deflate, GZIP;q=0.5", "gzip"));
+        assertFalse(AcceptEncoding.accepts("deflate, br", "gzip"));
+        assertFalse(AcceptEncoding.accepts(null, "gzip"));
+        assertFalse(AcceptEncoding.accepts("", "gzip"));
+    }
+
+    @Test
+    void testZeroQvalueRefusesTheCoding() {
+        assertFalse(AcceptEncoding.accepts("gzip;q=0", "gzip"));
+        assertFalse(AcceptEncoding.accepts("br, gzip ; q=0.000", "gzip"));
+        assertFalse(AcceptEncoding.accepts("gzip;q=oops", "gzip"));
+    }
+
+    @Test
+    void testWildcardAppliesOnlyToCodingsNotListed() {
+        assertTrue(AcceptEncoding.accepts("*", "gzip"));
+        assertTrue(AcceptEncoding.accepts("br, *;q=0.1", "gzip"));
+        assertFalse(AcceptEncoding.accepts("*;q=0", "gzip"));
+        assertFalse(AcceptEncoding.accepts("*, gzip;q=0", "gzip"));
+        assertTrue(AcceptEncoding.accepts("*;q=0, gzip", "gzip"));
+    }
+}
@@ -0,0 +1,39 @@
+package com.vivo.crm.customer.presentation.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorCodecTest {
+
+    private final CursorCodec cursorCodec = new CursorCodec();
+
+    @Test
+    void testRoundTrip() {
+        String cursor = cursorCodec.encode("cust-0042", "ACTIVE", "Premium", null);
+
+        assertFalse(cursor.contains("cust-0042"));
+        assertEquals("cust-0042", cursorCodec.decode(cursor, "ACTIVE", "Premium", null));
+    }
+
+    @Test
+    void testCustomerIdWithSeparator() {
+        String cursor = cursorCodec.encode("a:b:c", "ACTIVE", null, null);
+
+        assertEquals("a:b:c", cursorCodec.decode(cursor, "ACTIVE", null, null));
+    }
+
+    @Test
+    void testRejectsCursorFromOtherFilters() {
+        String cursor = cursorCodec.encode("cust-0042", "ACTIVE", null, null);
+
+        assertThrows(IllegalArgumentException.class, () -> cursorCodec.decode(cursor, "SUSPENDED", null, null));
+        assertThrows(IllegalArgumentException.class, () -> cursorCodec.decode(cursor, null, "ACTIVE", null));
+    }
+
+    @Test
+    void testRejectsGarbage() {
+        assertThrows(IllegalArgumentException.class, () -> cursorCodec.decode("not a cursor!", "ACTIVE"));
+        assertThrows(IllegalArgumentException.class, () -> cursorCodec.decode("djE6", "ACTIVE"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.vivo.crm.customer.presentation.query;
+
+import com.vivo.crm.customer.infrastructure.persistence.FilterCondition;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.List;
+
+import static com.vivo.crm.customer.infrastructure.persistence.FilterCondition.Operator.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TmfFilterTest {
+
+    @Test
+    void testOperatorsAndCommaSeparatedValues() {
+        TmfFilter filter = TmfFilter.parse(params("status", "ACTIVE,SUSPENDED", "creditScore.gt", "700",
+                "fields", "name", "limit", "10"));
+
+        assertEquals(List.of(
+                new FilterCondition("status", EQ, List.of("ACTIVE", "SUSPENDED")),
+                new FilterCondition("creditScore", GT, List.of("700"))), filter.getConditions());
+    }
+
+    @Test
+    void testRepeatedEqualityParametersMatchAnyValue() {
+        TmfFilter filter = TmfFilter.parse(params("status", "ACTIVE", "status", "SUSPENDED",
+                "status.eq", "INACTIVE,ACTIVE", "segment.ne", "Basic", "segment.ne", "Gold"));
+
+        assertEquals(List.of(
+                new FilterCondition("status", EQ, List.of("ACTIVE", "SUSPENDED", "INACTIVE")),
+                new FilterCondition("segment", NE, List.of("Basic", "Gold"))), filter.getConditions());
+    }
+
+    @Test
+    void testRepeatedRangeParametersAllApply() {
+        TmfFilter filter = TmfFilter.parse(params("creditScore.gt", "600", "creditScore.gt", "650",
+                "creditScore.lt", "800"));
+
+        assertEquals(List.of(
+                new FilterCondition("creditScore", GT, List.of("600")),
+                new FilterCondition("creditScore", GT, List.of("650")),
+                new FilterCondition("creditScore", LT, List.of("800"))), filter.getConditions());
+    }
+
+    @Test
+    void testSort() {
+        TmfFilter filter = TmfFilter.parse(params("sort", "-createdAt,+name,id"));
+
+        assertTrue(filter.getConditions().isEmpty());
+        assertEquals(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.asc("name"), Sort.Order.asc("id")),
+                filter.getSort());
+        assertTrue(TmfFilter.parse(params("fields", "name", "offset", "0")).isNone());
+    }
+
+    private static MultiValueMap<String, String> params(String... namesAndValues) {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            params.add(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return params;
+    }
+}